@@ -0,0 +1,91 @@
+package com.flux.servicecenter.client.internal;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 请求关联方案基准测试
+ * 
+ * <p>对比双向流请求-响应关联的两种方案（生成请求ID + 登记 + 按响应ID取回）：</p>
+ * <ul>
+ *   <li><b>uuidConcurrentHashMap</b>：原方案，{@code UUID.randomUUID().toString()} + {@code ConcurrentHashMap<String, CompletableFuture>}</li>
+ *   <li><b>sequencePendingTable</b>：新方案，单调递增序号 + {@link RequestIdCodec} + {@link PendingRequestTable}</li>
+ * </ul>
+ * 
+ * <p>运行方式：</p>
+ * <pre>
+ * mvn -Pbenchmark test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=com.flux.servicecenter.client.internal.RequestCorrelationBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+public class RequestCorrelationBenchmark {
+    
+    /** 表中常驻的在途请求数量，模拟高并发时的表规模 */
+    @Param({"0", "10000"})
+    public int inFlight;
+    
+    private final CompletableFuture<Object> future = new CompletableFuture<>();
+    private final String clientId = UUID.randomUUID().toString();
+    
+    private Map<String, CompletableFuture<Object>> uuidTable;
+    private PendingRequestTable<CompletableFuture<Object>> sequenceTable;
+    private AtomicLong sequence;
+    
+    @Setup
+    public void setUp() {
+        uuidTable = new ConcurrentHashMap<>();
+        sequenceTable = new PendingRequestTable<>(16);
+        sequence = new AtomicLong();
+        for (int i = 0; i < inFlight; i++) {
+            uuidTable.put(UUID.randomUUID().toString(), future);
+            sequenceTable.put(sequence.incrementAndGet(), future);
+        }
+    }
+    
+    @Benchmark
+    public Object uuidConcurrentHashMap() {
+        String requestId = UUID.randomUUID().toString();
+        uuidTable.put(requestId, future);
+        return uuidTable.remove(requestId);
+    }
+    
+    @Benchmark
+    public Object sequencePendingTable() {
+        long id = sequence.incrementAndGet();
+        String requestId = RequestIdCodec.encode(id, null);
+        sequenceTable.put(id, future);
+        return sequenceTable.remove(RequestIdCodec.decode(requestId));
+    }
+    
+    @Benchmark
+    public Object sequencePendingTablePrefixed() {
+        long id = sequence.incrementAndGet();
+        String requestId = RequestIdCodec.encode(id, clientId);
+        sequenceTable.put(id, future);
+        return sequenceTable.remove(RequestIdCodec.decode(requestId));
+    }
+    
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(RequestCorrelationBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
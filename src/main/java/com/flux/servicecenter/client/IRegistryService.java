@@ -227,6 +227,10 @@ public interface IRegistryService {
      * <p>查询指定服务的详细信息，包括服务元数据和所有节点列表。
      * 结果包含所有节点（健康和不健康），可通过业务逻辑过滤健康节点。</p>
      * 
+     * <p>已订阅服务可能直接由本地缓存返回：每次调用都返回新的结果对象和新的节点列表，可以修改；
+     * 但其中的 {@link NodeInfo} 和 {@link ServiceInfo}
+     * 与缓存共享，需要修改时请先复制。</p>
+     * 
      * <p><b>使用示例：</b></p>
      * <pre>{@code
      * GetServiceResult result = client.getService("my-namespace", "DEFAULT_GROUP", "user-service");
@@ -0,0 +1,204 @@
+package com.flux.servicecenter.client;
+
+import com.flux.servicecenter.model.*;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Flux Service Center 异步客户端接口
+ * 
+ * <p>为所有请求-响应类操作提供基于 {@link CompletableFuture} 的非阻塞版本。
+ * 调用方线程不会被占用，请求的响应或超时由双向流直接完成 Future，
+ * 适合在高并发场景下同时发起大量请求。</p>
+ * 
+ * <p><b>异常语义：</b></p>
+ * <ul>
+ *   <li>客户端未连接时，返回以 {@link IllegalStateException} 完成的 Future</li>
+ *   <li>请求超时（{@code requestTimeout}）时，返回以 {@link java.util.concurrent.TimeoutException} 完成的 Future</li>
+ *   <li>在途请求达到上限且准入策略为 REJECT（或排队已满）时，返回以
+ *       {@link java.util.concurrent.RejectedExecutionException} 完成的 Future</li>
+ *   <li>服务端返回的业务失败不会以异常完成，而是体现在结果对象的 {@code success=false} 中</li>
+ * </ul>
+ * 
+ * <p><b>线程模型：</b>Future 在 gRPC 回调线程中完成。回调中如有阻塞或耗时操作，
+ * 请使用 {@code thenApplyAsync}/{@code thenAcceptAsync} 等方法切换到业务线程池。</p>
+ * 
+ * <p><b>使用示例：</b></p>
+ * <pre>{@code
+ * IServiceCenterClientAsync client = new StreamBasedServiceCenterClient(config);
+ * 
+ * client.getConfigAsync("my-namespace", "my-group", "app-config")
+ *     .thenAccept(result -> System.out.println("配置内容: " + result.getConfig().getConfigContent()))
+ *     .exceptionally(e -> {
+ *         System.err.println("获取配置失败: " + e.getMessage());
+ *         return null;
+ *     });
+ * }</pre>
+ * 
+ * @author shangjian
+ * @version 2.0.0
+ * @see StreamBasedServiceCenterClient
+ */
+public interface IServiceCenterClientAsync {
+    
+    // ========================================
+    // 连接管理
+    // ========================================
+    
+    /**
+     * 异步连接到服务中心
+     * 
+     * <p>发送握手后立即返回，不阻塞调用线程，适合在应用启动时与其他初始化工作并行执行。
+     * 握手超时时间由 {@code handshakeTimeout} 配置。</p>
+     * 
+     * @return 握手成功后以 connectionId 完成的 Future；握手失败或超时时以异常完成
+     * @see IServiceCenterClient#connect()
+     */
+    CompletableFuture<String> connectAsync();
+    
+    // ========================================
+    // 服务注册发现
+    // ========================================
+    
+    /**
+     * 异步注册服务（可同时注册一个节点）
+     * 
+     * @param serviceInfo 服务信息
+     * @param nodeInfo 节点信息，可为 null
+     * @return 注册结果的 Future
+     * @see IRegistryService#registerService(ServiceInfo, NodeInfo)
+     */
+    CompletableFuture<RegisterServiceResult> registerServiceAsync(ServiceInfo serviceInfo, NodeInfo nodeInfo);
+    
+    /**
+     * 异步注销服务或服务下的指定节点
+     * 
+     * @param namespaceId 命名空间ID
+     * @param groupName 分组名称
+     * @param serviceName 服务名称
+     * @param nodeId 节点ID，为空时注销整个服务
+     * @return 操作结果的 Future
+     */
+    CompletableFuture<OperationResult> unregisterServiceAsync(String namespaceId, String groupName, String serviceName, String nodeId);
+    
+    /**
+     * 异步注册节点
+     * 
+     * @param nodeInfo 节点信息
+     * @return 注册结果的 Future
+     * @see IRegistryService#registerNode(NodeInfo)
+     */
+    CompletableFuture<RegisterNodeResult> registerNodeAsync(NodeInfo nodeInfo);
+    
+    /**
+     * 异步注销节点
+     * 
+     * @param nodeId 节点ID
+     * @return 操作结果的 Future
+     * @see IRegistryService#unregisterNode(String)
+     */
+    CompletableFuture<OperationResult> unregisterNodeAsync(String nodeId);
+    
+    /**
+     * 异步获取服务信息
+     * 
+     * @param namespaceId 命名空间ID
+     * @param groupName 分组名称
+     * @param serviceName 服务名称
+     * @return 服务信息的 Future
+     * @see IRegistryService#getService(String, String, String)
+     */
+    CompletableFuture<GetServiceResult> getServiceAsync(String namespaceId, String groupName, String serviceName);
+    
+    /**
+     * 异步发现服务节点
+     * 
+     * @param namespaceId 命名空间ID
+     * @param groupName 分组名称
+     * @param serviceName 服务名称
+     * @param healthyOnly 是否只返回健康节点
+     * @return 节点列表的 Future；服务端返回失败时为空列表
+     */
+    CompletableFuture<List<NodeInfo>> discoverNodesAsync(String namespaceId, String groupName, String serviceName, boolean healthyOnly);
+    
+    /**
+     * 异步发送节点心跳
+     * 
+     * @param nodeId 节点ID
+     * @return 操作结果的 Future
+     * @see IRegistryService#sendHeartbeat(String)
+     */
+    CompletableFuture<OperationResult> sendHeartbeatAsync(String nodeId);
+    
+    // ========================================
+    // 配置中心
+    // ========================================
+    
+    /**
+     * 异步获取配置
+     * 
+     * @param namespaceId 命名空间ID
+     * @param groupName 分组名称
+     * @param configDataId 配置ID
+     * @return 配置结果的 Future
+     * @see IConfigService#getConfig(String, String, String)
+     */
+    CompletableFuture<GetConfigResult> getConfigAsync(String namespaceId, String groupName, String configDataId);
+    
+    /**
+     * 异步保存配置
+     * 
+     * @param configInfo 配置信息
+     * @return 保存结果的 Future
+     * @see IConfigService#saveConfig(ConfigInfo)
+     */
+    CompletableFuture<SaveConfigResult> saveConfigAsync(ConfigInfo configInfo);
+    
+    /**
+     * 异步删除配置
+     * 
+     * @param namespaceId 命名空间ID
+     * @param groupName 分组名称
+     * @param configDataId 配置ID
+     * @return 操作结果的 Future
+     * @see IConfigService#deleteConfig(String, String, String)
+     */
+    CompletableFuture<OperationResult> deleteConfigAsync(String namespaceId, String groupName, String configDataId);
+    
+    /**
+     * 异步查询配置列表
+     * 
+     * @param namespaceId 命名空间ID
+     * @param groupName 分组名称
+     * @param searchKey 搜索关键字
+     * @param pageNum 页码
+     * @param pageSize 每页数量
+     * @return 配置列表的 Future；服务端返回失败时为空列表
+     */
+    CompletableFuture<List<ConfigInfo>> listConfigsAsync(String namespaceId, String groupName, String searchKey, int pageNum, int pageSize);
+    
+    /**
+     * 异步查询配置历史
+     * 
+     * @param namespaceId 命名空间ID
+     * @param groupName 分组名称
+     * @param configDataId 配置ID
+     * @param pageNum 页码
+     * @param pageSize 每页数量
+     * @return 配置历史列表的 Future；服务端返回失败时为空列表
+     */
+    CompletableFuture<List<ConfigHistory>> getConfigHistoryAsync(String namespaceId, String groupName, String configDataId, int pageNum, int pageSize);
+    
+    /**
+     * 异步回滚配置
+     * 
+     * @param namespaceId 命名空间ID
+     * @param groupName 分组名称
+     * @param configDataId 配置ID
+     * @param historyId 历史记录ID（目标版本号）
+     * @return 回滚结果的 Future；historyId 非法时以 {@link IllegalArgumentException} 完成
+     * @see IConfigService#rollbackConfig(String, String, String, String)
+     */
+    CompletableFuture<RollbackConfigResult> rollbackConfigAsync(String namespaceId, String groupName, String configDataId, String historyId);
+}
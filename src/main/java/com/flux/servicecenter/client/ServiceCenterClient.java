@@ -141,7 +141,7 @@ public class ServiceCenterClient implements IServiceCenterClient {
         this.serviceRegistryManager = new ServiceRegistryManager(
                 config, connectionManager, heartbeatExecutor, subscriptionExecutor);
         this.configCenterManager = new ConfigCenterManager(
-                config, connectionManager, subscriptionExecutor);
+                config, connectionManager, heartbeatExecutor);
     }
     
     /**
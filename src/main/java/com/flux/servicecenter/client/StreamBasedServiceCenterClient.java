@@ -1,32 +1,49 @@
 package com.flux.servicecenter.client;
 
+import com.flux.servicecenter.client.internal.HeartbeatPayloadTracker;
+import com.flux.servicecenter.client.internal.HeartbeatScheduler;
+import com.flux.servicecenter.client.internal.LatencyHistogram;
+import com.flux.servicecenter.client.internal.ListenerDispatcher;
+import com.flux.servicecenter.client.internal.RegistrySnapshotStore;
+import com.flux.servicecenter.client.internal.RequestHedger;
+import com.flux.servicecenter.client.internal.RestoreProgress;
+import com.flux.servicecenter.client.internal.ServiceInstanceCache;
 import com.flux.servicecenter.client.internal.StreamBusinessHelper;
 import com.flux.servicecenter.client.internal.StreamConnectionManager;
+import com.flux.servicecenter.client.internal.StreamConnectionPool;
 import com.flux.servicecenter.config.ConfigProto;
 import com.flux.servicecenter.config.ServiceCenterConfig;
 import com.flux.servicecenter.listener.ConfigChangeListener;
 import com.flux.servicecenter.listener.ServiceChangeListener;
+import com.flux.servicecenter.loadbalance.NodeSelector;
 import com.flux.servicecenter.model.*;
 import com.flux.servicecenter.registry.RegistryProto;
 import com.flux.servicecenter.registry.ServiceRegistryGrpc;
+import com.flux.servicecenter.stream.StreamProto;
 import io.grpc.*;
 import io.grpc.netty.shaded.io.grpc.netty.GrpcSslContexts;
 import io.grpc.netty.shaded.io.grpc.netty.NettyChannelBuilder;
 import io.grpc.netty.shaded.io.netty.handler.ssl.SslContext;
 import io.grpc.netty.shaded.io.netty.handler.ssl.SslContextBuilder;
+import io.grpc.stub.StreamObserver;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.net.ssl.SSLException;
 import java.io.File;
+import java.io.IOException;
+import java.nio.file.Paths;
 import java.util.*;
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
 
 /**
  * 基于统一双向流的 Service Center 客户端实现
  * 
- * <p>使用单个双向 gRPC 流处理所有通信，包括：</p>
+ * <p>使用双向 gRPC 流处理所有通信（默认单条流，可通过 {@link ServiceCenterConfig#setStreamPoolSize(int)}
+ * 开启多条流，控制消息与数据消息分流），包括：</p>
  * <ul>
  *   <li>服务注册发现</li>
  *   <li>配置中心</li>
@@ -34,10 +51,13 @@ import java.util.concurrent.atomic.AtomicBoolean;
  *   <li>心跳保持</li>
  * </ul>
  * 
+ * <p>同时实现 {@link IServiceCenterClientAsync}，所有请求-响应操作均提供非阻塞版本，
+ * 同步方法基于异步方法实现。</p>
+ * 
  * @author shangjian
  * @version 2.0.0 (基于统一双向流)
  */
-public class StreamBasedServiceCenterClient implements IServiceCenterClient {
+public class StreamBasedServiceCenterClient implements IServiceCenterClient, IServiceCenterClientAsync {
     private static final Logger logger = LoggerFactory.getLogger(StreamBasedServiceCenterClient.class);
     
     // ========== 配置 ==========
@@ -45,19 +65,25 @@ public class StreamBasedServiceCenterClient implements IServiceCenterClient {
     
     // ========== 连接管理 ==========
     private final ManagedChannel channel;
-    private final StreamConnectionManager streamManager;
+    private final StreamConnectionPool streamPool;
     private final StreamBusinessHelper businessHelper;
     
+    /** 幂等读请求对冲器 */
+    private final RequestHedger hedger;
+    
     // ========== 独立 RPC Stub ==========
     /** 独立的服务注册 stub，用于不适合通过流的操作（如 GetService） */
-    private final ServiceRegistryGrpc.ServiceRegistryBlockingStub registryStub;
+    private final ServiceRegistryGrpc.ServiceRegistryStub registryAsyncStub;
     
     // ========== 本地状态管理 ==========
     /** 已注册的节点 (nodeId -> NodeInfo) */
     private final Map<String, NodeInfo> registeredNodes = new ConcurrentHashMap<>();
     
-    /** 节点心跳任务 (nodeId -> ScheduledFuture) */
-    private final Map<String, ScheduledFuture<?>> heartbeatTasks = new ConcurrentHashMap<>();
+    /** 节点心跳调度器（所有节点共用一个定时任务） */
+    private final HeartbeatScheduler heartbeatScheduler;
+    
+    /** 决定每次心跳是否携带完整服务信息 */
+    private final HeartbeatPayloadTracker heartbeatPayloads;
     
     /** 服务订阅 (subscriptionId -> Subscription) */
     private final Map<String, ServiceSubscription> serviceSubscriptions = new ConcurrentHashMap<>();
@@ -65,10 +91,29 @@ public class StreamBasedServiceCenterClient implements IServiceCenterClient {
     /** 配置监听 (watchId -> ConfigWatch) */
     private final Map<String, ConfigWatch> configWatches = new ConcurrentHashMap<>();
     
+    /** 每条流最近一次重连后状态恢复的进度 (laneIndex -> RestoreProgress) */
+    private final Map<Integer, RestoreProgress> restoreProgress = new ConcurrentHashMap<>();
+    
+    /** 已订阅服务的本地实例缓存（由发现结果预热、服务变更事件保持最新） */
+    private final ServiceInstanceCache instanceCache = new ServiceInstanceCache();
+    
+    /** 注册表快照文件，未配置快照目录时为 null */
+    private final RegistrySnapshotStore snapshotStore;
+    
+    /** 最近一次持久化时缓存的最大快照版本号和服务数，未变化时不重写文件 */
+    private long persistedVersion = -1;
+    private int persistedCount = -1;
+    
     // ========== 线程池 ==========
     private final ScheduledExecutorService heartbeatExecutor;
     private final ExecutorService listenerExecutor;
     
+    /** 注册表快照持久化线程（低优先级），未配置快照目录时为 null；不与心跳定时器共用，写文件不会推迟心跳 */
+    private final ScheduledExecutorService snapshotExecutor;
+    
+    /** 推送事件分发器（按键有序、按监听器隔离，复用 listenerExecutor） */
+    private final ListenerDispatcher listenerDispatcher;
+    
     // ========== 状态 ==========
     private final AtomicBoolean closed = new AtomicBoolean(false);
     
@@ -90,13 +135,17 @@ public class StreamBasedServiceCenterClient implements IServiceCenterClient {
         this.channel = createChannel(config);
         
         // 创建线程池
-        this.heartbeatExecutor = Executors.newScheduledThreadPool(
-                Math.max(4, Runtime.getRuntime().availableProcessors()),
+        // 心跳只需要一个定时线程：发送是异步的，不会阻塞在响应上
+        this.heartbeatExecutor = Executors.newSingleThreadScheduledExecutor(
                 r -> {
                     Thread t = new Thread(r, "stream-heartbeat-" + System.currentTimeMillis());
                     t.setDaemon(true);
                     return t;
                 });
+        this.heartbeatScheduler = new HeartbeatScheduler("stream", heartbeatExecutor,
+                config.getHeartbeatInterval(), this::sendHeartbeatAsync, this::isConnected, config.getJitterRatio());
+        this.heartbeatScheduler.setBatchSender(this::sendBatchHeartbeatAsync);
+        this.heartbeatPayloads = new HeartbeatPayloadTracker(config.getHeartbeatFullPayloadInterval());
         
         this.listenerExecutor = Executors.newFixedThreadPool(
                 Math.max(4, Runtime.getRuntime().availableProcessors() * 2),
@@ -105,16 +154,91 @@ public class StreamBasedServiceCenterClient implements IServiceCenterClient {
                     t.setDaemon(true);
                     return t;
                 });
+        this.listenerDispatcher = new ListenerDispatcher(listenerExecutor,
+                config.getListenerQueueCapacity(), config.getListenerMaxConcurrency());
         
         // 创建双向流管理器
-        this.streamManager = new StreamConnectionManager(config, channel);
-        this.businessHelper = new StreamBusinessHelper(streamManager);
+        this.streamPool = new StreamConnectionPool(config, channel);
+        this.hedger = new RequestHedger(config);
+        this.businessHelper = new StreamBusinessHelper(streamPool, hedger);
         
         // 创建独立的 RPC stub
-        this.registryStub = ServiceRegistryGrpc.newBlockingStub(channel);
+        this.registryAsyncStub = ServiceRegistryGrpc.newStub(channel);
         
         // 注册事件监听器
         registerEventListeners();
+        
+        // 连接之前加载注册表快照，服务中心不可用时作为过期数据返回
+        this.snapshotStore = config.getSnapshotDir() != null
+                ? new RegistrySnapshotStore(Paths.get(config.getSnapshotDir(), snapshotFileName(config)), 
+                        config.getSnapshotMaxFileSize())
+                : null;
+        if (snapshotStore != null) {
+            loadRegistrySnapshot();
+            this.snapshotExecutor = Executors.newSingleThreadScheduledExecutor(
+                    r -> {
+                        Thread t = new Thread(r, "stream-snapshot-" + System.currentTimeMillis());
+                        t.setDaemon(true);
+                        t.setPriority(Thread.MIN_PRIORITY);
+                        return t;
+                    });
+            long interval = config.getSnapshotPersistInterval();
+            snapshotExecutor.scheduleWithFixedDelay(this::persistRegistrySnapshot, interval, interval, TimeUnit.MILLISECONDS);
+        } else {
+            this.snapshotExecutor = null;
+        }
+    }
+    
+    /**
+     * 快照文件名，按命名空间区分，多个客户端可以共用一个快照目录
+     */
+    private static String snapshotFileName(ServiceCenterConfig config) {
+        String namespaceId = config.getNamespaceId() != null ? config.getNamespaceId() : "default";
+        return "registry-" + namespaceId.replaceAll("[^A-Za-z0-9._-]", "_") + ".snapshot";
+    }
+    
+    /**
+     * 加载注册表快照到本地缓存（过期状态），文件损坏时删除并从空缓存开始
+     */
+    private void loadRegistrySnapshot() {
+        long start = System.nanoTime();
+        try {
+            List<ServiceSnapshot> snapshots = snapshotStore.load();
+            int loaded = instanceCache.preload(snapshots);
+            logger.info("Loaded registry snapshot: {} service(s) in {} ms from {}", loaded,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), snapshotStore.getFile());
+        } catch (IOException e) {
+            logger.warn("Registry snapshot unusable, discarding: {} ({})", snapshotStore.getFile(), e.getMessage());
+            try {
+                snapshotStore.delete();
+            } catch (IOException deleteError) {
+                logger.warn("Failed to delete registry snapshot: {}", deleteError.getMessage());
+            }
+        } catch (RuntimeException e) {
+            logger.warn("Registry snapshot load failed: {}", snapshotStore.getFile(), e);
+        }
+    }
+    
+    /**
+     * 持久化本地缓存（内容未变化或缓存为空时跳过，避免服务中心不可用期间用空数据覆盖上一次的快照）
+     */
+    private synchronized void persistRegistrySnapshot() {
+        try {
+            List<ServiceSnapshot> snapshots = instanceCache.snapshots();
+            long maxVersion = 0;
+            for (ServiceSnapshot snapshot : snapshots) {
+                maxVersion = Math.max(maxVersion, snapshot.getVersion());
+            }
+            if (snapshots.isEmpty() || (maxVersion == persistedVersion && snapshots.size() == persistedCount)) {
+                return;
+            }
+            long bytes = snapshotStore.save(snapshots);
+            persistedVersion = maxVersion;
+            persistedCount = snapshots.size();
+            logger.debug("Registry snapshot persisted: {} service(s), {} bytes", snapshots.size(), bytes);
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Registry snapshot persist failed: {}", e.getMessage());
+        }
     }
     
     /**
@@ -262,126 +386,244 @@ public class StreamBasedServiceCenterClient implements IServiceCenterClient {
      */
     private void registerEventListeners() {
         // 握手成功监听器 - 用于重连后恢复状态
-        streamManager.setHandshakeListener(handshake -> {
+        // 每条流独立握手，只恢复属于该流的状态
+        streamPool.setHandshakeListener((laneIndex, handshake) -> {
             if (handshake.getSuccess()) {
-                logger.info("Handshake succeeded, restoring client state after reconnect...");
-                listenerExecutor.execute(this::restoreStateAfterReconnect);
+                logger.info("Handshake succeeded on stream {}, restoring client state after reconnect...", laneIndex);
+                listenerExecutor.execute(() -> restoreStateAfterReconnect(laneIndex));
             }
         });
         
-        // 服务变更事件监听器
-        streamManager.setServiceChangeListener(event -> {
-            listenerExecutor.execute(() -> handleServiceChangeEvent(event));
-        });
+        // 服务变更事件监听器（在 gRPC 回调线程中按到达顺序入队，由分发器异步回调）
+        streamPool.setServiceChangeListener(this::handleServiceChangeEvent);
         
         // 配置变更事件监听器
-        streamManager.setConfigChangeListener(event -> {
-            listenerExecutor.execute(() -> handleConfigChangeEvent(event));
-        });
+        streamPool.setConfigChangeListener(this::handleConfigChangeEvent);
         
         // 错误事件监听器
-        streamManager.setErrorListener(error -> {
+        streamPool.setErrorListener(error -> {
             logger.error("Server error from stream: code={}, message={}", error.getCode(), error.getMessage());
         });
         
         // 关闭通知监听器
-        streamManager.setCloseListener(notification -> {
+        streamPool.setCloseListener(notification -> {
             logger.warn("Server requested stream close: reason={}", notification.getReason());
         });
+        
+        // 连接断开监听器：该流上订阅的服务缓存标记为过期，重新订阅后恢复
+        streamPool.setDisconnectListener(laneIndex -> {
+            int stale = instanceCache.markStale(entry -> streamPool.laneIndex(
+                    entry.getNamespaceId(), entry.getGroupName(), entry.getServiceName()) == laneIndex);
+            if (stale > 0) {
+                logger.warn("Stream {} disconnected, {} cached service(s) marked stale", laneIndex, stale);
+            }
+        });
     }
     
     /**
      * 重连后恢复状态（重新注册节点和订阅）
      * 注意：重连时保持原有的 nodeId 不变
+     * 
+     * <p>只恢复属于该流的状态：节点注册属于控制流，订阅和监听按键所属的流筛选。</p>
+     * 
+     * <p>订阅和监听按 (namespaceId, groupName) 合并，每组只发一条消息；节点重新注册以流水线方式异步发送，
+     * 同时在途的请求数不超过 {@link ServiceCenterConfig#getRestoreConcurrency()}，每个节点收到响应后立即恢复心跳。
+     * 恢复进度和耗时见 {@link #getRestoreProgress(int)}。</p>
+     * 
+     * @param laneIndex 完成握手的流下标
      */
-    private void restoreStateAfterReconnect() {
-        logger.info("Restoring state after reconnect...");
-        
-        // 1. 重新注册所有节点（保持原有 nodeId）
-        if (!registeredNodes.isEmpty()) {
-            logger.info("Re-registering {} node(s)...", registeredNodes.size());
-            // 创建副本，避免并发修改
-            Map<String, NodeInfo> nodesToReregister = new HashMap<>(registeredNodes);
-            
-            for (Map.Entry<String, NodeInfo> entry : nodesToReregister.entrySet()) {
-                String nodeId = entry.getKey();
-                NodeInfo nodeInfo = entry.getValue();
-                
-                try {
-                    logger.debug("Re-registering node: serviceName={}, nodeId={}", nodeInfo.getServiceName(), nodeId);
-                    
-                    // 停止旧的心跳任务
-                    stopHeartbeat(nodeId);
-                    
-                    // 确保 nodeInfo 中有 nodeId（用于重连时传给服务端）
-                    nodeInfo.setNodeId(nodeId);
-                    
-                    // 重新注册节点（带上原有的 nodeId）
-                    RegistryProto.Node node = buildNodeProto(nodeInfo, nodeInfo.getServiceName());
-                    RegistryProto.RegisterNodeResponse response = businessHelper.registerNode(node);
-                    
-                    if (response.getSuccess()) {
-                        // 重新启动心跳（使用原有的 nodeId）
-                        startHeartbeat(nodeId);
-                        logger.info("Node re-registered: serviceName={}, nodeId={}", nodeInfo.getServiceName(), nodeId);
-                    } else {
-                        logger.warn("Node re-register failed: nodeId={}, message={}", nodeId, response.getMessage());
-                    }
-                } catch (Exception e) {
-                    logger.error("Node re-register failed: nodeId={}", nodeId, e);
+    private void restoreStateAfterReconnect(int laneIndex) {
+        Map<String, NodeInfo> nodesToReregister = laneIndex == StreamConnectionPool.CONTROL_LANE
+                ? new HashMap<>(registeredNodes) : Collections.emptyMap();
+        if (laneIndex == StreamConnectionPool.CONTROL_LANE) {
+            // 启动时从快照加载、连接后仍未被订阅的服务不再保留
+            int evicted = instanceCache.evictUntracked();
+            if (evicted > 0) {
+                logger.info("Evicted {} unsubscribed service(s) loaded from registry snapshot", evicted);
+            }
+        }
+        RestoreProgress progress = new RestoreProgress(laneIndex, nodesToReregister.size());
+        restoreProgress.put(laneIndex, progress);
+        logger.info("Restoring state after reconnect on stream {}...", laneIndex);
+        
+        // 1. 重新订阅服务、重新监听配置（不等待响应，先发出以尽早恢复推送）
+        resubscribeServices(laneIndex, progress);
+        rewatchConfigs(laneIndex, progress);
+        
+        // 2. 重新注册所有节点（保持原有 nodeId），节点注册和心跳只走控制流
+        CompletableFuture<Void> nodesRestored = CompletableFuture.completedFuture(null);
+        if (!nodesToReregister.isEmpty()) {
+            logger.info("Re-registering {} node(s), concurrency: {}", 
+                    nodesToReregister.size(), config.getRestoreConcurrency());
+            // 新连接的服务端可能没有节点信息，重新注册之前发出的心跳也要携带完整信息
+            heartbeatPayloads.invalidateAll();
+            nodesRestored = reregisterNodes(nodesToReregister, progress);
+        }
+        
+        nodesRestored.whenComplete((ignored, error) -> {
+            progress.complete();
+            logger.info("State restore after reconnect completed on stream {}: {}", laneIndex, progress);
+        });
+    }
+    
+    /**
+     * 流水线方式重新注册节点
+     * 
+     * <p>先发出 {@link ServiceCenterConfig#getRestoreConcurrency()} 个请求，之后每收到一个响应再发出下一个，
+     * 全程不阻塞调用线程（监听线程），也不等待单个节点的响应。</p>
+     * 
+     * @return 所有节点都有结果（成功或失败）后完成的 Future
+     */
+    private CompletableFuture<Void> reregisterNodes(Map<String, NodeInfo> nodes, RestoreProgress progress) {
+        CompletableFuture<Void> allDone = new CompletableFuture<>();
+        Iterator<Map.Entry<String, NodeInfo>> pending = nodes.entrySet().iterator();
+        AtomicInteger remaining = new AtomicInteger(nodes.size());
+        if (nodes.isEmpty()) {
+            allDone.complete(null);
+            return allDone;
+        }
+        int concurrency = Math.min(config.getRestoreConcurrency(), nodes.size());
+        for (int i = 0; i < concurrency; i++) {
+            reregisterNext(pending, remaining, allDone, progress);
+        }
+        return allDone;
+    }
+    
+    /**
+     * 依次取出下一个节点重新注册，响应到达后在响应线程上继续取下一个
+     * 
+     * <p>请求同步完成（例如发送失败）时在本线程循环，不递归。</p>
+     */
+    private void reregisterNext(Iterator<Map.Entry<String, NodeInfo>> pending, AtomicInteger remaining,
+                                CompletableFuture<Void> allDone, RestoreProgress progress) {
+        while (true) {
+            Map.Entry<String, NodeInfo> entry;
+            synchronized (pending) {
+                if (!pending.hasNext()) {
+                    return;
                 }
+                entry = pending.next();
             }
+            CompletableFuture<Void> done = reregisterNode(entry.getKey(), entry.getValue(), progress)
+                    .whenComplete((ignored, error) -> {
+                        if (remaining.decrementAndGet() == 0) {
+                            allDone.complete(null);
+                        }
+                    });
+            if (!done.isDone()) {
+                done.whenComplete((ignored, error) -> reregisterNext(pending, remaining, allDone, progress));
+                return;
+            }
+        }
+    }
+    
+    /**
+     * 重新注册单个节点（保持原有 nodeId），成功后恢复心跳
+     * 
+     * @return 收到结果（成功或失败）并处理完后完成的 Future
+     */
+    private CompletableFuture<Void> reregisterNode(String nodeId, NodeInfo nodeInfo, RestoreProgress progress) {
+        CompletableFuture<RegistryProto.RegisterNodeResponse> response;
+        try {
+            logger.debug("Re-registering node: serviceName={}, nodeId={}", nodeInfo.getServiceName(), nodeId);
+            
+            // 停止旧的心跳任务
+            stopHeartbeat(nodeId);
+            
+            // 重新注册节点（带上原有的 nodeId），只在请求中设置，不修改已缓存的 nodeInfo
+            RegistryProto.Node node = buildNodeProto(nodeInfo, nodeInfo.getServiceName()).toBuilder()
+                    .setNodeId(nodeId)
+                    .build();
+            response = businessHelper.registerNodeAsync(node);
+        } catch (Exception e) {
+            response = CompletableFuture.failedFuture(e);
         }
         
-        // 2. 重新订阅所有服务
-        if (!serviceSubscriptions.isEmpty()) {
-            logger.info("Re-subscribing {} service subscription(s)...", serviceSubscriptions.size());
-            for (ServiceSubscription subscription : serviceSubscriptions.values()) {
-                try {
-                    for (String serviceName : subscription.serviceNames) {
-                        logger.debug("Re-subscribing service: {}/{}/{}", 
-                                subscription.namespaceId, subscription.groupName, serviceName);
-                        
-                        RegistryProto.SubscribeServicesRequest request = RegistryProto.SubscribeServicesRequest.newBuilder()
-                                .setNamespaceId(subscription.namespaceId)
-                                .setGroupName(subscription.groupName)
-                                .addServiceNames(serviceName)
-                                .build();
-                        
-                        businessHelper.subscribeServices(request);
-                        logger.info("Service re-subscribed: {}", serviceName);
-                    }
-                } catch (Exception e) {
-                    logger.error("Service re-subscribe failed", e);
+        return response.handle((result, error) -> {
+            boolean success = error == null && result.getSuccess();
+            progress.nodeRestored(success);
+            if (success) {
+                // 恢复期间被注销的节点不再启动心跳
+                if (registeredNodes.containsKey(nodeId)) {
+                    // 重新启动心跳（使用原有的 nodeId）
+                    startHeartbeat(nodeId);
+                }
+                logger.info("Node re-registered: serviceName={}, nodeId={}", nodeInfo.getServiceName(), nodeId);
+            } else if (error != null) {
+                logger.error("Node re-register failed: nodeId={}", nodeId, error);
+            } else {
+                logger.warn("Node re-register failed: nodeId={}, message={}", nodeId, result.getMessage());
+            }
+            return null;
+        });
+    }
+    
+    /**
+     * 重新订阅属于该流的服务，每个 (namespaceId, groupName) 合并为一条订阅消息
+     */
+    private void resubscribeServices(int laneIndex, RestoreProgress progress) {
+        Map<String, Map<String, Set<String>>> namesByGroup = new LinkedHashMap<>();
+        for (ServiceSubscription subscription : serviceSubscriptions.values()) {
+            if (subscription.serviceNames == null) {
+                continue;
+            }
+            for (String serviceName : subscription.serviceNames) {
+                if (streamPool.laneIndex(subscription.namespaceId, subscription.groupName, serviceName) == laneIndex) {
+                    namesByGroup.computeIfAbsent(subscription.namespaceId, k -> new LinkedHashMap<>())
+                            .computeIfAbsent(subscription.groupName, k -> new LinkedHashSet<>())
+                            .add(serviceName);
                 }
             }
         }
         
-        // 3. 重新监听所有配置
-        if (!configWatches.isEmpty()) {
-            logger.info("Re-watching {} config watch(es)...", configWatches.size());
-            for (ConfigWatch watch : configWatches.values()) {
-                try {
-                    for (String configDataId : watch.configDataIds) {
-                        logger.debug("Re-watching config: {}/{}/{}", 
-                                watch.namespaceId, watch.groupName, configDataId);
-                        
-                        ConfigProto.WatchConfigRequest request = ConfigProto.WatchConfigRequest.newBuilder()
-                                .setNamespaceId(watch.namespaceId)
-                                .setGroupName(watch.groupName)
-                                .addConfigDataIds(configDataId)
-                                .build();
-                        
-                        businessHelper.watchConfig(request);
-                        logger.info("Config re-watch sent: {}", configDataId);
-                    }
-                } catch (Exception e) {
-                    logger.error("Config re-watch failed", e);
+        namesByGroup.forEach((namespaceId, groups) -> groups.forEach((groupName, serviceNames) -> {
+            try {
+                logger.debug("Re-subscribing {} service(s): {}/{}", serviceNames.size(), namespaceId, groupName);
+                businessHelper.subscribeServices(RegistryProto.SubscribeServicesRequest.newBuilder()
+                        .setNamespaceId(namespaceId)
+                        .setGroupName(groupName)
+                        .addAllServiceNames(serviceNames)
+                        .build());
+                progress.subscribeBatchSent();
+                // 断开期间缓存已过期，重新订阅后用一次完整发现重新同步
+                seedInstanceCache(namespaceId, groupName, serviceNames);
+            } catch (Exception e) {
+                logger.error("Service re-subscribe failed: {}/{}", namespaceId, groupName, e);
+            }
+        }));
+    }
+    
+    /**
+     * 重新监听属于该流的配置，每个 (namespaceId, groupName) 合并为一条监听消息
+     */
+    private void rewatchConfigs(int laneIndex, RestoreProgress progress) {
+        Map<String, Map<String, Set<String>>> idsByGroup = new LinkedHashMap<>();
+        for (ConfigWatch watch : configWatches.values()) {
+            if (watch.configDataIds == null) {
+                continue;
+            }
+            for (String configDataId : watch.configDataIds) {
+                if (streamPool.laneIndex(watch.namespaceId, watch.groupName, configDataId) == laneIndex) {
+                    idsByGroup.computeIfAbsent(watch.namespaceId, k -> new LinkedHashMap<>())
+                            .computeIfAbsent(watch.groupName, k -> new LinkedHashSet<>())
+                            .add(configDataId);
                 }
             }
         }
         
-        logger.info("State restore after reconnect completed");
+        idsByGroup.forEach((namespaceId, groups) -> groups.forEach((groupName, configDataIds) -> {
+            try {
+                logger.debug("Re-watching {} config(s): {}/{}", configDataIds.size(), namespaceId, groupName);
+                businessHelper.watchConfig(ConfigProto.WatchConfigRequest.newBuilder()
+                        .setNamespaceId(namespaceId)
+                        .setGroupName(groupName)
+                        .addAllConfigDataIds(configDataIds)
+                        .build());
+                progress.watchBatchSent();
+            } catch (Exception e) {
+                logger.error("Config re-watch failed: {}/{}", namespaceId, groupName, e);
+            }
+        }));
     }
     
     // ========== 连接管理 ==========
@@ -393,10 +635,24 @@ public class StreamBasedServiceCenterClient implements IServiceCenterClient {
         }
         
         logger.info("Connecting to service center: {}:{}", config.getServerHost(), config.getServerPort());
-        streamManager.connect();
+        streamPool.connect();
         logger.info("Connected to service center");
     }
     
+    @Override
+    public CompletableFuture<String> connectAsync() {
+        if (closed.get()) {
+            return CompletableFuture.failedFuture(new IllegalStateException("Client is already closed"));
+        }
+        
+        logger.info("Connecting to service center asynchronously: {}:{}", config.getServerHost(), config.getServerPort());
+        return streamPool.connectAsync().whenComplete((connectionId, error) -> {
+            if (error == null) {
+                logger.info("Connected to service center, connectionId: {}", connectionId);
+            }
+        });
+    }
+    
     @Override
     public synchronized void close() {
         if (closed.getAndSet(true)) {
@@ -412,7 +668,8 @@ public class StreamBasedServiceCenterClient implements IServiceCenterClient {
         stopAllHeartbeats();
         
         // 3. 关闭双向流
-        streamManager.close();
+        streamPool.close();
+        hedger.close();
         
         // 4. 关闭 Channel
         channel.shutdown();
@@ -429,12 +686,18 @@ public class StreamBasedServiceCenterClient implements IServiceCenterClient {
         shutdownExecutor(heartbeatExecutor, "heartbeat");
         shutdownExecutor(listenerExecutor, "listener");
         
+        if (snapshotStore != null) {
+            shutdownExecutor(snapshotExecutor, "snapshot");
+            persistRegistrySnapshot();
+        }
+        instanceCache.clear();
+        
         logger.info("Client closed");
     }
     
     @Override
     public boolean isConnected() {
-        return streamManager.isConnected();
+        return streamPool.isConnected();
     }
     
     @Override
@@ -449,6 +712,17 @@ public class StreamBasedServiceCenterClient implements IServiceCenterClient {
         ensureConnected();
         
         try {
+            return StreamConnectionManager.awaitResult(registerServiceAsync(serviceInfo, nodeInfo));
+        } catch (TimeoutException e) {
+            throw new RuntimeException("Register service timed out", e);
+        } catch (Exception e) {
+            throw new RuntimeException("Register service failed", e);
+        }
+    }
+    
+    @Override
+    public CompletableFuture<RegisterServiceResult> registerServiceAsync(ServiceInfo serviceInfo, NodeInfo nodeInfo) {
+        return callAsync(() -> {
             // 构建 Service Proto
             RegistryProto.Service.Builder serviceBuilder = RegistryProto.Service.newBuilder()
                     .setNamespaceId(getOrDefault(serviceInfo.getNamespaceId(), config.getNamespaceId()))
@@ -470,29 +744,24 @@ public class StreamBasedServiceCenterClient implements IServiceCenterClient {
             }
             
             // 发送注册请求
-            RegistryProto.RegisterServiceResponse response = businessHelper.registerService(serviceBuilder.build());
-            
-            RegisterServiceResult result = new RegisterServiceResult();
-            result.setSuccess(response.getSuccess());
-            result.setMessage(response.getMessage());
-            
-            // 如果注册了节点，启动心跳并缓存节点信息
-            if (nodeInfo != null && response.getNodeId() != null && !response.getNodeId().isEmpty()) {
-                String nodeId = response.getNodeId(); // proto 中是 nodeId (单数)
-                result.setNodeId(nodeId);
-                nodeInfo.setNodeId(nodeId);
-                registeredNodes.put(nodeId, nodeInfo);
-                startHeartbeat(nodeId);
-                logger.info("Service node registered: serviceName={}, nodeId={}", serviceInfo.getServiceName(), nodeId);
-            }
-            
-            return result;
-            
-        } catch (TimeoutException e) {
-            throw new RuntimeException("Register service timed out", e);
-        } catch (Exception e) {
-            throw new RuntimeException("Register service failed", e);
-        }
+            return businessHelper.registerServiceAsync(serviceBuilder.build()).thenApply(response -> {
+                RegisterServiceResult result = new RegisterServiceResult();
+                result.setSuccess(response.getSuccess());
+                result.setMessage(response.getMessage());
+                
+                // 如果注册了节点，启动心跳并缓存节点信息
+                if (nodeInfo != null && response.getNodeId() != null && !response.getNodeId().isEmpty()) {
+                    String nodeId = response.getNodeId(); // proto 中是 nodeId (单数)
+                    result.setNodeId(nodeId);
+                    nodeInfo.setNodeId(nodeId);
+                    registeredNodes.put(nodeId, nodeInfo);
+                    startHeartbeat(nodeId);
+                    logger.info("Service node registered: serviceName={}, nodeId={}", serviceInfo.getServiceName(), nodeId);
+                }
+                
+                return result;
+            });
+        });
     }
     
     @Override
@@ -500,24 +769,7 @@ public class StreamBasedServiceCenterClient implements IServiceCenterClient {
         ensureConnected();
         
         try {
-            if (nodeId != null && !nodeId.isEmpty()) {
-                // 注销特定节点
-                return unregisterNode(nodeId);
-            } else {
-                // 注销整个服务
-                RegistryProto.ServiceKey serviceKey = RegistryProto.ServiceKey.newBuilder()
-                        .setNamespaceId(getOrDefault(namespaceId, config.getNamespaceId()))
-                        .setGroupName(getOrDefault(groupName, config.getGroupName()))
-                        .setServiceName(serviceName)
-                        .build();
-                
-                RegistryProto.RegistryResponse response = businessHelper.unregisterService(serviceKey);
-                
-                OperationResult result = new OperationResult();
-                result.setSuccess(response.getSuccess());
-                result.setMessage(response.getMessage());
-                return result;
-            }
+            return StreamConnectionManager.awaitResult(unregisterServiceAsync(namespaceId, groupName, serviceName, nodeId));
         } catch (TimeoutException e) {
             throw new RuntimeException("Unregister service timed out", e);
         } catch (Exception e) {
@@ -525,29 +777,36 @@ public class StreamBasedServiceCenterClient implements IServiceCenterClient {
         }
     }
     
+    @Override
+    public CompletableFuture<OperationResult> unregisterServiceAsync(String namespaceId, String groupName, String serviceName, String nodeId) {
+        if (nodeId != null && !nodeId.isEmpty()) {
+            // 注销特定节点
+            return unregisterNodeAsync(nodeId);
+        }
+        
+        return callAsync(() -> {
+            // 注销整个服务
+            RegistryProto.ServiceKey serviceKey = RegistryProto.ServiceKey.newBuilder()
+                    .setNamespaceId(getOrDefault(namespaceId, config.getNamespaceId()))
+                    .setGroupName(getOrDefault(groupName, config.getGroupName()))
+                    .setServiceName(serviceName)
+                    .build();
+            
+            return businessHelper.unregisterServiceAsync(serviceKey).thenApply(response -> {
+                OperationResult result = new OperationResult();
+                result.setSuccess(response.getSuccess());
+                result.setMessage(response.getMessage());
+                return result;
+            });
+        });
+    }
+    
     @Override
     public RegisterNodeResult registerNode(NodeInfo nodeInfo) {
         ensureConnected();
         
         try {
-            RegistryProto.Node node = buildNodeProto(nodeInfo, nodeInfo.getServiceName());
-            RegistryProto.RegisterNodeResponse response = businessHelper.registerNode(node);
-            
-            RegisterNodeResult result = new RegisterNodeResult();
-            result.setSuccess(response.getSuccess());
-            result.setMessage(response.getMessage());
-            
-            if (response.getSuccess() && response.getNodeId() != null && !response.getNodeId().isEmpty()) {
-                String nodeId = response.getNodeId();
-                result.setNodeId(nodeId);
-                nodeInfo.setNodeId(nodeId);
-                registeredNodes.put(nodeId, nodeInfo);
-                startHeartbeat(nodeId);
-                logger.info("Node registered: nodeId={}", nodeId);
-            }
-            
-            return result;
-            
+            return StreamConnectionManager.awaitResult(registerNodeAsync(nodeInfo));
         } catch (TimeoutException e) {
             throw new RuntimeException("Register node timed out", e);
         } catch (Exception e) {
@@ -555,11 +814,46 @@ public class StreamBasedServiceCenterClient implements IServiceCenterClient {
         }
     }
     
+    @Override
+    public CompletableFuture<RegisterNodeResult> registerNodeAsync(NodeInfo nodeInfo) {
+        return callAsync(() -> {
+            RegistryProto.Node node = buildNodeProto(nodeInfo, nodeInfo.getServiceName());
+            
+            return businessHelper.registerNodeAsync(node).thenApply(response -> {
+                RegisterNodeResult result = new RegisterNodeResult();
+                result.setSuccess(response.getSuccess());
+                result.setMessage(response.getMessage());
+                
+                if (response.getSuccess() && response.getNodeId() != null && !response.getNodeId().isEmpty()) {
+                    String nodeId = response.getNodeId();
+                    result.setNodeId(nodeId);
+                    nodeInfo.setNodeId(nodeId);
+                    registeredNodes.put(nodeId, nodeInfo);
+                    startHeartbeat(nodeId);
+                    logger.info("Node registered: nodeId={}", nodeId);
+                }
+                
+                return result;
+            });
+        });
+    }
+    
     @Override
     public OperationResult unregisterNode(String nodeId) {
         ensureConnected();
         
         try {
+            return StreamConnectionManager.awaitResult(unregisterNodeAsync(nodeId));
+        } catch (TimeoutException e) {
+            throw new RuntimeException("Unregister node timed out", e);
+        } catch (Exception e) {
+            throw new RuntimeException("Unregister node failed", e);
+        }
+    }
+    
+    @Override
+    public CompletableFuture<OperationResult> unregisterNodeAsync(String nodeId) {
+        return callAsync(() -> {
             // 停止心跳
             stopHeartbeat(nodeId);
             
@@ -568,53 +862,30 @@ public class StreamBasedServiceCenterClient implements IServiceCenterClient {
                     .setNodeId(nodeId)
                     .build();
             
-            RegistryProto.RegistryResponse response = businessHelper.unregisterNode(nodeKey);
-            
-            // 移除本地缓存
-            registeredNodes.remove(nodeId);
-            
-            OperationResult result = new OperationResult();
-            result.setSuccess(response.getSuccess());
-            result.setMessage(response.getMessage());
-            
-            logger.info("Node unregistered: nodeId={}", nodeId);
-            return result;
-            
-        } catch (TimeoutException e) {
-            throw new RuntimeException("Unregister node timed out", e);
-        } catch (Exception e) {
-            throw new RuntimeException("Unregister node failed", e);
-        }
+            return businessHelper.unregisterNodeAsync(nodeKey).thenApply(response -> {
+                // 移除本地缓存
+                registeredNodes.remove(nodeId);
+                
+                OperationResult result = new OperationResult();
+                result.setSuccess(response.getSuccess());
+                result.setMessage(response.getMessage());
+                
+                logger.info("Node unregistered: nodeId={}", nodeId);
+                return result;
+            });
+        });
     }
     
     @Override
     public GetServiceResult getService(String namespaceId, String groupName, String serviceName) {
+        GetServiceResult cached = cachedService(namespaceId, groupName, serviceName);
+        if (cached != null) {
+            return cached;
+        }
         ensureConnected();
         
-        // GetService 使用独立的 RPC stub，不通过统一流
-        // 这是一个简单的请求-响应操作，不需要双向流的复杂性
         try {
-            RegistryProto.ServiceKey serviceKey = RegistryProto.ServiceKey.newBuilder()
-                    .setNamespaceId(getOrDefault(namespaceId, config.getNamespaceId()))
-                    .setGroupName(getOrDefault(groupName, config.getGroupName()))
-                    .setServiceName(serviceName)
-                    .build();
-            
-            // 使用独立的阻塞 stub 调用
-            RegistryProto.GetServiceResponse response = registryStub
-                    .withDeadlineAfter(config.getRequestTimeout(), TimeUnit.MILLISECONDS)
-                    .getService(serviceKey);
-            
-            GetServiceResult result = new GetServiceResult();
-            result.setSuccess(response.getSuccess());
-            result.setMessage(response.getMessage());
-            
-            if (response.hasService()) {
-                result.setService(ProtoConverter.toServiceInfo(response.getService()));
-            }
-            
-            return result;
-            
+            return StreamConnectionManager.awaitResult(getServiceAsync(namespaceId, groupName, serviceName));
         } catch (Exception e) {
             logger.error("getService failed", e);
             GetServiceResult result = new GetServiceResult();
@@ -624,67 +895,214 @@ public class StreamBasedServiceCenterClient implements IServiceCenterClient {
         }
     }
     
-    public List<NodeInfo> discoverNodes(String namespaceId, String groupName, String serviceName, boolean healthyOnly) {
-        ensureConnected();
-        
-        try {
-            RegistryProto.DiscoverNodesRequest request = RegistryProto.DiscoverNodesRequest.newBuilder()
+    @Override
+    public CompletableFuture<GetServiceResult> getServiceAsync(String namespaceId, String groupName, String serviceName) {
+        GetServiceResult cached = cachedService(namespaceId, groupName, serviceName);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+        // GetService 使用独立的 RPC stub，不通过统一流
+        // 这是一个简单的请求-响应操作，不需要双向流的复杂性
+        return callAsync(() -> {
+            RegistryProto.ServiceKey serviceKey = RegistryProto.ServiceKey.newBuilder()
                     .setNamespaceId(getOrDefault(namespaceId, config.getNamespaceId()))
                     .setGroupName(getOrDefault(groupName, config.getGroupName()))
                     .setServiceName(serviceName)
-                    .setHealthyOnly(healthyOnly)
                     .build();
             
-            RegistryProto.DiscoverNodesResponse response = businessHelper.discoverNodes(request);
-            
-            if (response.getSuccess()) {
-                return ProtoConverter.toNodeInfoList(response.getNodesList());
-            } else {
-                logger.warn("discoverNodes failed: {}", response.getMessage());
-                return Collections.emptyList();
-            }
-            
-        } catch (TimeoutException e) {
-            logger.error("discoverNodes timed out", e);
-            return Collections.emptyList();
-        } catch (Exception e) {
-            logger.error("discoverNodes failed", e);
-            return Collections.emptyList();
-        }
+            // 使用独立的异步 stub 调用，由 gRPC deadline 控制超时；
+            // 开启对冲时再发一次相同调用，round_robin 会将其分配到其他服务端
+            Supplier<CompletableFuture<RegistryProto.GetServiceResponse>> call = () -> {
+                CompletableFuture<RegistryProto.GetServiceResponse> future = new CompletableFuture<>();
+                registryAsyncStub
+                        .withDeadlineAfter(config.getRequestTimeout(), TimeUnit.MILLISECONDS)
+                        .getService(serviceKey, new UnaryResponseObserver<>(future));
+                return future;
+            };
+            
+            return hedger.execute("getService", call, call).thenApply(response -> {
+                GetServiceResult result = new GetServiceResult();
+                result.setSuccess(response.getSuccess());
+                result.setMessage(response.getMessage());
+                
+                if (response.hasService()) {
+                    result.setService(ProtoConverter.toServiceInfo(response.getService()));
+                    // 缓存使用单独转换的对象，调用方修改返回结果不影响缓存
+                    instanceCache.updateService(serviceKey.getNamespaceId(), serviceKey.getGroupName(),
+                            serviceName, ProtoConverter.toServiceInfo(response.getService()));
+                }
+                
+                return result;
+            });
+        });
     }
     
-    @Override
+    /**
+     * 发现服务节点
+     * 
+     * <p>已订阅且缓存已同步的服务直接从本地缓存返回，不发起网络请求；连接断开时返回过期缓存作为兜底。其他情况查询服务端。
+     * 两种情况都返回新的可修改列表；缓存命中时节点对象与本地快照共享，不应修改。</p>
+     */
+    public List<NodeInfo> discoverNodes(String namespaceId, String groupName, String serviceName, boolean healthyOnly) {
+        List<NodeInfo> cached = cachedNodes(namespaceId, groupName, serviceName, healthyOnly);
+        if (cached != null) {
+            return cached;
+        }
+        ensureConnected();
+        
+        try {
+            return StreamConnectionManager.awaitResult(discoverNodesAsync(namespaceId, groupName, serviceName, healthyOnly));
+        } catch (TimeoutException e) {
+            logger.error("discoverNodes timed out", e);
+            return Collections.emptyList();
+        } catch (Exception e) {
+            logger.error("discoverNodes failed", e);
+            return Collections.emptyList();
+        }
+    }
+    
+    @Override
+    public CompletableFuture<List<NodeInfo>> discoverNodesAsync(String namespaceId, String groupName, String serviceName, boolean healthyOnly) {
+        List<NodeInfo> cached = cachedNodes(namespaceId, groupName, serviceName, healthyOnly);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+        return callAsync(() -> discoverFromServer(getOrDefault(namespaceId, config.getNamespaceId()),
+                getOrDefault(groupName, config.getGroupName()), serviceName, healthyOnly));
+    }
+    
+    /**
+     * 向服务端查询节点，完整查询（非仅健康节点）的结果同时用于预热缓存
+     */
+    private CompletableFuture<List<NodeInfo>> discoverFromServer(String namespaceId, String groupName, String serviceName, boolean healthyOnly) {
+        RegistryProto.DiscoverNodesRequest request = RegistryProto.DiscoverNodesRequest.newBuilder()
+                .setNamespaceId(namespaceId)
+                .setGroupName(groupName)
+                .setServiceName(serviceName)
+                .setHealthyOnly(healthyOnly)
+                .build();
+        
+        return businessHelper.discoverNodesAsync(request).thenApply(response -> {
+            if (response.getSuccess()) {
+                if (!healthyOnly) {
+                    // 缓存使用单独转换的节点，调用方修改返回的节点不影响缓存
+                    instanceCache.seed(namespaceId, groupName, serviceName,
+                            ProtoConverter.toNodeInfoList(response.getNodesList()));
+                }
+                return ProtoConverter.toNodeInfoList(response.getNodesList());
+            }
+            logger.warn("discoverNodes failed: {}", response.getMessage());
+            return Collections.<NodeInfo>emptyList();
+        });
+    }
+    
+    /**
+     * 从本地缓存查询节点，已过期的缓存只在未连接时使用
+     * 
+     * @return 缓存不可用时返回 null
+     */
+    private List<NodeInfo> cachedNodes(String namespaceId, String groupName, String serviceName, boolean healthyOnly) {
+        return instanceCache.getNodes(getOrDefault(namespaceId, config.getNamespaceId()),
+                getOrDefault(groupName, config.getGroupName()), serviceName, healthyOnly, !isConnected());
+    }
+    
+    /**
+     * 从本地缓存查询服务信息，已过期的缓存只在未连接时使用
+     * 
+     * @return 缓存不可用时返回 null
+     */
+    private GetServiceResult cachedService(String namespaceId, String groupName, String serviceName) {
+        return instanceCache.getService(getOrDefault(namespaceId, config.getNamespaceId()),
+                getOrDefault(groupName, config.getGroupName()), serviceName, !isConnected());
+    }
+    
+    /**
+     * 对订阅的服务各发起一次完整发现，用结果预热缓存（已由变更事件同步的服务忽略结果）
+     */
+    private void seedInstanceCache(String namespaceId, String groupName, Collection<String> serviceNames) {
+        for (String serviceName : serviceNames) {
+            try {
+                discoverFromServer(namespaceId, groupName, serviceName, false).whenComplete((nodes, error) -> {
+                    if (error != null) {
+                        logger.warn("Instance cache seed failed: {}/{}/{}, error={}", 
+                                namespaceId, groupName, serviceName, error.getMessage());
+                    }
+                });
+            } catch (Exception e) {
+                logger.warn("Instance cache seed failed: {}/{}/{}, error={}", 
+                        namespaceId, groupName, serviceName, e.getMessage());
+            }
+        }
+    }
+    
+    @Override
     public String subscribeService(String namespaceId, String groupName, String serviceName, ServiceChangeListener listener) {
+        return subscribeServices(namespaceId, groupName, Collections.singletonList(serviceName), listener);
+    }
+    
+    /**
+     * 一次订阅同一命名空间/分组下的多个服务
+     * 
+     * <p>所有服务名合并为一条订阅消息发送（按所属的流拆分），共用一个订阅ID和监听器，
+     * {@link #unsubscribe(String)} 时一起取消；重连后也按 (namespaceId, groupName) 合并恢复。</p>
+     * 
+     * @param namespaceId 命名空间ID，为空时使用配置的命名空间
+     * @param groupName 分组名，为空时使用配置的分组
+     * @param serviceNames 服务名列表（重复的服务名只订阅一次）
+     * @param listener 服务变更监听器
+     * @return 订阅ID
+     * @throws IllegalArgumentException 如果服务名列表为空
+     */
+    public String subscribeServices(String namespaceId, String groupName, List<String> serviceNames, ServiceChangeListener listener) {
+        if (serviceNames == null || serviceNames.isEmpty()) {
+            throw new IllegalArgumentException("serviceNames must not be empty");
+        }
         ensureConnected();
         
         String subscriptionId = UUID.randomUUID().toString();
+        List<String> names = new ArrayList<>(new LinkedHashSet<>(serviceNames));
         
         // 构建订阅请求
         RegistryProto.SubscribeServicesRequest request = RegistryProto.SubscribeServicesRequest.newBuilder()
                 .setNamespaceId(getOrDefault(namespaceId, config.getNamespaceId()))
                 .setGroupName(getOrDefault(groupName, config.getGroupName()))
-                .addServiceNames(serviceName)
+                .addAllServiceNames(names)
                 .build();
         
+        // 先建立缓存项，订阅生效后推送的事件才能写入缓存
+        for (String name : names) {
+            instanceCache.track(request.getNamespaceId(), request.getGroupName(), name);
+        }
+        
         // 发送订阅请求（异步）
         businessHelper.subscribeServices(request);
         
         // 保存订阅信息
         ServiceSubscription subscription = new ServiceSubscription();
         subscription.subscriptionId = subscriptionId;
-        subscription.namespaceId = getOrDefault(namespaceId, config.getNamespaceId());
-        subscription.groupName = getOrDefault(groupName, config.getGroupName());
-        subscription.serviceNames = Collections.singletonList(serviceName);
+        subscription.namespaceId = request.getNamespaceId();
+        subscription.groupName = request.getGroupName();
+        subscription.serviceNames = Collections.unmodifiableList(names);
         subscription.listener = listener;
         serviceSubscriptions.put(subscriptionId, subscription);
         
-        logger.info("Service subscribed: serviceName={}, subscriptionId={}", serviceName, subscriptionId);
+        seedInstanceCache(subscription.namespaceId, subscription.groupName, names);
+        
+        logger.info("Service subscribed: serviceNames={}, subscriptionId={}", names, subscriptionId);
         return subscriptionId;
     }
     
     @Override
     public OperationResult unsubscribe(String subscriptionId) {
-        serviceSubscriptions.remove(subscriptionId);
+        ServiceSubscription subscription = serviceSubscriptions.remove(subscriptionId);
+        if (subscription != null) {
+            releaseListener(subscription.listener);
+            if (subscription.serviceNames != null) {
+                for (String serviceName : subscription.serviceNames) {
+                    instanceCache.untrack(subscription.namespaceId, subscription.groupName, serviceName);
+                }
+            }
+        }
         
         OperationResult result = new OperationResult();
         result.setSuccess(true);
@@ -697,37 +1115,87 @@ public class StreamBasedServiceCenterClient implements IServiceCenterClient {
         ensureConnected();
         
         try {
+            return StreamConnectionManager.awaitResult(sendHeartbeatAsync(nodeId));
+        } catch (TimeoutException e) {
+            throw new RuntimeException("Send heartbeat timed out", e);
+        } catch (Exception e) {
+            throw new RuntimeException("Send heartbeat failed", e);
+        }
+    }
+    
+    @Override
+    public CompletableFuture<OperationResult> sendHeartbeatAsync(String nodeId) {
+        CompletableFuture<OperationResult> future = callAsync(() ->
+                businessHelper.heartbeatAsync(buildHeartbeatRequest(nodeId)).thenApply(response -> {
+                    OperationResult result = new OperationResult();
+                    result.setSuccess(response.getSuccess());
+                    result.setMessage(response.getMessage());
+                    return result;
+                }));
+        return future.whenComplete((result, error) -> {
+            // 心跳失败时服务端可能已剔除节点，下一次携带完整信息
+            if (error != null || !result.isSuccess()) {
+                heartbeatPayloads.invalidate(nodeId);
+            }
+        });
+    }
+    
+    /**
+     * 批量发送心跳，服务端不支持批量心跳时返回 null，由调度器逐个发送
+     */
+    private CompletableFuture<Map<String, String>> sendBatchHeartbeatAsync(List<String> nodeIds) {
+        if (!businessHelper.supportsBatchHeartbeat()) {
+            return null;
+        }
+        return callAsync(() -> {
+            StreamProto.BatchHeartbeatRequest.Builder requestBuilder = StreamProto.BatchHeartbeatRequest.newBuilder();
+            for (String nodeId : nodeIds) {
+                RegistryProto.HeartbeatRequest heartbeat = buildHeartbeatRequest(nodeId);
+                if (heartbeat.hasService()) {
+                    requestBuilder.addHeartbeats(heartbeat);
+                } else {
+                    requestBuilder.addNodeIds(nodeId);
+                }
+            }
+            return businessHelper.batchHeartbeatAsync(requestBuilder.build()).thenApply(response -> {
+                if (!response.getSuccess()) {
+                    throw new IllegalStateException("Batch heartbeat failed: " + response.getMessage());
+                }
+                return response.getFailedNodesMap();
+            });
+        }).whenComplete((failedNodes, error) -> {
+            if (error != null) {
+                nodeIds.forEach(heartbeatPayloads::invalidate);
+            } else {
+                failedNodes.keySet().forEach(heartbeatPayloads::invalidate);
+            }
+        });
+    }
+    
+    /**
+     * 构建单个节点的心跳请求
+     * 
+     * <p>节点未变化时只携带 nodeId；首次心跳、节点变化、重连或心跳失败之后，以及每隔
+     * {@link ServiceCenterConfig#getHeartbeatFullPayloadInterval()} 次心跳携带完整服务信息。</p>
+     */
+    private RegistryProto.HeartbeatRequest buildHeartbeatRequest(String nodeId) {
+        return heartbeatPayloads.next(nodeId, registeredNodes.get(nodeId), nodeInfo -> {
             RegistryProto.HeartbeatRequest.Builder requestBuilder = RegistryProto.HeartbeatRequest.newBuilder()
                     .setNodeId(nodeId);
             
             // 携带完整服务信息，与 ServiceRegistryManager 保持一致
             // 网络重连后服务端可能已剔除不健康节点，携带 service 信息便于服务端恢复/更新节点
-            NodeInfo nodeInfo = registeredNodes.get(nodeId);
-            if (nodeInfo != null) {
-                RegistryProto.Service.Builder serviceBuilder = RegistryProto.Service.newBuilder()
-                        .setNamespaceId(getOrDefault(nodeInfo.getNamespaceId(), config.getNamespaceId()))
-                        .setGroupName(getOrDefault(nodeInfo.getGroupName(), config.getGroupName()))
-                        .setServiceName(getOrDefault(nodeInfo.getServiceName(), ""));
-                
-                RegistryProto.Node protoNode = ProtoConverter.toProtoNode(nodeInfo);
-                if (protoNode != null) {
-                    serviceBuilder.setNode(protoNode);
-                }
-                requestBuilder.setService(serviceBuilder.build());
-            }
-            
-            RegistryProto.RegistryResponse response = businessHelper.heartbeat(requestBuilder.build());
-            
-            OperationResult result = new OperationResult();
-            result.setSuccess(response.getSuccess());
-            result.setMessage(response.getMessage());
-            return result;
+            RegistryProto.Service.Builder serviceBuilder = RegistryProto.Service.newBuilder()
+                    .setNamespaceId(getOrDefault(nodeInfo.getNamespaceId(), config.getNamespaceId()))
+                    .setGroupName(getOrDefault(nodeInfo.getGroupName(), config.getGroupName()))
+                    .setServiceName(getOrDefault(nodeInfo.getServiceName(), ""));
             
-        } catch (TimeoutException e) {
-            throw new RuntimeException("Send heartbeat timed out", e);
-        } catch (Exception e) {
-            throw new RuntimeException("Send heartbeat failed", e);
-        }
+            RegistryProto.Node protoNode = ProtoConverter.toProtoNode(nodeInfo);
+            if (protoNode != null) {
+                serviceBuilder.setNode(protoNode);
+            }
+            return requestBuilder.setService(serviceBuilder.build()).build();
+        });
     }
     
     @Override
@@ -747,29 +1215,35 @@ public class StreamBasedServiceCenterClient implements IServiceCenterClient {
         ensureConnected();
         
         try {
+            return StreamConnectionManager.awaitResult(getConfigAsync(namespaceId, groupName, configDataId));
+        } catch (TimeoutException e) {
+            throw new RuntimeException("Get config timed out", e);
+        } catch (Exception e) {
+            throw new RuntimeException("Get config failed", e);
+        }
+    }
+    
+    @Override
+    public CompletableFuture<GetConfigResult> getConfigAsync(String namespaceId, String groupName, String configDataId) {
+        return callAsync(() -> {
             ConfigProto.ConfigKey configKey = ConfigProto.ConfigKey.newBuilder()
                     .setNamespaceId(getOrDefault(namespaceId, config.getNamespaceId()))
                     .setGroupName(getOrDefault(groupName, config.getGroupName()))
                     .setConfigDataId(configDataId)
                     .build();
             
-            ConfigProto.GetConfigResponse response = businessHelper.getConfig(configKey);
-            
-            GetConfigResult result = new GetConfigResult();
-            result.setSuccess(response.getSuccess());
-            result.setMessage(response.getMessage());
-            
-            if (response.hasConfig()) {
-                result.setConfig(ProtoConverter.toConfigInfo(response.getConfig()));
-            }
-            
-            return result;
-            
-        } catch (TimeoutException e) {
-            throw new RuntimeException("Get config timed out", e);
-        } catch (Exception e) {
-            throw new RuntimeException("Get config failed", e);
-        }
+            return businessHelper.getConfigAsync(configKey).thenApply(response -> {
+                GetConfigResult result = new GetConfigResult();
+                result.setSuccess(response.getSuccess());
+                result.setMessage(response.getMessage());
+                
+                if (response.hasConfig()) {
+                    result.setConfig(ProtoConverter.toConfigInfo(response.getConfig()));
+                }
+                
+                return result;
+            });
+        });
     }
     
     @Override
@@ -777,6 +1251,17 @@ public class StreamBasedServiceCenterClient implements IServiceCenterClient {
         ensureConnected();
         
         try {
+            return StreamConnectionManager.awaitResult(saveConfigAsync(configInfo));
+        } catch (TimeoutException e) {
+            throw new RuntimeException("Save config timed out", e);
+        } catch (Exception e) {
+            throw new RuntimeException("Save config failed", e);
+        }
+    }
+    
+    @Override
+    public CompletableFuture<SaveConfigResult> saveConfigAsync(ConfigInfo configInfo) {
+        return callAsync(() -> {
             ConfigProto.ConfigData.Builder configBuilder = ConfigProto.ConfigData.newBuilder()
                     .setNamespaceId(getOrDefault(configInfo.getNamespaceId(), config.getNamespaceId()))
                     .setGroupName(getOrDefault(configInfo.getGroupName(), config.getGroupName()))
@@ -788,21 +1273,15 @@ public class StreamBasedServiceCenterClient implements IServiceCenterClient {
                 configBuilder.setConfigDesc(configInfo.getConfigDesc());
             }
             
-            ConfigProto.SaveConfigResponse response = businessHelper.saveConfig(configBuilder.build());
-            
-            SaveConfigResult result = new SaveConfigResult();
-            result.setSuccess(response.getSuccess());
-            result.setMessage(response.getMessage());
-            result.setVersion(response.getVersion()); // Model 中是 setVersion
-            result.setContentMd5(response.getContentMd5()); // Model 中是 setContentMd5
-            
-            return result;
-            
-        } catch (TimeoutException e) {
-            throw new RuntimeException("Save config timed out", e);
-        } catch (Exception e) {
-            throw new RuntimeException("Save config failed", e);
-        }
+            return businessHelper.saveConfigAsync(configBuilder.build()).thenApply(response -> {
+                SaveConfigResult result = new SaveConfigResult();
+                result.setSuccess(response.getSuccess());
+                result.setMessage(response.getMessage());
+                result.setVersion(response.getVersion()); // Model 中是 setVersion
+                result.setContentMd5(response.getContentMd5()); // Model 中是 setContentMd5
+                return result;
+            });
+        });
     }
     
     @Override
@@ -810,24 +1289,30 @@ public class StreamBasedServiceCenterClient implements IServiceCenterClient {
         ensureConnected();
         
         try {
+            return StreamConnectionManager.awaitResult(deleteConfigAsync(namespaceId, groupName, configDataId));
+        } catch (TimeoutException e) {
+            throw new RuntimeException("Delete config timed out", e);
+        } catch (Exception e) {
+            throw new RuntimeException("Delete config failed", e);
+        }
+    }
+    
+    @Override
+    public CompletableFuture<OperationResult> deleteConfigAsync(String namespaceId, String groupName, String configDataId) {
+        return callAsync(() -> {
             ConfigProto.ConfigKey configKey = ConfigProto.ConfigKey.newBuilder()
                     .setNamespaceId(getOrDefault(namespaceId, config.getNamespaceId()))
                     .setGroupName(getOrDefault(groupName, config.getGroupName()))
                     .setConfigDataId(configDataId)
                     .build();
             
-            ConfigProto.ConfigResponse response = businessHelper.deleteConfig(configKey);
-            
-            OperationResult result = new OperationResult();
-            result.setSuccess(response.getSuccess());
-            result.setMessage(response.getMessage());
-            return result;
-            
-        } catch (TimeoutException e) {
-            throw new RuntimeException("Delete config timed out", e);
-        } catch (Exception e) {
-            throw new RuntimeException("Delete config failed", e);
-        }
+            return businessHelper.deleteConfigAsync(configKey).thenApply(response -> {
+                OperationResult result = new OperationResult();
+                result.setSuccess(response.getSuccess());
+                result.setMessage(response.getMessage());
+                return result;
+            });
+        });
     }
     
     @Override
@@ -835,6 +1320,19 @@ public class StreamBasedServiceCenterClient implements IServiceCenterClient {
         ensureConnected();
         
         try {
+            return StreamConnectionManager.awaitResult(listConfigsAsync(namespaceId, groupName, searchKey, pageNum, pageSize));
+        } catch (TimeoutException e) {
+            logger.error("listConfigs timed out", e);
+            return Collections.emptyList();
+        } catch (Exception e) {
+            logger.error("listConfigs failed", e);
+            return Collections.emptyList();
+        }
+    }
+    
+    @Override
+    public CompletableFuture<List<ConfigInfo>> listConfigsAsync(String namespaceId, String groupName, String searchKey, int pageNum, int pageSize) {
+        return callAsync(() -> {
             // proto 中的 ListConfigsRequest 没有分页和搜索字段，只有 namespaceId 和 groupName
             ConfigProto.ListConfigsRequest.Builder requestBuilder = ConfigProto.ListConfigsRequest.newBuilder()
                     .setNamespaceId(getOrDefault(namespaceId, config.getNamespaceId()))
@@ -842,35 +1340,48 @@ public class StreamBasedServiceCenterClient implements IServiceCenterClient {
             
             // 忽略 pageNum, pageSize, searchKey，因为 proto 不支持
             
-            ConfigProto.ListConfigsResponse response = businessHelper.listConfigs(requestBuilder.build());
-            
-            if (response.getSuccess()) {
-                return ProtoConverter.toConfigInfoList(response.getConfigsList());
-            } else {
+            return businessHelper.listConfigsAsync(requestBuilder.build()).thenApply(response -> {
+                if (response.getSuccess()) {
+                    return ProtoConverter.toConfigInfoList(response.getConfigsList());
+                }
                 logger.warn("listConfigs failed: {}", response.getMessage());
-                return Collections.emptyList();
-            }
-            
-        } catch (TimeoutException e) {
-            logger.error("listConfigs timed out", e);
-            return Collections.emptyList();
-        } catch (Exception e) {
-            logger.error("listConfigs failed", e);
-            return Collections.emptyList();
-        }
+                return Collections.<ConfigInfo>emptyList();
+            });
+        });
     }
     
     @Override
     public String watchConfig(String namespaceId, String groupName, String configDataId, ConfigChangeListener listener) {
+        return watchConfigs(namespaceId, groupName, Collections.singletonList(configDataId), listener);
+    }
+    
+    /**
+     * 一次监听同一命名空间/分组下的多个配置
+     * 
+     * <p>所有配置ID合并为一条监听消息发送（按所属的流拆分），共用一个监听ID和监听器，
+     * {@link #unwatch(String)} 时一起取消；重连后也按 (namespaceId, groupName) 合并恢复。</p>
+     * 
+     * @param namespaceId 命名空间ID，为空时使用配置的命名空间
+     * @param groupName 分组名，为空时使用配置的分组
+     * @param configDataIds 配置ID列表（重复的配置ID只监听一次）
+     * @param listener 配置变更监听器
+     * @return 监听ID
+     * @throws IllegalArgumentException 如果配置ID列表为空
+     */
+    public String watchConfigs(String namespaceId, String groupName, List<String> configDataIds, ConfigChangeListener listener) {
+        if (configDataIds == null || configDataIds.isEmpty()) {
+            throw new IllegalArgumentException("configDataIds must not be empty");
+        }
         ensureConnected();
         
         String watchId = UUID.randomUUID().toString();
+        List<String> ids = new ArrayList<>(new LinkedHashSet<>(configDataIds));
         
         // 构建监听请求
         ConfigProto.WatchConfigRequest request = ConfigProto.WatchConfigRequest.newBuilder()
                 .setNamespaceId(getOrDefault(namespaceId, config.getNamespaceId()))
                 .setGroupName(getOrDefault(groupName, config.getGroupName()))
-                .addConfigDataIds(configDataId)
+                .addAllConfigDataIds(ids)
                 .build();
         
         // 发送监听请求（异步）
@@ -879,19 +1390,22 @@ public class StreamBasedServiceCenterClient implements IServiceCenterClient {
         // 保存监听信息
         ConfigWatch watch = new ConfigWatch();
         watch.watchId = watchId;
-        watch.namespaceId = getOrDefault(namespaceId, config.getNamespaceId());
-        watch.groupName = getOrDefault(groupName, config.getGroupName());
-        watch.configDataIds = Collections.singletonList(configDataId);
+        watch.namespaceId = request.getNamespaceId();
+        watch.groupName = request.getGroupName();
+        watch.configDataIds = Collections.unmodifiableList(ids);
         watch.listener = listener;
         configWatches.put(watchId, watch);
         
-        logger.info("Config watch started: configDataId={}, watchId={}", configDataId, watchId);
+        logger.info("Config watch started: configDataIds={}, watchId={}", ids, watchId);
         return watchId;
     }
     
     @Override
     public OperationResult unwatch(String watchId) {
-        configWatches.remove(watchId);
+        ConfigWatch watch = configWatches.remove(watchId);
+        if (watch != null) {
+            releaseListener(watch.listener);
+        }
         
         OperationResult result = new OperationResult();
         result.setSuccess(true);
@@ -904,11 +1418,129 @@ public class StreamBasedServiceCenterClient implements IServiceCenterClient {
         return new ArrayList<>(configWatches.keySet());
     }
     
+    /**
+     * 获取推送事件分发器，可用于监控监听器队列深度和分发延迟
+     */
+    public ListenerDispatcher getListenerDispatcher() {
+        return listenerDispatcher;
+    }
+    
+    /**
+     * 获取读请求对冲器，可用于查看对冲次数和当前对冲延迟
+     */
+    public RequestHedger getRequestHedger() {
+        return hedger;
+    }
+    
+    /**
+     * 获取节点心跳调度器，可用于查看调度节点数和心跳发送/失败次数
+     */
+    public HeartbeatScheduler getHeartbeatScheduler() {
+        return heartbeatScheduler;
+    }
+    
+    /**
+     * 获取心跳负载跟踪器（完整/精简心跳统计）
+     */
+    public HeartbeatPayloadTracker getHeartbeatPayloadTracker() {
+        return heartbeatPayloads;
+    }
+    
+    /**
+     * 获取控制流最近一次重连后状态恢复的进度（节点重新注册、订阅和监听恢复）
+     * 
+     * @return 恢复进度，尚未完成过握手时返回 null
+     */
+    public RestoreProgress getRestoreProgress() {
+        return getRestoreProgress(StreamConnectionPool.CONTROL_LANE);
+    }
+    
+    /**
+     * 获取指定流最近一次重连后状态恢复的进度
+     * 
+     * @param laneIndex 流下标
+     * @return 恢复进度，该流尚未完成过握手时返回 null
+     */
+    public RestoreProgress getRestoreProgress(int laneIndex) {
+        return restoreProgress.get(laneIndex);
+    }
+    
+    /**
+     * 获取已订阅服务的本地实例缓存
+     */
+    public ServiceInstanceCache getServiceInstanceCache() {
+        return instanceCache;
+    }
+    
+    /**
+     * 获取已订阅服务的当前快照（不可变，无锁读取；未连接时可能返回过期快照）
+     * 
+     * @param namespaceId 命名空间ID，为空时使用配置的命名空间
+     * @param groupName 分组名，为空时使用配置的分组
+     * @param serviceName 服务名
+     * @return 快照；服务未订阅或缓存尚未同步时返回 null
+     */
+    public ServiceSnapshot getServiceSnapshot(String namespaceId, String groupName, String serviceName) {
+        return instanceCache.getSnapshot(getOrDefault(namespaceId, config.getNamespaceId()),
+                getOrDefault(groupName, config.getGroupName()), serviceName, !isConnected());
+    }
+    
+    /**
+     * 从已订阅服务的当前快照中选择一个节点（客户端负载均衡）
+     * 
+     * <p>不访问服务端；选择器按快照版本号缓存选择表，快照不变时选择不分配对象。</p>
+     * 
+     * @param namespaceId 命名空间ID，为空时使用配置的命名空间
+     * @param groupName 分组名，为空时使用配置的分组
+     * @param serviceName 服务名
+     * @param selector 节点选择器，一个服务使用一个实例
+     * @return 选中的节点；服务未订阅、缓存尚未同步或没有可用节点时返回 null
+     */
+    public NodeInfo selectNode(String namespaceId, String groupName, String serviceName, NodeSelector selector) {
+        return selector.select(getServiceSnapshot(namespaceId, groupName, serviceName));
+    }
+    
+    /**
+     * 当前连接是否处于连接级租约模式（临时节点无需业务心跳）
+     */
+    public boolean isConnectionLeaseActive() {
+        return streamPool.controlLane().isConnectionLease();
+    }
+    
+    /**
+     * 获取最近 60 秒的 Ping RTT 统计（所有双向流合并）
+     */
+    public LatencyHistogram.Snapshot getPingRtt() {
+        return streamPool.getPingRtt();
+    }
+    
+    /**
+     * 获取最近 60 秒指定请求类型的响应延迟统计（所有双向流合并）
+     * 
+     * @param type 请求类型，如 {@code ClientMessageType.CLIENT_GET_CONFIG}
+     */
+    public LatencyHistogram.Snapshot getRequestLatency(StreamProto.ClientMessageType type) {
+        return streamPool.getRequestLatency(type);
+    }
+    
     @Override
     public List<ConfigHistory> getConfigHistory(String namespaceId, String groupName, String configDataId, int pageNum, int pageSize) {
         ensureConnected();
         
         try {
+            return StreamConnectionManager.awaitResult(getConfigHistoryAsync(namespaceId, groupName, configDataId, pageNum, pageSize));
+        } catch (TimeoutException e) {
+            logger.error("getConfigHistory timed out", e);
+            return Collections.emptyList();
+        } catch (Exception e) {
+            logger.error("getConfigHistory failed", e);
+            return Collections.emptyList();
+        }
+    }
+    
+    @Override
+    public CompletableFuture<List<ConfigHistory>> getConfigHistoryAsync(String namespaceId, String groupName, String configDataId, int pageNum, int pageSize) {
+        return callAsync(() -> {
             ConfigProto.GetConfigHistoryRequest request = ConfigProto.GetConfigHistoryRequest.newBuilder()
                     .setNamespaceId(getOrDefault(namespaceId, config.getNamespaceId()))
                     .setGroupName(getOrDefault(groupName, config.getGroupName()))
@@ -916,59 +1548,59 @@ public class StreamBasedServiceCenterClient implements IServiceCenterClient {
                     .setLimit(pageSize)
                     .build();
             
-            ConfigProto.GetConfigHistoryResponse response = businessHelper.getConfigHistory(request);
-            
-            if (response.getSuccess()) {
-                return ProtoConverter.toConfigHistoryList(response.getHistoryList()); // proto 中是 history，不是 histories
-            } else {
+            return businessHelper.getConfigHistoryAsync(request).thenApply(response -> {
+                if (response.getSuccess()) {
+                    return ProtoConverter.toConfigHistoryList(response.getHistoryList()); // proto 中是 history，不是 histories
+                }
                 logger.warn("getConfigHistory failed: {}", response.getMessage());
-                return Collections.emptyList();
-            }
-            
-        } catch (TimeoutException e) {
-            logger.error("getConfigHistory timed out", e);
-            return Collections.emptyList();
-        } catch (Exception e) {
-            logger.error("getConfigHistory failed", e);
-            return Collections.emptyList();
-        }
+                return Collections.<ConfigHistory>emptyList();
+            });
+        });
     }
     
     @Override
     public RollbackConfigResult rollbackConfig(String namespaceId, String groupName, String configDataId, String historyId) {
         ensureConnected();
+        parseHistoryId(historyId);
         
         try {
-            long targetVersion;
-            try {
-                targetVersion = Long.parseLong(historyId);
-            } catch (NumberFormatException e) {
-                throw new IllegalArgumentException("Invalid history id: " + historyId);
-            }
-            
+            return StreamConnectionManager.awaitResult(rollbackConfigAsync(namespaceId, groupName, configDataId, historyId));
+        } catch (TimeoutException e) {
+            throw new RuntimeException("Rollback config timed out", e);
+        } catch (Exception e) {
+            throw new RuntimeException("Rollback config failed", e);
+        }
+    }
+    
+    @Override
+    public CompletableFuture<RollbackConfigResult> rollbackConfigAsync(String namespaceId, String groupName, String configDataId, String historyId) {
+        return callAsync(() -> {
             ConfigProto.RollbackConfigRequest request = ConfigProto.RollbackConfigRequest.newBuilder()
                     .setNamespaceId(getOrDefault(namespaceId, config.getNamespaceId()))
                     .setGroupName(getOrDefault(groupName, config.getGroupName()))
                     .setConfigDataId(configDataId)
-                    .setTargetVersion(targetVersion)
+                    .setTargetVersion(parseHistoryId(historyId))
                     .build();
             
-            ConfigProto.RollbackConfigResponse response = businessHelper.rollbackConfig(request);
-            
-            RollbackConfigResult result = new RollbackConfigResult();
-            result.setSuccess(response.getSuccess());
-            result.setMessage(response.getMessage());
-            result.setNewVersion(response.getNewVersion()); // Model 中是 setNewVersion
-            result.setContentMd5(response.getContentMd5()); // Model 中是 setContentMd5
-            
-            return result;
-            
-        } catch (TimeoutException e) {
-            throw new RuntimeException("Rollback config timed out", e);
-        } catch (IllegalArgumentException e) {
-            throw e;
-        } catch (Exception e) {
-            throw new RuntimeException("Rollback config failed", e);
+            return businessHelper.rollbackConfigAsync(request).thenApply(response -> {
+                RollbackConfigResult result = new RollbackConfigResult();
+                result.setSuccess(response.getSuccess());
+                result.setMessage(response.getMessage());
+                result.setNewVersion(response.getNewVersion()); // Model 中是 setNewVersion
+                result.setContentMd5(response.getContentMd5()); // Model 中是 setContentMd5
+                return result;
+            });
+        });
+    }
+    
+    /**
+     * 解析配置历史ID（目标版本号）
+     */
+    private long parseHistoryId(String historyId) {
+        try {
+            return Long.parseLong(historyId);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid history id: " + historyId);
         }
     }
     
@@ -981,16 +1613,22 @@ public class StreamBasedServiceCenterClient implements IServiceCenterClient {
         String namespaceId = event.getNamespaceId();
         String groupName = event.getGroupName();
         String serviceName = event.getServiceName();
+        String key = namespaceId + "/" + groupName + "/" + serviceName;
         
-        // 找到匹配的订阅并通知监听器
+        // 先更新本地缓存，保证监听器回调时发现结果已是最新；节点级事件只转换变更节点并增量更新快照。
+        // 领域事件只构造一次，所有匹配的监听器共享
+        ServiceChangeEvent domainEvent = instanceCache.entry(namespaceId, groupName, serviceName) != null
+                ? instanceCache.applyEvent(event) : null;
+        
+        // 找到匹配的订阅，按 (监听器, 服务) 有序分发
         for (ServiceSubscription subscription : serviceSubscriptions.values()) {
             if (subscription.matches(namespaceId, groupName, serviceName)) {
-                try {
-                    ServiceChangeEvent domainEvent = ProtoConverter.toServiceChangeEvent(event);
-                    subscription.listener.onServiceChange(domainEvent);
-                } catch (Exception e) {
-                    logger.error("handleServiceChangeEvent failed", e);
+                if (domainEvent == null) {
+                    domainEvent = instanceCache.applyEvent(event);
                 }
+                ServiceChangeEvent sharedEvent = domainEvent;
+                ServiceChangeListener listener = subscription.listener;
+                listenerDispatcher.dispatch(listener, key, () -> listener.onServiceChange(sharedEvent));
             }
         }
     }
@@ -1002,18 +1640,35 @@ public class StreamBasedServiceCenterClient implements IServiceCenterClient {
         String namespaceId = event.getNamespaceId();
         String groupName = event.getGroupName();
         String configDataId = event.getConfigDataId();
+        String key = namespaceId + "/" + groupName + "/" + configDataId;
         
-        // 找到匹配的监听并通知监听器
+        // 找到匹配的监听，按 (监听器, 配置) 有序分发
         for (ConfigWatch watch : configWatches.values()) {
             if (watch.matches(namespaceId, groupName, configDataId)) {
-                try {
+                ConfigChangeListener listener = watch.listener;
+                listenerDispatcher.dispatch(listener, key, () -> {
                     ConfigChangeEvent domainEvent = ProtoConverter.toConfigChangeEvent(event);
-                    watch.listener.onConfigChange(domainEvent);
-                } catch (Exception e) {
-                    logger.error("handleConfigChangeEvent failed", e);
-                }
+                    listener.onConfigChange(domainEvent);
+                });
+            }
+        }
+    }
+    
+    /**
+     * 监听器不再被任何订阅/监听引用时，从分发器中移除
+     */
+    private void releaseListener(Object listener) {
+        for (ServiceSubscription subscription : serviceSubscriptions.values()) {
+            if (subscription.listener == listener) {
+                return;
+            }
+        }
+        for (ConfigWatch watch : configWatches.values()) {
+            if (watch.listener == listener) {
+                return;
             }
         }
+        listenerDispatcher.remove(listener);
     }
     
     // ========== 心跳管理 ==========
@@ -1022,36 +1677,31 @@ public class StreamBasedServiceCenterClient implements IServiceCenterClient {
      * 启动心跳任务
      */
     private void startHeartbeat(String nodeId) {
-        stopHeartbeat(nodeId); // 先停止旧的心跳任务
-        
-            ScheduledFuture<?> future = heartbeatExecutor.scheduleAtFixedRate(
-                    () -> {
-                        try {
-                            OperationResult result = sendHeartbeat(nodeId);
-                            if (!result.isSuccess()) {
-                                    logger.error("Heartbeat rejected: nodeId={}, message={}", 
-                                            nodeId, result.getMessage());
-                            }
-                        } catch (Exception e) {
-                            logger.error("sendHeartbeat failed: nodeId={}", nodeId, e);
-                        }
-                    },
-                    config.getHeartbeatInterval(),
-                    config.getHeartbeatInterval(),
-                    TimeUnit.MILLISECONDS  // 修复：使用毫秒
-            );
-            
-            heartbeatTasks.put(nodeId, future);
+        if (isLeased(registeredNodes.get(nodeId))) {
+            // 临时节点随连接存活，Ping 即可续约
+            heartbeatScheduler.remove(nodeId);
+            logger.debug("Node kept alive by connection lease, no business heartbeat: nodeId={}", nodeId);
+            return;
+        }
+        heartbeatScheduler.add(nodeId);
         logger.debug("Heartbeat task started: nodeId={}, intervalMs={}", nodeId, config.getHeartbeatInterval());
     }
     
+    /**
+     * 节点是否由连接级租约保持存活（服务端接受了租约且节点为临时节点）
+     */
+    private boolean isLeased(NodeInfo nodeInfo) {
+        return nodeInfo != null && "Y".equalsIgnoreCase(nodeInfo.getEphemeral())
+                && streamPool.controlLane().isConnectionLease();
+    }
+    
     /**
      * 停止心跳任务
      */
     private void stopHeartbeat(String nodeId) {
-        ScheduledFuture<?> future = heartbeatTasks.remove(nodeId);
-        if (future != null) {
-            future.cancel(false);
+        heartbeatPayloads.remove(nodeId);
+        if (heartbeatScheduler.contains(nodeId)) {
+            heartbeatScheduler.remove(nodeId);
             logger.debug("Heartbeat task stopped: nodeId={}", nodeId);
         }
     }
@@ -1060,10 +1710,8 @@ public class StreamBasedServiceCenterClient implements IServiceCenterClient {
      * 停止所有心跳任务
      */
     private void stopAllHeartbeats() {
-        for (Map.Entry<String, ScheduledFuture<?>> entry : heartbeatTasks.entrySet()) {
-            entry.getValue().cancel(false);
-        }
-        heartbeatTasks.clear();
+        heartbeatScheduler.stop();
+        heartbeatPayloads.clear();
         logger.info("All heartbeat tasks stopped");
     }
     
@@ -1083,6 +1731,23 @@ public class StreamBasedServiceCenterClient implements IServiceCenterClient {
     
     // ========== 工具方法 ==========
     
+    /**
+     * 在已连接状态下执行异步操作
+     * 
+     * <p>未连接或构建请求时抛出的异常统一转换为以异常完成的 Future，
+     * 保证异步 API 不会直接抛出异常。</p>
+     */
+    private <T> CompletableFuture<T> callAsync(Supplier<CompletableFuture<T>> action) {
+        if (!isConnected()) {
+            return CompletableFuture.failedFuture(new IllegalStateException("Client not connected; call connect() first"));
+        }
+        try {
+            return action.get();
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+    
     /**
      * 确保已连接
      */
@@ -1153,6 +1818,34 @@ public class StreamBasedServiceCenterClient implements IServiceCenterClient {
     
     // ========== 内部类 ==========
     
+    /**
+     * 一元 RPC 响应观察者，将响应桥接到 CompletableFuture
+     */
+    private static class UnaryResponseObserver<T> implements StreamObserver<T> {
+        private final CompletableFuture<T> future;
+        
+        UnaryResponseObserver(CompletableFuture<T> future) {
+            this.future = future;
+        }
+        
+        @Override
+        public void onNext(T value) {
+            future.complete(value);
+        }
+        
+        @Override
+        public void onError(Throwable t) {
+            future.completeExceptionally(t);
+        }
+        
+        @Override
+        public void onCompleted() {
+            if (!future.isDone()) {
+                future.completeExceptionally(new IllegalStateException("RPC completed without response"));
+            }
+        }
+    }
+    
     /**
      * 服务订阅信息
      */
@@ -6,6 +6,7 @@ import com.flux.servicecenter.config.ServiceCenterConfig;
 import com.flux.servicecenter.listener.ConfigChangeListener;
 import com.flux.servicecenter.model.*;
 import io.grpc.ClientInterceptor;
+import io.grpc.ManagedChannel;
 import io.grpc.Status;
 import io.grpc.StatusRuntimeException;
 import io.grpc.stub.StreamObserver;
@@ -44,11 +45,11 @@ public class ConfigCenterManager {
     private final ConnectionManager connectionManager;
     
     /** 
-     * 订阅执行器
+     * 订阅断开后的重连调度器
      * 
-     * <p>用于执行订阅重连任务。使用固定大小的线程池，避免无限制创建线程。</p>
+     * <p>按去相关抖动退避在定时线程上调度重试，不在订阅线程池中休眠。</p>
      */
-    private final ExecutorService subscriptionExecutor;
+    private final ReconnectScheduler reconnectScheduler;
     
     // ========== gRPC Stub ==========
     
@@ -107,14 +108,14 @@ public class ConfigCenterManager {
      * 
      * @param config 客户端配置
      * @param connectionManager 连接管理器
-     * @param subscriptionExecutor 订阅执行器
+     * @param reconnectExecutor 重连定时执行器（监听断开后的重试在其上调度）
      */
     public ConfigCenterManager(ServiceCenterConfig config,
                               ConnectionManager connectionManager,
-                              ExecutorService subscriptionExecutor) {
+                              ScheduledExecutorService reconnectExecutor) {
         this.config = config;
         this.connectionManager = connectionManager;
-        this.subscriptionExecutor = subscriptionExecutor;
+        this.reconnectScheduler = new ReconnectScheduler("config", reconnectExecutor, this::currentChannel, config);
     }
     
     /**
@@ -472,70 +473,49 @@ public class ConfigCenterManager {
     
     /**
      * 重连配置监听
+     * 
+     * <p>由 {@link ReconnectScheduler} 在定时线程上按退避延迟调度，等待期间不占用订阅线程池；
+     * Channel 恢复 READY 时立即重试。</p>
      */
     private void reconnectWatch(String subscriptionId, String namespaceId, 
                                String groupName, List<String> configDataIds, 
                                ConfigChangeListener listener) {
-        subscriptionExecutor.submit(() -> {
-            int attempts = 0;
-            long backoffMs = config.getReconnectInterval();
-            final long maxBackoffMs = 30000;
-            
-            while (!closed.get() && (config.getMaxReconnectAttempts() < 0 || attempts < config.getMaxReconnectAttempts())) {
-                try {
-                    Thread.sleep(backoffMs);
-                    attempts++;
-                    backoffMs = Math.min(backoffMs * 2, maxBackoffMs);
-                    
-                    logger.info("Reconnecting config watch: subscriptionId={}, attempt={}, backoffMs={}", 
-                            subscriptionId, attempts, backoffMs);
-                    
-                    // 检查是否已有相同订阅
-                    boolean hasDuplicate = false;
-                    for (ConfigSubscriptionContext ctx : subscriptions.values()) {
-                        if (ctx.namespaceId.equals(namespaceId) && 
-                            ctx.groupName.equals(groupName) &&
-                            ctx.configDataIds != null && ctx.configDataIds.equals(configDataIds)) {
-                            logger.info("Duplicate config watch exists, skip reconnect: subscriptionId={}", ctx.subscriptionId);
-                            hasDuplicate = true;
-                            break;
-                        }
-                    }
-                    
-                    if (hasDuplicate) {
-                        return;
-                    }
-                    
-                    // 重新连接
-                    if (!connectionManager.isConnected()) {
-                        connectionManager.reconnect();
-                    }
-                    
-                    if (!connectionManager.isConnected()) {
-                        continue;
-                    }
-                    
-                    // 重新监听
-                    String newSubscriptionId = watchConfig(namespaceId, groupName, configDataIds, listener);
-                    logger.info("Config watch reconnected: oldSubscriptionId={}, newSubscriptionId={}, attempts={}", 
-                            subscriptionId, newSubscriptionId, attempts);
-                    
-                    listener.onReconnected();
-                    return;
-                } catch (InterruptedException e) {
-                    Thread.currentThread().interrupt();
-                    logger.warn("Config watch reconnect interrupted: subscriptionId={}", subscriptionId);
-                    return;
-                } catch (Exception e) {
-                    logger.warn("Config watch reconnect failed: subscriptionId={}, attempt={}", subscriptionId, attempts, e);
+        reconnectScheduler.start("config watch " + subscriptionId, () -> {
+            // 检查是否已有相同订阅
+            for (ConfigSubscriptionContext ctx : subscriptions.values()) {
+                if (ctx.namespaceId.equals(namespaceId) && 
+                    ctx.groupName.equals(groupName) &&
+                    ctx.configDataIds != null && ctx.configDataIds.equals(configDataIds)) {
+                    logger.info("Duplicate config watch exists, skip reconnect: subscriptionId={}", ctx.subscriptionId);
+                    return CompletableFuture.completedFuture(null);
                 }
             }
             
-            if (!closed.get()) {
-                logger.error("Config watch reconnect exhausted retries: subscriptionId={}, attempts={}", 
-                        subscriptionId, attempts);
+            // 重新连接
+            if (!connectionManager.isConnected()) {
+                connectionManager.reconnect();
+            }
+            if (!connectionManager.isConnected()) {
+                return CompletableFuture.failedFuture(new IllegalStateException("Not connected"));
             }
-        });
+            
+            // 重新监听
+            String newSubscriptionId = watchConfig(namespaceId, groupName, configDataIds, listener);
+            logger.info("Config watch reconnected: oldSubscriptionId={}, newSubscriptionId={}", 
+                    subscriptionId, newSubscriptionId);
+            
+            listener.onReconnected();
+            return CompletableFuture.completedFuture(null);
+        }, closed::get);
+    }
+    
+    /**
+     * 当前 Channel（用于重连时监听连接状态）
+     * 
+     * <p>通道存在即返回，不论连接标志：断开期间正是需要监听通道恢复 READY 的时候。</p>
+     */
+    ManagedChannel currentChannel() {
+        return connectionManager.peekChannel();
     }
     
     /**
@@ -49,8 +49,10 @@ public class ConnectionManager implements AutoCloseable {
      * 在 {@link #close()} 方法中关闭。</p>
      * 
      * <p>该通道由服务注册发现和配置中心共享，提高资源利用效率。</p>
+     * 
+     * <p>使用 volatile 保证重连调度线程通过 {@link #peekChannel()} 读取到最新通道。</p>
      */
-    private ManagedChannel channel;
+    private volatile ManagedChannel channel;
     
     /** 
      * 认证元数据
@@ -235,6 +237,18 @@ public class ConnectionManager implements AutoCloseable {
         return channel;
     }
     
+    /**
+     * 获取 gRPC 通道（不检查连接状态）
+     * 
+     * <p>健康检查或心跳失败会把连接标记为断开，但通道本身仍在自行重连。
+     * 重连调度需要在此期间监听通道状态，因此不能依赖连接标志。</p>
+     * 
+     * @return gRPC 通道，尚未创建时返回 null
+     */
+    public ManagedChannel peekChannel() {
+        return channel;
+    }
+    
     /**
      * 获取认证元数据拦截器
      * 
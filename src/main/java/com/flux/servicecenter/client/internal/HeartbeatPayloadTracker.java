@@ -0,0 +1,153 @@
+package com.flux.servicecenter.client.internal;
+
+import com.flux.servicecenter.model.NodeInfo;
+import com.flux.servicecenter.registry.RegistryProto;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * 心跳负载跟踪器
+ * 
+ * <p>记录每个已注册节点的指纹（节点字段的哈希），决定本次心跳是否携带完整服务信息：</p>
+ * <ul>
+ *   <li>节点首次心跳、节点信息变化、调用 {@link #invalidate(String)} / {@link #invalidateAll()}
+ *       之后（重连、心跳失败）的下一次心跳携带完整信息</li>
+ *   <li>其余情况下每 {@code fullPayloadInterval} 次心跳携带一次完整信息，其他心跳只携带 nodeId</li>
+ * </ul>
+ * 
+ * <p>完整心跳请求按节点缓存，节点未变化时不会重新构建 {@code Service} / {@code Node}。</p>
+ */
+public final class HeartbeatPayloadTracker {
+    
+    private final int fullPayloadInterval;
+    
+    /** nodeId -> 心跳负载状态 */
+    private final Map<String, State> states = new ConcurrentHashMap<>();
+    
+    private final AtomicLong fullCount = new AtomicLong();
+    private final AtomicLong deltaCount = new AtomicLong();
+    
+    /**
+     * @param fullPayloadInterval 节点未变化时每隔多少次心跳携带一次完整信息，为 1 时每次都携带
+     */
+    public HeartbeatPayloadTracker(int fullPayloadInterval) {
+        if (fullPayloadInterval <= 0) {
+            throw new IllegalArgumentException("fullPayloadInterval must be greater than 0");
+        }
+        this.fullPayloadInterval = fullPayloadInterval;
+    }
+    
+    /**
+     * 生成节点本次的心跳请求
+     * 
+     * @param nodeId 节点ID
+     * @param nodeInfo 本地缓存的节点信息，为 null 时只携带 nodeId
+     * @param fullBuilder 构建完整心跳请求，只在节点首次心跳或信息变化时调用
+     * @return 完整心跳请求，或只包含 nodeId 的心跳请求
+     */
+    public RegistryProto.HeartbeatRequest next(String nodeId, NodeInfo nodeInfo,
+                                               Function<NodeInfo, RegistryProto.HeartbeatRequest> fullBuilder) {
+        if (nodeInfo == null) {
+            deltaCount.incrementAndGet();
+            return RegistryProto.HeartbeatRequest.newBuilder().setNodeId(nodeId).build();
+        }
+        int fingerprint = fingerprint(nodeInfo);
+        State state = states.computeIfAbsent(nodeId, State::new);
+        synchronized (state) {
+            if (state.full == null || state.fingerprint != fingerprint) {
+                state.full = fullBuilder.apply(nodeInfo);
+                state.fingerprint = fingerprint;
+                state.forceFull = true;
+            }
+            if (state.forceFull || ++state.sinceFull >= fullPayloadInterval) {
+                state.forceFull = false;
+                state.sinceFull = 0;
+                fullCount.incrementAndGet();
+                return state.full;
+            }
+        }
+        deltaCount.incrementAndGet();
+        return state.nodeOnly;
+    }
+    
+    /**
+     * 下一次心跳携带完整信息（如心跳失败，服务端可能已剔除节点）
+     */
+    public void invalidate(String nodeId) {
+        State state = states.get(nodeId);
+        if (state != null) {
+            synchronized (state) {
+                state.forceFull = true;
+            }
+        }
+    }
+    
+    /**
+     * 所有节点的下一次心跳携带完整信息（如重连到新的服务端）
+     */
+    public void invalidateAll() {
+        for (State state : states.values()) {
+            synchronized (state) {
+                state.forceFull = true;
+            }
+        }
+    }
+    
+    /**
+     * 移除节点（节点注销或停止心跳）
+     */
+    public void remove(String nodeId) {
+        states.remove(nodeId);
+    }
+    
+    /**
+     * 移除所有节点
+     */
+    public void clear() {
+        states.clear();
+    }
+    
+    /**
+     * 节点字段的指纹，任一字段变化都会改变指纹
+     */
+    static int fingerprint(NodeInfo nodeInfo) {
+        return Objects.hash(nodeInfo.getNamespaceId(), nodeInfo.getGroupName(), nodeInfo.getServiceName(),
+                nodeInfo.getIpAddress(), nodeInfo.getPortNumber(), nodeInfo.getWeight(), nodeInfo.getEphemeral(),
+                nodeInfo.getInstanceStatus(), nodeInfo.getHealthyStatus(), nodeInfo.getMetadata());
+    }
+    
+    // ========== 统计 ==========
+    
+    /**
+     * 携带完整服务信息的心跳数
+     */
+    public long getFullCount() {
+        return fullCount.get();
+    }
+    
+    /**
+     * 只携带 nodeId 的心跳数
+     */
+    public long getDeltaCount() {
+        return deltaCount.get();
+    }
+    
+    /**
+     * 单个节点的心跳负载状态
+     */
+    private static final class State {
+        final RegistryProto.HeartbeatRequest nodeOnly;
+        RegistryProto.HeartbeatRequest full;
+        int fingerprint;
+        int sinceFull;
+        boolean forceFull;
+        
+        State(String nodeId) {
+            this.nodeOnly = RegistryProto.HeartbeatRequest.newBuilder().setNodeId(nodeId).build();
+        }
+    }
+}
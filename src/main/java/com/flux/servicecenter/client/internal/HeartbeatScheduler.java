@@ -0,0 +1,409 @@
+package com.flux.servicecenter.client.internal;
+
+import com.flux.servicecenter.model.OperationResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+import java.util.function.Function;
+
+/**
+ * 节点心跳调度器
+ * 
+ * <p>所有已注册节点共用一个定时任务，不再为每个节点创建 {@code scheduleAtFixedRate} 任务：</p>
+ * <ul>
+ *   <li>心跳间隔被切分为若干个槽（每槽至少 {@link #MIN_TICK_MS} 毫秒），节点按 nodeId 的哈希落在固定的槽中
+ *       （见 {@link Jitter#phase(String, long)}），定时任务每个 tick 只处理当前槽的节点。同一时刻注册或重连的大量节点
+ *       因此分散在整个心跳间隔内，重新添加的节点仍回到原来的槽</li>
+ *   <li>设置了抖动比例时，节点每次心跳后在原来的槽附近 ±抖动比例 × 槽数的范围内随机换槽，心跳间隔随之浮动</li>
+ *   <li>心跳通过异步发送函数发出，定时线程不等待响应；响应在回调中处理</li>
+ *   <li>上一次心跳尚未返回的节点本轮跳过，服务端变慢时不会堆积请求</li>
+ *   <li>设置了 {@link BatchSender} 时，同一个槽内到期的节点合并为一帧批量心跳（每帧最多
+ *       {@link #MAX_BATCH_SIZE} 个节点）；批量发送函数返回 null（如服务端不支持）时退回逐个发送</li>
+ * </ul>
+ * 
+ * <p>定时任务运行在调用方提供的 {@link ScheduledExecutorService} 上，调度器本身不创建线程。</p>
+ */
+public final class HeartbeatScheduler {
+    private static final Logger logger = LoggerFactory.getLogger(HeartbeatScheduler.class);
+    
+    /** 最小 tick 间隔（毫秒） */
+    static final long MIN_TICK_MS = 10;
+    
+    /** 最大槽数 */
+    static final int MAX_BUCKETS = 1024;
+    
+    /** 批量心跳能力标识（客户端在握手元数据中声明，服务端在 serverInfo.capabilities 中回应） */
+    public static final String BATCH_CAPABILITY = "batch";
+    
+    /** 单帧批量心跳最多携带的节点数 */
+    static final int MAX_BATCH_SIZE = 1000;
+    
+    private final String name;
+    private final ScheduledExecutorService timer;
+    private final Function<String, CompletableFuture<OperationResult>> sender;
+    private final BooleanSupplier ready;
+    private volatile BatchSender batchSender;
+    
+    private final long tickMs;
+    private final Set<Entry>[] buckets;
+    
+    /** 每次心跳后随机偏移的最大槽数 */
+    private final int jitterTicks;
+    
+    /** nodeId -> 心跳条目 */
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    
+    /** 下一个要处理的槽序号（只由定时任务递增） */
+    private volatile long cursor;
+    
+    private ScheduledFuture<?> tickFuture;
+    
+    private final AtomicLong sentCount = new AtomicLong();
+    private final AtomicLong failedCount = new AtomicLong();
+    private final AtomicLong skippedCount = new AtomicLong();
+    private final AtomicLong batchCount = new AtomicLong();
+    
+    /**
+     * @param name 名称（用于日志）
+     * @param timer 运行定时任务的调度线程池
+     * @param intervalMs 心跳间隔（毫秒）
+     * @param sender 异步发送单个节点心跳
+     */
+    public HeartbeatScheduler(String name, ScheduledExecutorService timer, long intervalMs,
+                              Function<String, CompletableFuture<OperationResult>> sender) {
+        this(name, timer, intervalMs, sender, () -> true, 0);
+    }
+    
+    /**
+     * @param name 名称（用于日志）
+     * @param timer 运行定时任务的调度线程池
+     * @param intervalMs 心跳间隔（毫秒）
+     * @param sender 异步发送单个节点心跳
+     * @param ready 每个 tick 开始前检查是否可以发送心跳（如连接是否可用），返回 false 时跳过本 tick
+     * @param jitterRatio 心跳间隔的随机抖动比例，取值 [0, {@link Jitter#MAX_RATIO}]
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public HeartbeatScheduler(String name, ScheduledExecutorService timer, long intervalMs,
+                              Function<String, CompletableFuture<OperationResult>> sender, BooleanSupplier ready,
+                              double jitterRatio) {
+        if (intervalMs <= 0) {
+            throw new IllegalArgumentException("intervalMs must be greater than 0");
+        }
+        if (jitterRatio < 0 || jitterRatio > Jitter.MAX_RATIO) {
+            throw new IllegalArgumentException("jitterRatio must be between 0 and " + Jitter.MAX_RATIO);
+        }
+        this.name = name;
+        this.timer = timer;
+        this.sender = sender;
+        this.ready = ready;
+        int bucketCount = (int) Math.max(1, Math.min(MAX_BUCKETS, intervalMs / MIN_TICK_MS));
+        this.tickMs = Math.max(1, intervalMs / bucketCount);
+        this.buckets = new Set[bucketCount];
+        for (int i = 0; i < bucketCount; i++) {
+            buckets[i] = ConcurrentHashMap.newKeySet();
+        }
+        this.jitterTicks = (int) (bucketCount * jitterRatio);
+    }
+    
+    /**
+     * 设置批量发送函数，为 null 时逐个节点发送
+     */
+    public void setBatchSender(BatchSender batchSender) {
+        this.batchSender = batchSender;
+    }
+    
+    /**
+     * 添加节点（已存在时重新安排），按 nodeId 的哈希分配槽，第一次心跳在一个心跳间隔内发出
+     */
+    public void add(String nodeId) {
+        long now = cursor;
+        int home = (int) Jitter.phase(nodeId, buckets.length);
+        place(nodeId, now + Math.floorMod(home - now, buckets.length));
+    }
+    
+    /**
+     * 添加节点（已存在时重新安排），以第一次心跳的时间作为节点的相位
+     * 
+     * @param nodeId 节点ID
+     * @param initialDelayMs 第一次心跳的延迟（毫秒），取值范围 [0, 心跳间隔]
+     */
+    public void add(String nodeId, long initialDelayMs) {
+        long delayTicks = Math.max(1, Math.min(buckets.length, (initialDelayMs + tickMs - 1) / tickMs));
+        place(nodeId, cursor + delayTicks - 1);
+    }
+    
+    /**
+     * @param firstTick 第一次心跳的 tick 序号，同时决定节点的相位
+     */
+    private void place(String nodeId, long firstTick) {
+        remove(nodeId);
+        Entry entry = new Entry(nodeId, firstTick, (int) (firstTick % buckets.length));
+        entries.put(nodeId, entry);
+        buckets[entry.bucket].add(entry);
+        ensureStarted();
+    }
+    
+    /**
+     * 移除节点，已发出的心跳不受影响
+     */
+    public void remove(String nodeId) {
+        Entry entry = entries.remove(nodeId);
+        if (entry != null) {
+            buckets[entry.bucket].remove(entry);
+        }
+    }
+    
+    /**
+     * 移除所有节点并停止定时任务
+     */
+    public synchronized void stop() {
+        entries.clear();
+        for (Set<Entry> bucket : buckets) {
+            bucket.clear();
+        }
+        if (tickFuture != null) {
+            tickFuture.cancel(false);
+            tickFuture = null;
+        }
+    }
+    
+    private synchronized void ensureStarted() {
+        if (tickFuture == null) {
+            tickFuture = timer.scheduleAtFixedRate(this::tick, tickMs, tickMs, TimeUnit.MILLISECONDS);
+            logger.info("Heartbeat scheduler {} started, tickMs={}, buckets={}", name, tickMs, buckets.length);
+        }
+    }
+    
+    /**
+     * 处理当前槽（只在定时线程中执行）
+     */
+    void tick() {
+        long now = cursor;
+        int bucket = (int) (now % buckets.length);
+        cursor++;
+        try {
+            Set<Entry> slot = buckets[bucket];
+            if (slot.isEmpty() || !ready.getAsBoolean()) {
+                return;
+            }
+            // 抖动后下一次心跳可能在一圈之后，只处理已到期的节点
+            List<Entry> due = new ArrayList<>(slot.size());
+            for (Entry entry : slot) {
+                if (entry.dueTick <= now) {
+                    due.add(entry);
+                    reschedule(entry, bucket, now);
+                }
+            }
+            BatchSender batch = batchSender;
+            if (batch == null) {
+                for (Entry entry : due) {
+                    if (claim(entry)) {
+                        send(entry);
+                    }
+                }
+            } else {
+                List<Entry> claimed = new ArrayList<>(due.size());
+                for (Entry entry : due) {
+                    if (claim(entry)) {
+                        claimed.add(entry);
+                    }
+                }
+                for (int from = 0; from < claimed.size(); from += MAX_BATCH_SIZE) {
+                    sendBatch(batch, claimed.subList(from, Math.min(claimed.size(), from + MAX_BATCH_SIZE)));
+                }
+            }
+        } catch (Throwable e) {
+            // 异常不能逃出定时任务，否则后续 tick 会被取消
+            logger.error("Heartbeat scheduler {} tick failed", name, e);
+        }
+    }
+    
+    /**
+     * 安排节点的下一次心跳：在下一个相位点附近随机偏移 ±抖动槽数，
+     * 相邻心跳间隔在 [槽数 - 2 × 抖动槽数, 槽数 + 2 × 抖动槽数] 之间，平均仍为一个心跳间隔
+     */
+    private void reschedule(Entry entry, int from, long now) {
+        int offset = jitterTicks > 0 ? ThreadLocalRandom.current().nextInt(-jitterTicks, jitterTicks + 1) : 0;
+        long phaseTick = entry.phaseTick + buckets.length;
+        while (phaseTick + offset <= now) {
+            // 连接不可用期间错过的相位点直接跳过
+            phaseTick += buckets.length;
+        }
+        entry.phaseTick = phaseTick;
+        entry.dueTick = phaseTick + offset;
+        int target = (int) (entry.dueTick % buckets.length);
+        if (target == from) {
+            return;
+        }
+        buckets[from].remove(entry);
+        entry.bucket = target;
+        buckets[target].add(entry);
+        if (entries.get(entry.nodeId) != entry) {
+            // 换槽期间节点被移除，remove() 可能读到旧的槽
+            buckets[target].remove(entry);
+        }
+    }
+    
+    /**
+     * 标记节点心跳在途，上一次心跳未返回时跳过
+     */
+    private boolean claim(Entry entry) {
+        if (!entry.inFlight.compareAndSet(false, true)) {
+            skippedCount.incrementAndGet();
+            logger.debug("Previous heartbeat still in flight, skipping: nodeId={}", entry.nodeId);
+            return false;
+        }
+        return true;
+    }
+    
+    private void send(Entry entry) {
+        CompletableFuture<OperationResult> future;
+        try {
+            future = sender.apply(entry.nodeId);
+        } catch (RuntimeException e) {
+            future = CompletableFuture.failedFuture(e);
+        }
+        sentCount.incrementAndGet();
+        future.whenComplete((result, error) -> {
+            entry.inFlight.set(false);
+            if (error != null) {
+                failedCount.incrementAndGet();
+                logger.error("sendHeartbeat failed: nodeId={}, error={}", entry.nodeId, error.getMessage());
+            } else if (result != null && !result.isSuccess()) {
+                failedCount.incrementAndGet();
+                logger.error("Heartbeat rejected: nodeId={}, message={}", entry.nodeId, result.getMessage());
+            }
+        });
+    }
+    
+    private void sendBatch(BatchSender batch, List<Entry> claimed) {
+        if (claimed.size() == 1) {
+            send(claimed.get(0));
+            return;
+        }
+        List<String> nodeIds = new ArrayList<>(claimed.size());
+        for (Entry entry : claimed) {
+            nodeIds.add(entry.nodeId);
+        }
+        CompletableFuture<Map<String, String>> future;
+        try {
+            future = batch.send(nodeIds);
+        } catch (RuntimeException e) {
+            future = CompletableFuture.failedFuture(e);
+        }
+        if (future == null) {
+            // 当前连接不支持批量心跳
+            for (Entry entry : claimed) {
+                send(entry);
+            }
+            return;
+        }
+        sentCount.addAndGet(claimed.size());
+        batchCount.incrementAndGet();
+        future.whenComplete((failedNodes, error) -> {
+            for (Entry entry : claimed) {
+                entry.inFlight.set(false);
+            }
+            if (error != null) {
+                failedCount.addAndGet(claimed.size());
+                logger.error("sendBatchHeartbeat failed: nodes={}, error={}", claimed.size(), error.getMessage());
+            } else if (failedNodes != null && !failedNodes.isEmpty()) {
+                failedCount.addAndGet(failedNodes.size());
+                logger.error("Batch heartbeat rejected {} of {} nodes: {}", failedNodes.size(), claimed.size(), failedNodes);
+            }
+        });
+    }
+    
+    // ========== 统计 ==========
+    
+    /**
+     * 当前调度的节点数
+     */
+    public int getNodeCount() {
+        return entries.size();
+    }
+    
+    /**
+     * 是否正在调度指定节点
+     */
+    public boolean contains(String nodeId) {
+        return entries.containsKey(nodeId);
+    }
+    
+    /**
+     * 已发出的心跳数
+     */
+    public long getSentCount() {
+        return sentCount.get();
+    }
+    
+    /**
+     * 失败或被服务端拒绝的心跳数
+     */
+    public long getFailedCount() {
+        return failedCount.get();
+    }
+    
+    /**
+     * 因上一次心跳未返回而跳过的次数
+     */
+    public long getSkippedCount() {
+        return skippedCount.get();
+    }
+    
+    /**
+     * 已发出的批量心跳帧数
+     */
+    public long getBatchCount() {
+        return batchCount.get();
+    }
+    
+    /**
+     * 批量心跳发送函数
+     */
+    @FunctionalInterface
+    public interface BatchSender {
+        
+        /**
+         * 在一帧中发送多个节点的心跳
+         * 
+         * @param nodeIds 本 tick 到期的节点ID
+         * @return 处理失败的节点（nodeId -> 原因），未列出的节点视为成功；当前连接不支持批量心跳时返回 null
+         */
+        CompletableFuture<Map<String, String>> send(List<String> nodeIds);
+    }
+    
+    /**
+     * 单个节点的心跳条目
+     */
+    private static final class Entry {
+        final String nodeId;
+        /** 最近一个未抖动的相位点（tick 序号），决定节点的固定相位 */
+        long phaseTick;
+        /** 下一次心跳的 tick 序号 */
+        volatile long dueTick;
+        /** 当前所在的槽 */
+        volatile int bucket;
+        final AtomicBoolean inFlight = new AtomicBoolean();
+        
+        Entry(String nodeId, long firstTick, int bucket) {
+            this.nodeId = nodeId;
+            this.phaseTick = firstTick;
+            this.dueTick = firstTick;
+            this.bucket = bucket;
+        }
+    }
+}
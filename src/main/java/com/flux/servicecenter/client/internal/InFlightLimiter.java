@@ -0,0 +1,434 @@
+package com.flux.servicecenter.client.internal;
+
+import com.flux.servicecenter.config.ServiceCenterConfig;
+import com.flux.servicecenter.config.ServiceCenterConfig.AdmissionPolicy;
+import com.flux.servicecenter.stream.StreamProto.ClientMessageType;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * 在途请求准入控制器
+ * 
+ * <p>限制双向流上同时等待响应的请求数量，支持全局上限和按 {@link ClientMessageType} 的上限。
+ * 服务端变慢时，超出上限的请求会被快速拒绝或排队等待，而不是全部堆积到 requestTimeout。</p>
+ * 
+ * <p>实现要点：</p>
+ * <ul>
+ *   <li>准入判断和许可释放在同一把锁内完成，临界区只做计数，不执行任何回调</li>
+ *   <li>排队请求按 FIFO 顺序获得许可；某类型达到上限时不会阻塞其他类型的排队请求</li>
+ *   <li>心跳、节点注册/注销等存活类请求（{@link #GLOBAL_EXEMPT_TYPES}）不占用也不受全局上限约束，
+ *       只受按类型的上限约束：读请求把全局上限用满时，节点租约仍能续期，重连后的节点恢复也不会被读请求饿死</li>
+ *   <li>排队等待的超时由请求超时时间轮负责，不占用调用线程</li>
+ *   <li>开启自适应后，全局上限按 AIMD 调整：响应延迟明显高于最小 RTT 或请求超时时乘性减小，
+ *       延迟正常且上限被用满时加性增大（每个窗口 +1）</li>
+ * </ul>
+ * 
+ * <p>注意：排队请求获得许可后在释放许可的线程上（锁外）继续执行，不切换到公共线程池；出站写入不会阻塞，
+ * 所以在 gRPC 回调线程或时间轮线程上发送是安全的。同一线程上许可的发放被展开为循环，
+ * 排队请求发送后立即失败、释放许可时不会递归加深调用栈。</p>
+ */
+public final class InFlightLimiter {
+    
+    /**
+     * 不受全局上限约束的请求类型
+     * 
+     * <p>这些请求决定节点是否存活（心跳续约、重连后重新注册），被普通读写请求挤占会导致节点被服务端摘除，
+     * 而它们的数量由节点数决定、不会无限增长，因此只受按类型的上限约束。</p>
+     */
+    static final EnumSet<ClientMessageType> GLOBAL_EXEMPT_TYPES = EnumSet.of(
+            ClientMessageType.CLIENT_HANDSHAKE,
+            ClientMessageType.CLIENT_PING,
+            ClientMessageType.CLIENT_HEARTBEAT,
+            ClientMessageType.CLIENT_BATCH_HEARTBEAT,
+            ClientMessageType.CLIENT_REGISTER_NODE,
+            ClientMessageType.CLIENT_UNREGISTER_NODE);
+    
+    /** 自适应上限的初始值（不超过配置的全局上限） */
+    private static final int ADAPTIVE_INITIAL_LIMIT = 128;
+    
+    /** 自适应上限的下限（不超过配置的全局上限） */
+    private static final int ADAPTIVE_MIN_LIMIT = 4;
+    
+    /** 延迟超过最小 RTT 的倍数时视为拥塞 */
+    private static final double LATENCY_TOLERANCE = 2.0;
+    
+    /** 拥塞时上限的乘性减小系数 */
+    private static final double BACKOFF_RATIO = 0.9;
+    
+    /** 最小 RTT 的统计窗口（样本数），窗口结束时用窗口内最小值替换，允许基线随网络变化漂移 */
+    private static final int RTT_WINDOW_SAMPLES = 1000;
+    
+    /**
+     * 请求结果（用于自适应调整）
+     */
+    enum Outcome {
+        /** 收到响应，参与延迟采样 */
+        SUCCESS,
+        /** 请求超时，视为拥塞信号 */
+        DROPPED,
+        /** 连接断开等与服务端负载无关的失败，不参与采样 */
+        IGNORED
+    }
+    
+    private final Object lock = new Object();
+    private final RequestTimeoutWheel timeoutWheel;
+    private final AdmissionPolicy policy;
+    private final int maxQueueSize;
+    private final boolean adaptive;
+    private final int maxLimit;
+    private final int minLimit;
+    
+    /** 按类型的上限（下标为 ordinal，Integer.MAX_VALUE 表示不限制） */
+    private final int[] typeLimits;
+    
+    /** 是否不受全局上限约束（下标为 ordinal） */
+    private final boolean[] globalExempt;
+    
+    // 以下字段由 lock 保护
+    private final int[] typeInFlight;
+    private final ArrayDeque<Waiter> waiters = new ArrayDeque<>();
+    
+    /** 不受全局上限约束的排队请求（只在按类型的上限用满时排队），与 waiters 分开避免被全局上限挡住 */
+    private final ArrayDeque<Waiter> exemptWaiters = new ArrayDeque<>();
+    
+    /** 已获得许可、尚未通知的排队请求（锁外由释放许可的线程依次完成） */
+    private final ConcurrentLinkedQueue<Waiter> grantedWaiters = new ConcurrentLinkedQueue<>();
+    
+    /** 当前线程是否正在通知获得许可的排队请求，嵌套的释放只入队、由外层循环完成 */
+    private final ThreadLocal<Boolean> granting = ThreadLocal.withInitial(() -> Boolean.FALSE);
+    private int inFlight;
+    private double limit;
+    private long minRttNanos = Long.MAX_VALUE;
+    private long windowMinRttNanos = Long.MAX_VALUE;
+    private int windowSamples;
+    private long lastDecreaseNanos;
+    private long rejectedCount;
+    private long queueTimeoutCount;
+    
+    /**
+     * 根据客户端配置创建准入控制器
+     * 
+     * @param config 客户端配置
+     * @param timeoutWheel 用于排队超时的时间轮
+     */
+    public InFlightLimiter(ServiceCenterConfig config, RequestTimeoutWheel timeoutWheel) {
+        this(config.getMaxInFlightRequests(), config.getTypeInFlightLimits(), config.getAdmissionPolicy(),
+                config.getMaxAdmissionQueueSize(), config.isAdaptiveInFlightLimit(), timeoutWheel);
+    }
+    
+    InFlightLimiter(int maxInFlight, Map<ClientMessageType, Integer> typeLimits, AdmissionPolicy policy,
+                    int maxQueueSize, boolean adaptive, RequestTimeoutWheel timeoutWheel) {
+        this.timeoutWheel = timeoutWheel;
+        this.policy = policy;
+        this.maxQueueSize = maxQueueSize;
+        this.adaptive = adaptive;
+        this.maxLimit = maxInFlight;
+        this.minLimit = Math.min(ADAPTIVE_MIN_LIMIT, maxInFlight);
+        this.limit = adaptive ? Math.min(ADAPTIVE_INITIAL_LIMIT, maxInFlight) : maxInFlight;
+        
+        ClientMessageType[] types = ClientMessageType.values();
+        this.typeLimits = new int[types.length];
+        this.typeInFlight = new int[types.length];
+        this.globalExempt = new boolean[types.length];
+        for (ClientMessageType type : types) {
+            Integer typeLimit = typeLimits.get(type);
+            this.typeLimits[type.ordinal()] = typeLimit != null ? typeLimit : Integer.MAX_VALUE;
+            this.globalExempt[type.ordinal()] = GLOBAL_EXEMPT_TYPES.contains(type);
+        }
+    }
+    
+    /**
+     * 申请一个在途许可
+     * 
+     * <p>有空闲额度时返回已完成的 Future；否则按准入策略快速失败
+     * （{@link RejectedExecutionException}）或排队等待，排队超过 timeoutMs 以
+     * {@link TimeoutException} 完成。</p>
+     * 
+     * @param type 请求类型
+     * @param timeoutMs 最长排队时间（毫秒）
+     * @return 许可的 Future，拿到许可后必须在请求结束时释放
+     */
+    public CompletableFuture<Permit> acquire(ClientMessageType type, long timeoutMs) {
+        int index = type.ordinal();
+        Waiter waiter;
+        synchronized (lock) {
+            if (canAdmit(index)) {
+                admit(index);
+                return CompletableFuture.completedFuture(new Permit(index));
+            }
+            int queued = waiters.size() + exemptWaiters.size();
+            if (policy == AdmissionPolicy.REJECT || queued >= maxQueueSize) {
+                rejectedCount++;
+                return CompletableFuture.failedFuture(new RejectedExecutionException(
+                        "Too many in-flight requests (inFlight: " + inFlight + ", limit: " + (int) limit
+                        + ", type: " + type + ", queued: " + queued + ")"));
+            }
+            waiter = new Waiter(index);
+            queueOf(index).addLast(waiter);
+        }
+        
+        waiter.timeout = timeoutWheel.newTimeout(() -> {
+            boolean removed;
+            synchronized (lock) {
+                removed = queueOf(waiter.typeIndex).remove(waiter);
+                if (removed) {
+                    queueTimeoutCount++;
+                }
+            }
+            if (removed) {
+                waiter.future.completeExceptionally(new TimeoutException(
+                        "Request timed out after " + timeoutMs + "ms waiting for an in-flight permit, type: " + type));
+            }
+        }, timeoutMs);
+        if (waiter.future.isDone()) {
+            waiter.timeout.cancel();
+        }
+        return waiter.future;
+    }
+    
+    /**
+     * 以指定异常结束所有排队中的请求（连接关闭或重连时调用）
+     * 
+     * @param cause 失败原因
+     */
+    public void failWaiters(Throwable cause) {
+        List<Waiter> failed;
+        synchronized (lock) {
+            if (waiters.isEmpty() && exemptWaiters.isEmpty()) {
+                return;
+            }
+            failed = new ArrayList<>(exemptWaiters);
+            failed.addAll(waiters);
+            exemptWaiters.clear();
+            waiters.clear();
+        }
+        for (Waiter waiter : failed) {
+            cancelTimeout(waiter);
+            waiter.future.completeExceptionally(cause);
+        }
+    }
+    
+    void release(Permit permit, long rttNanos, Outcome outcome) {
+        List<Waiter> granted;
+        synchronized (lock) {
+            if (!globalExempt[permit.typeIndex]) {
+                inFlight--;
+            }
+            typeInFlight[permit.typeIndex]--;
+            if (adaptive && outcome != Outcome.IGNORED && !globalExempt[permit.typeIndex]) {
+                onSample(rttNanos, outcome == Outcome.DROPPED);
+            }
+            granted = grantWaiters();
+        }
+        if (granted == null) {
+            return;
+        }
+        grantedWaiters.addAll(granted);
+        if (granting.get()) {
+            return;
+        }
+        granting.set(Boolean.TRUE);
+        try {
+            Waiter waiter;
+            while ((waiter = grantedWaiters.poll()) != null) {
+                cancelTimeout(waiter);
+                Permit next = new Permit(waiter.typeIndex);
+                if (!waiter.future.complete(next)) {
+                    next.release(Outcome.IGNORED);
+                }
+            }
+        } finally {
+            granting.set(Boolean.FALSE);
+        }
+    }
+    
+    private static void cancelTimeout(Waiter waiter) {
+        RequestTimeoutWheel.Timeout timeout = waiter.timeout;
+        if (timeout != null) {
+            timeout.cancel();
+        }
+    }
+    
+    // ========== 以下方法必须持有 lock ==========
+    
+    private boolean canAdmit(int index) {
+        return (globalExempt[index] || inFlight < (int) limit) && typeInFlight[index] < typeLimits[index];
+    }
+    
+    private void admit(int index) {
+        if (!globalExempt[index]) {
+            inFlight++;
+        }
+        typeInFlight[index]++;
+    }
+    
+    private ArrayDeque<Waiter> queueOf(int index) {
+        return globalExempt[index] ? exemptWaiters : waiters;
+    }
+    
+    private List<Waiter> grantWaiters() {
+        List<Waiter> granted = grantWaiters(exemptWaiters, null);
+        return grantWaiters(waiters, granted);
+    }
+    
+    private List<Waiter> grantWaiters(ArrayDeque<Waiter> queue, List<Waiter> granted) {
+        Iterator<Waiter> it = queue.iterator();
+        while (it.hasNext() && (queue == exemptWaiters || inFlight < (int) limit)) {
+            Waiter waiter = it.next();
+            if (typeInFlight[waiter.typeIndex] < typeLimits[waiter.typeIndex]) {
+                it.remove();
+                admit(waiter.typeIndex);
+                if (granted == null) {
+                    granted = new ArrayList<>();
+                }
+                granted.add(waiter);
+            }
+        }
+        return granted;
+    }
+    
+    private void onSample(long rttNanos, boolean dropped) {
+        if (dropped) {
+            decrease(System.nanoTime());
+            return;
+        }
+        
+        windowMinRttNanos = Math.min(windowMinRttNanos, rttNanos);
+        if (++windowSamples >= RTT_WINDOW_SAMPLES) {
+            minRttNanos = windowMinRttNanos;
+            windowMinRttNanos = Long.MAX_VALUE;
+            windowSamples = 0;
+        } else {
+            minRttNanos = Math.min(minRttNanos, rttNanos);
+        }
+        
+        if (rttNanos > minRttNanos * LATENCY_TOLERANCE) {
+            decrease(System.nanoTime());
+        } else if (inFlight + 1 >= (int) limit / 2) {
+            // 上限确实被用到一半以上才增长，避免空闲时上限无意义地膨胀
+            limit = Math.min(maxLimit, limit + 1.0 / limit);
+        }
+    }
+    
+    private void decrease(long now) {
+        // 每个 RTT 内最多减小一次，避免同一批慢请求把上限连续压到最低
+        long interval = minRttNanos == Long.MAX_VALUE ? 0 : minRttNanos;
+        if (lastDecreaseNanos != 0 && now - lastDecreaseNanos < interval) {
+            return;
+        }
+        lastDecreaseNanos = now;
+        limit = Math.max(minLimit, limit * BACKOFF_RATIO);
+    }
+    
+    // ========== 统计 ==========
+    
+    /**
+     * 当前占用全局上限的在途请求数（不含 {@link #GLOBAL_EXEMPT_TYPES}）
+     */
+    public int getInFlightCount() {
+        synchronized (lock) {
+            return inFlight;
+        }
+    }
+    
+    /**
+     * 当前全局上限（开启自适应时随延迟变化）
+     */
+    public int getCurrentLimit() {
+        synchronized (lock) {
+            return (int) limit;
+        }
+    }
+    
+    /**
+     * 当前排队等待许可的请求数
+     */
+    public int getQueuedCount() {
+        synchronized (lock) {
+            return waiters.size() + exemptWaiters.size();
+        }
+    }
+    
+    /**
+     * 被快速拒绝的请求数
+     */
+    public long getRejectedCount() {
+        synchronized (lock) {
+            return rejectedCount;
+        }
+    }
+    
+    /**
+     * 排队等待超时的请求数
+     */
+    public long getQueueTimeoutCount() {
+        synchronized (lock) {
+            return queueTimeoutCount;
+        }
+    }
+    
+    private static final class Waiter {
+        final int typeIndex;
+        final CompletableFuture<Permit> future = new CompletableFuture<>();
+        volatile RequestTimeoutWheel.Timeout timeout;
+        
+        Waiter(int typeIndex) {
+            this.typeIndex = typeIndex;
+        }
+    }
+    
+    /**
+     * 在途许可
+     * 
+     * <p>每个许可只能释放一次，重复释放会被忽略。</p>
+     */
+    public final class Permit {
+        private final int typeIndex;
+        private final long startNanos = System.nanoTime();
+        private boolean released;
+        
+        private Permit(int typeIndex) {
+            this.typeIndex = typeIndex;
+        }
+        
+        /**
+         * 收到响应后释放
+         */
+        public void success() {
+            release(Outcome.SUCCESS);
+        }
+        
+        /**
+         * 请求超时后释放
+         */
+        public void dropped() {
+            release(Outcome.DROPPED);
+        }
+        
+        /**
+         * 因连接断开等原因失败后释放，不参与自适应调整
+         */
+        public void ignore() {
+            release(Outcome.IGNORED);
+        }
+        
+        void release(Outcome outcome) {
+            synchronized (this) {
+                if (released) {
+                    return;
+                }
+                released = true;
+            }
+            InFlightLimiter.this.release(this, System.nanoTime() - startNanos, outcome);
+        }
+    }
+}
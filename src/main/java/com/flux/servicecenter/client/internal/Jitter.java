@@ -0,0 +1,82 @@
+package com.flux.servicecenter.client.internal;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 定时任务的相位分散与随机抖动
+ * 
+ * <p>大量节点或客户端在同一时刻注册、重连时，如果都按固定间隔执行心跳、Ping 和重连，请求会以同步的波峰到达服务端。
+ * 这里提供两种手段把请求在时间上摊开：</p>
+ * <ul>
+ *   <li><b>相位分散</b>：{@link #phase(String, long)} 按键的哈希确定在周期内的固定偏移，同一个键每次得到相同的相位，
+ *       重连后仍落在原来的位置</li>
+ *   <li><b>随机抖动</b>：{@link #apply(long, double)} 在每次间隔上叠加 ±ratio 的均匀随机量，避免相位逐渐对齐</li>
+ *   <li><b>去相关退避</b>：{@link #decorrelated(long, long, long)} 用于重连，下一次延迟取决于上一次延迟的随机倍数，
+ *       同时断开的客户端不会按相同的指数序列重试</li>
+ * </ul>
+ */
+public final class Jitter {
+    
+    /** 抖动比例上限 */
+    public static final double MAX_RATIO = 0.5;
+    
+    private Jitter() {
+    }
+    
+    /**
+     * 按键计算周期内的固定相位
+     * 
+     * @param key 分散依据（如 nodeId、clientId）
+     * @param period 周期（必须大于 0）
+     * @return [0, period) 内的相位
+     */
+    public static long phase(String key, long period) {
+        return Integer.toUnsignedLong(mix(key.hashCode())) % period;
+    }
+    
+    /**
+     * 在间隔上叠加随机抖动
+     * 
+     * @param interval 原始间隔
+     * @param ratio 抖动比例，取值 [0, {@link #MAX_RATIO}]，为 0 时不抖动
+     * @return [interval × (1 - ratio), interval × (1 + ratio)] 内的随机值
+     */
+    public static long apply(long interval, double ratio) {
+        if (ratio <= 0 || interval <= 0) {
+            return interval;
+        }
+        long spread = (long) (interval * Math.min(ratio, MAX_RATIO));
+        if (spread <= 0) {
+            return interval;
+        }
+        return interval + ThreadLocalRandom.current().nextLong(-spread, spread + 1);
+    }
+    
+    /**
+     * 去相关抖动退避（decorrelated jitter）
+     * 
+     * <p>下一次延迟在 [base, previous × 3] 之间均匀随机，且不超过 cap；第一次重试时 previous 传 base。</p>
+     * 
+     * @param base 最小延迟（必须大于 0）
+     * @param previous 上一次的延迟
+     * @param cap 最大延迟
+     * @return 下一次延迟
+     */
+    public static long decorrelated(long base, long previous, long cap) {
+        long upper = Math.max(base, Math.min(cap, previous * 3));
+        long delay = upper > base ? ThreadLocalRandom.current().nextLong(base, upper + 1) : base;
+        return Math.min(cap, delay);
+    }
+    
+    /**
+     * 打散 {@code String.hashCode()} 的低位规律（murmur3 finalizer）
+     */
+    static int mix(int h) {
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        return h;
+    }
+}
@@ -0,0 +1,244 @@
+package com.flux.servicecenter.client.internal;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 滚动窗口延迟直方图
+ * 
+ * <p>延迟以微秒记录在对数-线性桶中（每个 2 的幂区间再分 8 个子桶，相对误差不超过 12.5%），
+ * 记录操作只有几次原子更新，不分配对象，可在 gRPC 回调线程中直接调用。</p>
+ * 
+ * <p>时间窗口被切分为若干个片段（slot），每个片段覆盖 {@code windowMs / slots} 毫秒，
+ * 快照只合并仍在窗口内的片段，因此统计结果反映最近一个窗口内的延迟分布。
+ * 片段轮换时会清零旧数据，与并发记录之间可能丢失极少量样本，对统计结果没有实质影响。</p>
+ */
+public final class LatencyHistogram {
+    
+    /** 每个 2 的幂区间的子桶数（2^3） */
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    
+    /** 小于该值（微秒）的延迟逐一计数 */
+    private static final int LINEAR_LIMIT = SUB_BUCKETS << 1;
+    
+    /** 可记录的最大延迟约 2^36 微秒（约 19 小时），超出部分计入最后一个桶 */
+    private static final int MAX_EXPONENT = 36;
+    
+    static final int BUCKET_COUNT = LINEAR_LIMIT + (MAX_EXPONENT - SUB_BUCKET_BITS) * SUB_BUCKETS;
+    
+    private final long slotNanos;
+    private final Slot[] slots;
+    
+    /**
+     * @param windowMs 统计窗口（毫秒）
+     * @param slotCount 窗口切分的片段数
+     */
+    public LatencyHistogram(long windowMs, int slotCount) {
+        if (windowMs <= 0) {
+            throw new IllegalArgumentException("windowMs must be greater than 0");
+        }
+        if (slotCount <= 0) {
+            throw new IllegalArgumentException("slotCount must be greater than 0");
+        }
+        this.slotNanos = Math.max(1, TimeUnit.MILLISECONDS.toNanos(windowMs) / slotCount);
+        this.slots = new Slot[slotCount];
+        for (int i = 0; i < slotCount; i++) {
+            slots[i] = new Slot();
+        }
+    }
+    
+    /**
+     * 记录一次延迟
+     * 
+     * @param latencyNanos 延迟（纳秒），负数按 0 记录
+     */
+    public void record(long latencyNanos) {
+        record(latencyNanos, System.nanoTime());
+    }
+    
+    void record(long latencyNanos, long nowNanos) {
+        long micros = Math.max(0, latencyNanos / 1000);
+        long epoch = nowNanos / slotNanos;
+        Slot slot = slots[(int) Math.floorMod(epoch, (long) slots.length)];
+        slot.rotate(epoch);
+        slot.counts.incrementAndGet(bucketIndex(micros));
+        slot.sumMicros.addAndGet(micros);
+        long max;
+        while (micros > (max = slot.maxMicros.get())) {
+            if (slot.maxMicros.compareAndSet(max, micros)) {
+                break;
+            }
+        }
+    }
+    
+    /**
+     * 获取最近一个窗口内的统计快照
+     */
+    public Snapshot snapshot() {
+        return snapshot(System.nanoTime());
+    }
+    
+    Snapshot snapshot(long nowNanos) {
+        long currentEpoch = nowNanos / slotNanos;
+        long[] counts = new long[BUCKET_COUNT];
+        long total = 0;
+        long sum = 0;
+        long max = 0;
+        for (Slot slot : slots) {
+            long epoch = slot.epoch.get();
+            if (epoch > currentEpoch || epoch <= currentEpoch - slots.length) {
+                continue;
+            }
+            for (int i = 0; i < BUCKET_COUNT; i++) {
+                long c = slot.counts.get(i);
+                counts[i] += c;
+                total += c;
+            }
+            sum += slot.sumMicros.get();
+            max = Math.max(max, slot.maxMicros.get());
+        }
+        return new Snapshot(counts, total, sum, max);
+    }
+    
+    static int bucketIndex(long micros) {
+        if (micros < LINEAR_LIMIT) {
+            return (int) micros;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(micros);
+        if (exponent > MAX_EXPONENT) {
+            return BUCKET_COUNT - 1;
+        }
+        int subBucket = (int) (micros >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return LINEAR_LIMIT + (exponent - SUB_BUCKET_BITS - 1) * SUB_BUCKETS + subBucket;
+    }
+    
+    /**
+     * 桶的上界（微秒，含）
+     */
+    static long bucketUpperBound(int index) {
+        if (index < LINEAR_LIMIT) {
+            return index;
+        }
+        int offset = index - LINEAR_LIMIT;
+        int exponent = offset / SUB_BUCKETS + SUB_BUCKET_BITS + 1;
+        long subBucket = offset % SUB_BUCKETS;
+        long width = 1L << (exponent - SUB_BUCKET_BITS);
+        return (1L << exponent) + (subBucket + 1) * width - 1;
+    }
+    
+    /**
+     * 单个时间片段
+     */
+    private static final class Slot {
+        final AtomicLong epoch = new AtomicLong(Long.MIN_VALUE);
+        final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+        final AtomicLong sumMicros = new AtomicLong();
+        final AtomicLong maxMicros = new AtomicLong();
+        
+        void rotate(long newEpoch) {
+            long current = epoch.get();
+            if (current == newEpoch || !epoch.compareAndSet(current, newEpoch)) {
+                return;
+            }
+            for (int i = 0; i < BUCKET_COUNT; i++) {
+                counts.set(i, 0);
+            }
+            sumMicros.set(0);
+            maxMicros.set(0);
+        }
+    }
+    
+    /**
+     * 延迟统计快照（不可变）
+     */
+    public static final class Snapshot {
+        private static final Snapshot EMPTY = new Snapshot(new long[BUCKET_COUNT], 0, 0, 0);
+        
+        private final long[] counts;
+        private final long count;
+        private final long sumMicros;
+        private final long maxMicros;
+        
+        private Snapshot(long[] counts, long count, long sumMicros, long maxMicros) {
+            this.counts = counts;
+            this.count = count;
+            this.sumMicros = sumMicros;
+            this.maxMicros = maxMicros;
+        }
+        
+        /**
+         * 空快照
+         */
+        public static Snapshot empty() {
+            return EMPTY;
+        }
+        
+        /**
+         * 合并两个快照（如多条双向流的同类统计）
+         */
+        public Snapshot merge(Snapshot other) {
+            if (other.count == 0) {
+                return this;
+            }
+            if (count == 0) {
+                return other;
+            }
+            long[] merged = new long[BUCKET_COUNT];
+            for (int i = 0; i < BUCKET_COUNT; i++) {
+                merged[i] = counts[i] + other.counts[i];
+            }
+            return new Snapshot(merged, count + other.count, sumMicros + other.sumMicros,
+                    Math.max(maxMicros, other.maxMicros));
+        }
+        
+        /**
+         * 样本数
+         */
+        public long getCount() {
+            return count;
+        }
+        
+        /**
+         * 指定分位的延迟（毫秒），无样本时返回 0
+         * 
+         * @param percentile 分位，取值 0-100，如 99 表示 p99
+         */
+        public double getPercentileMs(double percentile) {
+            if (count == 0) {
+                return 0;
+            }
+            long rank = (long) Math.ceil(Math.max(0, Math.min(100, percentile)) / 100.0 * count);
+            rank = Math.max(1, rank);
+            long seen = 0;
+            for (int i = 0; i < BUCKET_COUNT; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    return Math.min(bucketUpperBound(i), maxMicros) / 1000.0;
+                }
+            }
+            return maxMicros / 1000.0;
+        }
+        
+        /**
+         * 平均延迟（毫秒）
+         */
+        public double getMeanMs() {
+            return count == 0 ? 0 : sumMicros / 1000.0 / count;
+        }
+        
+        /**
+         * 最大延迟（毫秒）
+         */
+        public double getMaxMs() {
+            return maxMicros / 1000.0;
+        }
+        
+        @Override
+        public String toString() {
+            return String.format("count=%d, mean=%.2fms, p50=%.2fms, p90=%.2fms, p99=%.2fms, max=%.2fms",
+                    count, getMeanMs(), getPercentileMs(50), getPercentileMs(90), getPercentileMs(99), getMaxMs());
+        }
+    }
+}
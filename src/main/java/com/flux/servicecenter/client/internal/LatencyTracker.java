@@ -0,0 +1,124 @@
+package com.flux.servicecenter.client.internal;
+
+import com.flux.servicecenter.config.ServiceCenterConfig;
+import com.flux.servicecenter.stream.StreamProto.ClientMessageType;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * 双向流延迟统计与自适应超时
+ * 
+ * <p>记录 Ping RTT 和按 {@link ClientMessageType} 区分的请求延迟（最近 {@link #WINDOW_MS} 毫秒的滚动直方图）。
+ * 开启 {@link ServiceCenterConfig#isAdaptiveRequestTimeout()} 后，未显式指定超时的请求使用
+ * {@code p99 × adaptiveTimeoutFactor}，并限制在 [minRequestTimeout, requestTimeout] 之间；
+ * 样本不足 {@link #MIN_SAMPLES} 时仍使用 requestTimeout。</p>
+ * 
+ * <p>超时的请求按实际等待时间计入直方图，避免超时样本缺失导致 p99 被低估、超时越调越短。</p>
+ */
+public final class LatencyTracker {
+    
+    /** 统计窗口（毫秒） */
+    static final long WINDOW_MS = 60_000;
+    
+    /** 窗口切分的片段数 */
+    static final int WINDOW_SLOTS = 6;
+    
+    /** 计算自适应超时所需的最少样本数 */
+    static final int MIN_SAMPLES = 50;
+    
+    /** 自适应超时的缓存时间，避免每个请求都合并直方图 */
+    private static final long REFRESH_NANOS = TimeUnit.SECONDS.toNanos(1);
+    
+    private static final ClientMessageType[] TYPES = ClientMessageType.values();
+    
+    private final boolean adaptive;
+    private final double factor;
+    private final long minTimeoutMs;
+    private final long maxTimeoutMs;
+    
+    private final LatencyHistogram pingRtt = new LatencyHistogram(WINDOW_MS, WINDOW_SLOTS);
+    
+    /** 按请求类型的延迟直方图（按 ordinal 索引，首次使用时创建） */
+    private final AtomicReferenceArray<LatencyHistogram> requestLatency = new AtomicReferenceArray<>(TYPES.length);
+    
+    /** 按请求类型缓存的自适应超时及计算时间 */
+    private final AtomicLongArray cachedTimeouts = new AtomicLongArray(TYPES.length);
+    private final AtomicLongArray cachedAtNanos = new AtomicLongArray(TYPES.length);
+    
+    public LatencyTracker(ServiceCenterConfig config) {
+        this.adaptive = config.isAdaptiveRequestTimeout();
+        this.factor = config.getAdaptiveTimeoutFactor();
+        this.maxTimeoutMs = config.getRequestTimeout();
+        this.minTimeoutMs = Math.min(config.getMinRequestTimeout(), maxTimeoutMs);
+    }
+    
+    /**
+     * 记录一次 Ping RTT
+     */
+    public void recordPing(long rttNanos) {
+        pingRtt.record(rttNanos);
+    }
+    
+    /**
+     * 记录一次请求延迟（从写入双向流到收到响应或超时）
+     */
+    public void recordRequest(ClientMessageType type, long latencyNanos) {
+        histogram(type).record(latencyNanos);
+    }
+    
+    /**
+     * 最近一个窗口内的 Ping RTT 统计
+     */
+    public LatencyHistogram.Snapshot getPingRtt() {
+        return pingRtt.snapshot();
+    }
+    
+    /**
+     * 最近一个窗口内指定请求类型的延迟统计
+     */
+    public LatencyHistogram.Snapshot getRequestLatency(ClientMessageType type) {
+        LatencyHistogram histogram = requestLatency.get(type.ordinal());
+        return histogram == null ? LatencyHistogram.Snapshot.empty() : histogram.snapshot();
+    }
+    
+    /**
+     * 获取指定请求类型的超时时间（毫秒）
+     * 
+     * <p>未开启自适应超时时固定返回 requestTimeout。</p>
+     */
+    public long timeoutFor(ClientMessageType type) {
+        if (!adaptive) {
+            return maxTimeoutMs;
+        }
+        int index = type.ordinal();
+        long now = System.nanoTime();
+        long cached = cachedTimeouts.get(index);
+        if (cached > 0 && now - cachedAtNanos.get(index) < REFRESH_NANOS) {
+            return cached;
+        }
+        long timeout = computeTimeout(getRequestLatency(type));
+        cachedTimeouts.set(index, timeout);
+        cachedAtNanos.set(index, now);
+        return timeout;
+    }
+    
+    long computeTimeout(LatencyHistogram.Snapshot snapshot) {
+        if (snapshot.getCount() < MIN_SAMPLES) {
+            return maxTimeoutMs;
+        }
+        long timeout = (long) Math.ceil(snapshot.getPercentileMs(99) * factor);
+        return Math.max(minTimeoutMs, Math.min(maxTimeoutMs, timeout));
+    }
+    
+    private LatencyHistogram histogram(ClientMessageType type) {
+        int index = type.ordinal();
+        LatencyHistogram histogram = requestLatency.get(index);
+        if (histogram == null) {
+            requestLatency.compareAndSet(index, null, new LatencyHistogram(WINDOW_MS, WINDOW_SLOTS));
+            histogram = requestLatency.get(index);
+        }
+        return histogram;
+    }
+}
@@ -0,0 +1,266 @@
+package com.flux.servicecenter.client.internal;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 监听器事件分发器
+ * 
+ * <p>将推送事件按 (监听器, 键) 排队后在共享线程池上执行，保证：</p>
+ * <ul>
+ *   <li>有序：同一个监听器收到的同一个键（namespace/group/服务名或配置ID）的事件严格按到达顺序回调</li>
+ *   <li>隔离：每个监听器有独立的有界队列和并发上限，慢监听器只会拖慢自己，不会占满共享线程池</li>
+ *   <li>公平：同一个监听器的多个键轮流执行，每次最多连续执行 {@link #BATCH_PER_KEY} 个事件</li>
+ * </ul>
+ * 
+ * <p>实现上每个键是一个串行队列（serial executor），多个串行队列复用同一个线程池，
+ * 不会为每个键或每个监听器创建线程。</p>
+ */
+public final class ListenerDispatcher {
+    private static final Logger logger = LoggerFactory.getLogger(ListenerDispatcher.class);
+    
+    /** 每个键连续执行的最大事件数，之后让出给同一监听器的其他键 */
+    static final int BATCH_PER_KEY = 16;
+    
+    private final Executor executor;
+    private final int queueCapacity;
+    private final int maxConcurrency;
+    
+    /** 监听器 -> 队列（按监听器对象身份区分） */
+    private final Map<Object, ListenerQueue> queues = new ConcurrentHashMap<>();
+    
+    private final AtomicLong dispatchedEvents = new AtomicLong();
+    private final AtomicLong droppedEvents = new AtomicLong();
+    private final AtomicLong maxLagNanos = new AtomicLong();
+    private volatile long lastLagNanos;
+    
+    /**
+     * @param executor 共享线程池
+     * @param queueCapacity 每个监听器最多排队的事件数
+     * @param maxConcurrency 每个监听器最多同时占用的线程数
+     */
+    public ListenerDispatcher(Executor executor, int queueCapacity, int maxConcurrency) {
+        if (queueCapacity <= 0) {
+            throw new IllegalArgumentException("queueCapacity must be greater than 0");
+        }
+        if (maxConcurrency <= 0) {
+            throw new IllegalArgumentException("maxConcurrency must be greater than 0");
+        }
+        this.executor = executor;
+        this.queueCapacity = queueCapacity;
+        this.maxConcurrency = maxConcurrency;
+    }
+    
+    /**
+     * 分发事件
+     * 
+     * <p>调用方（如 gRPC 回调线程）只做入队，不执行监听器。同一个键的事件必须由同一个线程按顺序调用本方法，
+     * 才能保证回调顺序与到达顺序一致。</p>
+     * 
+     * @param listener 监听器对象（用于隔离和统计）
+     * @param key 排序键
+     * @param task 回调任务
+     * @return 是否入队成功；监听器队列已满时丢弃并返回 false
+     */
+    public boolean dispatch(Object listener, String key, Runnable task) {
+        ListenerQueue queue = queues.computeIfAbsent(listener, ListenerQueue::new);
+        if (queue.depth.incrementAndGet() > queueCapacity) {
+            queue.depth.decrementAndGet();
+            droppedEvents.incrementAndGet();
+            long dropped = queue.dropped.incrementAndGet();
+            // 避免慢监听器刷屏，只在首次和每 1000 次丢弃时告警
+            if (dropped == 1 || dropped % 1000 == 0) {
+                logger.warn("Listener queue full, dropping event: listener={}, key={}, capacity={}, dropped={}",
+                        listener, key, queueCapacity, dropped);
+            }
+            return false;
+        }
+        KeyQueue keyQueue = queue.keys.computeIfAbsent(key, KeyQueue::new);
+        keyQueue.events.add(new Event(task, System.nanoTime()));
+        if (keyQueue.scheduled.compareAndSet(false, true)) {
+            queue.ready.add(keyQueue);
+            queue.schedule();
+        }
+        return true;
+    }
+    
+    /**
+     * 移除监听器（取消订阅时调用），已排队的事件仍会执行完
+     */
+    public void remove(Object listener) {
+        queues.remove(listener);
+    }
+    
+    // ========== 统计 ==========
+    
+    /**
+     * 所有监听器当前排队的事件总数
+     */
+    public int getQueueDepth() {
+        int total = 0;
+        for (ListenerQueue queue : queues.values()) {
+            total += queue.depth.get();
+        }
+        return total;
+    }
+    
+    /**
+     * 指定监听器当前排队的事件数
+     */
+    public int getQueueDepth(Object listener) {
+        ListenerQueue queue = queues.get(listener);
+        return queue == null ? 0 : queue.depth.get();
+    }
+    
+    /**
+     * 已分发（已执行回调）的事件数
+     */
+    public long getDispatchedEventCount() {
+        return dispatchedEvents.get();
+    }
+    
+    /**
+     * 因队列已满被丢弃的事件数
+     */
+    public long getDroppedEventCount() {
+        return droppedEvents.get();
+    }
+    
+    /**
+     * 最近一次事件从入队到开始回调的延迟（毫秒）
+     */
+    public long getLastDispatchLagMs() {
+        return TimeUnit.NANOSECONDS.toMillis(lastLagNanos);
+    }
+    
+    /**
+     * 事件从入队到开始回调的最大延迟（毫秒）
+     */
+    public long getMaxDispatchLagMs() {
+        return TimeUnit.NANOSECONDS.toMillis(maxLagNanos.get());
+    }
+    
+    private void recordLag(long lagNanos) {
+        lastLagNanos = lagNanos;
+        long max;
+        while (lagNanos > (max = maxLagNanos.get())) {
+            if (maxLagNanos.compareAndSet(max, lagNanos)) {
+                break;
+            }
+        }
+    }
+    
+    // ========== 内部结构 ==========
+    
+    private static final class Event {
+        final Runnable task;
+        final long enqueueNanos;
+        
+        Event(Runnable task, long enqueueNanos) {
+            this.task = task;
+            this.enqueueNanos = enqueueNanos;
+        }
+    }
+    
+    /**
+     * 单个键的串行队列
+     */
+    private static final class KeyQueue {
+        final String key;
+        final Queue<Event> events = new ConcurrentLinkedQueue<>();
+        /** 是否已在就绪队列中或正在执行（保证同一个键同时最多一个线程执行） */
+        final AtomicBoolean scheduled = new AtomicBoolean();
+        
+        KeyQueue(String key) {
+            this.key = key;
+        }
+    }
+    
+    /**
+     * 单个监听器的队列
+     */
+    private final class ListenerQueue {
+        final Object listener;
+        final Map<String, KeyQueue> keys = new ConcurrentHashMap<>();
+        /** 有待执行事件的键 */
+        final Queue<KeyQueue> ready = new ConcurrentLinkedQueue<>();
+        final AtomicInteger depth = new AtomicInteger();
+        final AtomicInteger active = new AtomicInteger();
+        final AtomicLong dropped = new AtomicLong();
+        
+        ListenerQueue(Object listener) {
+            this.listener = listener;
+        }
+        
+        /**
+         * 在并发上限内向线程池提交执行任务
+         */
+        void schedule() {
+            while (!ready.isEmpty()) {
+                int current = active.get();
+                if (current >= maxConcurrency) {
+                    return;
+                }
+                if (active.compareAndSet(current, current + 1)) {
+                    try {
+                        executor.execute(this::drain);
+                    } catch (RejectedExecutionException e) {
+                        active.decrementAndGet();
+                        logger.warn("Listener executor rejected dispatch task, listener={}", listener);
+                        return;
+                    }
+                }
+            }
+        }
+        
+        void drain() {
+            try {
+                KeyQueue keyQueue;
+                while ((keyQueue = ready.poll()) != null) {
+                    runBatch(keyQueue);
+                    if (!keyQueue.events.isEmpty()) {
+                        ready.add(keyQueue);
+                        continue;
+                    }
+                    keyQueue.scheduled.set(false);
+                    // 释放标记后可能有新事件入队但未能抢到标记，重新检查
+                    if (!keyQueue.events.isEmpty() && keyQueue.scheduled.compareAndSet(false, true)) {
+                        ready.add(keyQueue);
+                    }
+                }
+            } finally {
+                active.decrementAndGet();
+                // 退出期间可能有键变为就绪而 schedule 因并发上限未提交
+                schedule();
+            }
+        }
+        
+        private void runBatch(KeyQueue keyQueue) {
+            for (int i = 0; i < BATCH_PER_KEY; i++) {
+                Event event = keyQueue.events.poll();
+                if (event == null) {
+                    return;
+                }
+                depth.decrementAndGet();
+                recordLag(System.nanoTime() - event.enqueueNanos);
+                try {
+                    event.task.run();
+                } catch (Throwable e) {
+                    logger.error("Listener callback failed: listener={}, key={}", listener, keyQueue.key, e);
+                }
+                dispatchedEvents.incrementAndGet();
+            }
+        }
+    }
+}
@@ -0,0 +1,259 @@
+package com.flux.servicecenter.client.internal;
+
+import com.flux.servicecenter.config.ServiceCenterConfig.OverflowPolicy;
+import com.flux.servicecenter.stream.StreamProto.ClientMessage;
+import com.flux.servicecenter.stream.StreamProto.ClientMessageType;
+import io.grpc.stub.ClientCallStreamObserver;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 双向流出站消息写入器
+ * 
+ * <p>替代 {@code synchronized sendMessage} 直接调用 {@code requestObserver.onNext} 的方式：</p>
+ * <ul>
+ *   <li>发送线程只把消息放入无锁多生产者队列，不再竞争同一把监视器锁</li>
+ *   <li>同一时刻只有一个线程执行写出（work-in-progress 计数保证），满足 StreamObserver 非线程安全的要求</li>
+ *   <li>只在 {@link ClientCallStreamObserver#isReady()} 为 true 时写出，传输层不可写时等待 onReady 回调继续，
+ *       避免消息无限堆积在 Netty 缓冲区</li>
+ *   <li>队列有容量上限，队列满时按 {@link OverflowPolicy} 处理；只有 {@link #send(ClientMessage)} 会阻塞等待，
+ *       异步路径（gRPC 回调、定时器、公共线程池）使用 {@link #trySend(ClientMessage)}，不会阻塞住需要执行 onReady 的线程</li>
+ * </ul>
+ * 
+ * <p>每个流对应一个写入器，流关闭后写入器不可复用。</p>
+ */
+public final class OutboundMessageWriter {
+    private static final Logger logger = LoggerFactory.getLogger(OutboundMessageWriter.class);
+    
+    private final ClientCallStreamObserver<ClientMessage> observer;
+    private final OverflowPolicy overflowPolicy;
+    private final long blockTimeoutMs;
+    private final int capacity;
+    
+    private final Queue<ClientMessage> queue = new ConcurrentLinkedQueue<>();
+    private final Semaphore permits;
+    private final AtomicInteger wip = new AtomicInteger();
+    private final AtomicLong droppedPings = new AtomicLong();
+    
+    private volatile boolean closed;
+    private volatile boolean completeRequested;
+    private volatile String cancelReason;
+    
+    /**
+     * @param observer 请求流（必须在 ClientResponseObserver.beforeStart 中获取）
+     * @param capacity 队列容量
+     * @param overflowPolicy 队列满时的处理策略
+     * @param blockTimeoutMs 阻塞策略下的最长等待时间（毫秒）
+     */
+    public OutboundMessageWriter(ClientCallStreamObserver<ClientMessage> observer, int capacity,
+                                 OverflowPolicy overflowPolicy, long blockTimeoutMs) {
+        this.observer = observer;
+        this.capacity = capacity;
+        this.overflowPolicy = overflowPolicy;
+        this.blockTimeoutMs = blockTimeoutMs;
+        this.permits = new Semaphore(capacity);
+        observer.setOnReadyHandler(this::drain);
+    }
+    
+    /**
+     * 发送消息，队列满时按策略阻塞等待（仅供同步调用方在自己的线程中使用）
+     * 
+     * @param message 客户端消息
+     * @return 消息已入队返回 true；Ping 消息按 DROP_PINGS 策略被丢弃时返回 false
+     * @throws IllegalStateException 如果流已关闭、队列已满（FAIL_FAST）或等待超时（BLOCK / DROP_PINGS）
+     */
+    public boolean send(ClientMessage message) {
+        return send(message, true);
+    }
+    
+    /**
+     * 发送消息，队列满时不阻塞：BLOCK 与 DROP_PINGS 策略下非 Ping 消息立即失败
+     * 
+     * @param message 客户端消息
+     * @return 消息已入队返回 true；Ping 消息按 DROP_PINGS 策略被丢弃时返回 false
+     * @throws IllegalStateException 如果流已关闭或队列已满
+     */
+    public boolean trySend(ClientMessage message) {
+        return send(message, false);
+    }
+    
+    private boolean send(ClientMessage message, boolean mayBlock) {
+        if (closed) {
+            throw new IllegalStateException("Bidirectional stream not connected");
+        }
+        if (!acquirePermit(message, mayBlock)) {
+            droppedPings.incrementAndGet();
+            logger.trace("Outbound queue full, dropping ping");
+            return false;
+        }
+        if (closed) {
+            permits.release();
+            throw new IllegalStateException("Bidirectional stream not connected");
+        }
+        queue.offer(message);
+        drain();
+        return true;
+    }
+    
+    private boolean acquirePermit(ClientMessage message, boolean mayBlock) {
+        if (permits.tryAcquire()) {
+            return true;
+        }
+        switch (overflowPolicy) {
+            case FAIL_FAST:
+                throw queueFull();
+            case DROP_PINGS:
+                if (message.getMessageType() == ClientMessageType.CLIENT_PING) {
+                    return false;
+                }
+                // 非 Ping 消息按阻塞策略处理
+                return awaitPermit(mayBlock);
+            case BLOCK:
+            default:
+                return awaitPermit(mayBlock);
+        }
+    }
+    
+    private boolean awaitPermit(boolean mayBlock) {
+        if (!mayBlock) {
+            throw queueFull();
+        }
+        try {
+            if (permits.tryAcquire(blockTimeoutMs, TimeUnit.MILLISECONDS)) {
+                return true;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for outbound queue", e);
+        }
+        throw new IllegalStateException("Outbound queue full (capacity " + capacity
+                + "), waited " + blockTimeoutMs + "ms");
+    }
+    
+    private IllegalStateException queueFull() {
+        return new IllegalStateException("Outbound queue full (capacity " + capacity + ")");
+    }
+    
+    /**
+     * 写出队列中的消息（由发送线程或 gRPC onReady 回调触发，同一时刻只有一个线程执行）
+     */
+    void drain() {
+        if (wip.getAndIncrement() != 0) {
+            return;
+        }
+        int missed = 1;
+        while (true) {
+            if (cancelReason != null) {
+                cancelStream();
+            } else if (completeRequested) {
+                completeStream();
+            } else {
+                flush();
+            }
+            missed = wip.addAndGet(-missed);
+            if (missed == 0) {
+                return;
+            }
+        }
+    }
+    
+    private void flush() {
+        while (!closed && observer.isReady()) {
+            ClientMessage message = queue.poll();
+            if (message == null) {
+                return;
+            }
+            try {
+                observer.onNext(message);
+            } catch (RuntimeException e) {
+                logger.warn("Failed to write outbound message: type={}, requestId={}", 
+                        message.getMessageType(), message.getRequestId(), e);
+            } finally {
+                permits.release();
+            }
+        }
+    }
+    
+    private void completeStream() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        discardQueued();
+        try {
+            observer.onCompleted();
+        } catch (RuntimeException e) {
+            logger.debug("Exception occurred while completing request stream (ignored): {}", e.getMessage());
+        }
+        // 唤醒阻塞在队列上的发送线程，让其感知流已关闭
+        permits.release(capacity);
+    }
+    
+    private void cancelStream() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        discardQueued();
+        try {
+            observer.cancel(cancelReason, null);
+        } catch (RuntimeException e) {
+            logger.debug("Exception occurred while cancelling request stream (ignored): {}", e.getMessage());
+        }
+        permits.release(capacity);
+    }
+    
+    private void discardQueued() {
+        int discarded = 0;
+        while (queue.poll() != null) {
+            permits.release();
+            discarded++;
+        }
+        if (discarded > 0) {
+            logger.debug("Discarded {} queued outbound message(s) on stream close", discarded);
+        }
+    }
+    
+    /**
+     * 半关闭请求流，未写出的消息会被丢弃
+     */
+    public void complete() {
+        completeRequested = true;
+        drain();
+    }
+    
+    /**
+     * 取消整条流（不是半关闭），未写出的消息会被丢弃，响应流随后以 CANCELLED 状态回调 onError
+     * 
+     * @param reason 取消原因
+     */
+    public void cancel(String reason) {
+        cancelReason = reason;
+        drain();
+    }
+    
+    /**
+     * 当前排队等待写出的消息数
+     */
+    public int queuedCount() {
+        return Math.max(0, capacity - permits.availablePermits());
+    }
+    
+    /**
+     * 因队列满而丢弃的 Ping 数量
+     */
+    public long droppedPingCount() {
+        return droppedPings.get();
+    }
+    
+    public boolean isClosed() {
+        return closed;
+    }
+}
@@ -0,0 +1,260 @@
+package com.flux.servicecenter.client.internal;
+
+import java.util.function.Consumer;
+
+/**
+ * 待处理请求表（long -> value）
+ * 
+ * <p>以请求序号为键的分段开放寻址哈希表，用于替代 {@code ConcurrentHashMap<String, CompletableFuture>}：</p>
+ * <ul>
+ *   <li>键为原始 long，不产生装箱对象和 Entry 节点</li>
+ *   <li>按键哈希分段加锁，降低多线程并发发送/接收时的锁竞争</li>
+ *   <li>线性探测 + 回移删除（backward-shift deletion），不使用墓碑，删除后不会退化</li>
+ * </ul>
+ * 
+ * <p>键 0 保留为空槽标记，合法键必须大于 0。</p>
+ * 
+ * @param <V> 值类型
+ */
+final class PendingRequestTable<V> {
+    
+    private static final long GOLDEN_RATIO = 0x9E3779B97F4A7C15L;
+    private static final int INITIAL_STRIPE_CAPACITY = 16;
+    
+    private final Stripe<V>[] stripes;
+    private final int stripeShift;
+    
+    /**
+     * @param stripeCount 分段数量，会向上取整为 2 的幂
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    PendingRequestTable(int stripeCount) {
+        if (stripeCount <= 0 || stripeCount > (1 << 16)) {
+            throw new IllegalArgumentException("stripeCount must be between 1 and 65536");
+        }
+        int n = 1;
+        int bits = 0;
+        while (n < stripeCount) {
+            n <<= 1;
+            bits++;
+        }
+        this.stripes = new Stripe[n];
+        for (int i = 0; i < n; i++) {
+            stripes[i] = new Stripe<>();
+        }
+        this.stripeShift = 64 - bits;
+    }
+    
+    V put(long key, V value) {
+        checkKey(key);
+        if (value == null) {
+            throw new IllegalArgumentException("value must not be null");
+        }
+        long hash = hash(key);
+        return stripeFor(hash).put(key, value, (int) hash);
+    }
+    
+    V get(long key) {
+        if (key <= 0) {
+            return null;
+        }
+        long hash = hash(key);
+        return stripeFor(hash).get(key, (int) hash);
+    }
+    
+    V remove(long key) {
+        if (key <= 0) {
+            return null;
+        }
+        long hash = hash(key);
+        return stripeFor(hash).remove(key, null, (int) hash);
+    }
+    
+    /**
+     * 仅当当前值与 expected 为同一对象时删除
+     */
+    boolean remove(long key, V expected) {
+        if (key <= 0 || expected == null) {
+            return false;
+        }
+        long hash = hash(key);
+        return stripeFor(hash).remove(key, expected, (int) hash) != null;
+    }
+    
+    int size() {
+        int size = 0;
+        for (Stripe<V> stripe : stripes) {
+            size += stripe.size;
+        }
+        return size;
+    }
+    
+    boolean isEmpty() {
+        for (Stripe<V> stripe : stripes) {
+            if (stripe.size != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    /**
+     * 清空表，并对每个被移除的值执行 action（在锁外执行）
+     */
+    void drain(Consumer<? super V> action) {
+        for (Stripe<V> stripe : stripes) {
+            Object[] values = stripe.clear();
+            if (values == null) {
+                continue;
+            }
+            for (Object value : values) {
+                if (value != null) {
+                    @SuppressWarnings("unchecked")
+                    V v = (V) value;
+                    action.accept(v);
+                }
+            }
+        }
+    }
+    
+    private Stripe<V> stripeFor(long hash) {
+        return stripeShift == 64 ? stripes[0] : stripes[(int) (hash >>> stripeShift)];
+    }
+    
+    private static long hash(long key) {
+        return key * GOLDEN_RATIO;
+    }
+    
+    private static void checkKey(long key) {
+        if (key <= 0) {
+            throw new IllegalArgumentException("key must be greater than 0: " + key);
+        }
+    }
+    
+    // ========== 分段 ==========
+    
+    private static final class Stripe<V> {
+        private long[] keys = new long[INITIAL_STRIPE_CAPACITY];
+        private Object[] values = new Object[INITIAL_STRIPE_CAPACITY];
+        private volatile int size;
+        
+        synchronized V put(long key, V value, int hash) {
+            int mask = keys.length - 1;
+            int i = hash & mask;
+            while (keys[i] != 0) {
+                if (keys[i] == key) {
+                    @SuppressWarnings("unchecked")
+                    V old = (V) values[i];
+                    values[i] = value;
+                    return old;
+                }
+                i = (i + 1) & mask;
+            }
+            keys[i] = key;
+            values[i] = value;
+            size = size + 1;
+            if (size > (keys.length >>> 1)) {
+                resize();
+            }
+            return null;
+        }
+        
+        synchronized V get(long key, int hash) {
+            int i = indexOf(key, hash);
+            if (i < 0) {
+                return null;
+            }
+            @SuppressWarnings("unchecked")
+            V value = (V) values[i];
+            return value;
+        }
+        
+        synchronized V remove(long key, V expected, int hash) {
+            int i = indexOf(key, hash);
+            if (i < 0) {
+                return null;
+            }
+            @SuppressWarnings("unchecked")
+            V value = (V) values[i];
+            if (expected != null && value != expected) {
+                return null;
+            }
+            shiftBack(i);
+            size = size - 1;
+            return value;
+        }
+        
+        synchronized Object[] clear() {
+            if (size == 0) {
+                return null;
+            }
+            Object[] old = values;
+            keys = new long[INITIAL_STRIPE_CAPACITY];
+            values = new Object[INITIAL_STRIPE_CAPACITY];
+            size = 0;
+            return old;
+        }
+        
+        private int indexOf(long key, int hash) {
+            int mask = keys.length - 1;
+            int i = hash & mask;
+            while (keys[i] != 0) {
+                if (keys[i] == key) {
+                    return i;
+                }
+                i = (i + 1) & mask;
+            }
+            return -1;
+        }
+        
+        /**
+         * 回移删除：把后续探测链上的元素前移填补空槽，保证查找不会提前遇到空槽
+         */
+        private void shiftBack(int hole) {
+            int mask = keys.length - 1;
+            int i = hole;
+            int j = hole;
+            while (true) {
+                j = (j + 1) & mask;
+                long key = keys[j];
+                if (key == 0) {
+                    break;
+                }
+                int ideal = (int) hash(key) & mask;
+                // ideal 在 (i, j] 区间内（循环意义）时，该元素不能移到 i
+                boolean inRange = i <= j ? (i < ideal && ideal <= j) : (i < ideal || ideal <= j);
+                if (inRange) {
+                    continue;
+                }
+                keys[i] = key;
+                values[i] = values[j];
+                i = j;
+            }
+            keys[i] = 0;
+            values[i] = null;
+        }
+        
+        private void resize() {
+            long[] oldKeys = keys;
+            Object[] oldValues = values;
+            int capacity = oldKeys.length << 1;
+            int mask = capacity - 1;
+            long[] newKeys = new long[capacity];
+            Object[] newValues = new Object[capacity];
+            for (int k = 0; k < oldKeys.length; k++) {
+                long key = oldKeys[k];
+                if (key == 0) {
+                    continue;
+                }
+                int i = (int) hash(key) & mask;
+                while (newKeys[i] != 0) {
+                    i = (i + 1) & mask;
+                }
+                newKeys[i] = key;
+                newValues[i] = oldValues[k];
+            }
+            keys = newKeys;
+            values = newValues;
+        }
+    }
+}
@@ -0,0 +1,271 @@
+package com.flux.servicecenter.client.internal;
+
+import com.flux.servicecenter.config.ServiceCenterConfig;
+import io.grpc.ConnectivityState;
+import io.grpc.ManagedChannel;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+
+/**
+ * 非阻塞重连调度器
+ * 
+ * <p>每次重连由 {@link #start(String, Supplier, BooleanSupplier)} 发起，按去相关抖动退避
+ * （{@link Jitter#decorrelated(long, long, long)}）在定时线程上调度重试，等待期间不占用任何线程。</p>
+ * 
+ * <p>等待下一次重试时同时监听 Channel 的连接状态（{@link ManagedChannel#notifyWhenStateChanged}）：
+ * Channel 从非 READY 变为 READY 说明服务端已恢复，立即重试而不等退避延迟结束。
+ * Channel 一直处于 READY（只是流断开）时按退避延迟重试，不会形成忙等。</p>
+ */
+public final class ReconnectScheduler {
+    private static final Logger logger = LoggerFactory.getLogger(ReconnectScheduler.class);
+    
+    /** 默认最大退避延迟（毫秒） */
+    public static final long DEFAULT_MAX_DELAY_MS = 30000;
+    
+    private final String name;
+    private final ScheduledExecutorService executor;
+    private final Supplier<ManagedChannel> channelSupplier;
+    private final long baseDelayMs;
+    private final long maxDelayMs;
+    private final int maxAttempts;
+    
+    private final AtomicLong attempts = new AtomicLong();
+    private final AtomicLong fastPathAttempts = new AtomicLong();
+    
+    /**
+     * 使用配置的重连间隔和最大重连次数
+     * 
+     * @param name 调度器名称（用于日志）
+     * @param executor 定时执行器，重试和退避延迟都在其上调度
+     * @param channelSupplier 当前 Channel，返回 null 时不监听连接状态
+     * @param config 客户端配置
+     */
+    public ReconnectScheduler(String name, ScheduledExecutorService executor, Supplier<ManagedChannel> channelSupplier,
+                              ServiceCenterConfig config) {
+        this(name, executor, channelSupplier, config.getReconnectInterval(), DEFAULT_MAX_DELAY_MS,
+                config.getMaxReconnectAttempts());
+    }
+    
+    /**
+     * @param name 调度器名称（用于日志）
+     * @param executor 定时执行器，重试和退避延迟都在其上调度
+     * @param channelSupplier 当前 Channel，返回 null 时不监听连接状态
+     * @param baseDelayMs 最小退避延迟（毫秒）
+     * @param maxDelayMs 最大退避延迟（毫秒）
+     * @param maxAttempts 最大重试次数，小于 0 表示无限重试
+     */
+    public ReconnectScheduler(String name, ScheduledExecutorService executor, Supplier<ManagedChannel> channelSupplier,
+                              long baseDelayMs, long maxDelayMs, int maxAttempts) {
+        if (baseDelayMs <= 0) {
+            throw new IllegalArgumentException("baseDelayMs must be greater than 0");
+        }
+        this.name = name;
+        this.executor = executor;
+        this.channelSupplier = channelSupplier;
+        this.baseDelayMs = baseDelayMs;
+        this.maxDelayMs = Math.max(baseDelayMs, maxDelayMs);
+        this.maxAttempts = maxAttempts;
+    }
+    
+    /**
+     * 发起一次重连
+     * 
+     * @param target 重连目标（用于日志）
+     * @param attempt 执行一次重连尝试，返回的 Future 正常完成表示成功；抛出异常视为失败
+     * @param cancelled 每次尝试前检查，返回 true 时停止重连（如已关闭）
+     * @return 重连成功时完成的 Future；达到最大次数、被取消或执行器已关闭时以异常完成
+     */
+    public CompletableFuture<Void> start(String target, Supplier<? extends CompletableFuture<?>> attempt,
+                                         BooleanSupplier cancelled) {
+        Retry retry = new Retry(target, attempt, cancelled);
+        if (maxAttempts == 0) {
+            retry.result.completeExceptionally(new IllegalStateException("Reconnect disabled (maxReconnectAttempts = 0)"));
+        } else {
+            retry.scheduleNext();
+        }
+        return retry.result;
+    }
+    
+    /**
+     * 累计重试次数
+     */
+    public long getAttemptCount() {
+        return attempts.get();
+    }
+    
+    /**
+     * 因 Channel 恢复 READY 而提前执行的重试次数
+     */
+    public long getFastPathAttemptCount() {
+        return fastPathAttempts.get();
+    }
+    
+    /**
+     * 一次重连的状态
+     */
+    private final class Retry {
+        final String target;
+        final Supplier<? extends CompletableFuture<?>> attempt;
+        final BooleanSupplier cancelled;
+        final CompletableFuture<Void> result = new CompletableFuture<>();
+        
+        /** 以下字段由 Retry 自身的锁保护 */
+        int attemptCount;
+        long previousDelayMs;
+        ScheduledFuture<?> timer;
+        boolean inFlight;
+        boolean watching;
+        
+        Retry(String target, Supplier<? extends CompletableFuture<?>> attempt, BooleanSupplier cancelled) {
+            this.target = target;
+            this.attempt = attempt;
+            this.cancelled = cancelled;
+            this.previousDelayMs = baseDelayMs;
+        }
+        
+        /**
+         * 按退避延迟调度下一次尝试，并开始监听 Channel 状态
+         */
+        void scheduleNext() {
+            long delayMs;
+            synchronized (this) {
+                if (result.isDone()) {
+                    return;
+                }
+                delayMs = Jitter.decorrelated(baseDelayMs, previousDelayMs, maxDelayMs);
+                previousDelayMs = delayMs;
+                try {
+                    timer = executor.schedule(() -> fire(false), delayMs, TimeUnit.MILLISECONDS);
+                } catch (RejectedExecutionException e) {
+                    result.completeExceptionally(e);
+                    return;
+                }
+            }
+            if (maxAttempts < 0) {
+                logger.info("[{}] Reconnecting {}... attempt {} (infinite retry mode), waiting {}ms",
+                        name, target, attemptCount + 1, delayMs);
+            } else {
+                logger.info("[{}] Reconnecting {}... attempt {}/{}, waiting {}ms",
+                        name, target, attemptCount + 1, maxAttempts, delayMs);
+            }
+            watchChannel();
+        }
+        
+        /**
+         * 监听 Channel 状态，从非 READY 变为 READY 时立即重试（同一时间只注册一个监听）
+         */
+        void watchChannel() {
+            ManagedChannel channel = channelSupplier == null ? null : channelSupplier.get();
+            if (channel == null) {
+                return;
+            }
+            try {
+                // 请求 Channel 开始连接（IDLE 状态下不会主动连接）
+                ConnectivityState state = channel.getState(true);
+                if (state == ConnectivityState.READY || state == ConnectivityState.SHUTDOWN) {
+                    return;
+                }
+                synchronized (this) {
+                    if (result.isDone() || watching) {
+                        return;
+                    }
+                    watching = true;
+                }
+                channel.notifyWhenStateChanged(state, () -> {
+                    synchronized (this) {
+                        watching = false;
+                    }
+                    if (result.isDone()) {
+                        return;
+                    }
+                    if (channel.getState(false) == ConnectivityState.READY) {
+                        executeSafely(() -> fire(true));
+                    } else {
+                        watchChannel();
+                    }
+                });
+            } catch (UnsupportedOperationException e) {
+                // 部分 Channel 实现不支持连接状态查询，只按退避延迟重试
+                logger.debug("[{}] Channel does not support connectivity state, fast path disabled", name);
+            }
+        }
+        
+        /**
+         * 执行一次尝试
+         * 
+         * @param fastPath 是否由 Channel 恢复 READY 触发
+         */
+        void fire(boolean fastPath) {
+            synchronized (this) {
+                if (result.isDone() || inFlight) {
+                    return;
+                }
+                if (timer != null) {
+                    timer.cancel(false);
+                    timer = null;
+                }
+                inFlight = true;
+                attemptCount++;
+            }
+            attempts.incrementAndGet();
+            if (fastPath) {
+                fastPathAttempts.incrementAndGet();
+                logger.info("[{}] Channel is READY, reconnecting {} immediately", name, target);
+            }
+            if (cancelled.getAsBoolean()) {
+                result.completeExceptionally(new CancellationException("Reconnect cancelled"));
+                return;
+            }
+            
+            CompletableFuture<?> future;
+            try {
+                future = attempt.get();
+            } catch (Exception e) {
+                future = CompletableFuture.failedFuture(e);
+            }
+            future.whenComplete((ignored, error) -> onAttemptComplete(error));
+        }
+        
+        void onAttemptComplete(Throwable error) {
+            int count;
+            synchronized (this) {
+                inFlight = false;
+                count = attemptCount;
+            }
+            if (error == null) {
+                logger.info("[{}] Reconnected {} after {} attempt(s)", name, target, count);
+                result.complete(null);
+                return;
+            }
+            if (maxAttempts >= 0 && count >= maxAttempts) {
+                logger.error("[{}] Reconnect {} failed (max retry attempts {} reached), giving up", name, target, maxAttempts, error);
+                result.completeExceptionally(error);
+                return;
+            }
+            logger.warn("[{}] Reconnect {} failed (attempt {}), will continue retrying: {}", name, target, count, error.getMessage());
+            if (cancelled.getAsBoolean()) {
+                result.completeExceptionally(new CancellationException("Reconnect cancelled"));
+                return;
+            }
+            scheduleNext();
+        }
+        
+        void executeSafely(Runnable task) {
+            try {
+                executor.execute(task);
+            } catch (RejectedExecutionException e) {
+                result.completeExceptionally(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,240 @@
+package com.flux.servicecenter.client.internal;
+
+import com.flux.servicecenter.model.NodeInfo;
+import com.flux.servicecenter.model.ProtoConverter;
+import com.flux.servicecenter.model.ServiceInfo;
+import com.flux.servicecenter.model.ServiceSnapshot;
+import com.flux.servicecenter.registry.RegistryProto;
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.CodedOutputStream;
+import com.google.protobuf.ExtensionRegistryLite;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.CRC32C;
+
+/**
+ * 注册表快照文件
+ * 
+ * <p>把本地实例缓存中的服务快照写入一个紧凑的二进制文件，启动时（连接服务端之前）内存映射加载，
+ * 服务中心不可用时作为过期数据兜底。</p>
+ * 
+ * <p>文件格式（大端序）：</p>
+ * <pre>
+ * int   magic          0x46534353（"FSCS"）
+ * int   formatVersion  1
+ * long  createdAt      写入时间戳（毫秒）
+ * int   serviceCount   服务数
+ * int   payloadLength  数据区字节数
+ * long  checksum       数据区的 CRC32C
+ * 数据区：每个服务依次为 namespaceId、groupName、serviceName（protobuf 字符串）、
+ *        是否有服务信息（bool）、Service 消息（带长度前缀，可选）、节点数（varint）、Node 消息（带长度前缀）× 节点数
+ * </pre>
+ * 
+ * <p>写入先写临时文件并刷盘，再原子重命名替换，进程在写入中途退出不会留下半个文件；
+ * 加载时校验魔数、格式版本、文件大小上限、数据区长度和校验和，任何一项不通过都视为损坏并抛出 {@link IOException}。</p>
+ */
+public final class RegistrySnapshotStore {
+    
+    /** 文件魔数 "FSCS" */
+    static final int MAGIC = 0x46534353;
+    
+    /** 文件格式版本 */
+    static final int FORMAT_VERSION = 1;
+    
+    /** 文件头字节数 */
+    static final int HEADER_SIZE = 4 + 4 + 8 + 4 + 4 + 8;
+    
+    private final Path file;
+    private final long maxFileSize;
+    
+    /**
+     * @param file 快照文件路径
+     * @param maxFileSize 文件大小上限（字节）
+     */
+    public RegistrySnapshotStore(Path file, long maxFileSize) {
+        if (maxFileSize <= HEADER_SIZE || maxFileSize > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("maxFileSize out of range: " + maxFileSize);
+        }
+        this.file = file;
+        this.maxFileSize = maxFileSize;
+    }
+    
+    /**
+     * 写入快照（原子替换已有文件）
+     * 
+     * @param snapshots 要持久化的服务快照
+     * @return 写入的文件字节数
+     * @throws IOException 写入失败或超过文件大小上限（此时保留原文件）
+     */
+    public long save(Collection<ServiceSnapshot> snapshots) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(4096);
+        CodedOutputStream output = CodedOutputStream.newInstance(buffer);
+        for (ServiceSnapshot snapshot : snapshots) {
+            writeService(output, snapshot);
+            if (HEADER_SIZE + output.getTotalBytesWritten() > maxFileSize) {
+                throw new IOException("Snapshot exceeds size limit of " + maxFileSize + " bytes");
+            }
+        }
+        output.flush();
+        byte[] payload = buffer.toByteArray();
+        
+        CRC32C checksum = new CRC32C();
+        checksum.update(payload);
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE)
+                .putInt(MAGIC)
+                .putInt(FORMAT_VERSION)
+                .putLong(System.currentTimeMillis())
+                .putInt(snapshots.size())
+                .putInt(payload.length)
+                .putLong(checksum.getValue());
+        header.flip();
+        
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer body = ByteBuffer.wrap(payload);
+            while (header.hasRemaining() || body.hasRemaining()) {
+                channel.write(new ByteBuffer[]{header, body});
+            }
+            channel.force(true);
+        }
+        try {
+            Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+        return HEADER_SIZE + (long) payload.length;
+    }
+    
+    private static void writeService(CodedOutputStream output, ServiceSnapshot snapshot) throws IOException {
+        output.writeStringNoTag(snapshot.getNamespaceId());
+        output.writeStringNoTag(snapshot.getGroupName());
+        output.writeStringNoTag(snapshot.getServiceName());
+        RegistryProto.Service service = toProtoService(snapshot.getService());
+        output.writeBoolNoTag(service != null);
+        if (service != null) {
+            output.writeMessageNoTag(service);
+        }
+        List<NodeInfo> nodes = snapshot.getNodes();
+        output.writeUInt32NoTag(nodes.size());
+        for (NodeInfo node : nodes) {
+            output.writeMessageNoTag(ProtoConverter.toProtoNode(node));
+        }
+    }
+    
+    private static RegistryProto.Service toProtoService(ServiceInfo service) {
+        if (service == null || service.getNamespaceId() == null
+                || service.getGroupName() == null || service.getServiceName() == null) {
+            return null;
+        }
+        return ProtoConverter.toProtoService(service);
+    }
+    
+    /**
+     * 加载快照
+     * 
+     * <p>文件以只读方式内存映射，校验和直接在映射区上计算，节点从映射区解析，不先把文件读入堆内存。
+     * 返回的快照版本号为 0，由缓存加载时重新分配。</p>
+     * 
+     * @return 服务快照列表，文件不存在时返回空列表
+     * @throws IOException 读取失败或文件损坏
+     */
+    public List<ServiceSnapshot> load() throws IOException {
+        MappedByteBuffer mapped;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_SIZE) {
+                throw new IOException("Snapshot file truncated: " + size + " bytes");
+            }
+            if (size > maxFileSize) {
+                throw new IOException("Snapshot file exceeds size limit: " + size + " > " + maxFileSize);
+            }
+            mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        } catch (NoSuchFileException e) {
+            return Collections.emptyList();
+        }
+        
+        if (mapped.getInt() != MAGIC) {
+            throw new IOException("Not a registry snapshot file: " + file);
+        }
+        int formatVersion = mapped.getInt();
+        if (formatVersion != FORMAT_VERSION) {
+            throw new IOException("Unsupported snapshot format version: " + formatVersion);
+        }
+        mapped.getLong(); // createdAt
+        int serviceCount = mapped.getInt();
+        int payloadLength = mapped.getInt();
+        long expectedChecksum = mapped.getLong();
+        if (payloadLength != mapped.remaining() || serviceCount < 0 || serviceCount > payloadLength) {
+            throw new IOException("Snapshot header inconsistent with file size");
+        }
+        
+        ByteBuffer payload = mapped.slice();
+        CRC32C checksum = new CRC32C();
+        checksum.update(payload.duplicate());
+        if (checksum.getValue() != expectedChecksum) {
+            throw new IOException("Snapshot checksum mismatch");
+        }
+        
+        CodedInputStream input = CodedInputStream.newInstance(payload);
+        input.setSizeLimit(Integer.MAX_VALUE);
+        List<ServiceSnapshot> snapshots = new ArrayList<>(serviceCount);
+        for (int i = 0; i < serviceCount; i++) {
+            snapshots.add(readService(input, payloadLength));
+        }
+        if (!input.isAtEnd()) {
+            throw new IOException("Trailing data after " + serviceCount + " service(s)");
+        }
+        return snapshots;
+    }
+    
+    private static ServiceSnapshot readService(CodedInputStream input, int payloadLength) throws IOException {
+        String namespaceId = input.readStringRequireUtf8();
+        String groupName = input.readStringRequireUtf8();
+        String serviceName = input.readStringRequireUtf8();
+        ServiceInfo service = null;
+        if (input.readBool()) {
+            service = ProtoConverter.toServiceInfo(
+                    input.readMessage(RegistryProto.Service.parser(), ExtensionRegistryLite.getEmptyRegistry()));
+        }
+        int nodeCount = input.readUInt32();
+        if (nodeCount < 0 || nodeCount > payloadLength) {
+            throw new IOException("Invalid node count: " + nodeCount);
+        }
+        List<NodeInfo> nodes = new ArrayList<>(nodeCount);
+        for (int i = 0; i < nodeCount; i++) {
+            nodes.add(ProtoConverter.toNodeInfo(
+                    input.readMessage(RegistryProto.Node.parser(), ExtensionRegistryLite.getEmptyRegistry())));
+        }
+        return ServiceSnapshot.of(namespaceId, groupName, serviceName, 0, service, nodes);
+    }
+    
+    /**
+     * 删除快照文件（文件损坏时调用）
+     */
+    public void delete() throws IOException {
+        Files.deleteIfExists(file);
+    }
+    
+    public Path getFile() {
+        return file;
+    }
+}
@@ -0,0 +1,221 @@
+package com.flux.servicecenter.client.internal;
+
+import com.flux.servicecenter.config.ServiceCenterConfig;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * 幂等读请求对冲（Hedged Request）
+ * 
+ * <p>先发出主请求；主请求在对冲延迟内未返回时，再向另一条双向流（通常落在另一个服务端）发出相同的请求，
+ * 以先返回的结果为准，较慢的响应被丢弃。只能用于幂等的读操作。</p>
+ * 
+ * <p>对冲延迟按操作统计主请求最近 60 秒延迟的 {@link ServiceCenterConfig#getHedgeDelayPercentile()} 分位，
+ * 样本不足时使用 {@link ServiceCenterConfig#getHedgeDelay()}。对冲请求受令牌桶预算约束：
+ * 每个请求积累 {@link #BUDGET_PERCENT}% 个令牌，最多积累 {@link #BUDGET_BURST} 个，
+ * 服务端整体变慢时对冲请求不会超过总请求数的约 10%，避免放大负载。</p>
+ */
+public final class RequestHedger {
+    
+    /** 使用分位延迟作为对冲延迟所需的最少样本数 */
+    static final int MIN_SAMPLES = 20;
+    
+    /** 每个请求积累的对冲预算（百分比） */
+    static final int BUDGET_PERCENT = 10;
+    
+    /** 对冲预算上限（次） */
+    static final int BUDGET_BURST = 10;
+    
+    /** 对冲延迟的缓存时间 */
+    private static final long REFRESH_NANOS = TimeUnit.SECONDS.toNanos(1);
+    
+    private final boolean enabled;
+    private final double percentile;
+    private final long fallbackDelayMs;
+    private final RequestTimeoutWheel timer;
+    
+    /** 关闭后不再对冲，只发主请求 */
+    private volatile boolean closed;
+    
+    private final Map<String, Operation> operations = new ConcurrentHashMap<>();
+    
+    /** 剩余对冲预算（单位为 1/100 次） */
+    private final AtomicLong budget = new AtomicLong(BUDGET_BURST * 100L);
+    
+    private final AtomicLong hedgedRequests = new AtomicLong();
+    private final AtomicLong hedgeWins = new AtomicLong();
+    private final AtomicLong budgetExhausted = new AtomicLong();
+    
+    public RequestHedger(ServiceCenterConfig config) {
+        this.enabled = config.isHedgedReads();
+        this.percentile = config.getHedgeDelayPercentile();
+        this.fallbackDelayMs = config.getHedgeDelay();
+        this.timer = new RequestTimeoutWheel("hedge-timer", 5, 512);
+    }
+    
+    /**
+     * 执行可对冲的请求
+     * 
+     * @param operation 操作名称（按操作分别统计延迟）
+     * @param primary 发出主请求
+     * @param hedge 发出对冲请求；没有可用的备用流时返回 null
+     * @return 先成功返回的结果；两个请求都失败时以最后一个异常完成
+     */
+    public <T> CompletableFuture<T> execute(String operation, Supplier<CompletableFuture<T>> primary,
+                                            Supplier<CompletableFuture<T>> hedge) {
+        if (!enabled || closed) {
+            return primary.get();
+        }
+        Operation op = operations.computeIfAbsent(operation, k -> new Operation());
+        refill();
+        
+        long startNanos = System.nanoTime();
+        CompletableFuture<T> result = new CompletableFuture<>();
+        AtomicInteger outstanding = new AtomicInteger(1);
+        
+        CompletableFuture<T> first = primary.get();
+        first.whenComplete((value, error) -> {
+            // 只统计主请求的延迟，反映未对冲时的分布
+            if (error == null || unwrap(error) instanceof TimeoutException) {
+                op.histogram.record(System.nanoTime() - startNanos);
+            }
+            complete(result, outstanding, value, error, false);
+        });
+        if (first.isDone()) {
+            return result;
+        }
+        
+        RequestTimeoutWheel.Timeout timeout = timer.newTimeout(() -> {
+            if (result.isDone()) {
+                return;
+            }
+            if (!tryAcquireBudget()) {
+                budgetExhausted.incrementAndGet();
+                return;
+            }
+            // 直接在定时器线程上发出：发送只把消息放入出站队列（或发起异步 gRPC 调用），不会阻塞
+            CompletableFuture<T> second;
+            try {
+                second = hedge.get();
+            } catch (RuntimeException e) {
+                second = CompletableFuture.failedFuture(e);
+            }
+            if (second == null) {
+                budget.addAndGet(100);
+                return;
+            }
+            outstanding.incrementAndGet();
+            hedgedRequests.incrementAndGet();
+            second.whenComplete((value, error) -> complete(result, outstanding, value, error, true));
+        }, op.delayMs(percentile, fallbackDelayMs));
+        result.whenComplete((value, error) -> timeout.cancel());
+        return result;
+    }
+    
+    private <T> void complete(CompletableFuture<T> result, AtomicInteger outstanding, T value, Throwable error,
+                              boolean hedged) {
+        if (error == null) {
+            if (result.complete(value) && hedged) {
+                hedgeWins.incrementAndGet();
+            }
+        } else if (outstanding.decrementAndGet() <= 0) {
+            result.completeExceptionally(unwrap(error));
+        }
+    }
+    
+    private static Throwable unwrap(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    }
+    
+    private void refill() {
+        long current;
+        do {
+            current = budget.get();
+            if (current >= BUDGET_BURST * 100L) {
+                return;
+            }
+        } while (!budget.compareAndSet(current, Math.min(BUDGET_BURST * 100L, current + BUDGET_PERCENT)));
+    }
+    
+    private boolean tryAcquireBudget() {
+        long current;
+        do {
+            current = budget.get();
+            if (current < 100) {
+                return false;
+            }
+        } while (!budget.compareAndSet(current, current - 100));
+        return true;
+    }
+    
+    /**
+     * 停止对冲定时器，之后的请求不再对冲
+     */
+    public void close() {
+        closed = true;
+        timer.stop();
+    }
+    
+    // ========== 统计 ==========
+    
+    /**
+     * 已发出的对冲请求数
+     */
+    public long getHedgedRequestCount() {
+        return hedgedRequests.get();
+    }
+    
+    /**
+     * 对冲请求先于主请求返回的次数
+     */
+    public long getHedgeWinCount() {
+        return hedgeWins.get();
+    }
+    
+    /**
+     * 到达对冲延迟、但因预算不足未发出对冲请求的次数
+     */
+    public long getHedgeBudgetExhaustedCount() {
+        return budgetExhausted.get();
+    }
+    
+    /**
+     * 指定操作当前使用的对冲延迟（毫秒）
+     */
+    public long getHedgeDelayMs(String operation) {
+        Operation op = operations.get(operation);
+        return op == null ? fallbackDelayMs : op.delayMs(percentile, fallbackDelayMs);
+    }
+    
+    /**
+     * 单个操作的延迟统计
+     */
+    private static final class Operation {
+        final LatencyHistogram histogram = new LatencyHistogram(60_000, 6);
+        volatile long cachedDelayMs;
+        volatile long cachedAtNanos;
+        
+        long delayMs(double percentile, long fallbackDelayMs) {
+            long now = System.nanoTime();
+            long cached = cachedDelayMs;
+            if (cached > 0 && now - cachedAtNanos < REFRESH_NANOS) {
+                return cached;
+            }
+            LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+            long delay = snapshot.getCount() < MIN_SAMPLES
+                    ? fallbackDelayMs
+                    : Math.max(1, (long) Math.ceil(snapshot.getPercentileMs(percentile)));
+            cachedDelayMs = delay;
+            cachedAtNanos = now;
+            return delay;
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.flux.servicecenter.client.internal;
+
+/**
+ * 请求ID编解码器
+ * 
+ * <p>双向流上的请求ID由每个连接管理器内单调递增的 long 生成，使用 36 进制编码后放入
+ * {@code requestId} 字段，相比 UUID 更短且不依赖 SecureRandom。</p>
+ * 
+ * <p>两种编码格式：</p>
+ * <ul>
+ *   <li><b>紧凑格式</b>：{@code "1a2b"}，服务端在握手中声明支持 {@link #CAPABILITY} 后使用</li>
+ *   <li><b>兼容格式</b>：{@code "<clientId>:1a2b"}，带客户端前缀，保证在服务端全局唯一</li>
+ * </ul>
+ * 
+ * <p>两种格式都可以通过 {@link #decode(String)} 还原出序号，用于匹配待处理请求。</p>
+ */
+public final class RequestIdCodec {
+    
+    /** 紧凑请求ID能力标识（客户端在握手元数据中声明，服务端在 serverInfo.capabilities 中回应） */
+    public static final String CAPABILITY = "compact-request-id";
+    
+    /** 兼容格式中客户端前缀与序号的分隔符 */
+    private static final char PREFIX_SEPARATOR = ':';
+    
+    private static final int RADIX = Character.MAX_RADIX;
+    
+    private RequestIdCodec() {
+    }
+    
+    /**
+     * 编码请求ID
+     * 
+     * @param sequence 请求序号（必须大于 0）
+     * @param prefix 客户端前缀，为 null 时使用紧凑格式
+     * @return 编码后的请求ID
+     */
+    public static String encode(long sequence, String prefix) {
+        String encoded = Long.toString(sequence, RADIX);
+        if (prefix == null) {
+            return encoded;
+        }
+        return prefix + PREFIX_SEPARATOR + encoded;
+    }
+    
+    /**
+     * 解码请求ID
+     * 
+     * <p>不抛出异常：UUID 等非本编码生成的ID（如服务端推送消息的ID）返回 -1。</p>
+     * 
+     * @param requestId 请求ID
+     * @return 请求序号；无法解析时返回 -1
+     */
+    public static long decode(String requestId) {
+        if (requestId == null) {
+            return -1;
+        }
+        return decodeSequence(requestId, requestId.lastIndexOf(PREFIX_SEPARATOR) + 1);
+    }
+    
+    /**
+     * 按指定格式严格解码请求ID
+     * 
+     * <p>用于匹配服务端响应：只接受本客户端当前格式生成的ID，服务端推送或其他客户端的ID返回 -1。</p>
+     * 
+     * @param requestId 请求ID
+     * @param prefix 客户端前缀，为 null 时只接受紧凑格式，否则只接受带该前缀的兼容格式
+     * @return 请求序号；格式不符或无法解析时返回 -1
+     */
+    public static long decode(String requestId, String prefix) {
+        if (requestId == null) {
+            return -1;
+        }
+        if (prefix == null) {
+            return requestId.indexOf(PREFIX_SEPARATOR) < 0 ? decodeSequence(requestId, 0) : -1;
+        }
+        int start = prefix.length() + 1;
+        if (requestId.length() <= start || requestId.charAt(prefix.length()) != PREFIX_SEPARATOR
+                || !requestId.startsWith(prefix)) {
+            return -1;
+        }
+        return decodeSequence(requestId, start);
+    }
+    
+    private static long decodeSequence(String requestId, int start) {
+        int length = requestId.length();
+        if (start >= length || length - start > 13) {
+            // 36 进制的 long 最多 13 位
+            return -1;
+        }
+        
+        long value = 0;
+        for (int i = start; i < length; i++) {
+            int digit = Character.digit(requestId.charAt(i), RADIX);
+            if (digit < 0 || value > (Long.MAX_VALUE - digit) / RADIX) {
+                return -1;
+            }
+            value = value * RADIX + digit;
+        }
+        return value > 0 ? value : -1;
+    }
+}
@@ -0,0 +1,351 @@
+package com.flux.servicecenter.client.internal;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 请求超时时间轮（Hashed Timing Wheel）
+ * 
+ * <p>用于跟踪大量在途请求的超时，新增和取消都是 O(1)，不会为每个请求创建调度任务。</p>
+ * 
+ * <p>实现要点：</p>
+ * <ul>
+ *   <li>单个工作线程按固定 tick 推进时间轮，桶只由工作线程访问，无需加锁</li>
+ *   <li>新增/取消的超时先放入无锁队列，由工作线程在每个 tick 开始时批量处理</li>
+ *   <li>超过一圈的超时通过剩余轮数（remainingRounds）表示</li>
+ *   <li>工作线程在首次使用时启动；{@link #stop()} 后不再启动，之后新增的超时立即在调用线程上执行</li>
+ * </ul>
+ * 
+ * <p>注意：超时任务在时间轮工作线程中执行，任务本身必须足够轻量。</p>
+ */
+public final class RequestTimeoutWheel {
+    private static final Logger logger = LoggerFactory.getLogger(RequestTimeoutWheel.class);
+    
+    /** 每个 tick 最多从队列转移的超时数，避免工作线程长时间占用 */
+    private static final int MAX_TRANSFER_PER_TICK = 100_000;
+    
+    private final String threadName;
+    private final long tickNanos;
+    private final int ticksPerWheel;
+    
+    /** 当前工作线程（stop 后为 null） */
+    private volatile Worker worker;
+    
+    /** 是否已停止（停止后不再启动工作线程） */
+    private volatile boolean stopped;
+    
+    /**
+     * 创建时间轮
+     * 
+     * @param threadName 工作线程名称
+     * @param tickMs 每个 tick 的时长（毫秒），决定超时精度
+     * @param ticksPerWheel 每圈的桶数量，会向上取整为 2 的幂
+     */
+    public RequestTimeoutWheel(String threadName, long tickMs, int ticksPerWheel) {
+        if (tickMs <= 0) {
+            throw new IllegalArgumentException("tickMs must be greater than 0");
+        }
+        if (ticksPerWheel <= 0 || ticksPerWheel > (1 << 30)) {
+            throw new IllegalArgumentException("ticksPerWheel must be between 1 and 2^30");
+        }
+        this.threadName = threadName;
+        this.tickNanos = TimeUnit.MILLISECONDS.toNanos(tickMs);
+        this.ticksPerWheel = normalize(ticksPerWheel);
+    }
+    
+    private static int normalize(int ticksPerWheel) {
+        int n = 1;
+        while (n < ticksPerWheel) {
+            n <<= 1;
+        }
+        return n;
+    }
+    
+    /**
+     * 新增超时任务
+     * 
+     * @param task 到期时执行的任务（在工作线程中执行）
+     * @param delayMs 延迟时间（毫秒）
+     * @return 超时句柄，可用于取消；时间轮已停止时任务立即在调用线程上执行，返回已到期的句柄
+     */
+    public Timeout newTimeout(Runnable task, long delayMs) {
+        if (task == null) {
+            throw new IllegalArgumentException("task must not be null");
+        }
+        Worker w = worker;
+        if (w == null) {
+            w = start();
+        }
+        if (w == null) {
+            // 已停止：不重新启动工作线程，超时立即到期
+            Timeout expired = new Timeout(null, task, 0);
+            expired.expire();
+            return expired;
+        }
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(Math.max(0, delayMs)) - w.startTime;
+        Timeout timeout = new Timeout(w, task, deadline);
+        w.pendingCount.incrementAndGet();
+        w.newTimeouts.add(timeout);
+        return timeout;
+    }
+    
+    /**
+     * 当前未到期且未取消的超时数量
+     */
+    public long pendingTimeouts() {
+        Worker w = worker;
+        return w == null ? 0 : w.pendingCount.get();
+    }
+    
+    /**
+     * 停止工作线程，未到期的超时全部丢弃；停止后不可再启动
+     */
+    public synchronized void stop() {
+        stopped = true;
+        Worker w = worker;
+        if (w == null) {
+            return;
+        }
+        worker = null;
+        w.running = false;
+        w.thread.interrupt();
+        if (Thread.currentThread() != w.thread) {
+            try {
+                w.thread.join(TimeUnit.NANOSECONDS.toMillis(tickNanos) * 10 + 100);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+    
+    private synchronized Worker start() {
+        Worker w = worker;
+        if (w == null && !stopped) {
+            w = new Worker();
+            worker = w;
+            w.thread.start();
+        }
+        return w;
+    }
+    
+    // ========== 工作线程 ==========
+    
+    private final class Worker implements Runnable {
+        final Queue<Timeout> newTimeouts = new ConcurrentLinkedQueue<>();
+        final Queue<Timeout> cancelledTimeouts = new ConcurrentLinkedQueue<>();
+        final AtomicLong pendingCount = new AtomicLong();
+        final Bucket[] wheel;
+        final int mask;
+        final long startTime = System.nanoTime();
+        final Thread thread;
+        volatile boolean running = true;
+        
+        /** 当前 tick，仅工作线程访问 */
+        long tick;
+        
+        Worker() {
+            wheel = new Bucket[ticksPerWheel];
+            for (int i = 0; i < wheel.length; i++) {
+                wheel[i] = new Bucket();
+            }
+            mask = wheel.length - 1;
+            thread = new Thread(this, threadName);
+            thread.setDaemon(true);
+        }
+        
+        @Override
+        public void run() {
+            while (running) {
+                long deadline = waitForNextTick();
+                if (deadline < 0) {
+                    break;
+                }
+                processCancelledTimeouts();
+                transferTimeoutsToBuckets();
+                wheel[(int) (tick & mask)].expireTimeouts(deadline);
+                tick++;
+            }
+        }
+        
+        /**
+         * 等待下一个 tick，返回当前相对时间；停止时返回 -1
+         */
+        private long waitForNextTick() {
+            long deadline = tickNanos * (tick + 1);
+            while (true) {
+                long current = System.nanoTime() - startTime;
+                long sleepMs = (deadline - current + 999_999) / 1_000_000;
+                if (sleepMs <= 0) {
+                    return current;
+                }
+                try {
+                    Thread.sleep(sleepMs);
+                } catch (InterruptedException e) {
+                    if (!running) {
+                        return -1;
+                    }
+                }
+            }
+        }
+        
+        private void transferTimeoutsToBuckets() {
+            for (int i = 0; i < MAX_TRANSFER_PER_TICK; i++) {
+                Timeout timeout = newTimeouts.poll();
+                if (timeout == null) {
+                    break;
+                }
+                if (timeout.state != Timeout.ST_INIT) {
+                    // 入桶前已取消，计数由 processCancelledTimeouts 处理
+                    continue;
+                }
+                long calculated = timeout.deadline / tickNanos;
+                timeout.remainingRounds = (calculated - tick) / wheel.length;
+                // 已经过期的超时放入当前桶，本 tick 内立即处理
+                long ticks = Math.max(calculated, tick);
+                wheel[(int) (ticks & mask)].add(timeout);
+            }
+        }
+        
+        private void processCancelledTimeouts() {
+            Timeout timeout;
+            while ((timeout = cancelledTimeouts.poll()) != null) {
+                if (timeout.bucket != null) {
+                    timeout.bucket.remove(timeout);
+                }
+                pendingCount.decrementAndGet();
+            }
+        }
+    }
+    
+    /**
+     * 时间轮的桶（双向链表，仅工作线程访问）
+     */
+    private static final class Bucket {
+        private Timeout head;
+        private Timeout tail;
+        
+        void add(Timeout timeout) {
+            timeout.bucket = this;
+            if (head == null) {
+                head = tail = timeout;
+            } else {
+                tail.next = timeout;
+                timeout.prev = tail;
+                tail = timeout;
+            }
+        }
+        
+        void expireTimeouts(long deadline) {
+            Timeout timeout = head;
+            while (timeout != null) {
+                Timeout next = timeout.next;
+                if (timeout.remainingRounds <= 0) {
+                    if (timeout.deadline <= deadline) {
+                        remove(timeout);
+                        timeout.expire();
+                    }
+                } else if (timeout.state == Timeout.ST_CANCELLED) {
+                    remove(timeout);
+                } else {
+                    timeout.remainingRounds--;
+                }
+                timeout = next;
+            }
+        }
+        
+        void remove(Timeout timeout) {
+            if (timeout.bucket != this) {
+                return;
+            }
+            Timeout next = timeout.next;
+            if (timeout.prev != null) {
+                timeout.prev.next = next;
+            }
+            if (next != null) {
+                next.prev = timeout.prev;
+            }
+            if (timeout == head) {
+                head = next;
+            }
+            if (timeout == tail) {
+                tail = timeout.prev;
+            }
+            timeout.prev = null;
+            timeout.next = null;
+            timeout.bucket = null;
+        }
+    }
+    
+    /**
+     * 超时句柄
+     */
+    public static final class Timeout {
+        private static final int ST_INIT = 0;
+        private static final int ST_CANCELLED = 1;
+        private static final int ST_EXPIRED = 2;
+        private static final AtomicIntegerFieldUpdater<Timeout> STATE_UPDATER =
+                AtomicIntegerFieldUpdater.newUpdater(Timeout.class, "state");
+        
+        private final Worker worker;
+        private final long deadline;
+        private Runnable task;
+        private volatile int state = ST_INIT;
+        
+        // 以下字段仅工作线程访问
+        private long remainingRounds;
+        private Timeout prev;
+        private Timeout next;
+        private Bucket bucket;
+        
+        private Timeout(Worker worker, Runnable task, long deadline) {
+            this.worker = worker;
+            this.task = task;
+            this.deadline = deadline;
+        }
+        
+        /**
+         * 取消超时
+         * 
+         * @return 如果本次调用成功取消返回 true；已到期或已取消返回 false
+         */
+        public boolean cancel() {
+            if (!STATE_UPDATER.compareAndSet(this, ST_INIT, ST_CANCELLED)) {
+                return false;
+            }
+            // 释放任务引用，避免已取消的超时在出桶前持有请求对象
+            task = null;
+            worker.cancelledTimeouts.add(this);
+            return true;
+        }
+        
+        public boolean isCancelled() {
+            return state == ST_CANCELLED;
+        }
+        
+        public boolean isExpired() {
+            return state == ST_EXPIRED;
+        }
+        
+        private void expire() {
+            if (!STATE_UPDATER.compareAndSet(this, ST_INIT, ST_EXPIRED)) {
+                return;
+            }
+            if (worker != null) {
+                worker.pendingCount.decrementAndGet();
+            }
+            Runnable t = task;
+            task = null;
+            try {
+                t.run();
+            } catch (Throwable e) {
+                logger.warn("Timeout task threw an exception", e);
+            }
+        }
+    }
+}
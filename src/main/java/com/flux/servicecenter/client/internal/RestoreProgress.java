@@ -0,0 +1,131 @@
+package com.flux.servicecenter.client.internal;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 一次重连后状态恢复的进度
+ * 
+ * <p>节点重新注册以流水线方式并发发送，每个节点收到响应（或失败）后计入进度；
+ * 订阅和配置监听按 (namespaceId, groupName) 合并后发送，不等待响应，发送时计入进度。
+ * 所有节点都有结果后 {@link #completion()} 完成并记录恢复耗时。</p>
+ */
+public final class RestoreProgress {
+    
+    private final int laneIndex;
+    private final int totalNodes;
+    private final long startNanos = System.nanoTime();
+    
+    private final AtomicInteger restoredNodes = new AtomicInteger();
+    private final AtomicInteger failedNodes = new AtomicInteger();
+    private final AtomicInteger subscribeBatches = new AtomicInteger();
+    private final AtomicInteger watchBatches = new AtomicInteger();
+    
+    private final CompletableFuture<RestoreProgress> completion = new CompletableFuture<>();
+    
+    /** 恢复耗时（纳秒），未完成时为 -1 */
+    private volatile long durationNanos = -1;
+    
+    /**
+     * @param laneIndex 完成握手的流下标
+     * @param totalNodes 需要重新注册的节点数
+     */
+    public RestoreProgress(int laneIndex, int totalNodes) {
+        this.laneIndex = laneIndex;
+        this.totalNodes = totalNodes;
+    }
+    
+    /**
+     * 记录一个节点的重新注册结果
+     */
+    public void nodeRestored(boolean success) {
+        (success ? restoredNodes : failedNodes).incrementAndGet();
+    }
+    
+    /**
+     * 记录一条合并订阅请求已发送
+     */
+    public void subscribeBatchSent() {
+        subscribeBatches.incrementAndGet();
+    }
+    
+    /**
+     * 记录一条合并配置监听请求已发送
+     */
+    public void watchBatchSent() {
+        watchBatches.incrementAndGet();
+    }
+    
+    /**
+     * 标记恢复完成，只有第一次调用生效
+     */
+    public void complete() {
+        if (durationNanos < 0) {
+            durationNanos = System.nanoTime() - startNanos;
+        }
+        completion.complete(this);
+    }
+    
+    /**
+     * 恢复完成时以自身完成的 Future（节点重新注册失败不会使 Future 异常完成，失败数见 {@link #getFailedNodes()}）
+     */
+    public CompletableFuture<RestoreProgress> completion() {
+        return completion;
+    }
+    
+    public boolean isDone() {
+        return completion.isDone();
+    }
+    
+    public int getLaneIndex() {
+        return laneIndex;
+    }
+    
+    public int getTotalNodes() {
+        return totalNodes;
+    }
+    
+    /**
+     * 重新注册成功的节点数
+     */
+    public int getRestoredNodes() {
+        return restoredNodes.get();
+    }
+    
+    /**
+     * 重新注册失败的节点数
+     */
+    public int getFailedNodes() {
+        return failedNodes.get();
+    }
+    
+    /**
+     * 已发送的合并订阅请求数（每个 namespaceId/groupName 一条）
+     */
+    public int getSubscribeBatches() {
+        return subscribeBatches.get();
+    }
+    
+    /**
+     * 已发送的合并配置监听请求数（每个 namespaceId/groupName 一条）
+     */
+    public int getWatchBatches() {
+        return watchBatches.get();
+    }
+    
+    /**
+     * 恢复耗时（毫秒），未完成时返回已经过的时间
+     */
+    public long getDurationMillis() {
+        long duration = durationNanos;
+        return TimeUnit.NANOSECONDS.toMillis(duration >= 0 ? duration : System.nanoTime() - startNanos);
+    }
+    
+    @Override
+    public String toString() {
+        return "RestoreProgress{lane=" + laneIndex + ", nodes=" + getRestoredNodes() + "/" + totalNodes
+                + ", failed=" + getFailedNodes() + ", subscribeBatches=" + getSubscribeBatches()
+                + ", watchBatches=" + getWatchBatches() + ", durationMs=" + getDurationMillis() + "}";
+    }
+}
@@ -0,0 +1,589 @@
+package com.flux.servicecenter.client.internal;
+
+import com.flux.servicecenter.model.GetServiceResult;
+import com.flux.servicecenter.model.NodeInfo;
+import com.flux.servicecenter.model.ProtoConverter;
+import com.flux.servicecenter.model.ServiceChangeEvent;
+import com.flux.servicecenter.model.ServiceInfo;
+import com.flux.servicecenter.model.ServiceSnapshot;
+import com.flux.servicecenter.registry.RegistryProto;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+
+/**
+ * 本地服务实例缓存
+ * 
+ * <p>按 (namespaceId, groupName, serviceName) 缓存已订阅服务的节点列表，由首次发现请求预热，
+ * 之后由服务端推送的服务变更事件保持最新，已同步的服务直接从内存返回发现结果，不再发起网络请求。
+ * 节点级事件只转换变更节点并在快照上增量更新，见 {@link #applyEvent(RegistryProto.ServiceChangeEvent)}。</p>
+ * 
+ * <p>每个缓存项有明确的一致性状态：</p>
+ * <ul>
+ *   <li>{@link State#WARMING}：已订阅但尚未收到发现结果或变更事件，查询仍走网络</li>
+ *   <li>{@link State#SYNCED}：节点列表与服务端推送保持一致，查询直接返回缓存</li>
+ *   <li>{@link State#STALE}：订阅所在的连接已断开，缓存可能落后于服务端；只在无法访问服务端时作为兜底返回，
+ *       重新订阅后由发现结果或变更事件恢复为 SYNCED</li>
+ * </ul>
+ * 
+ * <p>每个缓存项通过 {@link AtomicReference} 发布不可变的 {@link ServiceSnapshot}（服务信息 + 节点列表 + 版本号），
+ * 每次变更都构造新快照整体替换（写时复制），写入在缓存项上串行，读取无锁。
+ * 查询路径只做三次 {@link ConcurrentHashMap#get(Object)} 和两次 volatile 读；{@link #getNodes} 与 {@link #getService}
+ * 每次返回新的列表和结果对象（与查询服务端时行为一致），{@link #getSnapshot} 直接返回共享快照不分配对象。
+ * 节点对象与快照共享，调用方不应修改其中的 {@link NodeInfo}。</p>
+ * 
+ * <p>缓存项按订阅引用计数：{@link #track} 创建或引用，{@link #untrack} 释放，最后一个订阅取消时移除。
+ * 未被订阅的服务不会进入缓存，没有订阅就收不到变更事件，缓存无法保持最新。</p>
+ */
+public final class ServiceInstanceCache {
+    
+    /**
+     * 缓存项一致性状态
+     */
+    public enum State {
+        /** 预热中：尚无可用数据 */
+        WARMING,
+        /** 已同步：与服务端推送一致 */
+        SYNCED,
+        /** 已过期：连接断开后尚未重新同步 */
+        STALE
+    }
+    
+    /** namespaceId -> groupName -> serviceName -> 缓存项 */
+    private final Map<String, Map<String, Map<String, Entry>>> entries = new ConcurrentHashMap<>();
+    
+    /** 快照版本号，整个缓存内单调递增（缓存项重建后版本号也不会回退） */
+    private final AtomicLong versions = new AtomicLong();
+    
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder deltaApplies = new LongAdder();
+    private final LongAdder deltaMismatches = new LongAdder();
+    private final LongAdder fullApplies = new LongAdder();
+    
+    /**
+     * 引用一个服务的缓存项（不存在时以 WARMING 状态创建）
+     * 
+     * @return 缓存项
+     */
+    public Entry track(String namespaceId, String groupName, String serviceName) {
+        Map<String, Entry> services = entries
+                .computeIfAbsent(namespaceId, k -> new ConcurrentHashMap<>())
+                .computeIfAbsent(groupName, k -> new ConcurrentHashMap<>());
+        return services.compute(serviceName, (k, entry) -> {
+            if (entry == null) {
+                entry = new Entry(namespaceId, groupName, serviceName);
+            }
+            entry.subscribers++;
+            return entry;
+        });
+    }
+    
+    /**
+     * 释放一个服务的缓存项引用，最后一个引用释放时移除缓存项
+     */
+    public void untrack(String namespaceId, String groupName, String serviceName) {
+        Map<String, Entry> services = services(namespaceId, groupName);
+        if (services == null) {
+            return;
+        }
+        services.computeIfPresent(serviceName, (k, entry) -> --entry.subscribers > 0 ? entry : null);
+    }
+    
+    /**
+     * 加载持久化的快照作为过期数据
+     * 
+     * <p>缓存项不存在时创建（不计订阅引用），已有数据的缓存项不覆盖。加载的缓存项处于 {@link State#STALE}，
+     * 只在无法访问服务端时返回；订阅后由发现结果或变更事件同步，未被订阅的由 {@link #evictUntracked()} 清除。</p>
+     * 
+     * @return 加载的服务数
+     */
+    public int preload(Collection<ServiceSnapshot> snapshots) {
+        int loaded = 0;
+        for (ServiceSnapshot loadedSnapshot : snapshots) {
+            Entry entry = entries
+                    .computeIfAbsent(loadedSnapshot.getNamespaceId(), k -> new ConcurrentHashMap<>())
+                    .computeIfAbsent(loadedSnapshot.getGroupName(), k -> new ConcurrentHashMap<>())
+                    .computeIfAbsent(loadedSnapshot.getServiceName(), k -> new Entry(
+                            loadedSnapshot.getNamespaceId(), loadedSnapshot.getGroupName(), loadedSnapshot.getServiceName()));
+            synchronized (entry) {
+                if (entry.state != State.WARMING) {
+                    continue;
+                }
+                entry.snapshot.set(loadedSnapshot.withNodes(versions.incrementAndGet(),
+                        loadedSnapshot.getService(), loadedSnapshot.getNodes()));
+                entry.state = State.STALE;
+                loaded++;
+            }
+        }
+        return loaded;
+    }
+    
+    /**
+     * 清除没有订阅引用的缓存项（启动时加载、之后未被订阅的服务）
+     * 
+     * @return 清除的缓存项数
+     */
+    public int evictUntracked() {
+        int evicted = 0;
+        for (Map<String, Map<String, Entry>> groups : entries.values()) {
+            for (Map<String, Entry> services : groups.values()) {
+                for (String serviceName : services.keySet()) {
+                    boolean[] removed = new boolean[1];
+                    services.computeIfPresent(serviceName, (k, entry) -> {
+                        removed[0] = entry.subscribers == 0;
+                        return removed[0] ? null : entry;
+                    });
+                    if (removed[0]) {
+                        evicted++;
+                    }
+                }
+            }
+        }
+        return evicted;
+    }
+    
+    /**
+     * 所有已有数据（已同步或已过期）的缓存项的当前快照，用于持久化
+     */
+    public List<ServiceSnapshot> snapshots() {
+        List<ServiceSnapshot> result = new ArrayList<>();
+        for (Map<String, Map<String, Entry>> groups : entries.values()) {
+            for (Map<String, Entry> services : groups.values()) {
+                for (Entry entry : services.values()) {
+                    if (entry.state != State.WARMING) {
+                        result.add(entry.snapshot.get());
+                    }
+                }
+            }
+        }
+        return result;
+    }
+    
+    /**
+     * 用一次完整发现（非仅健康节点）的结果预热缓存项
+     * 
+     * <p>缓存项已被变更事件同步时忽略，避免用更早的查询结果覆盖推送。</p>
+     * 
+     * @return 是否写入了缓存
+     */
+    public boolean seed(String namespaceId, String groupName, String serviceName, List<NodeInfo> nodes) {
+        Entry entry = entry(namespaceId, groupName, serviceName);
+        if (entry == null) {
+            return false;
+        }
+        synchronized (entry) {
+            if (entry.state == State.SYNCED) {
+                return false;
+            }
+            entry.publish(entry.snapshot.get().withNodes(versions.incrementAndGet(), null, nodes));
+        }
+        return true;
+    }
+    
+    /**
+     * 应用一次服务变更事件并构造交给监听器的领域事件
+     * 
+     * <p>已同步的缓存项收到 NODE_ADDED / NODE_UPDATED / NODE_REMOVED 事件时，只转换 {@code changedNode}
+     * 并在缓存快照上增量更新，更新后的节点数和节点 ID 摘要都与事件完整列表一致才采用；
+     * 其他情况（未同步、服务级事件、缺少变更节点或校验不一致）退回转换完整节点列表。</p>
+     * 
+     * <p>已订阅服务的事件携带更新后的 {@link ServiceChangeEvent#getSnapshot()}，{@link ServiceChangeEvent#getAllNodes()}
+     * 即快照的节点列表（不可修改，与其他监听器共享）。</p>
+     * 
+     * @param proto 服务端推送的服务变更事件
+     * @return 领域事件
+     */
+    public ServiceChangeEvent applyEvent(RegistryProto.ServiceChangeEvent proto) {
+        String namespaceId = proto.getNamespaceId();
+        String groupName = proto.getGroupName();
+        String serviceName = proto.getServiceName();
+        ServiceInfo service = proto.hasService() ? ProtoConverter.toServiceInfo(proto.getService()) : null;
+        NodeInfo changedNode = proto.hasChangedNode() ? ProtoConverter.toNodeInfo(proto.getChangedNode()) : null;
+        
+        ServiceSnapshot snapshot = applyDelta(namespaceId, groupName, serviceName, service,
+                ProtoConverter.toServiceChangeEventType(proto.getEventType()), changedNode,
+                proto.getNodesCount(), nodeIdDigest(proto.getNodesList()));
+        List<NodeInfo> allNodes = null;
+        if (snapshot == null) {
+            allNodes = ProtoConverter.toNodeInfoList(proto.getNodesList());
+            snapshot = apply(namespaceId, groupName, serviceName, service, allNodes);
+        }
+        if (service == null) {
+            // 事件未携带服务信息时沿用缓存中的服务信息，都没有时与完整转换保持一致（空的服务信息）
+            service = snapshot != null && snapshot.getService() != null
+                    ? snapshot.getService() : ProtoConverter.toServiceInfo(proto.getService());
+        }
+        
+        // 未订阅的服务不缓存，直接使用转换结果
+        ServiceChangeEvent event = ProtoConverter.toServiceChangeEvent(proto, service,
+                snapshot != null ? snapshot.getNodes() : allNodes, changedNode);
+        event.setSnapshot(snapshot);
+        return event;
+    }
+    
+    /**
+     * 在已同步的缓存项上增量应用一个节点变更
+     * 
+     * @param service 事件携带的服务信息，为 null 时保留原有服务信息
+     * @param eventType 事件类型，只处理 NODE_ADDED / NODE_UPDATED / NODE_REMOVED
+     * @param changedNode 变更的节点
+     * @param expectedCount 事件完整列表中的节点数，用于校验增量结果
+     * @param expectedDigest 事件完整列表的节点 ID 摘要（见 {@link #nodeIdDigest(List)}），用于校验增量结果
+     * @return 更新后的快照；无法增量应用或校验不一致时返回 null（缓存不变）
+     */
+    public ServiceSnapshot applyDelta(String namespaceId, String groupName, String serviceName, ServiceInfo service,
+                                     ServiceChangeEvent.EventType eventType, NodeInfo changedNode,
+                                     int expectedCount, long expectedDigest) {
+        Entry entry = entry(namespaceId, groupName, serviceName);
+        if (entry == null || changedNode == null || changedNode.getNodeId() == null || changedNode.getNodeId().isEmpty()) {
+            return null;
+        }
+        boolean removed;
+        switch (eventType) {
+            case NODE_ADDED:
+            case NODE_UPDATED:
+                removed = false;
+                break;
+            case NODE_REMOVED:
+                removed = true;
+                break;
+            default:
+                return null;
+        }
+        synchronized (entry) {
+            if (entry.state != State.SYNCED) {
+                // 预热中或已过期的快照不能作为增量的基线
+                return null;
+            }
+            ServiceSnapshot current = entry.snapshot.get();
+            long version = versions.incrementAndGet();
+            ServiceSnapshot updated = removed
+                    ? current.withoutNode(version, service, changedNode.getNodeId())
+                    : current.withNode(version, service, changedNode);
+            if (updated.size() != expectedCount || snapshotDigest(updated) != expectedDigest) {
+                deltaMismatches.increment();
+                return null;
+            }
+            entry.publish(updated);
+            deltaApplies.increment();
+            return updated;
+        }
+    }
+    
+    /**
+     * 节点 ID 集合的摘要：各 nodeId 哈希混合后求和，与节点顺序无关
+     * 
+     * <p>只读取 nodeId，不转换节点，用于低成本地校验增量结果与完整列表的成员是否一致。</p>
+     */
+    static long nodeIdDigest(List<RegistryProto.Node> nodes) {
+        long digest = 0;
+        for (RegistryProto.Node node : nodes) {
+            digest += mixNodeId(node.getNodeId());
+        }
+        return digest;
+    }
+    
+    private static long snapshotDigest(ServiceSnapshot snapshot) {
+        long digest = 0;
+        for (NodeInfo node : snapshot.getNodes()) {
+            digest += mixNodeId(node.getNodeId());
+        }
+        return digest;
+    }
+    
+    private static long mixNodeId(String nodeId) {
+        return (nodeId == null ? 0 : nodeId.hashCode()) * 0x9E3779B97F4A7C15L;
+    }
+    
+    /**
+     * 用事件携带的完整节点列表替换缓存项
+     * 
+     * @param service 事件携带的服务信息，为 null 时保留原有服务信息
+     * @param nodes 变更后的完整节点列表
+     * @return 更新后的快照，服务未被订阅时返回 null
+     */
+    public ServiceSnapshot apply(String namespaceId, String groupName, String serviceName,
+                                ServiceInfo service, List<NodeInfo> nodes) {
+        Entry entry = entry(namespaceId, groupName, serviceName);
+        if (entry == null) {
+            return null;
+        }
+        synchronized (entry) {
+            ServiceSnapshot updated = entry.snapshot.get().withNodes(versions.incrementAndGet(), service, nodes);
+            entry.publish(updated);
+            fullApplies.increment();
+            return updated;
+        }
+    }
+    
+    /**
+     * 记录服务信息（来自 getService 响应），不改变节点列表和一致性状态
+     */
+    public void updateService(String namespaceId, String groupName, String serviceName, ServiceInfo service) {
+        Entry entry = entry(namespaceId, groupName, serviceName);
+        if (entry == null || service == null) {
+            return;
+        }
+        synchronized (entry) {
+            entry.snapshot.set(entry.snapshot.get().withService(versions.incrementAndGet(), service));
+        }
+    }
+    
+    /**
+     * 将满足条件的已同步缓存项标记为过期
+     * 
+     * @return 标记的缓存项数
+     */
+    public int markStale(Predicate<Entry> filter) {
+        int count = 0;
+        for (Map<String, Map<String, Entry>> groups : entries.values()) {
+            for (Map<String, Entry> services : groups.values()) {
+                for (Entry entry : services.values()) {
+                    if (filter.test(entry) && markStale(entry)) {
+                        count++;
+                    }
+                }
+            }
+        }
+        return count;
+    }
+    
+    /**
+     * 将指定服务的已同步缓存项标记为过期
+     * 
+     * @return 标记的缓存项数
+     */
+    public int markStale(String namespaceId, String groupName, Collection<String> serviceNames) {
+        Map<String, Entry> services = services(namespaceId, groupName);
+        if (services == null) {
+            return 0;
+        }
+        int count = 0;
+        for (String serviceName : serviceNames) {
+            Entry entry = services.get(serviceName);
+            if (entry != null && markStale(entry)) {
+                count++;
+            }
+        }
+        return count;
+    }
+    
+    private static boolean markStale(Entry entry) {
+        synchronized (entry) {
+            if (entry.state != State.SYNCED) {
+                return false;
+            }
+            entry.state = State.STALE;
+            return true;
+        }
+    }
+    
+    /**
+     * 从缓存查询当前快照
+     * 
+     * @param allowStale 是否接受已过期的缓存（无法访问服务端时的兜底）
+     * @return 共享的不可变快照；缓存项不存在、仍在预热或已过期且不接受过期数据时返回 null
+     */
+    public ServiceSnapshot getSnapshot(String namespaceId, String groupName, String serviceName, boolean allowStale) {
+        Entry entry = usable(namespaceId, groupName, serviceName, allowStale);
+        ServiceSnapshot snapshot = entry != null ? entry.snapshot.get() : null;
+        (snapshot != null ? hits : misses).increment();
+        return snapshot;
+    }
+    
+    /**
+     * 从缓存查询节点列表
+     * 
+     * @param healthyOnly 是否只返回健康节点
+     * @param allowStale 是否接受已过期的缓存（无法访问服务端时的兜底）
+     * @return 新的节点列表（与查询服务端时一样可以修改，节点对象与快照共享）；缓存项不存在、仍在预热或已过期且不接受过期数据时返回 null
+     */
+    public List<NodeInfo> getNodes(String namespaceId, String groupName, String serviceName,
+                                   boolean healthyOnly, boolean allowStale) {
+        Entry entry = usable(namespaceId, groupName, serviceName, allowStale);
+        List<NodeInfo> nodes = null;
+        if (entry != null) {
+            ServiceSnapshot snapshot = entry.snapshot.get();
+            nodes = new ArrayList<>(healthyOnly ? snapshot.getHealthyNodes() : snapshot.getNodes());
+        }
+        (nodes != null ? hits : misses).increment();
+        return nodes;
+    }
+    
+    /**
+     * 从缓存查询服务信息（包含完整节点列表）
+     * 
+     * @param allowStale 是否接受已过期的缓存
+     * @return 新的查询结果；缓存不可用或还没有服务信息时返回 null
+     */
+    public GetServiceResult getService(String namespaceId, String groupName, String serviceName, boolean allowStale) {
+        Entry entry = usable(namespaceId, groupName, serviceName, allowStale);
+        GetServiceResult result = entry != null ? entry.snapshot.get().toServiceResult() : null;
+        (result != null ? hits : misses).increment();
+        return result;
+    }
+    
+    private Entry usable(String namespaceId, String groupName, String serviceName, boolean allowStale) {
+        Entry entry = entry(namespaceId, groupName, serviceName);
+        if (entry == null) {
+            return null;
+        }
+        State state = entry.state;
+        return state == State.SYNCED || (allowStale && state == State.STALE) ? entry : null;
+    }
+    
+    /**
+     * 获取缓存项（未被订阅时返回 null）
+     */
+    public Entry entry(String namespaceId, String groupName, String serviceName) {
+        Map<String, Entry> services = services(namespaceId, groupName);
+        return services != null ? services.get(serviceName) : null;
+    }
+    
+    private Map<String, Entry> services(String namespaceId, String groupName) {
+        Map<String, Map<String, Entry>> groups = entries.get(namespaceId);
+        return groups != null ? groups.get(groupName) : null;
+    }
+    
+    /**
+     * 缓存项数
+     */
+    public int size() {
+        int size = 0;
+        for (Map<String, Map<String, Entry>> groups : entries.values()) {
+            for (Map<String, Entry> services : groups.values()) {
+                size += services.size();
+            }
+        }
+        return size;
+    }
+    
+    /**
+     * 缓存命中次数
+     */
+    public long getHitCount() {
+        return hits.sum();
+    }
+    
+    /**
+     * 缓存未命中次数（包括未订阅、预热中和已过期）
+     */
+    public long getMissCount() {
+        return misses.sum();
+    }
+    
+    /**
+     * 增量应用的事件数
+     */
+    public long getDeltaApplyCount() {
+        return deltaApplies.sum();
+    }
+    
+    /**
+     * 增量结果与事件完整列表节点数不一致、退回完整转换的事件数
+     */
+    public long getDeltaMismatchCount() {
+        return deltaMismatches.sum();
+    }
+    
+    /**
+     * 用完整节点列表更新缓存的事件数
+     */
+    public long getFullApplyCount() {
+        return fullApplies.sum();
+    }
+    
+    /**
+     * 清空缓存
+     */
+    public void clear() {
+        entries.clear();
+    }
+    
+    /**
+     * 单个服务的缓存项
+     * 
+     * <p>写入在缓存项上同步，读取只读 volatile 状态和快照引用。</p>
+     */
+    public static final class Entry {
+        
+        private final String namespaceId;
+        private final String groupName;
+        private final String serviceName;
+        
+        /** 订阅引用数，只在所属 Map 的 compute 中修改 */
+        private int subscribers;
+        
+        private volatile State state = State.WARMING;
+        
+        /** 当前快照，每次变更整体替换 */
+        private final AtomicReference<ServiceSnapshot> snapshot;
+        
+        Entry(String namespaceId, String groupName, String serviceName) {
+            this.namespaceId = namespaceId;
+            this.groupName = groupName;
+            this.serviceName = serviceName;
+            this.snapshot = new AtomicReference<>(ServiceSnapshot.empty(namespaceId, groupName, serviceName));
+        }
+        
+        /**
+         * 发布新快照并标记为已同步，调用方持有缓存项的锁
+         */
+        private void publish(ServiceSnapshot updated) {
+            snapshot.set(updated);
+            state = State.SYNCED;
+        }
+        
+        public String getNamespaceId() {
+            return namespaceId;
+        }
+        
+        public String getGroupName() {
+            return groupName;
+        }
+        
+        public String getServiceName() {
+            return serviceName;
+        }
+        
+        public State getState() {
+            return state;
+        }
+        
+        /**
+         * 当前快照（未同步时为版本号 0 的空快照）
+         */
+        public ServiceSnapshot getSnapshot() {
+            return snapshot.get();
+        }
+        
+        /**
+         * 不可修改的完整节点列表
+         */
+        public List<NodeInfo> getNodes() {
+            return snapshot.get().getNodes();
+        }
+        
+        /**
+         * 最近一次更新的时间戳（毫秒），未同步时为 0
+         */
+        public long getUpdatedAtMillis() {
+            return snapshot.get().getTimestamp();
+        }
+        
+        @Override
+        public String toString() {
+            return "Entry{" + namespaceId + "/" + groupName + "/" + serviceName
+                    + ", state=" + state + ", version=" + snapshot.get().getVersion()
+                    + ", nodes=" + snapshot.get().size() + "}";
+        }
+    }
+}
@@ -6,6 +6,7 @@ import com.flux.servicecenter.model.*;
 import com.flux.servicecenter.registry.RegistryProto;
 import com.flux.servicecenter.registry.ServiceRegistryGrpc;
 import io.grpc.ClientInterceptor;
+import io.grpc.ManagedChannel;
 import io.grpc.Status;
 import io.grpc.StatusRuntimeException;
 import io.grpc.stub.StreamObserver;
@@ -54,10 +55,17 @@ public class ServiceRegistryManager {
     /** 
      * 订阅执行器
      * 
-     * <p>用于执行订阅重连任务。使用固定大小的线程池，避免无限制创建线程。</p>
+     * <p>用于在心跳前检测到断线时异步重连。使用固定大小的线程池，避免无限制创建线程。</p>
      */
     private final ExecutorService subscriptionExecutor;
     
+    /** 
+     * 订阅断开后的重连调度器
+     * 
+     * <p>按去相关抖动退避在定时线程上调度重试，不在订阅线程池中休眠。</p>
+     */
+    private final ReconnectScheduler reconnectScheduler;
+    
     // ========== gRPC Stub ==========
     
     /** 
@@ -94,18 +102,21 @@ public class ServiceRegistryManager {
     private final Map<String, NodeInfo> registeredNodes = new ConcurrentHashMap<>();
     
     /** 
-     * 心跳任务映射表
+     * 心跳调度器
      * 
-     * <p>维护所有活跃节点的心跳任务。Key 为节点ID（nodeId），Value 为心跳任务的 ScheduledFuture。</p>
+     * <p>所有活跃节点共用一个定时任务，在 {@link #heartbeatExecutor} 上运行，心跳异步发送。</p>
      * 
      * <p>生命周期：</p>
      * <ul>
-     *   <li>添加：在节点注册成功时自动启动心跳任务</li>
-     *   <li>移除：在节点注销时自动停止并移除心跳任务</li>
-     *   <li>清理：在 {@link #close()} 时停止所有心跳任务</li>
+     *   <li>添加：在节点注册成功时加入调度</li>
+     *   <li>移除：在节点注销时移出调度</li>
+     *   <li>清理：在 {@link #close()} 时停止调度</li>
      * </ul>
      */
-    private final Map<String, ScheduledFuture<?>> heartbeatTasks = new ConcurrentHashMap<>();
+    private final HeartbeatScheduler heartbeatScheduler;
+    
+    /** 心跳发现连接断开时的重连任务是否已提交（避免每个 tick 重复提交） */
+    private final AtomicBoolean reconnecting = new AtomicBoolean(false);
     
     // ========== 订阅管理 ==========
     
@@ -130,6 +141,14 @@ public class ServiceRegistryManager {
      */
     private final Map<String, ServiceSubscriptionContext> subscriptions = new ConcurrentHashMap<>();
     
+    /** 
+     * 已订阅服务的本地实例缓存
+     * 
+     * <p>指定服务名的订阅在创建时引用缓存项并异步预热，之后由推送的变更事件保持最新；
+     * 订阅断开时标记为过期，重连成功后恢复。订阅整个命名空间/分组时不缓存。</p>
+     */
+    private final ServiceInstanceCache instanceCache = new ServiceInstanceCache();
+    
     // ========== 状态管理 ==========
     
     /** 
@@ -157,6 +176,10 @@ public class ServiceRegistryManager {
         this.connectionManager = connectionManager;
         this.heartbeatExecutor = heartbeatExecutor;
         this.subscriptionExecutor = subscriptionExecutor;
+        this.heartbeatScheduler = new HeartbeatScheduler("registry", heartbeatExecutor,
+                config.getHeartbeatInterval(), this::sendHeartbeatAsync, this::ensureConnectedForHeartbeat,
+                config.getJitterRatio());
+        this.reconnectScheduler = new ReconnectScheduler("registry", heartbeatExecutor, this::currentChannel, config);
     }
     
     /**
@@ -307,6 +330,11 @@ public class ServiceRegistryManager {
      * @throws RuntimeException 如果获取失败
      */
     public GetServiceResult getService(String namespaceId, String groupName, String serviceName) {
+        GetServiceResult cached = instanceCache.getService(namespaceId, groupName != null ? groupName : "DEFAULT_GROUP",
+                serviceName, !connectionManager.isConnected());
+        if (cached != null) {
+            return cached;
+        }
         checkNotClosed();
         try {
             RegistryProto.ServiceKey serviceKey = RegistryProto.ServiceKey.newBuilder()
@@ -324,7 +352,12 @@ public class ServiceRegistryManager {
                     response.hasService() ? response.getService().getServiceName() : "null",
                     response.getNodesCount());
             
-            return ProtoConverter.toGetServiceResult(response);
+            GetServiceResult result = ProtoConverter.toGetServiceResult(response);
+            if (result.isSuccess() && response.hasService()) {
+                instanceCache.updateService(serviceKey.getNamespaceId(), serviceKey.getGroupName(), 
+                        serviceName, ProtoConverter.toServiceInfo(response.getService()));
+            }
+            return result;
         } catch (Exception e) {
             logger.error("getService failed", e);
             throw new RuntimeException("Get service failed", e);
@@ -444,6 +477,8 @@ public class ServiceRegistryManager {
     /**
      * 发现服务节点（一次性查询）
      * 
+     * <p>已订阅且缓存已同步的服务直接从本地缓存返回（新的列表，节点对象与缓存共享，不应修改），未连接时返回过期缓存作为兜底。</p>
+     * 
      * @param namespaceId 命名空间ID，不能为空
      * @param groupName 分组名，如果为 null 则使用 "DEFAULT_GROUP"
      * @param serviceName 服务名，不能为空
@@ -454,6 +489,11 @@ public class ServiceRegistryManager {
      */
     public List<NodeInfo> discoverNodes(String namespaceId, String groupName, 
                                         String serviceName, boolean healthyOnly) {
+        List<NodeInfo> cached = instanceCache.getNodes(namespaceId, groupName != null ? groupName : "DEFAULT_GROUP",
+                serviceName, healthyOnly, !connectionManager.isConnected());
+        if (cached != null) {
+            return cached;
+        }
         checkNotClosed();
         try {
             RegistryProto.DiscoverNodesRequest request = RegistryProto.DiscoverNodesRequest.newBuilder()
@@ -471,6 +511,11 @@ public class ServiceRegistryManager {
                     response.getSuccess(), response.getMessage(), response.getNodesCount());
             
             if (response.getSuccess()) {
+                if (!healthyOnly) {
+                    // 缓存使用单独转换的节点，调用方修改返回的节点不影响缓存
+                    instanceCache.seed(request.getNamespaceId(), request.getGroupName(), serviceName,
+                            ProtoConverter.toNodeInfoList(response.getNodesList()));
+                }
                 return ProtoConverter.toNodeInfoList(response.getNodesList());
             } else {
                 logger.warn("discoverNodes failed: {}", response.getMessage());
@@ -515,12 +560,8 @@ public class ServiceRegistryManager {
             @Override
             public void onNext(RegistryProto.ServiceChangeEvent protoEvent) {
                 try {
-                    // 将 Proto 对象转换为领域对象
-                    ServiceChangeEvent event = ProtoConverter.toServiceChangeEvent(protoEvent);
-                    if (event == null) {
-                        logger.warn("toServiceChangeEvent returned null, skipping");
-                        return;
-                    }
+                    // 将 Proto 对象转换为领域对象，同时更新本地缓存（节点级事件只转换变更节点并增量更新）
+                    ServiceChangeEvent event = instanceCache.applyEvent(protoEvent);
                     
                     // 调用监听器（使用领域对象）
                     listener.onServiceChange(event);
@@ -558,18 +599,25 @@ public class ServiceRegistryManager {
                 }
                 
                 listener.onDisconnected(t);
-                subscriptions.remove(subscriptionId);
+                ServiceSubscriptionContext context = subscriptions.remove(subscriptionId);
                 
                 // 只有在非正常关闭时才自动重连
                 if (!isNormalShutdown) {
-                    reconnectSubscription(subscriptionId, namespaceId, groupName, serviceNames, listener);
+                    // 断开期间缓存保留为过期数据，重连结束（新订阅已引用缓存项或放弃重连）后再释放
+                    if (context != null && context.cached()) {
+                        instanceCache.markStale(context.namespaceId, context.cacheGroupName(), serviceNames);
+                    }
+                    reconnectSubscription(subscriptionId, namespaceId, groupName, serviceNames, listener)
+                            .whenComplete((ignored, error) -> releaseCache(context));
+                } else {
+                    releaseCache(context);
                 }
             }
             
             @Override
             public void onCompleted() {
                 logger.info("Service change subscription completed: {}", subscriptionId);
-                subscriptions.remove(subscriptionId);
+                releaseCache(subscriptions.remove(subscriptionId));
             }
         };
         
@@ -601,8 +649,15 @@ public class ServiceRegistryManager {
                     subscriptionId, namespaceId, groupKey);
         }
         
-        subscriptions.put(subscriptionId, new ServiceSubscriptionContext(
-                subscriptionId, namespaceId, groupName, serviceNames, listener, responseObserver));
+        ServiceSubscriptionContext context = new ServiceSubscriptionContext(
+                subscriptionId, namespaceId, groupName, serviceNames, listener, responseObserver);
+        subscriptions.put(subscriptionId, context);
+        if (context.cached()) {
+            for (String serviceName : serviceNames) {
+                instanceCache.track(namespaceId, groupKey, serviceName);
+            }
+            seedInstanceCache(namespaceId, groupKey, serviceNames);
+        }
         
         return subscriptionId;
     }
@@ -613,10 +668,64 @@ public class ServiceRegistryManager {
     public void unsubscribe(String subscriptionId) {
         ServiceSubscriptionContext context = subscriptions.remove(subscriptionId);
         if (context != null) {
+            releaseCache(context);
             logger.info("Service subscription cancelled: {}", subscriptionId);
         }
     }
     
+    /**
+     * 获取已订阅服务的本地实例缓存
+     */
+    public ServiceInstanceCache getServiceInstanceCache() {
+        return instanceCache;
+    }
+    
+    /**
+     * 异步发起完整发现预热缓存（已由变更事件同步的服务忽略结果）
+     */
+    private void seedInstanceCache(String namespaceId, String groupName, List<String> serviceNames) {
+        for (String serviceName : serviceNames) {
+            RegistryProto.DiscoverNodesRequest request = RegistryProto.DiscoverNodesRequest.newBuilder()
+                    .setNamespaceId(namespaceId)
+                    .setGroupName(groupName)
+                    .setServiceName(serviceName)
+                    .setHealthyOnly(false)
+                    .build();
+            asyncStub.withDeadlineAfter(connectionManager.getRequestTimeout(), TimeUnit.MILLISECONDS)
+                    .discoverNodes(request, new StreamObserver<RegistryProto.DiscoverNodesResponse>() {
+                        @Override
+                        public void onNext(RegistryProto.DiscoverNodesResponse response) {
+                            if (response.getSuccess()) {
+                                instanceCache.seed(namespaceId, groupName, serviceName,
+                                        ProtoConverter.toNodeInfoList(response.getNodesList()));
+                            }
+                        }
+                        
+                        @Override
+                        public void onError(Throwable t) {
+                            logger.warn("Instance cache seed failed: {}/{}/{}, error={}", 
+                                    namespaceId, groupName, serviceName, t.getMessage());
+                        }
+                        
+                        @Override
+                        public void onCompleted() {
+                        }
+                    });
+        }
+    }
+    
+    /**
+     * 释放订阅引用的缓存项
+     */
+    private void releaseCache(ServiceSubscriptionContext context) {
+        if (context == null || !context.cached()) {
+            return;
+        }
+        for (String serviceName : context.serviceNames) {
+            instanceCache.untrack(context.namespaceId, context.cacheGroupName(), serviceName);
+        }
+    }
+    
     /**
      * 发送心跳
      * 
@@ -643,31 +752,7 @@ public class ServiceRegistryManager {
         }
         
         try {
-            // 从节点ID池中获取节点信息
-            NodeInfo nodeInfo = registeredNodes.get(nodeId);
-            
-            // 构建心跳请求
-            RegistryProto.HeartbeatRequest.Builder requestBuilder = RegistryProto.HeartbeatRequest.newBuilder()
-                    .setNodeId(nodeId);
-            
-            // 如果节点信息存在，构建完整的 Service 信息
-            if (nodeInfo != null) {
-                // 从节点信息构建基本的 Service 信息（节点信息中已包含服务的基本信息）
-                RegistryProto.Service.Builder serviceBuilder = RegistryProto.Service.newBuilder()
-                        .setNamespaceId(nodeInfo.getNamespaceId() != null ? nodeInfo.getNamespaceId() : "")
-                        .setGroupName(nodeInfo.getGroupName() != null ? nodeInfo.getGroupName() : "DEFAULT_GROUP")
-                        .setServiceName(nodeInfo.getServiceName() != null ? nodeInfo.getServiceName() : "");
-                
-                // 构建节点信息并添加到 Service 中
-                RegistryProto.Node protoNode = ProtoConverter.toProtoNode(nodeInfo);
-                if (protoNode != null) {
-                    serviceBuilder.setNode(protoNode);
-                }
-                
-                requestBuilder.setService(serviceBuilder.build());
-            }
-            
-            RegistryProto.HeartbeatRequest request = requestBuilder.build();
+            RegistryProto.HeartbeatRequest request = buildHeartbeatRequest(nodeId);
             // 在每次调用时动态设置 deadline，避免因任务延迟执行导致 deadline 过期
             // 这是解决 DEADLINE_EXCEEDED 问题的关键：每次调用时基于当前时间计算 deadline
             RegistryProto.RegistryResponse response = blockingStub
@@ -688,81 +773,127 @@ public class ServiceRegistryManager {
     }
     
     /**
-     * 启动心跳任务
+     * 构建心跳请求（携带完整的 Service 信息）
      */
-    private void startHeartbeat(String nodeId) {
-        if (heartbeatTasks.containsKey(nodeId)) {
-            logger.warn("Heartbeat task already exists for nodeId={}", nodeId);
-            return;
+    private RegistryProto.HeartbeatRequest buildHeartbeatRequest(String nodeId) {
+        // 从节点ID池中获取节点信息
+        NodeInfo nodeInfo = registeredNodes.get(nodeId);
+        
+        // 构建心跳请求
+        RegistryProto.HeartbeatRequest.Builder requestBuilder = RegistryProto.HeartbeatRequest.newBuilder()
+                .setNodeId(nodeId);
+        
+        // 如果节点信息存在，构建完整的 Service 信息
+        if (nodeInfo != null) {
+            // 从节点信息构建基本的 Service 信息（节点信息中已包含服务的基本信息）
+            RegistryProto.Service.Builder serviceBuilder = RegistryProto.Service.newBuilder()
+                    .setNamespaceId(nodeInfo.getNamespaceId() != null ? nodeInfo.getNamespaceId() : "")
+                    .setGroupName(nodeInfo.getGroupName() != null ? nodeInfo.getGroupName() : "DEFAULT_GROUP")
+                    .setServiceName(nodeInfo.getServiceName() != null ? nodeInfo.getServiceName() : "");
+            
+            // 构建节点信息并添加到 Service 中
+            RegistryProto.Node protoNode = ProtoConverter.toProtoNode(nodeInfo);
+            if (protoNode != null) {
+                serviceBuilder.setNode(protoNode);
+            }
+            
+            requestBuilder.setService(serviceBuilder.build());
         }
         
-        ScheduledFuture<?> future = heartbeatExecutor.scheduleAtFixedRate(() -> {
-            try {
-                // 检查连接状态，如果断开则重连
-                if (!connectionManager.isConnected()) {
-                    logger.warn("Connection lost, reconnecting: nodeId={}", nodeId);
-                    try {
-                        connectionManager.reconnect();
-                        if (!connectionManager.isConnected()) {
-                            logger.error("Reconnect failed, skip this heartbeat: nodeId={}", nodeId);
-                            return; // 重连失败，跳过本次心跳
-                        }
-                        logger.info("Reconnected, resuming heartbeat: nodeId={}", nodeId);
-                    } catch (Exception reconnectErr) {
-                        logger.error("Reconnect error, skip this heartbeat: nodeId={}", nodeId, reconnectErr);
-                        return; // 重连异常，跳过本次心跳
+        return requestBuilder.build();
+    }
+    
+    /**
+     * 异步发送心跳（由心跳调度器调用，不阻塞调度线程）
+     * 
+     * <p>连接类错误（DEADLINE_EXCEEDED、UNAVAILABLE 等）会将连接标记为断开，下一个 tick 触发重连。</p>
+     */
+    private CompletableFuture<OperationResult> sendHeartbeatAsync(String nodeId) {
+        CompletableFuture<RegistryProto.RegistryResponse> future = new CompletableFuture<>();
+        asyncStub
+                .withDeadlineAfter(connectionManager.getRequestTimeout(), TimeUnit.MILLISECONDS)
+                .heartbeat(buildHeartbeatRequest(nodeId), new StreamObserver<RegistryProto.RegistryResponse>() {
+                    @Override
+                    public void onNext(RegistryProto.RegistryResponse response) {
+                        future.complete(response);
                     }
-                }
-                
-                OperationResult result = heartbeat(nodeId);
-                if (!result.isSuccess()) {
-                    logger.warn("Heartbeat failed: nodeId={}, message={}", nodeId, result.getMessage());
-                    // 心跳失败可能是连接问题，检查连接状态
-                    if (!connectionManager.isConnected()) {
-                        logger.warn("Connection lost after heartbeat failure, will reconnect on next tick: nodeId={}", nodeId);
+                    
+                    @Override
+                    public void onError(Throwable t) {
+                        future.completeExceptionally(t);
                     }
-                }
-            } catch (io.grpc.StatusRuntimeException e) {
-                // gRPC 异常（如 DEADLINE_EXCEEDED、UNAVAILABLE 等）通常是连接问题
-                io.grpc.Status.Code statusCode = e.getStatus().getCode();
-                logger.error("heartbeat gRPC error: nodeId={}, status={}, code={}", nodeId, e.getStatus(), statusCode, e);
-                
+                    
+                    @Override
+                    public void onCompleted() {
+                        if (!future.isDone()) {
+                            future.completeExceptionally(new IllegalStateException("RPC completed without response"));
+                        }
+                    }
+                });
+        
+        return future.handle((response, error) -> {
+            if (error == null) {
+                logger.debug("heartbeat response: nodeId={}, success={}, message={}, code={}", 
+                        nodeId, response.getSuccess(), response.getMessage(), response.getCode());
+                return ProtoConverter.toOperationResult(response);
+            }
+            Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+            if (cause instanceof StatusRuntimeException) {
+                Status.Code statusCode = ((StatusRuntimeException) cause).getStatus().getCode();
                 // 这些状态码通常表示连接问题，需要重连
-                if (statusCode == io.grpc.Status.Code.DEADLINE_EXCEEDED || 
-                    statusCode == io.grpc.Status.Code.UNAVAILABLE ||
-                    statusCode == io.grpc.Status.Code.UNAUTHENTICATED ||
-                    statusCode == io.grpc.Status.Code.ABORTED ||
-                    statusCode == io.grpc.Status.Code.CANCELLED) {
-                    // 标记连接为断开状态，下次心跳时会自动重连
+                if (statusCode == Status.Code.DEADLINE_EXCEEDED || 
+                    statusCode == Status.Code.UNAVAILABLE ||
+                    statusCode == Status.Code.UNAUTHENTICATED ||
+                    statusCode == Status.Code.ABORTED ||
+                    statusCode == Status.Code.CANCELLED) {
                     logger.warn("Connection issue detected, marking disconnected: nodeId={}, code={}", nodeId, statusCode);
                     connectionManager.markDisconnected();
                 }
-            } catch (RuntimeException e) {
-                // 检查是否是包装了 StatusRuntimeException 的 RuntimeException
-                Throwable cause = e.getCause();
-                if (cause instanceof io.grpc.StatusRuntimeException) {
-                    io.grpc.StatusRuntimeException grpcException = (io.grpc.StatusRuntimeException) cause;
-                    io.grpc.Status.Code statusCode = grpcException.getStatus().getCode();
-                    logger.error("heartbeat error (wrapped gRPC): nodeId={}, status={}, code={}", 
-                            nodeId, grpcException.getStatus(), statusCode, e);
-                    // 处理连接问题
-                    if (statusCode == io.grpc.Status.Code.DEADLINE_EXCEEDED || 
-                        statusCode == io.grpc.Status.Code.UNAVAILABLE ||
-                        statusCode == io.grpc.Status.Code.UNAUTHENTICATED ||
-                        statusCode == io.grpc.Status.Code.ABORTED ||
-                        statusCode == io.grpc.Status.Code.CANCELLED) {
-                        logger.warn("Connection issue (wrapped cause), marking disconnected: nodeId={}, code={}", nodeId, statusCode);
-                        connectionManager.markDisconnected();
+            }
+            throw new CompletionException(cause);
+        });
+    }
+    
+    /**
+     * 心跳 tick 前检查连接；断开时在订阅线程池中异步重连并跳过本 tick
+     */
+    private boolean ensureConnectedForHeartbeat() {
+        if (connectionManager.isConnected()) {
+            return true;
+        }
+        if (reconnecting.compareAndSet(false, true)) {
+            logger.warn("Connection lost, reconnecting before next heartbeat");
+            try {
+                subscriptionExecutor.execute(() -> {
+                    try {
+                        connectionManager.reconnect();
+                        if (connectionManager.isConnected()) {
+                            logger.info("Reconnected, resuming heartbeat");
+                        } else {
+                            logger.error("Reconnect failed, heartbeats skipped until connected");
+                        }
+                    } catch (Exception e) {
+                        logger.error("Reconnect error, heartbeats skipped until connected", e);
+                    } finally {
+                        reconnecting.set(false);
                     }
-                } else {
-                    logger.error("heartbeat error: nodeId={}", nodeId, e);
-                }
-            } catch (Exception e) {
-                logger.error("heartbeat error: nodeId={}", nodeId, e);
+                });
+            } catch (RejectedExecutionException e) {
+                reconnecting.set(false);
             }
-        }, 0, config.getHeartbeatInterval(), TimeUnit.MILLISECONDS);
-        
-        heartbeatTasks.put(nodeId, future);
+        }
+        return false;
+    }
+    
+    /**
+     * 启动心跳任务（注册后立即发送第一次心跳）
+     */
+    private void startHeartbeat(String nodeId) {
+        if (heartbeatScheduler.contains(nodeId)) {
+            logger.warn("Heartbeat task already exists for nodeId={}", nodeId);
+            return;
+        }
+        heartbeatScheduler.add(nodeId, 0);
         logger.info("Heartbeat task started: nodeId={}, intervalMs={}", nodeId, config.getHeartbeatInterval());
     }
     
@@ -770,9 +901,8 @@ public class ServiceRegistryManager {
      * 停止心跳任务
      */
     private void stopHeartbeat(String nodeId) {
-        ScheduledFuture<?> future = heartbeatTasks.remove(nodeId);
-        if (future != null) {
-            future.cancel(false);
+        if (heartbeatScheduler.contains(nodeId)) {
+            heartbeatScheduler.remove(nodeId);
             logger.info("Heartbeat task stopped: nodeId={}", nodeId);
         }
     }
@@ -831,70 +961,49 @@ public class ServiceRegistryManager {
     
     /**
      * 重连订阅
+     * 
+     * <p>由 {@link ReconnectScheduler} 在心跳定时线程上按退避延迟调度，等待期间不占用订阅线程池；
+     * Channel 恢复 READY 时立即重试。</p>
      */
-    private void reconnectSubscription(String subscriptionId, String namespaceId, 
-                                      String groupName, List<String> serviceNames, 
-                                      ServiceChangeListener listener) {
-        subscriptionExecutor.submit(() -> {
-            int attempts = 0;
-            long backoffMs = config.getReconnectInterval();
-            final long maxBackoffMs = 30000;
-            
-            while (!closed.get() && (config.getMaxReconnectAttempts() < 0 || attempts < config.getMaxReconnectAttempts())) {
-                try {
-                    Thread.sleep(backoffMs);
-                    attempts++;
-                    backoffMs = Math.min(backoffMs * 2, maxBackoffMs);
-                    
-                    logger.info("Reconnecting service subscription: subscriptionId={}, attempt={}, backoffMs={}", 
-                            subscriptionId, attempts, backoffMs);
-                    
-                    // 检查是否已有相同订阅
-                    boolean hasDuplicate = false;
-                    for (ServiceSubscriptionContext ctx : subscriptions.values()) {
-                        if (ctx.namespaceId.equals(namespaceId) && 
-                            ctx.groupName.equals(groupName) &&
-                            ctx.serviceNames != null && ctx.serviceNames.equals(serviceNames)) {
-                            logger.info("Duplicate subscription exists, skip reconnect: subscriptionId={}", ctx.subscriptionId);
-                            hasDuplicate = true;
-                            break;
-                        }
-                    }
-                    
-                    if (hasDuplicate) {
-                        return;
-                    }
-                    
-                    // 重新连接
-                    if (!connectionManager.isConnected()) {
-                        connectionManager.reconnect();
-                    }
-                    
-                    if (!connectionManager.isConnected()) {
-                        continue;
-                    }
-                    
-                    // 重新订阅
-                    String newSubscriptionId = subscribe(namespaceId, groupName, serviceNames, listener);
-                    logger.info("Service subscription reconnected: oldSubscriptionId={}, newSubscriptionId={}, attempts={}", 
-                            subscriptionId, newSubscriptionId, attempts);
-                    
-                    listener.onReconnected();
-                    return;
-                } catch (InterruptedException e) {
-                    Thread.currentThread().interrupt();
-                    logger.warn("Service subscription reconnect interrupted: subscriptionId={}", subscriptionId);
-                    return;
-                } catch (Exception e) {
-                    logger.warn("Service subscription reconnect failed: subscriptionId={}, attempt={}", subscriptionId, attempts, e);
+    private CompletableFuture<Void> reconnectSubscription(String subscriptionId, String namespaceId, 
+                                                         String groupName, List<String> serviceNames, 
+                                                         ServiceChangeListener listener) {
+        return reconnectScheduler.start("subscription " + subscriptionId, () -> {
+            // 检查是否已有相同订阅
+            for (ServiceSubscriptionContext ctx : subscriptions.values()) {
+                if (ctx.namespaceId.equals(namespaceId) && 
+                    ctx.groupName.equals(groupName) &&
+                    ctx.serviceNames != null && ctx.serviceNames.equals(serviceNames)) {
+                    logger.info("Duplicate subscription exists, skip reconnect: subscriptionId={}", ctx.subscriptionId);
+                    return CompletableFuture.completedFuture(null);
                 }
             }
             
-            if (!closed.get()) {
-                logger.error("Service subscription reconnect exhausted retries: subscriptionId={}, attempts={}", 
-                        subscriptionId, attempts);
+            // 重新连接
+            if (!connectionManager.isConnected()) {
+                connectionManager.reconnect();
             }
-        });
+            if (!connectionManager.isConnected()) {
+                return CompletableFuture.failedFuture(new IllegalStateException("Not connected"));
+            }
+            
+            // 重新订阅
+            String newSubscriptionId = subscribe(namespaceId, groupName, serviceNames, listener);
+            logger.info("Service subscription reconnected: oldSubscriptionId={}, newSubscriptionId={}", 
+                    subscriptionId, newSubscriptionId);
+            
+            listener.onReconnected();
+            return CompletableFuture.completedFuture(null);
+        }, closed::get);
+    }
+    
+    /**
+     * 当前 Channel（用于重连时监听连接状态）
+     * 
+     * <p>通道存在即返回，不论连接标志：断开期间正是需要监听通道恢复 READY 的时候。</p>
+     */
+    ManagedChannel currentChannel() {
+        return connectionManager.peekChannel();
     }
     
     /**
@@ -934,9 +1043,7 @@ public class ServiceRegistryManager {
         }
         
         // 2. 停止所有心跳任务
-        for (String nodeId : new ArrayList<>(heartbeatTasks.keySet())) {
-            stopHeartbeat(nodeId);
-        }
+        heartbeatScheduler.stop();
         
         // 3. 取消所有服务订阅
         for (String subscriptionId : new ArrayList<>(subscriptions.keySet())) {
@@ -949,8 +1056,8 @@ public class ServiceRegistryManager {
         
         // 4. 清空本地缓存
         registeredNodes.clear();
-        heartbeatTasks.clear();
         subscriptions.clear();
+        instanceCache.clear();
         
         logger.info("Service registry manager closed");
     }
@@ -989,6 +1096,17 @@ public class ServiceRegistryManager {
             this.listener = listener;
             this.responseObserver = responseObserver;
         }
+        
+        /**
+         * 指定了服务名的订阅才使用实例缓存
+         */
+        boolean cached() {
+            return serviceNames != null && !serviceNames.isEmpty();
+        }
+        
+        String cacheGroupName() {
+            return groupName != null ? groupName : "DEFAULT_GROUP";
+        }
     }
 }
 
@@ -6,25 +6,52 @@ import com.flux.servicecenter.stream.StreamProto.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.UUID;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
 
 /**
  * 双向流业务操作助手
  * 
  * <p>封装双向流的业务操作，将复杂的消息构建和发送逻辑封装成简单的方法调用。</p>
+ * 
+ * <p>每个请求-响应操作都提供异步版本（{@code xxxAsync}），同步版本基于异步版本实现。
+ * 异步版本不占用调用线程，响应到达或超时后由双向流回调完成 Future。</p>
+ * 
+ * <p>消息通过 {@link StreamConnectionPool} 路由：注册/注销/心跳走控制流，
+ * 服务发现、配置读写和订阅按服务/配置键分片到数据流。</p>
+ * 
+ * <p>幂等读操作（服务发现、获取配置、列出配置）经 {@link RequestHedger} 发送，开启对冲时主请求变慢后
+ * 在备用流上再发一次。</p>
  */
 public class StreamBusinessHelper {
     private static final Logger logger = LoggerFactory.getLogger(StreamBusinessHelper.class);
     
-    private final StreamConnectionManager connectionManager;
+    private final StreamConnectionPool connectionPool;
+    private final RequestHedger hedger;
     
-    public StreamBusinessHelper(StreamConnectionManager connectionManager) {
-        this.connectionManager = connectionManager;
+    public StreamBusinessHelper(StreamConnectionPool connectionPool, RequestHedger hedger) {
+        this.connectionPool = connectionPool;
+        this.hedger = hedger;
     }
     
     // ========== 辅助方法 ==========
     
+    /**
+     * 通过对冲器发送幂等读请求，对冲请求使用主请求之外的流
+     */
+    private <T> CompletableFuture<T> hedged(String operation, StreamConnectionManager lane,
+                                            Function<StreamConnectionManager, CompletableFuture<T>> send) {
+        return hedger.execute(operation, () -> send.apply(lane), () -> {
+            StreamConnectionManager alternate = connectionPool.alternateLane(lane);
+            return alternate == null ? null : send.apply(alternate);
+        });
+    }
+    
     /**
      * 检查服务端响应是否为错误
      */
@@ -49,173 +76,270 @@ public class StreamBusinessHelper {
      * 注册服务
      */
     public RegistryProto.RegisterServiceResponse registerService(RegistryProto.Service service) throws TimeoutException {
+        return StreamConnectionManager.awaitResult(registerServiceAsync(service));
+    }
+    
+    /**
+     * 注册服务（异步）
+     */
+    public CompletableFuture<RegistryProto.RegisterServiceResponse> registerServiceAsync(RegistryProto.Service service) {
+        StreamConnectionManager lane = connectionPool.controlLane();
         ClientMessage request = ClientMessage.newBuilder()
-            .setRequestId(UUID.randomUUID().toString())
+            .setRequestId(lane.nextRequestId())
             .setMessageType(ClientMessageType.CLIENT_REGISTER_SERVICE)
             .setRegisterService(service)
             .build();
         
-        ServerMessage response = connectionManager.sendRequest(request);
-        
-        if (isErrorResponse(response)) {
-            String errorMsg = getErrorMessage(response);
-            logger.error("registerService failed: {}", errorMsg);
-            return RegistryProto.RegisterServiceResponse.newBuilder()
-                    .setSuccess(false)
-                    .setMessage(errorMsg)
-                    .build();
-        }
-        
-        return response.getRegisterService();
+        return lane.sendRequestAsync(request).thenApply(response -> {
+            if (isErrorResponse(response)) {
+                String errorMsg = getErrorMessage(response);
+                logger.error("registerService failed: {}", errorMsg);
+                return RegistryProto.RegisterServiceResponse.newBuilder()
+                        .setSuccess(false)
+                        .setMessage(errorMsg)
+                        .build();
+            }
+            return response.getRegisterService();
+        });
     }
     
     /**
      * 注销服务
      */
     public RegistryProto.RegistryResponse unregisterService(RegistryProto.ServiceKey serviceKey) throws TimeoutException {
+        return StreamConnectionManager.awaitResult(unregisterServiceAsync(serviceKey));
+    }
+    
+    /**
+     * 注销服务（异步）
+     */
+    public CompletableFuture<RegistryProto.RegistryResponse> unregisterServiceAsync(RegistryProto.ServiceKey serviceKey) {
+        StreamConnectionManager lane = connectionPool.controlLane();
         ClientMessage request = ClientMessage.newBuilder()
-            .setRequestId(UUID.randomUUID().toString())
+            .setRequestId(lane.nextRequestId())
             .setMessageType(ClientMessageType.CLIENT_UNREGISTER_SERVICE)
             .setUnregisterService(serviceKey)
             .build();
         
-        ServerMessage response = connectionManager.sendRequest(request);
-        
-        if (isErrorResponse(response)) {
-            String errorMsg = getErrorMessage(response);
-            logger.error("unregisterService failed: {}", errorMsg);
-            return RegistryProto.RegistryResponse.newBuilder()
-                    .setSuccess(false)
-                    .setMessage(errorMsg)
-                    .build();
-        }
-        
-        return response.getUnregisterService();
+        return lane.sendRequestAsync(request).thenApply(response -> {
+            if (isErrorResponse(response)) {
+                String errorMsg = getErrorMessage(response);
+                logger.error("unregisterService failed: {}", errorMsg);
+                return RegistryProto.RegistryResponse.newBuilder()
+                        .setSuccess(false)
+                        .setMessage(errorMsg)
+                        .build();
+            }
+            return response.getUnregisterService();
+        });
     }
     
     /**
      * 注册节点
      */
     public RegistryProto.RegisterNodeResponse registerNode(RegistryProto.Node node) throws TimeoutException {
+        return StreamConnectionManager.awaitResult(registerNodeAsync(node));
+    }
+    
+    /**
+     * 注册节点（异步）
+     */
+    public CompletableFuture<RegistryProto.RegisterNodeResponse> registerNodeAsync(RegistryProto.Node node) {
+        StreamConnectionManager lane = connectionPool.controlLane();
         ClientMessage request = ClientMessage.newBuilder()
-            .setRequestId(UUID.randomUUID().toString())
+            .setRequestId(lane.nextRequestId())
             .setMessageType(ClientMessageType.CLIENT_REGISTER_NODE)
             .setRegisterNode(node)
             .build();
         
-        ServerMessage response = connectionManager.sendRequest(request);
-        
-        // 检查是否是错误响应
-        if (isErrorResponse(response)) {
-            String errorMsg = getErrorMessage(response);
-            logger.error("registerNode failed: {}", errorMsg);
-            return RegistryProto.RegisterNodeResponse.newBuilder()
-                    .setSuccess(false)
-                    .setMessage(errorMsg)
-                    .build();
-        }
-        
-        return response.getRegisterNode();
+        return lane.sendRequestAsync(request).thenApply(response -> {
+            if (isErrorResponse(response)) {
+                String errorMsg = getErrorMessage(response);
+                logger.error("registerNode failed: {}", errorMsg);
+                return RegistryProto.RegisterNodeResponse.newBuilder()
+                        .setSuccess(false)
+                        .setMessage(errorMsg)
+                        .build();
+            }
+            return response.getRegisterNode();
+        });
     }
     
     /**
      * 注销节点
      */
     public RegistryProto.RegistryResponse unregisterNode(RegistryProto.NodeKey nodeKey) throws TimeoutException {
+        return StreamConnectionManager.awaitResult(unregisterNodeAsync(nodeKey));
+    }
+    
+    /**
+     * 注销节点（异步）
+     */
+    public CompletableFuture<RegistryProto.RegistryResponse> unregisterNodeAsync(RegistryProto.NodeKey nodeKey) {
+        StreamConnectionManager lane = connectionPool.controlLane();
         ClientMessage request = ClientMessage.newBuilder()
-            .setRequestId(UUID.randomUUID().toString())
+            .setRequestId(lane.nextRequestId())
             .setMessageType(ClientMessageType.CLIENT_UNREGISTER_NODE)
             .setUnregisterNode(nodeKey)
             .build();
         
-        ServerMessage response = connectionManager.sendRequest(request);
-        
-        if (isErrorResponse(response)) {
-            String errorMsg = getErrorMessage(response);
-            logger.error("unregisterNode failed: {}", errorMsg);
-            return RegistryProto.RegistryResponse.newBuilder()
-                    .setSuccess(false)
-                    .setMessage(errorMsg)
-                    .build();
-        }
-        
-        return response.getUnregisterNode();
+        return lane.sendRequestAsync(request).thenApply(response -> {
+            if (isErrorResponse(response)) {
+                String errorMsg = getErrorMessage(response);
+                logger.error("unregisterNode failed: {}", errorMsg);
+                return RegistryProto.RegistryResponse.newBuilder()
+                        .setSuccess(false)
+                        .setMessage(errorMsg)
+                        .build();
+            }
+            return response.getUnregisterNode();
+        });
     }
     
     /**
      * 发现节点
      */
     public RegistryProto.DiscoverNodesResponse discoverNodes(RegistryProto.DiscoverNodesRequest request) throws TimeoutException {
+        return StreamConnectionManager.awaitResult(discoverNodesAsync(request));
+    }
+    
+    /**
+     * 发现节点（异步）
+     */
+    public CompletableFuture<RegistryProto.DiscoverNodesResponse> discoverNodesAsync(RegistryProto.DiscoverNodesRequest request) {
+        return hedged("discoverNodes", connectionPool.laneFor(request), lane -> discoverNodesAsync(lane, request));
+    }
+    
+    private CompletableFuture<RegistryProto.DiscoverNodesResponse> discoverNodesAsync(StreamConnectionManager lane,
+                                                                                     RegistryProto.DiscoverNodesRequest request) {
         ClientMessage clientMessage = ClientMessage.newBuilder()
-            .setRequestId(UUID.randomUUID().toString())
+            .setRequestId(lane.nextRequestId())
             .setMessageType(ClientMessageType.CLIENT_DISCOVER_NODES)
             .setDiscoverNodes(request)
             .build();
         
-        ServerMessage response = connectionManager.sendRequest(clientMessage);
-        
-        if (isErrorResponse(response)) {
-            String errorMsg = getErrorMessage(response);
-            logger.error("discoverNodes failed: {}", errorMsg);
-            return RegistryProto.DiscoverNodesResponse.newBuilder()
-                    .setSuccess(false)
-                    .setMessage(errorMsg)
-                    .build();
-        }
-        
-        return response.getDiscoverNodes();
+        return lane.sendRequestAsync(clientMessage).thenApply(response -> {
+            if (isErrorResponse(response)) {
+                String errorMsg = getErrorMessage(response);
+                logger.error("discoverNodes failed: {}", errorMsg);
+                return RegistryProto.DiscoverNodesResponse.newBuilder()
+                        .setSuccess(false)
+                        .setMessage(errorMsg)
+                        .build();
+            }
+            return response.getDiscoverNodes();
+        });
     }
     
     /**
      * 发送心跳
      */
     public RegistryProto.RegistryResponse heartbeat(RegistryProto.HeartbeatRequest request) throws TimeoutException {
+        return StreamConnectionManager.awaitResult(heartbeatAsync(request));
+    }
+    
+    /**
+     * 发送心跳（异步）
+     */
+    public CompletableFuture<RegistryProto.RegistryResponse> heartbeatAsync(RegistryProto.HeartbeatRequest request) {
+        StreamConnectionManager lane = connectionPool.controlLane();
         ClientMessage clientMessage = ClientMessage.newBuilder()
-            .setRequestId(UUID.randomUUID().toString())
+            .setRequestId(lane.nextRequestId())
             .setMessageType(ClientMessageType.CLIENT_HEARTBEAT)
             .setHeartbeat(request)
             .build();
         
-        ServerMessage response = connectionManager.sendRequest(clientMessage);
-        
-        if (isErrorResponse(response)) {
-            String errorMsg = getErrorMessage(response);
-            logger.error("heartbeat failed: {}", errorMsg);
-            return RegistryProto.RegistryResponse.newBuilder()
-                    .setSuccess(false)
-                    .setMessage(errorMsg)
-                    .build();
-        }
+        return lane.sendRequestAsync(clientMessage).thenApply(response -> {
+            if (isErrorResponse(response)) {
+                String errorMsg = getErrorMessage(response);
+                logger.error("heartbeat failed: {}", errorMsg);
+                return RegistryProto.RegistryResponse.newBuilder()
+                        .setSuccess(false)
+                        .setMessage(errorMsg)
+                        .build();
+            }
+            return response.getHeartbeat();
+        });
+    }
+    
+    /**
+     * 控制流当前连接的服务端是否支持批量心跳
+     */
+    public boolean supportsBatchHeartbeat() {
+        return connectionPool.controlLane().hasServerCapability(HeartbeatScheduler.BATCH_CAPABILITY);
+    }
+    
+    /**
+     * 发送批量心跳（异步），调用前应通过 {@link #supportsBatchHeartbeat()} 确认服务端支持
+     */
+    public CompletableFuture<BatchHeartbeatResponse> batchHeartbeatAsync(BatchHeartbeatRequest request) {
+        StreamConnectionManager lane = connectionPool.controlLane();
+        ClientMessage clientMessage = ClientMessage.newBuilder()
+            .setRequestId(lane.nextRequestId())
+            .setMessageType(ClientMessageType.CLIENT_BATCH_HEARTBEAT)
+            .setBatchHeartbeat(request)
+            .build();
         
-        return response.getHeartbeat();
+        return lane.sendRequestAsync(clientMessage).thenApply(response -> {
+            if (isErrorResponse(response)) {
+                String errorMsg = getErrorMessage(response);
+                logger.error("batchHeartbeat failed: {}", errorMsg);
+                return BatchHeartbeatResponse.newBuilder()
+                        .setSuccess(false)
+                        .setMessage(errorMsg)
+                        .build();
+            }
+            return response.getBatchHeartbeat();
+        });
     }
     
     /**
      * 订阅服务（发送订阅请求，不等待响应）
+     * 
+     * <p>服务名按所属的流拆分，每条流发送一条订阅消息，服务变更推送会在同一条流上到达。
+     * 所属的流未连接时跳过，由该流重连后的状态恢复补发。</p>
      */
     public void subscribeServices(RegistryProto.SubscribeServicesRequest request) {
-        ClientMessage clientMessage = ClientMessage.newBuilder()
-            .setRequestId(UUID.randomUUID().toString())
-            .setMessageType(ClientMessageType.CLIENT_SUBSCRIBE_SERVICES)
-            .setSubscribeServices(request)
-            .build();
+        Map<Integer, List<String>> namesByLane = new LinkedHashMap<>();
+        for (String serviceName : request.getServiceNamesList()) {
+            int laneIndex = connectionPool.laneIndex(request.getNamespaceId(), request.getGroupName(), serviceName);
+            namesByLane.computeIfAbsent(laneIndex, k -> new ArrayList<>()).add(serviceName);
+        }
         
-        connectionManager.sendRequestAsync(clientMessage);
-        logger.info("SubscribeServices request sent: namespaceId={}, groupName={}, serviceNames={}", 
-            request.getNamespaceId(), request.getGroupName(), request.getServiceNamesList());
+        for (Map.Entry<Integer, List<String>> entry : namesByLane.entrySet()) {
+            StreamConnectionManager lane = connectionPool.lane(entry.getKey());
+            if (!lane.isConnected()) {
+                logger.info("Stream {} not connected, subscription will be sent after it reconnects: serviceNames={}", 
+                    lane.getName(), entry.getValue());
+                continue;
+            }
+            RegistryProto.SubscribeServicesRequest laneRequest = namesByLane.size() == 1 ? request
+                    : request.toBuilder().clearServiceNames().addAllServiceNames(entry.getValue()).build();
+            ClientMessage clientMessage = ClientMessage.newBuilder()
+                .setRequestId(lane.nextRequestId())
+                .setMessageType(ClientMessageType.CLIENT_SUBSCRIBE_SERVICES)
+                .setSubscribeServices(laneRequest)
+                .build();
+            
+            lane.sendOneWay(clientMessage);
+            logger.info("SubscribeServices request sent: namespaceId={}, groupName={}, serviceNames={}", 
+                request.getNamespaceId(), request.getGroupName(), laneRequest.getServiceNamesList());
+        }
     }
     
     /**
      * 订阅命名空间（发送订阅请求，不等待响应）
      */
     public void subscribeNamespace(RegistryProto.SubscribeNamespaceRequest request) {
+        StreamConnectionManager lane = connectionPool.lane(
+                connectionPool.laneIndex(request.getNamespaceId(), request.getGroupName(), null));
         ClientMessage clientMessage = ClientMessage.newBuilder()
-            .setRequestId(UUID.randomUUID().toString())
+            .setRequestId(lane.nextRequestId())
             .setMessageType(ClientMessageType.CLIENT_SUBSCRIBE_NAMESPACE)
             .setSubscribeNamespace(request)
             .build();
         
-        connectionManager.sendRequestAsync(clientMessage);
+        lane.sendOneWay(clientMessage);
         logger.info("SubscribeNamespace request sent: namespaceId={}, groupName={}", 
             request.getNamespaceId(), request.getGroupName());
     }
@@ -226,159 +350,228 @@ public class StreamBusinessHelper {
      * 获取配置
      */
     public ConfigProto.GetConfigResponse getConfig(ConfigProto.ConfigKey configKey) throws TimeoutException {
+        return StreamConnectionManager.awaitResult(getConfigAsync(configKey));
+    }
+    
+    /**
+     * 获取配置（异步）
+     */
+    public CompletableFuture<ConfigProto.GetConfigResponse> getConfigAsync(ConfigProto.ConfigKey configKey) {
+        return hedged("getConfig", connectionPool.laneFor(configKey), lane -> getConfigAsync(lane, configKey));
+    }
+    
+    private CompletableFuture<ConfigProto.GetConfigResponse> getConfigAsync(StreamConnectionManager lane,
+                                                                           ConfigProto.ConfigKey configKey) {
         ClientMessage request = ClientMessage.newBuilder()
-            .setRequestId(UUID.randomUUID().toString())
+            .setRequestId(lane.nextRequestId())
             .setMessageType(ClientMessageType.CLIENT_GET_CONFIG)
             .setGetConfig(configKey)
             .build();
         
-        ServerMessage response = connectionManager.sendRequest(request);
-        
-        if (isErrorResponse(response)) {
-            String errorMsg = getErrorMessage(response);
-            logger.error("getConfig failed: {}", errorMsg);
-            return ConfigProto.GetConfigResponse.newBuilder()
-                    .setSuccess(false)
-                    .setMessage(errorMsg)
-                    .build();
-        }
-        
-        return response.getGetConfig();
+        return lane.sendRequestAsync(request).thenApply(response -> {
+            if (isErrorResponse(response)) {
+                String errorMsg = getErrorMessage(response);
+                logger.error("getConfig failed: {}", errorMsg);
+                return ConfigProto.GetConfigResponse.newBuilder()
+                        .setSuccess(false)
+                        .setMessage(errorMsg)
+                        .build();
+            }
+            return response.getGetConfig();
+        });
     }
     
     /**
      * 保存配置
      */
     public ConfigProto.SaveConfigResponse saveConfig(ConfigProto.ConfigData configData) throws TimeoutException {
+        return StreamConnectionManager.awaitResult(saveConfigAsync(configData));
+    }
+    
+    /**
+     * 保存配置（异步）
+     */
+    public CompletableFuture<ConfigProto.SaveConfigResponse> saveConfigAsync(ConfigProto.ConfigData configData) {
+        StreamConnectionManager lane = connectionPool.laneFor(configData);
         ClientMessage request = ClientMessage.newBuilder()
-            .setRequestId(UUID.randomUUID().toString())
+            .setRequestId(lane.nextRequestId())
             .setMessageType(ClientMessageType.CLIENT_SAVE_CONFIG)
             .setSaveConfig(configData)
             .build();
         
-        ServerMessage response = connectionManager.sendRequest(request);
-        
-        if (isErrorResponse(response)) {
-            String errorMsg = getErrorMessage(response);
-            logger.error("saveConfig failed: {}", errorMsg);
-            return ConfigProto.SaveConfigResponse.newBuilder()
-                    .setSuccess(false)
-                    .setMessage(errorMsg)
-                    .build();
-        }
-        
-        return response.getSaveConfig();
+        return lane.sendRequestAsync(request).thenApply(response -> {
+            if (isErrorResponse(response)) {
+                String errorMsg = getErrorMessage(response);
+                logger.error("saveConfig failed: {}", errorMsg);
+                return ConfigProto.SaveConfigResponse.newBuilder()
+                        .setSuccess(false)
+                        .setMessage(errorMsg)
+                        .build();
+            }
+            return response.getSaveConfig();
+        });
     }
     
     /**
      * 删除配置
      */
     public ConfigProto.ConfigResponse deleteConfig(ConfigProto.ConfigKey configKey) throws TimeoutException {
+        return StreamConnectionManager.awaitResult(deleteConfigAsync(configKey));
+    }
+    
+    /**
+     * 删除配置（异步）
+     */
+    public CompletableFuture<ConfigProto.ConfigResponse> deleteConfigAsync(ConfigProto.ConfigKey configKey) {
+        StreamConnectionManager lane = connectionPool.laneFor(configKey);
         ClientMessage request = ClientMessage.newBuilder()
-            .setRequestId(UUID.randomUUID().toString())
+            .setRequestId(lane.nextRequestId())
             .setMessageType(ClientMessageType.CLIENT_DELETE_CONFIG)
             .setDeleteConfig(configKey)
             .build();
         
-        ServerMessage response = connectionManager.sendRequest(request);
-        
-        if (isErrorResponse(response)) {
-            String errorMsg = getErrorMessage(response);
-            logger.error("deleteConfig failed: {}", errorMsg);
-            return ConfigProto.ConfigResponse.newBuilder()
-                    .setSuccess(false)
-                    .setMessage(errorMsg)
-                    .build();
-        }
-        
-        return response.getDeleteConfig();
+        return lane.sendRequestAsync(request).thenApply(response -> {
+            if (isErrorResponse(response)) {
+                String errorMsg = getErrorMessage(response);
+                logger.error("deleteConfig failed: {}", errorMsg);
+                return ConfigProto.ConfigResponse.newBuilder()
+                        .setSuccess(false)
+                        .setMessage(errorMsg)
+                        .build();
+            }
+            return response.getDeleteConfig();
+        });
     }
     
     /**
      * 列出配置
      */
     public ConfigProto.ListConfigsResponse listConfigs(ConfigProto.ListConfigsRequest request) throws TimeoutException {
+        return StreamConnectionManager.awaitResult(listConfigsAsync(request));
+    }
+    
+    /**
+     * 列出配置（异步）
+     */
+    public CompletableFuture<ConfigProto.ListConfigsResponse> listConfigsAsync(ConfigProto.ListConfigsRequest request) {
+        return hedged("listConfigs", connectionPool.laneFor(request.getNamespaceId(), request.getGroupName(), null),
+                lane -> listConfigsAsync(lane, request));
+    }
+    
+    private CompletableFuture<ConfigProto.ListConfigsResponse> listConfigsAsync(StreamConnectionManager lane,
+                                                                               ConfigProto.ListConfigsRequest request) {
         ClientMessage clientMessage = ClientMessage.newBuilder()
-            .setRequestId(UUID.randomUUID().toString())
+            .setRequestId(lane.nextRequestId())
             .setMessageType(ClientMessageType.CLIENT_LIST_CONFIGS)
             .setListConfigs(request)
             .build();
         
-        ServerMessage response = connectionManager.sendRequest(clientMessage);
-        
-        if (isErrorResponse(response)) {
-            String errorMsg = getErrorMessage(response);
-            logger.error("listConfigs failed: {}", errorMsg);
-            return ConfigProto.ListConfigsResponse.newBuilder()
-                    .setSuccess(false)
-                    .setMessage(errorMsg)
-                    .build();
-        }
-        
-        return response.getListConfigs();
+        return lane.sendRequestAsync(clientMessage).thenApply(response -> {
+            if (isErrorResponse(response)) {
+                String errorMsg = getErrorMessage(response);
+                logger.error("listConfigs failed: {}", errorMsg);
+                return ConfigProto.ListConfigsResponse.newBuilder()
+                        .setSuccess(false)
+                        .setMessage(errorMsg)
+                        .build();
+            }
+            return response.getListConfigs();
+        });
     }
     
     /**
      * 监听配置（发送监听请求，不等待响应）
+     * 
+     * <p>与 {@link #subscribeServices} 相同，配置ID按所属的流拆分发送。</p>
      */
     public void watchConfig(ConfigProto.WatchConfigRequest request) {
-        ClientMessage clientMessage = ClientMessage.newBuilder()
-            .setRequestId(UUID.randomUUID().toString())
-            .setMessageType(ClientMessageType.CLIENT_WATCH_CONFIG)
-            .setWatchConfig(request)
-            .build();
+        Map<Integer, List<String>> idsByLane = new LinkedHashMap<>();
+        for (String configDataId : request.getConfigDataIdsList()) {
+            int laneIndex = connectionPool.laneIndex(request.getNamespaceId(), request.getGroupName(), configDataId);
+            idsByLane.computeIfAbsent(laneIndex, k -> new ArrayList<>()).add(configDataId);
+        }
         
-        connectionManager.sendRequestAsync(clientMessage);
-        logger.info("WatchConfig request sent: namespaceId={}, groupName={}, configDataIds={}", 
-            request.getNamespaceId(), request.getGroupName(), request.getConfigDataIdsList());
+        for (Map.Entry<Integer, List<String>> entry : idsByLane.entrySet()) {
+            StreamConnectionManager lane = connectionPool.lane(entry.getKey());
+            if (!lane.isConnected()) {
+                logger.info("Stream {} not connected, watch will be sent after it reconnects: configDataIds={}", 
+                    lane.getName(), entry.getValue());
+                continue;
+            }
+            ConfigProto.WatchConfigRequest laneRequest = idsByLane.size() == 1 ? request
+                    : request.toBuilder().clearConfigDataIds().addAllConfigDataIds(entry.getValue()).build();
+            ClientMessage clientMessage = ClientMessage.newBuilder()
+                .setRequestId(lane.nextRequestId())
+                .setMessageType(ClientMessageType.CLIENT_WATCH_CONFIG)
+                .setWatchConfig(laneRequest)
+                .build();
+            
+            lane.sendOneWay(clientMessage);
+            logger.info("WatchConfig request sent: namespaceId={}, groupName={}, configDataIds={}", 
+                request.getNamespaceId(), request.getGroupName(), laneRequest.getConfigDataIdsList());
+        }
     }
     
     /**
      * 获取配置历史
      */
     public ConfigProto.GetConfigHistoryResponse getConfigHistory(ConfigProto.GetConfigHistoryRequest request) throws TimeoutException {
+        return StreamConnectionManager.awaitResult(getConfigHistoryAsync(request));
+    }
+    
+    /**
+     * 获取配置历史（异步）
+     */
+    public CompletableFuture<ConfigProto.GetConfigHistoryResponse> getConfigHistoryAsync(ConfigProto.GetConfigHistoryRequest request) {
+        StreamConnectionManager lane = connectionPool.laneFor(request.getNamespaceId(), request.getGroupName(), request.getConfigDataId());
         ClientMessage clientMessage = ClientMessage.newBuilder()
-            .setRequestId(UUID.randomUUID().toString())
+            .setRequestId(lane.nextRequestId())
             .setMessageType(ClientMessageType.CLIENT_GET_CONFIG_HISTORY)
             .setGetConfigHistory(request)
             .build();
         
-        ServerMessage response = connectionManager.sendRequest(clientMessage);
-        
-        if (isErrorResponse(response)) {
-            String errorMsg = getErrorMessage(response);
-            logger.error("getConfigHistory failed: {}", errorMsg);
-            return ConfigProto.GetConfigHistoryResponse.newBuilder()
-                    .setSuccess(false)
-                    .setMessage(errorMsg)
-                    .build();
-        }
-        
-        return response.getGetConfigHistory();
+        return lane.sendRequestAsync(clientMessage).thenApply(response -> {
+            if (isErrorResponse(response)) {
+                String errorMsg = getErrorMessage(response);
+                logger.error("getConfigHistory failed: {}", errorMsg);
+                return ConfigProto.GetConfigHistoryResponse.newBuilder()
+                        .setSuccess(false)
+                        .setMessage(errorMsg)
+                        .build();
+            }
+            return response.getGetConfigHistory();
+        });
     }
     
     /**
      * 回滚配置
      */
     public ConfigProto.RollbackConfigResponse rollbackConfig(ConfigProto.RollbackConfigRequest request) throws TimeoutException {
+        return StreamConnectionManager.awaitResult(rollbackConfigAsync(request));
+    }
+    
+    /**
+     * 回滚配置（异步）
+     */
+    public CompletableFuture<ConfigProto.RollbackConfigResponse> rollbackConfigAsync(ConfigProto.RollbackConfigRequest request) {
+        StreamConnectionManager lane = connectionPool.laneFor(request.getNamespaceId(), request.getGroupName(), request.getConfigDataId());
         ClientMessage clientMessage = ClientMessage.newBuilder()
-            .setRequestId(UUID.randomUUID().toString())
+            .setRequestId(lane.nextRequestId())
             .setMessageType(ClientMessageType.CLIENT_ROLLBACK_CONFIG)
             .setRollbackConfig(request)
             .build();
         
-        ServerMessage response = connectionManager.sendRequest(clientMessage);
-        
-        if (isErrorResponse(response)) {
-            String errorMsg = getErrorMessage(response);
-            logger.error("rollbackConfig failed: {}", errorMsg);
-            return ConfigProto.RollbackConfigResponse.newBuilder()
-                    .setSuccess(false)
-                    .setMessage(errorMsg)
-                    .build();
-        }
-        
-        return response.getRollbackConfig();
+        return lane.sendRequestAsync(clientMessage).thenApply(response -> {
+            if (isErrorResponse(response)) {
+                String errorMsg = getErrorMessage(response);
+                logger.error("rollbackConfig failed: {}", errorMsg);
+                return ConfigProto.RollbackConfigResponse.newBuilder()
+                        .setSuccess(false)
+                        .setMessage(errorMsg)
+                        .build();
+            }
+            return response.getRollbackConfig();
+        });
     }
 }
 
@@ -6,16 +6,20 @@ import com.flux.servicecenter.stream.ServiceCenterStreamGrpc;
 import io.grpc.ClientInterceptor;
 import io.grpc.ManagedChannel;
 import io.grpc.Metadata;
+import io.grpc.stub.ClientCallStreamObserver;
+import io.grpc.stub.ClientResponseObserver;
 import io.grpc.stub.MetadataUtils;
-import io.grpc.stub.StreamObserver;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.Base64;
-import java.util.Map;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
 
@@ -36,11 +40,32 @@ import java.util.function.Consumer;
 public class StreamConnectionManager {
     private static final Logger logger = LoggerFactory.getLogger(StreamConnectionManager.class);
     
+    /** 超时时间轮 tick 时长（毫秒），即请求超时的精度 */
+    private static final long TIMEOUT_TICK_MS = 10;
+    
+    /** 超时时间轮每圈的桶数量（512 * 10ms ≈ 5s 一圈） */
+    private static final int TIMEOUT_TICKS_PER_WHEEL = 512;
+    
+    /** 待处理请求表的分段数量 */
+    private static final int PENDING_REQUEST_STRIPES = 16;
+    
+    /** 故障切换后检查旧流在途请求的间隔（毫秒） */
+    private static final long DRAIN_POLL_MS = 50;
+    
+    /** 发出 Ping 后入站静默达到多少个 Ping 间隔时判定链路失效并重连 */
+    private static final int PING_TIMEOUT_INTERVALS = 3;
+    
+    /** serverInfo 中声明服务端能力的键（逗号分隔） */
+    private static final String SERVER_INFO_CAPABILITIES = "capabilities";
+    
     // ========== 配置 ==========
     
     private final ServiceCenterConfig config;
     private final ManagedChannel channel;
     
+    /** 流名称（用于线程命名，多条流时区分不同的流） */
+    private final String name;
+    
     // ========== 连接状态 ==========
     
     private final AtomicBoolean connected = new AtomicBoolean(false);
@@ -52,16 +77,65 @@ public class StreamConnectionManager {
     // ========== gRPC Stub ==========
     
     private ServiceCenterStreamGrpc.ServiceCenterStreamStub asyncStub;
-    private StreamObserver<ClientMessage> requestObserver;
+    
+    /** 
+     * 当前流的出站消息写入器
+     * 
+     * <p>在 {@link StreamResponseObserver#beforeStart} 中创建，负责按传输层就绪状态写出消息。</p>
+     */
+    private volatile OutboundMessageWriter outboundWriter;
+    
+    /** 当前承载请求的流（故障切换时替换为新流） */
+    private volatile StreamResponseObserver activeStream;
+    
+    /** 故障切换后等待排空的旧流 */
+    private final Set<StreamResponseObserver> drainingStreams = ConcurrentHashMap.newKeySet();
     
     // ========== 请求管理 ==========
     
-    /** 待处理的请求（requestId -> CompletableFuture） */
-    private final Map<String, CompletableFuture<ServerMessage>> pendingRequests = new ConcurrentHashMap<>();
+    /** 待处理的请求（请求序号 -> CompletableFuture） */
+    private final PendingRequestTable<CompletableFuture<ServerMessage>> pendingRequests = new PendingRequestTable<>(PENDING_REQUEST_STRIPES);
+    
+    /** 请求序号（单调递增，由 {@link RequestIdCodec} 编码为 requestId） */
+    private final AtomicLong requestSequence = new AtomicLong();
+    
+    /** 服务端是否支持紧凑请求ID（握手时协商） */
+    private volatile boolean compactRequestIds;
+    
+    /** 故障切换（先建后断）成功的次数 */
+    private final AtomicLong failoverCount = new AtomicLong();
+    
+    /** 服务端在握手中声明的能力列表 */
+    private volatile Set<String> serverCapabilities = Collections.emptySet();
+    
+    /** 服务端是否接受了连接级租约（握手时协商） */
+    private volatile boolean connectionLease;
+    
+    /** 当前连接尝试的握手结果（connectionId），在 handleHandshake 中完成 */
+    private volatile CompletableFuture<String> handshakeFuture;
     
     /** 请求超时时间（毫秒） */
     private final long requestTimeoutMs;
     
+    /** 
+     * 请求超时时间轮
+     * 
+     * <p>所有在途请求共享一个时间轮，新增/取消超时均为 O(1)，不会为每个请求创建调度任务。</p>
+     */
+    private final RequestTimeoutWheel timeoutWheel;
+    
+    /** 已超时的请求数 */
+    private final AtomicLong timedOutRequests = new AtomicLong();
+    
+    /** 超时后才到达的响应数（孤儿响应） */
+    private final AtomicLong orphanedResponses = new AtomicLong();
+    
+    /** 在途请求准入控制（全局/按类型上限，可自适应） */
+    private final InFlightLimiter inFlightLimiter;
+    
+    /** Ping RTT 与按请求类型的延迟统计（也用于自适应超时） */
+    private final LatencyTracker latencyTracker;
+    
     // ========== 监听器 ==========
     
     /** 握手成功监听器 */
@@ -79,10 +153,43 @@ public class StreamConnectionManager {
     /** 错误监听器 */
     private Consumer<ErrorResponse> errorListener;
     
+    /** 连接断开监听器（当前流出错或被服务端关闭时回调） */
+    private Runnable disconnectListener;
+    
     // ========== 心跳 ==========
     
     private ScheduledExecutorService heartbeatExecutor;
-    private ScheduledFuture<?> heartbeatFuture;
+    private volatile ScheduledFuture<?> heartbeatFuture;
+    
+    /** Ping 任务代数，每次启动/停止 Ping 时递增，旧代的任务不再重新调度 */
+    private final AtomicLong pingGeneration = new AtomicLong();
+    
+    /** 服务端在握手中建议的心跳间隔（毫秒），未建议时为 0 */
+    private volatile long serverHeartbeatIntervalMs;
+    
+    /** 最近一次收到服务端任意消息的时间（System.nanoTime） */
+    private volatile long lastInboundNanos;
+    
+    /** 最近一次发出任意消息的时间（System.nanoTime） */
+    private volatile long lastOutboundNanos;
+    
+    /** 最近一次发出 Ping 的时间（System.nanoTime），本连接尚未发出 Ping 时为 0 */
+    private volatile long lastPingNanos;
+    
+    /** 因流上已有其他流量而跳过的 Ping 数 */
+    private final AtomicLong skippedPings = new AtomicLong();
+    
+    /** 发出 Ping 后入站持续静默、主动断开重连的次数 */
+    private final AtomicLong pingTimeouts = new AtomicLong();
+    
+    // ========== 重连 ==========
+    
+    /** 是否已关闭（关闭后不再重连） */
+    private volatile boolean closed;
+    
+    /** 重连与故障切换共用的定时执行器（懒加载） */
+    private ScheduledExecutorService reconnectExecutor;
+    private ReconnectScheduler reconnectScheduler;
     
     // ========== 认证 ==========
     
@@ -97,32 +204,83 @@ public class StreamConnectionManager {
     // ========== 构造函数 ==========
     
     public StreamConnectionManager(ServiceCenterConfig config, ManagedChannel channel) {
+        this(config, channel, "stream");
+    }
+    
+    /**
+     * @param config 客户端配置
+     * @param channel gRPC Channel（多条流共享）
+     * @param name 流名称，用作线程名前缀
+     */
+    public StreamConnectionManager(ServiceCenterConfig config, ManagedChannel channel, String name) {
         this.config = config;
         this.channel = channel;
+        this.name = name;
         this.requestTimeoutMs = config.getRequestTimeout();
+        this.timeoutWheel = new RequestTimeoutWheel(name + "-request-timeout", TIMEOUT_TICK_MS, TIMEOUT_TICKS_PER_WHEEL);
+        this.inFlightLimiter = new InFlightLimiter(config, timeoutWheel);
+        this.latencyTracker = new LatencyTracker(config);
     }
     
     // ========== 连接管理 ==========
     
     /**
-     * 建立双向流连接（线程安全）
+     * 建立双向流连接（线程安全，阻塞直到握手完成或超时）
+     * 
+     * @throws RuntimeException 如果握手失败或超时
+     * @see #connectAsync()
      */
-    public synchronized void connect() {
+    public void connect() {
+        try {
+            connectAsync().get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause() instanceof CompletionException && e.getCause().getCause() != null
+                    ? e.getCause().getCause() : e.getCause();
+            throw new RuntimeException("Failed to establish bidirectional stream connection", cause);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Connect interrupted", e);
+        }
+    }
+    
+    /**
+     * 异步建立双向流连接（线程安全）
+     * 
+     * <p>发送握手后立即返回，握手响应在 {@link #handleHandshake(ServerHandshake)} 中直接完成 Future，
+     * 不再轮询等待；握手超时（{@code handshakeTimeout}）由请求超时时间轮完成。
+     * 连接建立过程中重复调用返回同一个 Future。</p>
+     * 
+     * @return 握手成功后以 connectionId 完成的 Future；握手失败、流异常、超时或已关闭时以异常完成
+     */
+    public synchronized CompletableFuture<String> connectAsync() {
+        if (closed) {
+            return CompletableFuture.failedFuture(new IllegalStateException("Stream manager closed"));
+        }
         if (connected.get()) {
             logger.warn("Stream already connected, skipping duplicate connection");
-            return;
+            return CompletableFuture.completedFuture(connectionId.get());
+        }
+        CompletableFuture<String> inProgress = handshakeFuture;
+        if (inProgress != null && !inProgress.isDone()) {
+            return inProgress;
         }
         
+        CompletableFuture<String> future = new CompletableFuture<>();
         try {
             logger.info("Establishing bidirectional stream connection...");
             
             // 关闭旧的 stream（如果存在）
             closeOldStream();
             
-            // 清理旧状态（重连时必须清理，否则 waitForConnection 会使用旧 connectionId）
+            // 清理旧状态（重连时必须清理，否则会沿用旧 connectionId）
             connectionId.set(null);
             failAllPendingRequests(new RuntimeException("Stream reconnecting"));
             connected.set(false);
+            compactRequestIds = false;
+            serverCapabilities = Collections.emptySet();
+            connectionLease = false;
+            serverHeartbeatIntervalMs = 0;
+            lastPingNanos = 0;
             
             // 创建认证元数据（与 ConnectionManager 保持一致）
             createAuthMetadata();
@@ -137,78 +295,82 @@ public class StreamConnectionManager {
             }
             
             // 建立双向流
-            requestObserver = asyncStub.connect(new StreamResponseObserver());
+            // 出站写入器在 beforeStart 回调中创建并赋值给 outboundWriter
+            handshakeFuture = future;
+            StreamResponseObserver stream = new StreamResponseObserver(future, false);
+            activeStream = stream;
+            asyncStub.connect(stream);
             
             // 发送握手
-            sendHandshake();
-            
-            // 等待握手响应（最多等待 5 秒）
-            if (!waitForConnection(5000)) {
-                // 握手超时，清理状态
-                closeOldStream();
-                throw new RuntimeException("Handshake timeout");
-            }
-            
-            // 注意：connected 标志已在 handleHandshake() 中设置为 true
-            // 这样可以确保 handshakeListener 触发时，连接状态已经是 true
-            
-            // 启动 Ping 心跳
-            startPingHeartbeat();
-            
-            logger.info("Bidirectional stream connection established successfully, connectionId: {}", connectionId.get());
-            
+            sendHandshake(stream.writer);
         } catch (Exception e) {
-            // 连接失败，清理状态
-            connected.set(false);
-            connectionId.set(null);
-            
-            // 停止可能已启动的心跳任务
-            if (heartbeatFuture != null) {
-                heartbeatFuture.cancel(false);
-                heartbeatFuture = null;
-            }
-            
-            logger.error("Failed to establish bidirectional stream connection", e);
-            lastError.set(e);
-            throw new RuntimeException("Failed to establish bidirectional stream connection", e);
+            future.completeExceptionally(e);
         }
+        
+        // 握手超时
+        long handshakeTimeoutMs = config.getHandshakeTimeout();
+        RequestTimeoutWheel.Timeout timeout = timeoutWheel.newTimeout(() -> future.completeExceptionally(
+                new TimeoutException("Handshake timed out after " + handshakeTimeoutMs + "ms")), handshakeTimeoutMs);
+        
+        // 注意：connected 标志在 handleHandshake() 中设置为 true，
+        // 这样可以确保 handshakeListener 触发时，连接状态已经是 true
+        return future.whenComplete((id, error) -> {
+            timeout.cancel();
+            if (error == null) {
+                // 启动 Ping 心跳
+                startPingHeartbeat();
+                logger.info("Bidirectional stream connection established successfully, connectionId: {}", id);
+            } else {
+                onConnectFailed(future, error);
+            }
+        });
     }
     
     /**
-     * 关闭旧的 stream（避免旧连接干扰新连接）
+     * 连接失败后清理状态
      */
-    private void closeOldStream() {
-        if (requestObserver != null) {
-            try {
-                logger.debug("Closing old stream");
-                requestObserver.onCompleted();
-            } catch (Exception e) {
-                logger.debug("Exception occurred while closing old stream (ignored): {}", e.getMessage());
-            }
-            requestObserver = null;
+    private synchronized void onConnectFailed(CompletableFuture<String> future, Throwable error) {
+        if (handshakeFuture != future) {
+            // 已有新的连接尝试，不能清理新连接的状态
+            return;
         }
+        connected.set(false);
+        connectionId.set(null);
+        closeOldStream();
+        
+        // 停止可能已启动的心跳任务
+        pingGeneration.incrementAndGet();
+        if (heartbeatFuture != null) {
+            heartbeatFuture.cancel(false);
+            heartbeatFuture = null;
+        }
+        
+        if (closed) {
+            logger.debug("Stream connection attempt aborted by close: {}", error.getMessage());
+            return;
+        }
+        logger.error("Failed to establish bidirectional stream connection", error);
+        lastError.set(error);
     }
     
     /**
-     * 等待连接建立
+     * 关闭旧的 stream（避免旧连接干扰新连接）
      */
-    private boolean waitForConnection(long timeoutMs) {
-        long deadline = System.currentTimeMillis() + timeoutMs;
-        while (connectionId.get() == null && System.currentTimeMillis() < deadline) {
-            try {
-                Thread.sleep(100);
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-                return false;
-            }
+    private void closeOldStream() {
+        OutboundMessageWriter writer = outboundWriter;
+        if (writer != null) {
+            logger.debug("Closing old stream");
+            writer.complete();
+            outboundWriter = null;
         }
-        return connectionId.get() != null;
     }
     
     /**
      * 发送握手消息
+     * 
+     * @param writer 握手所在流的写入器（故障切换时为尚未启用的新流）
      */
-    private void sendHandshake() {
+    private void sendHandshake(OutboundMessageWriter writer) {
         ClientMetadata metadata = ClientMetadata.newBuilder()
             .setClientId(clientId.get())
             .setClientVersion("1.0.0")
@@ -217,6 +379,8 @@ public class StreamConnectionManager {
             .setStartTime(System.currentTimeMillis())
             .putLabels("env", System.getProperty("env", "production"))
             .putLabels("app", System.getProperty("app.name", "unknown"))
+            .addCapabilities(RequestIdCodec.CAPABILITY)
+            .addCapabilities(HeartbeatScheduler.BATCH_CAPABILITY)
             .build();
         
         // 使用配置的心跳间隔（毫秒转秒）
@@ -232,62 +396,124 @@ public class StreamConnectionManager {
             .setKeepAliveInterval(keepAliveIntervalSeconds)
             .addSubscribeTypes("registry")
             .addSubscribeTypes("config")
+            .setConnectionLease(config.isConnectionLease())
             .build();
         
-        String requestId = UUID.randomUUID().toString();
+        String requestId = nextRequestId();
         ClientMessage message = ClientMessage.newBuilder()
             .setRequestId(requestId)
             .setMessageType(ClientMessageType.CLIENT_HANDSHAKE)
             .setHandshake(handshake)
             .build();
         
-        sendMessage(message);
+        sendMessage(writer, message, false);
         logger.info("Handshake message sent, requestId: {}, keepAlive interval: {}s", requestId, keepAliveIntervalSeconds);
     }
     
     /**
      * 启动 Ping 心跳
+     * 
+     * <p>第一次 Ping 按 clientId 的哈希分散在一个间隔内，之后每次间隔叠加
+     * {@link ServiceCenterConfig#getJitterRatio()} 的随机抖动，大量客户端同时重连时 Ping 不会集中到达。
+     * 间隔以服务端握手中建议的 heartbeatInterval 为准，流上有其他流量时不发送 Ping（持有连接级租约时除外）。</p>
+     * 
+     * <p>与 {@link #close()} 互斥，关闭后不再创建 Ping 线程。</p>
      */
-    private void startPingHeartbeat() {
+    private synchronized void startPingHeartbeat() {
+        if (closed) {
+            return;
+        }
         if (heartbeatExecutor == null) {
             heartbeatExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
-                Thread t = new Thread(r, "stream-ping-heartbeat");
+                Thread t = new Thread(r, name + "-ping-heartbeat");
                 t.setDaemon(true);
                 return t;
             });
         }
         
         // 取消旧的心跳任务（避免重复启动）
+        long generation = pingGeneration.incrementAndGet();
         if (heartbeatFuture != null && !heartbeatFuture.isCancelled()) {
             heartbeatFuture.cancel(false);
             logger.debug("Cancelled old Ping heartbeat task");
         }
         
-        // 使用配置的心跳间隔（毫秒转秒）
-        long intervalSeconds = config.getHeartbeatInterval() / 1000;
-        if (intervalSeconds <= 0) {
-            intervalSeconds = 5; // 默认 5 秒
-        }
+        long intervalMs = pingIntervalMs();
+        long initialDelayMs = Math.max(1, Jitter.phase(clientId.get() + "/" + name, intervalMs));
+        schedulePing(generation, initialDelayMs, intervalMs);
         
-        heartbeatFuture = heartbeatExecutor.scheduleAtFixedRate(() -> {
-            // 检查连接状态，断开时静默跳过
-            if (!connected.get()) {
-                logger.trace("Connection disconnected, skipping Ping heartbeat");
-                return;
-            }
-            
-            try {
-                sendPing();
-            } catch (IllegalStateException e) {
-                // 连接断开异常，静默处理
-                logger.trace("Connection disconnected during Ping heartbeat");
-            } catch (Exception e) {
-                logger.warn("Failed to send Ping heartbeat: {}", e.getMessage());
-                logger.debug("Ping heartbeat failure details", e);
-            }
-        }, intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
-        
-        logger.info("Ping heartbeat started, interval: {} seconds", intervalSeconds);
+        logger.info("Ping heartbeat started, interval: {}ms, first ping in {}ms", intervalMs, initialDelayMs);
+    }
+    
+    /**
+     * Ping 基准间隔：优先使用服务端握手中建议的心跳间隔，否则使用配置的心跳间隔（不足 1 秒时按 5 秒）
+     */
+    private long pingIntervalMs() {
+        long serverIntervalMs = serverHeartbeatIntervalMs;
+        if (serverIntervalMs >= 1000) {
+            return serverIntervalMs;
+        }
+        return config.getHeartbeatInterval() >= 1000 ? config.getHeartbeatInterval() : 5000;
+    }
+    
+    /**
+     * 调度下一次 Ping 检查，执行后重新调度自身
+     * 
+     * <p>只在流空闲时发送 Ping：一个间隔内发送或收到过任意消息时跳过本次 Ping，
+     * 下一次检查推迟到最近一次流量之后满一个（抖动后的）间隔。
+     * 单向的出站流量不能证明链路存活，入站静默超过两个间隔时即使有出站流量也照常发送。
+     * 持有连接级租约时服务端按 Ping 续租，每个间隔都发送 Ping，不因流上有其他流量而跳过。</p>
+     * 
+     * <p>发出 Ping 之后入站静默达到 {@value #PING_TIMEOUT_INTERVALS} 个间隔时认为链路已失效（例如半开连接），
+     * 取消当前流，由 onError 走正常的断线重连流程。</p>
+     */
+    private void schedulePing(long generation, long delayMs, long intervalMs) {
+        try {
+            heartbeatFuture = heartbeatExecutor.schedule(() -> {
+                if (pingGeneration.get() != generation) {
+                    return;
+                }
+                long nextDelayMs = Jitter.apply(intervalMs, config.getJitterRatio());
+                // 检查连接状态，断开时静默跳过
+                if (!connected.get()) {
+                    logger.trace("Connection disconnected, skipping Ping heartbeat");
+                } else {
+                    long now = System.nanoTime();
+                    long lastInbound = lastInboundNanos;
+                    long lastActivity = Math.max(lastInbound, lastOutboundNanos);
+                    long idleMs = TimeUnit.NANOSECONDS.toMillis(now - lastActivity);
+                    long inboundIdleMs = TimeUnit.NANOSECONDS.toMillis(now - lastInbound);
+                    long lastPing = lastPingNanos;
+                    if (lastPing != 0 && lastPing - lastInbound > 0
+                            && inboundIdleMs >= PING_TIMEOUT_INTERVALS * intervalMs) {
+                        pingTimeouts.incrementAndGet();
+                        logger.warn("No message from server for {}ms after Ping on stream {}, reconnecting", 
+                                inboundIdleMs, name);
+                        abortActiveStream("No response to Ping for " + inboundIdleMs + "ms");
+                    } else if (!connectionLease && idleMs < intervalMs && inboundIdleMs < 2 * intervalMs) {
+                        skippedPings.incrementAndGet();
+                        logger.trace("Stream active {}ms ago, skipping Ping heartbeat", idleMs);
+                        nextDelayMs = Math.max(1, nextDelayMs - idleMs);
+                    } else {
+                        try {
+                            sendPing();
+                        } catch (IllegalStateException e) {
+                            // 连接断开异常，静默处理
+                            logger.trace("Connection disconnected during Ping heartbeat");
+                        } catch (Exception e) {
+                            logger.warn("Failed to send Ping heartbeat: {}", e.getMessage());
+                            logger.debug("Ping heartbeat failure details", e);
+                        }
+                    }
+                }
+                if (pingGeneration.get() == generation) {
+                    schedulePing(generation, nextDelayMs, intervalMs);
+                }
+            }, delayMs, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            // 连接已关闭
+            logger.trace("Ping executor shut down, stopping Ping heartbeat");
+        }
     }
     
     /**
@@ -299,130 +525,334 @@ public class StreamConnectionManager {
             .build();
         
         ClientMessage message = ClientMessage.newBuilder()
-            .setRequestId(UUID.randomUUID().toString())
+            .setRequestId(nextRequestId())
             .setMessageType(ClientMessageType.CLIENT_PING)
             .setPing(ping)
             .build();
         
-        sendMessage(message);
-        logger.trace("Ping heartbeat sent");
+        if (sendMessage(message)) {
+            lastPingNanos = System.nanoTime();
+            logger.trace("Ping heartbeat sent");
+        }
+    }
+    
+    /**
+     * 取消当前流（不等待服务端确认），gRPC 随后回调 onError 触发断线处理与重连
+     */
+    private void abortActiveStream(String reason) {
+        OutboundMessageWriter writer = outboundWriter;
+        if (writer != null) {
+            writer.cancel(reason);
+        }
     }
     
     /**
      * 发送消息（线程安全）
+     * 
+     * <p>消息进入出站队列后立即返回，由写入器在传输层就绪时写出；队列满时按
+     * {@link ServiceCenterConfig#getOutboundOverflowPolicy()} 处理。除 {@link #sendRequest(ClientMessage)}
+     * 在调用线程上发送外都不阻塞，队列满时直接失败。</p>
+     * 
+     * @return 消息已入队返回 true；Ping 被丢弃时返回 false
      */
-    private synchronized void sendMessage(ClientMessage message) {
-        if (requestObserver == null) {
+    private boolean sendMessage(ClientMessage message) {
+        return sendMessage(outboundWriter, message, false);
+    }
+    
+    private boolean sendMessage(OutboundMessageWriter writer, ClientMessage message, boolean mayBlock) {
+        if (writer == null) {
             throw new IllegalStateException("Bidirectional stream not connected");
         }
-        requestObserver.onNext(message);
+        boolean queued = mayBlock ? writer.send(message) : writer.trySend(message);
+        if (queued) {
+            lastOutboundNanos = System.nanoTime();
+        }
+        return queued;
     }
     
     /**
      * 关闭连接
+     * 
+     * <p>无论当前是否已连接都完成全部清理：进行中的握手以异常结束，停止 Ping 与超时时间轮，关闭流。
+     * 关闭后到达的握手响应不会再建立连接。</p>
      */
     public void close() {
-        if (!connected.getAndSet(false)) {
-            return;
-        }
-        
-        logger.info("Closing bidirectional stream connection...");
-        
-        // 停止心跳
-        if (heartbeatFuture != null) {
-            heartbeatFuture.cancel(true);
+        closed = true;
+        boolean wasConnected = connected.getAndSet(false);
+        if (wasConnected) {
+            logger.info("Closing bidirectional stream connection...");
         }
-        if (heartbeatExecutor != null) {
-            heartbeatExecutor.shutdown();
+        synchronized (this) {
+            if (reconnectExecutor != null) {
+                reconnectExecutor.shutdownNow();
+            }
+            
+            // 停止心跳
+            pingGeneration.incrementAndGet();
+            if (heartbeatFuture != null) {
+                heartbeatFuture.cancel(true);
+            }
+            if (heartbeatExecutor != null) {
+                heartbeatExecutor.shutdown();
+            }
         }
         
-        // 完成所有待处理的请求
+        // 结束进行中的握手，完成所有待处理的请求
+        completeHandshake(future -> future.completeExceptionally(new IllegalStateException("Stream manager closed")));
         failAllPendingRequests(new RuntimeException("Connection closed"));
+        timeoutWheel.stop();
         
-        // 关闭流
-        if (requestObserver != null) {
-            try {
-                requestObserver.onCompleted();
-            } catch (Exception e) {
-                logger.warn("Failed to close request stream", e);
-            }
+        // 关闭流（包括故障切换后尚未排空的旧流）
+        OutboundMessageWriter writer = outboundWriter;
+        if (writer != null) {
+            writer.complete();
+        }
+        for (StreamResponseObserver stream : drainingStreams) {
+            completeDrained(stream);
         }
         
         connectionId.set(null);
-        logger.info("Bidirectional stream connection closed");
+        if (wasConnected) {
+            logger.info("Bidirectional stream connection closed");
+        }
     }
     
     /**
      * 结束流上所有未完成的请求-响应等待，避免服务端断连/重启后 {@link java.util.concurrent.CompletableFuture#get(long, TimeUnit)} 一直阻塞到超时。
      */
     private void failAllPendingRequests(Throwable cause) {
+        inFlightLimiter.failWaiters(cause);
         if (pendingRequests.isEmpty()) {
             return;
         }
-        pendingRequests.forEach((requestId, future) -> future.completeExceptionally(cause));
-        pendingRequests.clear();
+        pendingRequests.drain(future -> future.completeExceptionally(cause));
     }
     
     // ========== 请求发送 ==========
     
+    /**
+     * 生成下一个请求ID
+     * 
+     * <p>使用单调递增序号代替 UUID；服务端在握手中声明支持紧凑请求ID后省略客户端前缀。</p>
+     * 
+     * @return 请求ID
+     */
+    public String nextRequestId() {
+        long sequence = requestSequence.incrementAndGet();
+        return RequestIdCodec.encode(sequence, compactRequestIds ? null : clientId.get());
+    }
+    
     /**
      * 发送请求并等待响应
      * 
+     * <p>基于 {@link #sendRequestAsync(ClientMessage)} 实现，仅供需要同步语义的调用方使用。
+     * 出站队列满时只有这里（请求在调用线程上写入时）按 BLOCK / DROP_PINGS 策略阻塞等待。</p>
+     * 
      * @param message 客户端消息
      * @return 服务端响应
      * @throws TimeoutException 如果请求超时
      * @throws RuntimeException 如果请求失败
      */
     public ServerMessage sendRequest(ClientMessage message) throws TimeoutException {
+        return awaitResult(sendRequestAsync(message, latencyTracker.timeoutFor(message.getMessageType()),
+                Thread.currentThread()));
+    }
+    
+    /**
+     * 异步发送请求（使用配置的 requestTimeout；开启自适应超时时按该请求类型的历史延迟计算）
+     * 
+     * @param message 客户端消息
+     * @return 服务端响应的 Future；未连接、发送失败或超时时以异常完成
+     * @see #sendRequestAsync(ClientMessage, long)
+     */
+    public CompletableFuture<ServerMessage> sendRequestAsync(ClientMessage message) {
+        return sendRequestAsync(message, latencyTracker.timeoutFor(message.getMessageType()));
+    }
+    
+    /**
+     * 异步发送请求（指定本次请求的超时时间）
+     * 
+     * <p>请求在 {@link #handleServerMessage(ServerMessage)} 中收到响应时直接完成；
+     * 超时由时间轮完成，调用线程不会被阻塞。</p>
+     * 
+     * <p>发送前先经过 {@link InFlightLimiter} 准入：在途请求达到上限时按配置快速失败
+     * （{@link java.util.concurrent.RejectedExecutionException}）或排队，排队时间计入本次超时。</p>
+     * 
+     * <p>出站队列满时不阻塞调用线程，返回的 Future 直接以 {@link IllegalStateException} 完成。</p>
+     * 
+     * <p>注意：返回的 Future 在 gRPC 回调线程或超时时间轮线程中完成，耗时的后续处理应使用
+     * {@code thenApplyAsync} 等方法切换到业务线程池。</p>
+     * 
+     * @param message 客户端消息
+     * @param timeoutMs 本次请求的超时时间（毫秒），可与 requestTimeout 不同
+     * @return 服务端响应的 Future；未连接、发送失败或超时时以异常完成
+     */
+    public CompletableFuture<ServerMessage> sendRequestAsync(ClientMessage message, long timeoutMs) {
+        return sendRequestAsync(message, timeoutMs, null);
+    }
+    
+    /**
+     * @param blockingCaller 同步调用方线程；请求恰好在该线程上写入时，出站队列满可以阻塞等待
+     */
+    private CompletableFuture<ServerMessage> sendRequestAsync(ClientMessage message, long timeoutMs, Thread blockingCaller) {
         if (!connected.get()) {
-            throw new IllegalStateException("Bidirectional stream not connected");
+            return CompletableFuture.failedFuture(new IllegalStateException("Bidirectional stream not connected"));
         }
         
+        String requestId = message.getRequestId();
+        long sequence = RequestIdCodec.decode(requestId);
+        if (sequence <= 0) {
+            return CompletableFuture.failedFuture(new IllegalArgumentException(
+                    "Request id must be generated by nextRequestId(): " + requestId));
+        }
+        
+        long admitStartNanos = System.nanoTime();
+        return inFlightLimiter.acquire(message.getMessageType(), timeoutMs).thenCompose(permit -> {
+            long dispatchStartNanos = System.nanoTime();
+            long waitedMs = TimeUnit.NANOSECONDS.toMillis(dispatchStartNanos - admitStartNanos);
+            CompletableFuture<ServerMessage> future = dispatchRequest(message, sequence, Math.max(1, timeoutMs - waitedMs),
+                    Thread.currentThread() == blockingCaller);
+            future.whenComplete((response, error) -> {
+                if (error == null) {
+                    permit.success();
+                    latencyTracker.recordRequest(message.getMessageType(), System.nanoTime() - dispatchStartNanos);
+                } else if (error instanceof TimeoutException) {
+                    permit.dropped();
+                    latencyTracker.recordRequest(message.getMessageType(), System.nanoTime() - dispatchStartNanos);
+                } else {
+                    permit.ignore();
+                }
+            });
+            return future;
+        });
+    }
+    
+    /**
+     * 登记待处理请求、注册超时并写入双向流
+     */
+    private CompletableFuture<ServerMessage> dispatchRequest(ClientMessage message, long sequence, long timeoutMs,
+                                                             boolean mayBlock) {
+        if (!connected.get()) {
+            // 排队期间连接已断开
+            return CompletableFuture.failedFuture(new IllegalStateException("Bidirectional stream not connected"));
+        }
         String requestId = message.getRequestId();
         CompletableFuture<ServerMessage> future = new CompletableFuture<>();
-        pendingRequests.put(requestId, future);
+        pendingRequests.put(sequence, future);
+        
+        RequestTimeoutWheel.Timeout timeout = timeoutWheel.newTimeout(() -> {
+            if (pendingRequests.remove(sequence, future)) {
+                timedOutRequests.incrementAndGet();
+                future.completeExceptionally(new TimeoutException(
+                        "Request timed out after " + timeoutMs + "ms, requestId: " + requestId));
+            }
+        }, timeoutMs);
+        
+        // 按流登记在途请求：故障切换时旧流在途请求完成后才关闭，旧流结束时其剩余请求立即失败
+        StreamResponseObserver stream = activeStream;
+        if (stream != null) {
+            stream.requests.put(sequence, future);
+        }
+        future.whenComplete((response, error) -> {
+            timeout.cancel();
+            if (stream != null) {
+                stream.requests.remove(sequence, future);
+            }
+            if (error != null) {
+                pendingRequests.remove(sequence, future);
+            }
+        });
         
         try {
-            // 发送消息
-            sendMessage(message);
-            
-            // 等待响应
-            return future.get(requestTimeoutMs, TimeUnit.MILLISECONDS);
-            
-        } catch (TimeoutException e) {
-            pendingRequests.remove(requestId);
-            throw e;
-        } catch (InterruptedException e) {
-            pendingRequests.remove(requestId);
-            Thread.currentThread().interrupt();
-            throw new RuntimeException("Request interrupted", e);
-        } catch (ExecutionException e) {
-            pendingRequests.remove(requestId);
-            throw new RuntimeException("Request failed", e.getCause());
+            sendMessage(outboundWriter, message, mayBlock);
+        } catch (RuntimeException e) {
+            pendingRequests.remove(sequence, future);
+            future.completeExceptionally(e);
         }
+        return future;
     }
     
     /**
-     * 发送请求（不等待响应）
+     * 发送消息（不等待响应）
      * 
      * @param message 客户端消息
      */
-    public void sendRequestAsync(ClientMessage message) {
+    public void sendOneWay(ClientMessage message) {
         if (!connected.get()) {
             throw new IllegalStateException("Bidirectional stream not connected");
         }
         sendMessage(message);
     }
     
+    /**
+     * 同步等待异步请求结果，并还原同步接口的异常语义
+     * 
+     * @param future 异步请求结果
+     * @return 请求结果
+     * @throws TimeoutException 如果请求超时
+     * @throws IllegalStateException 如果连接未建立
+     * @throws RuntimeException 如果请求失败或被中断
+     */
+    public static <T> T awaitResult(CompletableFuture<T> future) throws TimeoutException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Request interrupted", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof TimeoutException) {
+                throw (TimeoutException) cause;
+            }
+            if (cause instanceof IllegalStateException) {
+                throw (IllegalStateException) cause;
+            }
+            throw new RuntimeException("Request failed", cause);
+        }
+    }
+    
     // ========== 响应观察者 ==========
     
     /**
      * 服务端消息观察者
      */
-    private class StreamResponseObserver implements StreamObserver<ServerMessage> {
+    private class StreamResponseObserver implements ClientResponseObserver<ClientMessage, ServerMessage> {
+        
+        /** 本条流的握手结果 */
+        private final CompletableFuture<String> handshakeResult;
+        
+        /** 是否为故障切换时建立的备用流（握手成功后才接管请求） */
+        private final boolean standby;
+        
+        /** 本条流的出站写入器 */
+        private volatile OutboundMessageWriter writer;
+        
+        /** 经本条流发出、尚未完成的请求（按请求序号） */
+        private final PendingRequestTable<CompletableFuture<ServerMessage>> requests = new PendingRequestTable<>(1);
+        
+        StreamResponseObserver(CompletableFuture<String> handshakeResult, boolean standby) {
+            this.handshakeResult = handshakeResult;
+            this.standby = standby;
+        }
+        
+        @Override
+        public void beforeStart(ClientCallStreamObserver<ClientMessage> requestStream) {
+            writer = new OutboundMessageWriter(requestStream, config.getOutboundQueueCapacity(),
+                    config.getOutboundOverflowPolicy(), requestTimeoutMs);
+            if (!standby) {
+                outboundWriter = writer;
+            }
+        }
         
         @Override
         public void onNext(ServerMessage message) {
+            // 任意入站消息都说明链路存活
+            lastInboundNanos = System.nanoTime();
+            if (standby && activeStream != this && message.getMessageType() == ServerMessageType.SERVER_HANDSHAKE
+                    && message.getHandshake().getSuccess()) {
+                // 备用流握手成功，先接管请求再处理握手（状态恢复会经新流发送）
+                promote(this);
+            }
             try {
                 handleServerMessage(message);
             } catch (Exception e) {
@@ -432,10 +862,20 @@ public class StreamConnectionManager {
         
         @Override
         public void onError(Throwable t) {
+            if (activeStream != this) {
+                // 已被替换的旧流或未接管的备用流，不影响当前连接；旧流上的请求不会再有响应，立即失败以便调用方重试
+                logger.debug("Inactive stream error: {}", t.getMessage());
+                drainingStreams.remove(this);
+                failRequests(t);
+                handshakeResult.completeExceptionally(t);
+                return;
+            }
             logger.error("Bidirectional stream error occurred", t);
             lastError.set(t);
             connected.set(false);
             failAllPendingRequests(t);
+            handshakeResult.completeExceptionally(t);
+            notifyDisconnected();
             
             // 尝试重连
             reconnect();
@@ -443,13 +883,46 @@ public class StreamConnectionManager {
         
         @Override
         public void onCompleted() {
+            if (activeStream != this) {
+                logger.debug("Inactive stream completed");
+                drainingStreams.remove(this);
+                failRequests(new IllegalStateException("Bidirectional stream completed"));
+                handshakeResult.completeExceptionally(new IllegalStateException("Bidirectional stream completed before handshake"));
+                return;
+            }
             logger.info("Bidirectional stream completed (server closed connection)");
             connected.set(false);
             failAllPendingRequests(new RuntimeException("Bidirectional stream completed"));
+            handshakeResult.completeExceptionally(new IllegalStateException("Bidirectional stream completed before handshake"));
+            notifyDisconnected();
             
             // 服务端正常关闭也应该尝试重连（例如服务端重启场景）
             reconnect();
         }
+        
+        /**
+         * 结束经本条流发出、尚未收到响应的请求
+         */
+        private void failRequests(Throwable cause) {
+            if (!requests.isEmpty()) {
+                requests.drain(future -> future.completeExceptionally(cause));
+            }
+        }
+    }
+    
+    /**
+     * 通知连接断开，监听器异常不影响重连
+     */
+    private void notifyDisconnected() {
+        Runnable listener = disconnectListener;
+        if (listener == null) {
+            return;
+        }
+        try {
+            listener.run();
+        } catch (Exception e) {
+            logger.error("Disconnect listener failed", e);
+        }
     }
     
     /**
@@ -461,16 +934,26 @@ public class StreamConnectionManager {
         logger.debug("Received server message: type={}, requestId={}", 
             message.getMessageType(), requestId);
         
-        // 处理响应消息（有 requestId）
-        if (requestId != null && !requestId.isEmpty()) {
-            CompletableFuture<ServerMessage> future = pendingRequests.remove(requestId);
+        // 处理响应消息（有 requestId）：只有响应类消息和错误响应才查找待处理请求，
+        // 且只接受本客户端当前格式的ID，服务端推送的ID不会误完成无关的请求
+        ServerMessageType type = message.getMessageType();
+        boolean response = isResponseType(type);
+        if (requestId != null && !requestId.isEmpty() && (response || type == ServerMessageType.SERVER_ERROR)) {
+            long sequence = RequestIdCodec.decode(requestId, compactRequestIds ? null : clientId.get());
+            CompletableFuture<ServerMessage> future = pendingRequests.remove(sequence);
             if (future != null) {
                 logger.debug("Completed pending request: requestId={}", requestId);
                 future.complete(message);
                 return;
-            } else {
-                logger.debug("Pending request not found, treating as push message: requestId={}", requestId);
             }
+            if (response) {
+                // 请求已超时或已失败，迟到的响应直接丢弃
+                orphanedResponses.incrementAndGet();
+                logger.debug("Dropping late response for expired request: type={}, requestId={}", 
+                    type, requestId);
+                return;
+            }
+            logger.debug("Pending request not found, treating as push message: requestId={}", requestId);
         }
         
         // 处理服务端主动推送（无 requestId）或未匹配的响应
@@ -505,16 +988,54 @@ public class StreamConnectionManager {
         }
     }
     
+    /**
+     * 是否为请求-响应类的响应消息（握手、Pong、错误及服务端推送除外）
+     */
+    private static boolean isResponseType(ServerMessageType type) {
+        switch (type) {
+            case SERVER_HEARTBEAT:
+            case SERVER_BATCH_HEARTBEAT:
+            case SERVER_REGISTER_SERVICE:
+            case SERVER_UNREGISTER_SERVICE:
+            case SERVER_REGISTER_NODE:
+            case SERVER_UNREGISTER_NODE:
+            case SERVER_DISCOVER_NODES:
+            case SERVER_GET_CONFIG:
+            case SERVER_SAVE_CONFIG:
+            case SERVER_DELETE_CONFIG:
+            case SERVER_LIST_CONFIGS:
+            case SERVER_GET_CONFIG_HISTORY:
+            case SERVER_ROLLBACK_CONFIG:
+                return true;
+            default:
+                return false;
+        }
+    }
+    
     /**
      * 处理握手响应
      */
     private void handleHandshake(ServerHandshake handshake) {
         if (handshake.getSuccess()) {
             connectionId.set(handshake.getConnectionId());
+            serverCapabilities = parseCapabilities(handshake.getServerInfoMap().get(SERVER_INFO_CAPABILITIES));
+            compactRequestIds = serverCapabilities.contains(RequestIdCodec.CAPABILITY);
+            connectionLease = config.isConnectionLease() && handshake.getConnectionLease();
+            serverHeartbeatIntervalMs = TimeUnit.SECONDS.toMillis(Math.max(0, handshake.getHeartbeatInterval()));
             
             // 握手成功，立即标记连接成功（在调用 handshakeListener 之前）
             // 这样 restoreStateAfterReconnect() 就能正常调用业务方法
             connected.set(true);
+            if (closed) {
+                // 握手期间已关闭：close() 可能在标记之前执行，不能留下已连接的流
+                connected.set(false);
+                connectionId.set(null);
+                logger.debug("Handshake arrived after close, discarding connection: {}", handshake.getConnectionId());
+                completeHandshake(future -> future.completeExceptionally(
+                        new IllegalStateException("Stream manager closed")));
+                closeOldStream();
+                return;
+            }
             
             logger.info("Handshake successful, connectionId: {}, tenantId: {}", 
                 handshake.getConnectionId(), handshake.getTenantId());
@@ -522,17 +1043,45 @@ public class StreamConnectionManager {
             if (handshakeListener != null) {
                 handshakeListener.accept(handshake);
             }
+            completeHandshake(future -> future.complete(handshake.getConnectionId()));
         } else {
             logger.error("Handshake failed: {}", handshake.getMessage());
-            lastError.set(new RuntimeException("Handshake failed: " + handshake.getMessage()));
+            RuntimeException error = new RuntimeException("Handshake failed: " + handshake.getMessage());
+            lastError.set(error);
+            completeHandshake(future -> future.completeExceptionally(error));
         }
     }
     
+    private void completeHandshake(Consumer<CompletableFuture<String>> action) {
+        CompletableFuture<String> future = handshakeFuture;
+        if (future != null) {
+            action.accept(future);
+        }
+    }
+    
+    /**
+     * 解析服务端能力列表（逗号分隔）
+     */
+    private static Set<String> parseCapabilities(String value) {
+        if (value == null || value.trim().isEmpty()) {
+            return Collections.emptySet();
+        }
+        Set<String> capabilities = new HashSet<>();
+        for (String capability : value.split(",")) {
+            String trimmed = capability.trim();
+            if (!trimmed.isEmpty()) {
+                capabilities.add(trimmed);
+            }
+        }
+        return Collections.unmodifiableSet(capabilities);
+    }
+    
     /**
      * 处理 Pong 响应
      */
     private void handlePong(ServerPong pong) {
         long rtt = System.currentTimeMillis() - pong.getClientTimestamp();
+        latencyTracker.recordPing(TimeUnit.MILLISECONDS.toNanos(rtt));
         logger.trace("收到 Pong 响应，RTT: {} ms", rtt);
     }
     
@@ -562,6 +1111,10 @@ public class StreamConnectionManager {
     
     /**
      * 处理关闭通知
+     * 
+     * <p>先建后断（make-before-break）：在宽限期内经同一个 Channel 建立新流并握手，
+     * 握手成功后新流接管请求并触发状态恢复（重新注册节点、恢复订阅），
+     * 旧流在其在途请求完成后（最迟到宽限期结束）才关闭。新流建立失败时旧流保留到宽限期结束，之后按断线重连处理。</p>
      */
     private void handleCloseNotification(ServerCloseNotification notification) {
         logger.warn("Received server close notification: {}, message: {}, grace period: {}s", 
@@ -571,12 +1124,110 @@ public class StreamConnectionManager {
             closeListener.accept(notification);
         }
         
-        // 延迟关闭
-        ScheduledExecutorService delayedExecutor = Executors.newSingleThreadScheduledExecutor();
-        delayedExecutor.schedule(() -> {
-            close();
-            delayedExecutor.shutdown();
-        }, notification.getGracePeriod(), TimeUnit.SECONDS);
+        StreamResponseObserver closing = activeStream;
+        long graceMs = TimeUnit.SECONDS.toMillis(Math.max(0, notification.getGracePeriod()));
+        long deadlineNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(graceMs);
+        try {
+            // 不在 gRPC 回调线程中建立新流
+            backgroundExecutor().execute(() -> failover(closing, deadlineNanos));
+        } catch (RejectedExecutionException e) {
+            logger.debug("Stream manager closed, ignoring server close notification");
+        }
+    }
+    
+    /**
+     * 建立备用流，握手成功后替换即将被服务端关闭的流
+     * 
+     * @param closing 收到关闭通知的流
+     * @param deadlineNanos 宽限期截止时间（System.nanoTime）
+     */
+    private synchronized void failover(StreamResponseObserver closing, long deadlineNanos) {
+        if (closed || closing == null || activeStream != closing || !connected.get()) {
+            return;
+        }
+        logger.info("Opening standby stream before the current one is closed by the server");
+        
+        CompletableFuture<String> future = new CompletableFuture<>();
+        StreamResponseObserver standby = new StreamResponseObserver(future, true);
+        try {
+            handshakeFuture = future;
+            asyncStub.connect(standby);
+            sendHandshake(standby.writer);
+        } catch (Exception e) {
+            future.completeExceptionally(e);
+        }
+        
+        long handshakeTimeoutMs = config.getHandshakeTimeout();
+        RequestTimeoutWheel.Timeout timeout = timeoutWheel.newTimeout(() -> future.completeExceptionally(
+                new TimeoutException("Handshake timed out after " + handshakeTimeoutMs + "ms")), handshakeTimeoutMs);
+        future.whenComplete((id, error) -> {
+            timeout.cancel();
+            if (error == null) {
+                failoverCount.incrementAndGet();
+                logger.info("Failed over to new stream, connectionId: {}", id);
+                drain(closing, deadlineNanos);
+            } else {
+                logger.warn("Standby stream failed, keeping current stream until the grace period ends: {}", error.getMessage());
+                OutboundMessageWriter standbyWriter = standby.writer;
+                if (standbyWriter != null) {
+                    standbyWriter.complete();
+                }
+                scheduleClose(closing, deadlineNanos);
+            }
+        });
+    }
+    
+    /**
+     * 备用流接管请求
+     */
+    private synchronized void promote(StreamResponseObserver standby) {
+        StreamResponseObserver previous = activeStream;
+        activeStream = standby;
+        outboundWriter = standby.writer;
+        if (previous != null && previous != standby) {
+            drainingStreams.add(previous);
+        }
+    }
+    
+    /**
+     * 旧流的在途请求全部完成或宽限期结束后关闭旧流
+     */
+    private void drain(StreamResponseObserver stream, long deadlineNanos) {
+        if (stream.requests.isEmpty() || System.nanoTime() - deadlineNanos >= 0 || closed) {
+            completeDrained(stream);
+            return;
+        }
+        try {
+            backgroundExecutor().schedule(() -> drain(stream, deadlineNanos), DRAIN_POLL_MS, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            completeDrained(stream);
+        }
+    }
+    
+    /**
+     * 宽限期结束时关闭流（切换失败时使用，关闭后按断线重连处理）
+     */
+    private void scheduleClose(StreamResponseObserver stream, long deadlineNanos) {
+        long delayNanos = Math.max(0, deadlineNanos - System.nanoTime());
+        try {
+            backgroundExecutor().schedule(() -> {
+                OutboundMessageWriter writer = stream.writer;
+                if (writer != null) {
+                    writer.complete();
+                }
+            }, delayNanos, TimeUnit.NANOSECONDS);
+        } catch (RejectedExecutionException e) {
+            logger.trace("Stream manager closed, skipping delayed stream close");
+        }
+    }
+    
+    private void completeDrained(StreamResponseObserver stream) {
+        drainingStreams.remove(stream);
+        OutboundMessageWriter writer = stream.writer;
+        if (writer != null) {
+            writer.complete();
+        }
+        logger.info("Previous stream drained and closed, in-flight requests left: {}", stream.requests.size());
     }
     
     /**
@@ -593,68 +1244,56 @@ public class StreamConnectionManager {
     // ========== 重连 ==========
     
     /**
-     * 自动重连（支持指数退避重试，支持无限重试）
+     * 自动重连（支持无限重试）
      * 
-     * <p>重连策略与 ConfigCenterManager 保持一致：</p>
+     * <p>由 {@link ReconnectScheduler} 在独立的定时线程上调度，不阻塞任何线程：</p>
      * <ul>
      *   <li>当 maxReconnectAttempts &lt; 0 时，无限重试</li>
      *   <li>当 maxReconnectAttempts &gt;= 0 时，最多重试指定次数</li>
-     *   <li>使用指数退避算法，最大延迟 30 秒</li>
+     *   <li>使用去相关抖动退避，最大延迟 30 秒</li>
+     *   <li>Channel 从非 READY 变为 READY 时立即重试</li>
      * </ul>
      */
-    private void reconnect() {
+    void reconnect() {
+        if (closed) {
+            return;
+        }
         if (reconnecting.getAndSet(true)) {
             logger.debug("Reconnection already in progress, skipping");
             return;
         }
         
-        // 异步重连（避免阻塞 gRPC 线程）
-        CompletableFuture.runAsync(() -> {
-            int attempts = 0;
-            long baseDelay = config.getReconnectInterval();
-            final long maxBackoffMs = 30000; // 最大退避延迟 30 秒
-            int maxReconnectAttempts = config.getMaxReconnectAttempts();
-            
-            // 支持无限重试：maxReconnectAttempts < 0 表示无限重试
-            while (maxReconnectAttempts < 0 || attempts < maxReconnectAttempts) {
-                try {
-                    // 计算退避延迟（指数退避）
-                    long delay = baseDelay * (1L << Math.min(attempts, 10)); // 2^attempts，防止溢出
-                    delay = Math.min(delay, maxBackoffMs);
-                    
-                    attempts++;
-                    
-                    if (maxReconnectAttempts < 0) {
-                        logger.info("Starting auto-reconnect... attempt {} (infinite retry mode), waiting {}ms", attempts, delay);
-                    } else {
-                        logger.info("Starting auto-reconnect... attempt {}/{}, waiting {}ms", attempts, maxReconnectAttempts, delay);
-                    }
-                    
-                    Thread.sleep(delay);
-                    
-                    // 尝试连接
-                    connect();
-                    logger.info("Auto-reconnect successful after {} attempt(s)", attempts);
-                    return; // 连接成功，退出重试循环
-                    
-                } catch (InterruptedException e) {
-                    Thread.currentThread().interrupt();
-                    logger.warn("Auto-reconnect interrupted");
-                    return;
-                } catch (Exception e) {
-                    if (maxReconnectAttempts < 0) {
-                        logger.warn("Auto-reconnect failed (attempt {}), will continue retrying: {}", attempts, e.getMessage());
-                    } else if (attempts < maxReconnectAttempts) {
-                        logger.warn("Auto-reconnect failed (attempt {}/{}), will continue retrying: {}", 
-                                attempts, maxReconnectAttempts, e.getMessage());
-                    } else {
-                        logger.error("Auto-reconnect failed (max retry attempts {} reached), giving up", maxReconnectAttempts, e);
-                    }
-                }
-            }
-        }).whenComplete((result, ex) -> {
-            reconnecting.set(false);
-        });
+        reconnectScheduler().start("stream " + name, this::connectAsync, () -> closed)
+                .whenComplete((result, ex) -> reconnecting.set(false));
+    }
+    
+    /**
+     * 懒加载重连调度器（只有发生过断线的流才创建重连线程）
+     */
+    private synchronized ReconnectScheduler reconnectScheduler() {
+        if (reconnectScheduler == null) {
+            reconnectScheduler = new ReconnectScheduler(name, backgroundExecutor(), () -> channel, config);
+        }
+        return reconnectScheduler;
+    }
+    
+    /**
+     * 懒加载重连与故障切换共用的定时执行器
+     * 
+     * @throws RejectedExecutionException 如果已关闭
+     */
+    private synchronized ScheduledExecutorService backgroundExecutor() {
+        if (closed) {
+            throw new RejectedExecutionException("Stream manager closed");
+        }
+        if (reconnectExecutor == null) {
+            reconnectExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, name + "-reconnect");
+                t.setDaemon(true);
+                return t;
+            });
+        }
+        return reconnectExecutor;
     }
     
     // ========== 监听器设置 ==========
@@ -679,6 +1318,10 @@ public class StreamConnectionManager {
         this.errorListener = listener;
     }
     
+    public void setDisconnectListener(Runnable listener) {
+        this.disconnectListener = listener;
+    }
+    
     // ========== 认证方法 ==========
     
     /**
@@ -730,6 +1373,10 @@ public class StreamConnectionManager {
     
     // ========== Getter ==========
     
+    public String getName() {
+        return name;
+    }
+    
     public boolean isConnected() {
         return connected.get();
     }
@@ -741,5 +1388,101 @@ public class StreamConnectionManager {
     public Throwable getLastError() {
         return lastError.get();
     }
+    
+    /**
+     * 出站队列中等待写出的消息数
+     */
+    public int getOutboundQueueSize() {
+        OutboundMessageWriter writer = outboundWriter;
+        return writer == null ? 0 : writer.queuedCount();
+    }
+    
+    /**
+     * 服务端是否在握手中声明了指定能力
+     * 
+     * @param capability 能力标识
+     * @return 当前连接的服务端支持该能力时返回 true
+     */
+    public boolean hasServerCapability(String capability) {
+        return serverCapabilities.contains(capability);
+    }
+    
+    /**
+     * 当前连接是否处于连接级租约模式
+     * 
+     * @return 客户端请求了租约且服务端在握手中接受时返回 true
+     */
+    public boolean isConnectionLease() {
+        return connectionLease;
+    }
+    
+    /**
+     * 收到服务端关闭通知后成功切换到新流的次数
+     */
+    public long getFailoverCount() {
+        return failoverCount.get();
+    }
+    
+    /**
+     * 当前使用的 Ping 基准间隔（毫秒）
+     */
+    public long getPingInterval() {
+        return pingIntervalMs();
+    }
+    
+    /**
+     * 因流上已有其他流量而跳过的 Ping 数
+     */
+    public long getSkippedPingCount() {
+        return skippedPings.get();
+    }
+    
+    /**
+     * 发出 Ping 后入站持续静默、主动断开重连的次数
+     */
+    public long getPingTimeoutCount() {
+        return pingTimeouts.get();
+    }
+    
+    /**
+     * 距最近一次收到服务端消息的时间（毫秒）
+     */
+    public long getMillisSinceLastInbound() {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - lastInboundNanos);
+    }
+    
+    /**
+     * 当前在途（等待响应）的请求数
+     */
+    public int getPendingRequestCount() {
+        return pendingRequests.size();
+    }
+    
+    /**
+     * 累计超时的请求数
+     */
+    public long getTimedOutRequestCount() {
+        return timedOutRequests.get();
+    }
+    
+    /**
+     * 累计在请求超时后才到达的响应数
+     */
+    public long getOrphanedResponseCount() {
+        return orphanedResponses.get();
+    }
+    
+    /**
+     * 获取在途请求准入控制器（用于查看在途数、当前上限、拒绝数等统计）
+     */
+    public InFlightLimiter getInFlightLimiter() {
+        return inFlightLimiter;
+    }
+    
+    /**
+     * 获取延迟统计（Ping RTT 与按请求类型的请求延迟）
+     */
+    public LatencyTracker getLatencyTracker() {
+        return latencyTracker;
+    }
 }
-
@@ -0,0 +1,286 @@
+package com.flux.servicecenter.client.internal;
+
+import com.flux.servicecenter.config.ConfigProto;
+import com.flux.servicecenter.config.ServiceCenterConfig;
+import com.flux.servicecenter.registry.RegistryProto;
+import com.flux.servicecenter.stream.StreamProto.*;
+import io.grpc.ManagedChannel;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+
+/**
+ * 双向流连接池
+ * 
+ * <p>在同一个 gRPC Channel 上维护 N 条独立的双向流（{@link StreamConnectionManager}），
+ * 避免大响应（如 listConfigs、discoverNodes）在同一条 HTTP/2 流上阻塞心跳和 Ping。</p>
+ * 
+ * <p>流的分工：</p>
+ * <ul>
+ *   <li>第 0 条流为控制流：节点/服务注册、业务心跳等与节点存活相关的消息只走控制流</li>
+ *   <li>其余为数据流：服务发现、配置读写、订阅等按服务/配置键哈希分片到固定的数据流，
+ *       同一个键的请求和推送始终在同一条流上</li>
+ *   <li>只有 1 条流时（默认），所有消息都走这条流，与单流行为一致</li>
+ * </ul>
+ * 
+ * <p>每条流独立握手、独立 Ping、独立重连；握手成功后通过
+ * {@link #setHandshakeListener(BiConsumer)} 带上流下标回调，由上层只恢复属于该流的状态。</p>
+ */
+public class StreamConnectionPool {
+    private static final Logger logger = LoggerFactory.getLogger(StreamConnectionPool.class);
+    
+    /** 控制流下标 */
+    public static final int CONTROL_LANE = 0;
+    
+    private final StreamConnectionManager[] lanes;
+    
+    /**
+     * 创建连接池，流数量由 {@link ServiceCenterConfig#getStreamPoolSize()} 决定
+     * 
+     * @param config 客户端配置
+     * @param channel 所有流共享的 gRPC Channel
+     */
+    public StreamConnectionPool(ServiceCenterConfig config, ManagedChannel channel) {
+        int size = config.getStreamPoolSize();
+        this.lanes = new StreamConnectionManager[size];
+        for (int i = 0; i < size; i++) {
+            lanes[i] = new StreamConnectionManager(config, channel, size == 1 ? "stream" : "stream-" + i);
+        }
+    }
+    
+    // ========== 连接管理 ==========
+    
+    /**
+     * 建立所有流，阻塞直到握手完成
+     * 
+     * @throws RuntimeException 如果控制流握手失败或超时
+     * @see #connectAsync()
+     */
+    public void connect() {
+        try {
+            connectAsync().get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause() instanceof CompletionException && e.getCause().getCause() != null
+                    ? e.getCause().getCause() : e.getCause();
+            throw new RuntimeException("Failed to establish bidirectional stream connection", cause);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Connect interrupted", e);
+        }
+    }
+    
+    /**
+     * 并行建立所有流
+     * 
+     * <p>控制流握手失败时 Future 以异常完成；数据流握手失败只记录日志并进入自动重连，
+     * 在此期间落到该流上的请求由控制流承载。</p>
+     * 
+     * @return 所有流握手结束后以控制流 connectionId 完成的 Future
+     */
+    public CompletableFuture<String> connectAsync() {
+        CompletableFuture<String> control = lanes[CONTROL_LANE].connectAsync();
+        CompletableFuture<?>[] data = new CompletableFuture<?>[lanes.length - 1];
+        for (int i = 1; i < lanes.length; i++) {
+            StreamConnectionManager lane = lanes[i];
+            data[i - 1] = lane.connectAsync().handle((connectionId, error) -> {
+                if (error != null) {
+                    logger.warn("Data stream {} failed to connect, requests will use the control stream until it recovers",
+                            lane.getName(), error);
+                    lane.reconnect();
+                }
+                return null;
+            });
+        }
+        return CompletableFuture.allOf(data).thenCombine(control, (ignored, connectionId) -> connectionId);
+    }
+    
+    /**
+     * 关闭所有流
+     */
+    public void close() {
+        for (int i = lanes.length - 1; i >= 0; i--) {
+            lanes[i].close();
+        }
+    }
+    
+    /**
+     * 控制流是否已连接（节点注册和心跳依赖控制流）
+     */
+    public boolean isConnected() {
+        return lanes[CONTROL_LANE].isConnected();
+    }
+    
+    // ========== 路由 ==========
+    
+    /**
+     * 流数量
+     */
+    public int size() {
+        return lanes.length;
+    }
+    
+    /**
+     * 获取指定下标的流
+     */
+    public StreamConnectionManager lane(int index) {
+        return lanes[index];
+    }
+    
+    /**
+     * 控制流
+     */
+    public StreamConnectionManager controlLane() {
+        return lanes[CONTROL_LANE];
+    }
+    
+    /**
+     * 计算键所属的流下标（不考虑连接状态）
+     * 
+     * <p>订阅/监听必须始终发往同一条流，重连恢复时也按该下标筛选。</p>
+     * 
+     * @param namespaceId 命名空间ID
+     * @param groupName 分组名称
+     * @param name 服务名称或配置ID，可为 null（按分组分片）
+     * @return 流下标；只有 1 条流时为 {@link #CONTROL_LANE}
+     */
+    public int laneIndex(String namespaceId, String groupName, String name) {
+        if (lanes.length == 1) {
+            return CONTROL_LANE;
+        }
+        int h = 17;
+        h = 31 * h + (namespaceId != null ? namespaceId.hashCode() : 0);
+        h = 31 * h + (groupName != null ? groupName.hashCode() : 0);
+        h = 31 * h + (name != null ? name.hashCode() : 0);
+        // 打散低位，避免相似键集中在同一条流
+        h ^= (h >>> 16);
+        return 1 + Math.floorMod(h, lanes.length - 1);
+    }
+    
+    /**
+     * 获取请求-响应类操作使用的流
+     * 
+     * <p>键所属的数据流未连接（如正在重连）时退回控制流，请求不会因单条数据流故障而失败。</p>
+     */
+    public StreamConnectionManager laneFor(String namespaceId, String groupName, String name) {
+        StreamConnectionManager lane = lanes[laneIndex(namespaceId, groupName, name)];
+        if (!lane.isConnected() && lanes[CONTROL_LANE].isConnected()) {
+            return lanes[CONTROL_LANE];
+        }
+        return lane;
+    }
+    
+    /**
+     * 获取对冲请求使用的备用流
+     * 
+     * <p>优先选择其他已连接的数据流（同一个 Channel 上的不同流由 round_robin 分配到不同服务端），
+     * 没有时退回控制流。</p>
+     * 
+     * @param primary 主请求使用的流
+     * @return 备用流；没有其他已连接的流时返回 null
+     */
+    public StreamConnectionManager alternateLane(StreamConnectionManager primary) {
+        int start = 0;
+        for (int i = 0; i < lanes.length; i++) {
+            if (lanes[i] == primary) {
+                start = i;
+                break;
+            }
+        }
+        for (int step = 1; step < lanes.length; step++) {
+            int index = (start + step) % lanes.length;
+            if (index != CONTROL_LANE && lanes[index].isConnected()) {
+                return lanes[index];
+            }
+        }
+        StreamConnectionManager control = lanes[CONTROL_LANE];
+        return control != primary && control.isConnected() ? control : null;
+    }
+    
+    public StreamConnectionManager laneFor(RegistryProto.DiscoverNodesRequest request) {
+        return laneFor(request.getNamespaceId(), request.getGroupName(), request.getServiceName());
+    }
+    
+    public StreamConnectionManager laneFor(ConfigProto.ConfigKey key) {
+        return laneFor(key.getNamespaceId(), key.getGroupName(), key.getConfigDataId());
+    }
+    
+    public StreamConnectionManager laneFor(ConfigProto.ConfigData data) {
+        return laneFor(data.getNamespaceId(), data.getGroupName(), data.getConfigDataId());
+    }
+    
+    // ========== 统计 ==========
+    
+    /**
+     * 所有流合并后的 Ping RTT 统计
+     */
+    public LatencyHistogram.Snapshot getPingRtt() {
+        LatencyHistogram.Snapshot snapshot = LatencyHistogram.Snapshot.empty();
+        for (StreamConnectionManager lane : lanes) {
+            snapshot = snapshot.merge(lane.getLatencyTracker().getPingRtt());
+        }
+        return snapshot;
+    }
+    
+    /**
+     * 所有流合并后指定请求类型的延迟统计
+     */
+    public LatencyHistogram.Snapshot getRequestLatency(ClientMessageType type) {
+        LatencyHistogram.Snapshot snapshot = LatencyHistogram.Snapshot.empty();
+        for (StreamConnectionManager lane : lanes) {
+            snapshot = snapshot.merge(lane.getLatencyTracker().getRequestLatency(type));
+        }
+        return snapshot;
+    }
+    
+    // ========== 监听器 ==========
+    
+    /**
+     * 设置握手成功监听器（参数为流下标和握手消息）
+     */
+    public void setHandshakeListener(BiConsumer<Integer, ServerHandshake> listener) {
+        for (int i = 0; i < lanes.length; i++) {
+            int index = i;
+            lanes[i].setHandshakeListener(handshake -> listener.accept(index, handshake));
+        }
+    }
+    
+    public void setServiceChangeListener(Consumer<RegistryProto.ServiceChangeEvent> listener) {
+        for (StreamConnectionManager lane : lanes) {
+            lane.setServiceChangeListener(listener);
+        }
+    }
+    
+    public void setConfigChangeListener(Consumer<ConfigProto.ConfigChangeEvent> listener) {
+        for (StreamConnectionManager lane : lanes) {
+            lane.setConfigChangeListener(listener);
+        }
+    }
+    
+    public void setCloseListener(Consumer<ServerCloseNotification> listener) {
+        for (StreamConnectionManager lane : lanes) {
+            lane.setCloseListener(listener);
+        }
+    }
+    
+    public void setErrorListener(Consumer<ErrorResponse> listener) {
+        for (StreamConnectionManager lane : lanes) {
+            lane.setErrorListener(listener);
+        }
+    }
+    
+    /**
+     * 设置连接断开监听器（参数为断开的流下标）
+     */
+    public void setDisconnectListener(IntConsumer listener) {
+        for (int i = 0; i < lanes.length; i++) {
+            int index = i;
+            lanes[i].setDisconnectListener(() -> listener.accept(index));
+        }
+    }
+}
@@ -1,6 +1,10 @@
 package com.flux.servicecenter.config;
 
+import com.flux.servicecenter.stream.StreamProto.ClientMessageType;
+
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -80,6 +84,9 @@ public class ServiceCenterConfig {
     /** 请求超时时间（毫秒），默认 30000 毫秒（30秒） */
     private long requestTimeout = 30000;
     
+    /** 双向流握手超时时间（毫秒），默认 5000 毫秒（5秒） */
+    private long handshakeTimeout = 5000;
+    
     /** gRPC Keep-Alive 时间间隔（毫秒），默认 30000 毫秒（30秒） */
     private long keepAliveTime = 30000;
     
@@ -95,6 +102,97 @@ public class ServiceCenterConfig {
     /** 客户端元数据，用于存储额外的客户端信息（可选） */
     private Map<String, String> metadata = new HashMap<>();
 
+    /** 双向流出站队列容量（消息数），默认 10000 */
+    private int outboundQueueCapacity = 10000;
+
+    /** 出站队列满时的处理策略，默认 DROP_PINGS */
+    private OverflowPolicy outboundOverflowPolicy = OverflowPolicy.DROP_PINGS;
+
+    /**
+     * 双向流出站队列满时的处理策略
+     */
+    public enum OverflowPolicy {
+        /** 同步请求阻塞调用线程，直到队列有空位（最多等待 requestTimeout）；异步发送立即失败 */
+        BLOCK,
+        /** 立即失败，抛出 IllegalStateException */
+        FAIL_FAST,
+        /** 丢弃 Ping 消息，其他消息按 BLOCK 处理 */
+        DROP_PINGS
+    }
+
+    /** 全局最大在途请求数（已发送、尚未收到响应），默认 10000 */
+    private int maxInFlightRequests = 10000;
+
+    /** 按请求类型的最大在途请求数，未配置的类型只受全局上限约束 */
+    private final Map<ClientMessageType, Integer> typeInFlightLimits = new EnumMap<>(ClientMessageType.class);
+
+    /** 在途请求达到上限时的准入策略，默认 QUEUE */
+    private AdmissionPolicy admissionPolicy = AdmissionPolicy.QUEUE;
+
+    /** 等待在途许可的最大排队请求数，默认 10000 */
+    private int maxAdmissionQueueSize = 10000;
+
+    /** 是否根据响应延迟自适应调整全局在途上限，默认 false */
+    private boolean adaptiveInFlightLimit = false;
+
+    /** 双向流数量，默认 1（大于 1 时第 0 条为控制流，其余为按键分片的数据流） */
+    private int streamPoolSize = 1;
+
+    /** 每个监听器最多排队的推送事件数，默认 10000（超出后丢弃新事件） */
+    private int listenerQueueCapacity = 10000;
+
+    /** 每个监听器最多同时占用的回调线程数，默认 1 */
+    private int listenerMaxConcurrency = 1;
+
+    /** 是否根据历史延迟自适应计算请求超时，默认 false */
+    private boolean adaptiveRequestTimeout = false;
+
+    /** 自适应超时 = 请求类型延迟 p99 × 该倍数，默认 3.0 */
+    private double adaptiveTimeoutFactor = 3.0;
+
+    /** 自适应超时的下限（毫秒），默认 100 毫秒 */
+    private long minRequestTimeout = 100;
+
+    /** 是否对幂等读请求（服务发现、获取服务、获取/列出配置）启用对冲请求，默认 false */
+    private boolean hedgedReads = false;
+
+    /** 对冲延迟取主请求延迟的分位，默认 95（p95） */
+    private double hedgeDelayPercentile = 95;
+
+    /** 延迟样本不足时使用的对冲延迟（毫秒），默认 50 毫秒 */
+    private long hedgeDelay = 50;
+
+    /** 节点未变化时每隔多少次心跳携带一次完整服务信息，默认 10（为 1 时每次都携带） */
+    private int heartbeatFullPayloadInterval = 10;
+
+    /** 心跳、Ping 和重连间隔的随机抖动比例，默认 0.1（±10%） */
+    private double jitterRatio = 0.1;
+
+    /** 是否请求连接级租约（临时节点随连接存活，无需业务心跳），默认 false */
+    private boolean connectionLease = false;
+
+    /** 重连后恢复状态时同时在途的节点重新注册请求数，默认 64 */
+    private int restoreConcurrency = 64;
+
+    /** 注册表快照目录，为 null 时不持久化，默认 null */
+    private String snapshotDir;
+
+    /** 注册表快照持久化间隔（毫秒），默认 30000 毫秒 */
+    private long snapshotPersistInterval = 30000;
+
+    /** 注册表快照文件大小上限（字节），默认 64MB */
+    private long snapshotMaxFileSize = 64L * 1024 * 1024;
+
+    /**
+     * 在途请求达到上限时的准入策略
+     */
+    public enum AdmissionPolicy {
+        /** 立即拒绝，返回以 RejectedExecutionException 完成的 Future */
+        REJECT,
+        /** 排队等待许可，等待时间计入请求超时（requestTimeout） */
+        QUEUE
+    }
+
     /**
      * 获取服务器地址
      * 
@@ -344,6 +442,33 @@ public class ServiceCenterConfig {
         return this;
     }
 
+    /**
+     * 获取双向流握手超时时间
+     * 
+     * @return 握手超时时间（毫秒），默认 5000 毫秒（5秒）
+     */
+    public long getHandshakeTimeout() {
+        return handshakeTimeout;
+    }
+
+    /**
+     * 设置双向流握手超时时间
+     * 
+     * <p>建立（或重连）双向流后，在此时间内未收到服务端握手响应则视为连接失败。
+     * 握手响应到达后立即完成连接，不需要等待。</p>
+     * 
+     * @param handshakeTimeout 握手超时时间（毫秒），必须大于 0
+     * @return 当前配置对象，支持链式调用
+     * @throws IllegalArgumentException 如果超时时间小于等于 0
+     */
+    public ServiceCenterConfig setHandshakeTimeout(long handshakeTimeout) {
+        if (handshakeTimeout <= 0) {
+            throw new IllegalArgumentException("握手超时时间必须大于 0");
+        }
+        this.handshakeTimeout = handshakeTimeout;
+        return this;
+    }
+
     /**
      * 获取请求超时时间
      * 
@@ -688,5 +813,614 @@ public class ServiceCenterConfig {
         this.maxInboundMessageSize = maxInboundMessageSize;
         return this;
     }
-}
 
+    /**
+     * 获取双向流出站队列容量
+     * 
+     * @return 出站队列容量（消息数），默认 10000
+     */
+    public int getOutboundQueueCapacity() {
+        return outboundQueueCapacity;
+    }
+
+    /**
+     * 设置双向流出站队列容量
+     * 
+     * <p>双向流上所有待发送的消息先进入出站队列，由单个写线程在 gRPC 传输层就绪（isReady）时写出。
+     * 服务端处理变慢时，队列容量限制了客户端缓存的消息数量，避免无限占用内存。</p>
+     * 
+     * @param outboundQueueCapacity 出站队列容量，必须大于 0
+     * @return 当前配置对象，支持链式调用
+     * @throws IllegalArgumentException 如果容量小于等于 0
+     */
+    public ServiceCenterConfig setOutboundQueueCapacity(int outboundQueueCapacity) {
+        if (outboundQueueCapacity <= 0) {
+            throw new IllegalArgumentException("出站队列容量必须大于 0");
+        }
+        this.outboundQueueCapacity = outboundQueueCapacity;
+        return this;
+    }
+
+    /**
+     * 获取出站队列满时的处理策略
+     * 
+     * @return 处理策略，默认 {@link OverflowPolicy#DROP_PINGS}
+     */
+    public OverflowPolicy getOutboundOverflowPolicy() {
+        return outboundOverflowPolicy;
+    }
+
+    /**
+     * 设置出站队列满时的处理策略
+     * 
+     * <ul>
+     *   <li>{@link OverflowPolicy#BLOCK}：阻塞发送线程，直到队列有空位，最多等待 requestTimeout</li>
+     *   <li>{@link OverflowPolicy#FAIL_FAST}：立即失败，适合调用方自行重试或降级的场景</li>
+     *   <li>{@link OverflowPolicy#DROP_PINGS}：丢弃 Ping 消息（下一周期会重新发送），其他消息阻塞等待</li>
+     * </ul>
+     * 
+     * <p>阻塞等待只发生在同步请求（{@code StreamConnectionManager.sendRequest}）的调用线程上；
+     * 异步请求、心跳和其他在 gRPC 回调线程或定时器线程上的发送在队列满时立即失败，不会阻塞负责写出队列的线程。</p>
+     * 
+     * @param outboundOverflowPolicy 处理策略，不能为 null
+     * @return 当前配置对象，支持链式调用
+     * @throws IllegalArgumentException 如果策略为 null
+     */
+    public ServiceCenterConfig setOutboundOverflowPolicy(OverflowPolicy outboundOverflowPolicy) {
+        if (outboundOverflowPolicy == null) {
+            throw new IllegalArgumentException("出站队列溢出策略不能为空");
+        }
+        this.outboundOverflowPolicy = outboundOverflowPolicy;
+        return this;
+    }
+
+    /**
+     * 获取全局最大在途请求数
+     * 
+     * @return 最大在途请求数，默认 10000
+     */
+    public int getMaxInFlightRequests() {
+        return maxInFlightRequests;
+    }
+
+    /**
+     * 设置全局最大在途请求数
+     * 
+     * <p>在途请求指已发送到双向流、尚未收到响应的请求。服务端变慢时，超出上限的请求按
+     * {@link #setAdmissionPolicy(AdmissionPolicy) 准入策略} 快速拒绝或排队，避免调用方无限堆积到 requestTimeout。
+     * 开启 {@link #setAdaptiveInFlightLimit(boolean) 自适应} 后，该值为自适应上限的最大值。
+     * 开启多条双向流时，每条流独立计数。</p>
+     * 
+     * <p>心跳、批量心跳、节点注册/注销等存活类请求不计入也不受该上限约束，只受
+     * {@link #setTypeInFlightLimit(ClientMessageType, int) 按类型的上限} 约束。</p>
+     * 
+     * @param maxInFlightRequests 最大在途请求数，必须大于 0
+     * @return 当前配置对象，支持链式调用
+     * @throws IllegalArgumentException 如果数量小于等于 0
+     */
+    public ServiceCenterConfig setMaxInFlightRequests(int maxInFlightRequests) {
+        if (maxInFlightRequests <= 0) {
+            throw new IllegalArgumentException("最大在途请求数必须大于 0");
+        }
+        this.maxInFlightRequests = maxInFlightRequests;
+        return this;
+    }
+
+    /**
+     * 获取按请求类型配置的在途上限
+     * 
+     * @return 请求类型到在途上限的只读映射
+     */
+    public Map<ClientMessageType, Integer> getTypeInFlightLimits() {
+        return Collections.unmodifiableMap(typeInFlightLimits);
+    }
+
+    /**
+     * 设置指定请求类型的最大在途请求数
+     * 
+     * <p>用于隔离不同类型的请求，例如限制配置历史查询的并发，避免其占满全局额度而影响心跳和服务发现。</p>
+     * 
+     * @param type 请求类型，不能为 null
+     * @param maxInFlight 该类型的最大在途请求数，必须大于 0
+     * @return 当前配置对象，支持链式调用
+     * @throws IllegalArgumentException 如果类型为 null 或数量小于等于 0
+     */
+    public ServiceCenterConfig setTypeInFlightLimit(ClientMessageType type, int maxInFlight) {
+        if (type == null || type == ClientMessageType.UNRECOGNIZED) {
+            throw new IllegalArgumentException("请求类型不能为空");
+        }
+        if (maxInFlight <= 0) {
+            throw new IllegalArgumentException("最大在途请求数必须大于 0");
+        }
+        typeInFlightLimits.put(type, maxInFlight);
+        return this;
+    }
+
+    /**
+     * 获取在途请求达到上限时的准入策略
+     * 
+     * @return 准入策略，默认 {@link AdmissionPolicy#QUEUE}
+     */
+    public AdmissionPolicy getAdmissionPolicy() {
+        return admissionPolicy;
+    }
+
+    /**
+     * 设置在途请求达到上限时的准入策略
+     * 
+     * <ul>
+     *   <li>{@link AdmissionPolicy#REJECT}：立即拒绝，适合调用方自行降级或有本地缓存的场景</li>
+     *   <li>{@link AdmissionPolicy#QUEUE}：排队等待许可，排队时间计入 requestTimeout，队列满时拒绝</li>
+     * </ul>
+     * 
+     * @param admissionPolicy 准入策略，不能为 null
+     * @return 当前配置对象，支持链式调用
+     * @throws IllegalArgumentException 如果策略为 null
+     */
+    public ServiceCenterConfig setAdmissionPolicy(AdmissionPolicy admissionPolicy) {
+        if (admissionPolicy == null) {
+            throw new IllegalArgumentException("准入策略不能为空");
+        }
+        this.admissionPolicy = admissionPolicy;
+        return this;
+    }
+
+    /**
+     * 获取等待在途许可的最大排队请求数
+     * 
+     * @return 最大排队请求数，默认 10000
+     */
+    public int getMaxAdmissionQueueSize() {
+        return maxAdmissionQueueSize;
+    }
+
+    /**
+     * 设置等待在途许可的最大排队请求数（仅 {@link AdmissionPolicy#QUEUE} 策略生效）
+     * 
+     * @param maxAdmissionQueueSize 最大排队请求数，必须大于等于 0
+     * @return 当前配置对象，支持链式调用
+     * @throws IllegalArgumentException 如果数量小于 0
+     */
+    public ServiceCenterConfig setMaxAdmissionQueueSize(int maxAdmissionQueueSize) {
+        if (maxAdmissionQueueSize < 0) {
+            throw new IllegalArgumentException("最大排队请求数不能小于 0");
+        }
+        this.maxAdmissionQueueSize = maxAdmissionQueueSize;
+        return this;
+    }
+
+    /**
+     * 是否根据响应延迟自适应调整全局在途上限
+     * 
+     * @return 是否开启，默认 false
+     */
+    public boolean isAdaptiveInFlightLimit() {
+        return adaptiveInFlightLimit;
+    }
+
+    /**
+     * 设置是否根据响应延迟自适应调整全局在途上限
+     * 
+     * <p>开启后全局上限从较小值起步，按 AIMD 调整：响应延迟明显高于观测到的最小 RTT 或请求超时时乘性减小，
+     * 延迟正常时加性增大，最大不超过 {@link #getMaxInFlightRequests()}。服务端故障期间可以自动收缩并发，
+     * 避免重试风暴。</p>
+     * 
+     * @param adaptiveInFlightLimit 是否开启
+     * @return 当前配置对象，支持链式调用
+     */
+    public ServiceCenterConfig setAdaptiveInFlightLimit(boolean adaptiveInFlightLimit) {
+        this.adaptiveInFlightLimit = adaptiveInFlightLimit;
+        return this;
+    }
+
+    /**
+     * 获取双向流数量
+     * 
+     * @return 双向流数量，默认 1
+     */
+    public int getStreamPoolSize() {
+        return streamPoolSize;
+    }
+
+    /**
+     * 设置双向流数量
+     * 
+     * <p>默认所有注册、配置、心跳和推送都在一条双向流上，大响应（如 listConfigs）会阻塞同一条流上的心跳和 Ping。
+     * 设置为大于 1 时，第 0 条流作为控制流（节点注册、业务心跳），其余流作为数据流，
+     * 服务发现、配置读写和订阅按服务/配置键分片；每条流独立重连并只恢复自己的订阅状态。</p>
+     * 
+     * @param streamPoolSize 双向流数量，必须在 1 到 64 之间
+     * @return 当前配置对象，支持链式调用
+     * @throws IllegalArgumentException 如果数量不在有效范围内
+     */
+    public ServiceCenterConfig setStreamPoolSize(int streamPoolSize) {
+        if (streamPoolSize < 1 || streamPoolSize > 64) {
+            throw new IllegalArgumentException("双向流数量必须在 1-64 之间");
+        }
+        this.streamPoolSize = streamPoolSize;
+        return this;
+    }
+
+    /**
+     * 获取每个监听器最多排队的推送事件数
+     * 
+     * @return 排队上限，默认 10000
+     */
+    public int getListenerQueueCapacity() {
+        return listenerQueueCapacity;
+    }
+
+    /**
+     * 设置每个监听器最多排队的推送事件数
+     * 
+     * <p>每个监听器有独立的事件队列，回调过慢导致队列满时丢弃新到达的事件并告警，
+     * 不会影响其他监听器。</p>
+     * 
+     * @param listenerQueueCapacity 排队上限，必须大于 0
+     * @return 当前配置对象，支持链式调用
+     * @throws IllegalArgumentException 如果上限小于等于 0
+     */
+    public ServiceCenterConfig setListenerQueueCapacity(int listenerQueueCapacity) {
+        if (listenerQueueCapacity <= 0) {
+            throw new IllegalArgumentException("监听器队列容量必须大于 0");
+        }
+        this.listenerQueueCapacity = listenerQueueCapacity;
+        return this;
+    }
+
+    /**
+     * 获取每个监听器最多同时占用的回调线程数
+     * 
+     * @return 并发回调数，默认 1
+     */
+    public int getListenerMaxConcurrency() {
+        return listenerMaxConcurrency;
+    }
+
+    /**
+     * 设置每个监听器最多同时占用的回调线程数
+     * 
+     * <p>同一个服务或配置的事件始终按到达顺序串行回调；该值只控制同一个监听器的不同服务/配置能否并行回调。</p>
+     * 
+     * @param listenerMaxConcurrency 并发回调数，必须大于 0
+     * @return 当前配置对象，支持链式调用
+     * @throws IllegalArgumentException 如果并发数小于等于 0
+     */
+    public ServiceCenterConfig setListenerMaxConcurrency(int listenerMaxConcurrency) {
+        if (listenerMaxConcurrency <= 0) {
+            throw new IllegalArgumentException("监听器并发回调数必须大于 0");
+        }
+        this.listenerMaxConcurrency = listenerMaxConcurrency;
+        return this;
+    }
+
+    /**
+     * 是否根据历史延迟自适应计算请求超时
+     * 
+     * @return 是否开启，默认 false
+     */
+    public boolean isAdaptiveRequestTimeout() {
+        return adaptiveRequestTimeout;
+    }
+
+    /**
+     * 设置是否根据历史延迟自适应计算请求超时
+     * 
+     * <p>开启后双向流按请求类型统计最近 60 秒的响应延迟，未显式指定超时的请求使用
+     * {@code p99 × adaptiveTimeoutFactor} 作为超时时间，并限制在 [minRequestTimeout, requestTimeout] 之间；
+     * 样本不足时仍使用 {@link #getRequestTimeout()}。服务端失去响应时请求在几百毫秒内失败，而不是等满 requestTimeout。</p>
+     * 
+     * @param adaptiveRequestTimeout 是否开启
+     * @return 当前配置对象，支持链式调用
+     */
+    public ServiceCenterConfig setAdaptiveRequestTimeout(boolean adaptiveRequestTimeout) {
+        this.adaptiveRequestTimeout = adaptiveRequestTimeout;
+        return this;
+    }
+
+    /**
+     * 获取自适应超时倍数
+     * 
+     * @return 倍数，默认 3.0
+     */
+    public double getAdaptiveTimeoutFactor() {
+        return adaptiveTimeoutFactor;
+    }
+
+    /**
+     * 设置自适应超时倍数（自适应超时 = p99 × 倍数）
+     * 
+     * @param adaptiveTimeoutFactor 倍数，必须大于等于 1
+     * @return 当前配置对象，支持链式调用
+     * @throws IllegalArgumentException 如果倍数小于 1
+     */
+    public ServiceCenterConfig setAdaptiveTimeoutFactor(double adaptiveTimeoutFactor) {
+        if (!(adaptiveTimeoutFactor >= 1)) {
+            throw new IllegalArgumentException("自适应超时倍数不能小于 1");
+        }
+        this.adaptiveTimeoutFactor = adaptiveTimeoutFactor;
+        return this;
+    }
+
+    /**
+     * 获取自适应超时的下限
+     * 
+     * @return 下限（毫秒），默认 100 毫秒
+     */
+    public long getMinRequestTimeout() {
+        return minRequestTimeout;
+    }
+
+    /**
+     * 设置自适应超时的下限，避免延迟很低时超时过于激进
+     * 
+     * @param minRequestTimeout 下限（毫秒），必须大于 0；大于 requestTimeout 时按 requestTimeout 处理
+     * @return 当前配置对象，支持链式调用
+     * @throws IllegalArgumentException 如果下限小于等于 0
+     */
+    public ServiceCenterConfig setMinRequestTimeout(long minRequestTimeout) {
+        if (minRequestTimeout <= 0) {
+            throw new IllegalArgumentException("最小请求超时时间必须大于 0");
+        }
+        this.minRequestTimeout = minRequestTimeout;
+        return this;
+    }
+
+    /**
+     * 是否对幂等读请求启用对冲请求
+     * 
+     * @return 是否开启，默认 false
+     */
+    public boolean isHedgedReads() {
+        return hedgedReads;
+    }
+
+    /**
+     * 设置是否对幂等读请求启用对冲请求
+     * 
+     * <p>开启后 discoverNodes、getService、getConfig、listConfigs 的请求在超过对冲延迟仍未返回时，
+     * 向另一条双向流（集群模式下通常落在另一个服务端）再发一次相同请求，以先返回的结果为准，
+     * 用于降低个别服务端变慢时的尾延迟。双向流请求需要 {@link #getStreamPoolSize()} 大于 1 才有备用流；
+     * getService 为一元调用，对冲请求由 round_robin 负载均衡分配到其他服务端。</p>
+     * 
+     * <p>对冲请求数受预算约束，最多约为总请求数的 10%。</p>
+     * 
+     * @param hedgedReads 是否开启
+     * @return 当前配置对象，支持链式调用
+     */
+    public ServiceCenterConfig setHedgedReads(boolean hedgedReads) {
+        this.hedgedReads = hedgedReads;
+        return this;
+    }
+
+    /**
+     * 获取对冲延迟使用的分位
+     * 
+     * @return 分位，默认 95
+     */
+    public double getHedgeDelayPercentile() {
+        return hedgeDelayPercentile;
+    }
+
+    /**
+     * 设置对冲延迟使用的分位（按操作统计主请求最近 60 秒的延迟）
+     * 
+     * @param hedgeDelayPercentile 分位，取值 (0, 100]，如 95 表示主请求超过 p95 仍未返回时发出对冲请求
+     * @return 当前配置对象，支持链式调用
+     * @throws IllegalArgumentException 如果分位不在有效范围内
+     */
+    public ServiceCenterConfig setHedgeDelayPercentile(double hedgeDelayPercentile) {
+        if (!(hedgeDelayPercentile > 0 && hedgeDelayPercentile <= 100)) {
+            throw new IllegalArgumentException("对冲延迟分位必须在 (0, 100] 之间");
+        }
+        this.hedgeDelayPercentile = hedgeDelayPercentile;
+        return this;
+    }
+
+    /**
+     * 获取延迟样本不足时使用的对冲延迟
+     * 
+     * @return 对冲延迟（毫秒），默认 50 毫秒
+     */
+    public long getHedgeDelay() {
+        return hedgeDelay;
+    }
+
+    /**
+     * 设置延迟样本不足时（如刚启动）使用的对冲延迟
+     * 
+     * @param hedgeDelay 对冲延迟（毫秒），必须大于 0
+     * @return 当前配置对象，支持链式调用
+     * @throws IllegalArgumentException 如果延迟小于等于 0
+     */
+    public ServiceCenterConfig setHedgeDelay(long hedgeDelay) {
+        if (hedgeDelay <= 0) {
+            throw new IllegalArgumentException("对冲延迟必须大于 0");
+        }
+        this.hedgeDelay = hedgeDelay;
+        return this;
+    }
+
+    /**
+     * 获取携带完整服务信息的心跳间隔（次）
+     * 
+     * @return 心跳次数，默认 10
+     */
+    public int getHeartbeatFullPayloadInterval() {
+        return heartbeatFullPayloadInterval;
+    }
+
+    /**
+     * 设置节点未变化时每隔多少次心跳携带一次完整服务信息
+     * 
+     * <p>其余心跳只携带 nodeId。节点首次心跳、节点信息变化、重连之后以及心跳失败之后的下一次心跳总是携带完整信息。</p>
+     * 
+     * @param heartbeatFullPayloadInterval 心跳次数，必须大于 0，为 1 时每次心跳都携带完整信息
+     * @return 当前配置对象，支持链式调用
+     * @throws IllegalArgumentException 如果次数小于等于 0
+     */
+    public ServiceCenterConfig setHeartbeatFullPayloadInterval(int heartbeatFullPayloadInterval) {
+        if (heartbeatFullPayloadInterval <= 0) {
+            throw new IllegalArgumentException("完整心跳间隔次数必须大于 0");
+        }
+        this.heartbeatFullPayloadInterval = heartbeatFullPayloadInterval;
+        return this;
+    }
+
+    /**
+     * 获取心跳、Ping 和重连间隔的随机抖动比例
+     * 
+     * @return 抖动比例，默认 0.1
+     */
+    public double getJitterRatio() {
+        return jitterRatio;
+    }
+
+    /**
+     * 设置心跳、Ping 和重连间隔的随机抖动比例
+     * 
+     * <p>节点心跳和 Ping 除了按 nodeId / clientId 的哈希分散到心跳间隔内的固定相位外，每次间隔再叠加
+     * ±jitterRatio 的随机量，避免大量节点或客户端同时重连后以同步的波峰到达服务端。</p>
+     * 
+     * @param jitterRatio 抖动比例，取值 [0, 0.5]，为 0 时只做相位分散
+     * @return 当前配置对象，支持链式调用
+     * @throws IllegalArgumentException 如果比例不在 [0, 0.5] 之间
+     */
+    public ServiceCenterConfig setJitterRatio(double jitterRatio) {
+        if (jitterRatio < 0 || jitterRatio > 0.5) {
+            throw new IllegalArgumentException("抖动比例必须在 [0, 0.5] 之间");
+        }
+        this.jitterRatio = jitterRatio;
+        return this;
+    }
+
+    /**
+     * 是否请求连接级租约
+     * 
+     * @return 是否开启，默认 false
+     */
+    public boolean isConnectionLease() {
+        return connectionLease;
+    }
+
+    /**
+     * 设置是否请求连接级租约
+     * 
+     * <p>开启后客户端在握手中请求连接级租约，服务端接受时，经控制流注册的临时节点（ephemeral 为 "Y"）
+     * 只要连接保持（Ping 正常）就视为存活，连接断开时由服务端立即剔除，客户端不再为这些节点发送业务心跳。
+     * 租约模式下无论流上是否有其他流量，客户端都按 Ping 间隔发送 Ping 续租。
+     * 持久节点仍按心跳间隔发送业务心跳。服务端不支持时自动退回逐个节点心跳。</p>
+     * 
+     * <p>租约模式下修改了临时节点的状态或元数据后，调用 {@code sendHeartbeat(nodeId)} 把变更同步到服务端。</p>
+     * 
+     * @param connectionLease 是否开启
+     * @return 当前配置对象，支持链式调用
+     */
+    public ServiceCenterConfig setConnectionLease(boolean connectionLease) {
+        this.connectionLease = connectionLease;
+        return this;
+    }
+
+    /**
+     * 获取重连后恢复状态时的节点重新注册并发数
+     * 
+     * @return 并发数，默认 64
+     */
+    public int getRestoreConcurrency() {
+        return restoreConcurrency;
+    }
+
+    /**
+     * 设置重连后恢复状态时的节点重新注册并发数
+     * 
+     * <p>重连后所有节点的重新注册以流水线方式并发发送，同时在途的请求数不超过该值，
+     * 避免大量节点同时重新注册时占满在途请求上限。</p>
+     * 
+     * @param restoreConcurrency 并发数，必须大于 0
+     * @return 当前配置对象，支持链式调用
+     * @throws IllegalArgumentException 如果并发数小于等于 0
+     */
+    public ServiceCenterConfig setRestoreConcurrency(int restoreConcurrency) {
+        if (restoreConcurrency <= 0) {
+            throw new IllegalArgumentException("状态恢复并发数必须大于 0");
+        }
+        this.restoreConcurrency = restoreConcurrency;
+        return this;
+    }
+
+    /**
+     * 获取注册表快照目录
+     * 
+     * @return 快照目录，为 null 时不持久化
+     */
+    public String getSnapshotDir() {
+        return snapshotDir;
+    }
+
+    /**
+     * 设置注册表快照目录
+     * 
+     * <p>设置后客户端定期把已订阅服务的本地实例缓存写入该目录下的快照文件，创建客户端时（连接之前）加载。
+     * 加载的数据作为过期缓存，只在无法访问服务端时由 {@code discoverNodes} / {@code getService} 返回，
+     * 重新订阅并同步后被实时数据替换。服务中心不可用时应用仍可启动并按上次的实例列表路由。</p>
+     * 
+     * @param snapshotDir 快照目录，为 null 或空时不持久化
+     * @return 当前配置对象，支持链式调用
+     */
+    public ServiceCenterConfig setSnapshotDir(String snapshotDir) {
+        this.snapshotDir = snapshotDir != null && !snapshotDir.trim().isEmpty() ? snapshotDir : null;
+        return this;
+    }
+
+    /**
+     * 获取注册表快照持久化间隔
+     * 
+     * @return 持久化间隔（毫秒），默认 30000
+     */
+    public long getSnapshotPersistInterval() {
+        return snapshotPersistInterval;
+    }
+
+    /**
+     * 设置注册表快照持久化间隔
+     * 
+     * <p>缓存内容没有变化时不重写快照文件。</p>
+     * 
+     * @param snapshotPersistInterval 持久化间隔（毫秒），必须大于 0
+     * @return 当前配置对象，支持链式调用
+     * @throws IllegalArgumentException 如果间隔小于等于 0
+     */
+    public ServiceCenterConfig setSnapshotPersistInterval(long snapshotPersistInterval) {
+        if (snapshotPersistInterval <= 0) {
+            throw new IllegalArgumentException("快照持久化间隔必须大于 0");
+        }
+        this.snapshotPersistInterval = snapshotPersistInterval;
+        return this;
+    }
+
+    /**
+     * 获取注册表快照文件大小上限
+     * 
+     * @return 文件大小上限（字节），默认 64MB
+     */
+    public long getSnapshotMaxFileSize() {
+        return snapshotMaxFileSize;
+    }
+
+    /**
+     * 设置注册表快照文件大小上限
+     * 
+     * <p>写入时超过上限则放弃本次持久化，加载时超过上限的文件视为损坏并忽略。</p>
+     * 
+     * @param snapshotMaxFileSize 文件大小上限（字节），必须大于 0 且不超过 {@link Integer#MAX_VALUE}
+     * @return 当前配置对象，支持链式调用
+     * @throws IllegalArgumentException 如果上限不在有效范围内
+     */
+    public ServiceCenterConfig setSnapshotMaxFileSize(long snapshotMaxFileSize) {
+        if (snapshotMaxFileSize <= 0 || snapshotMaxFileSize > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("快照文件大小上限必须大于 0 且不超过 2GB");
+        }
+        this.snapshotMaxFileSize = snapshotMaxFileSize;
+        return this;
+    }
+}
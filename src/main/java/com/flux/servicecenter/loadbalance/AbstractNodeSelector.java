@@ -0,0 +1,153 @@
+package com.flux.servicecenter.loadbalance;
+
+import com.flux.servicecenter.model.NodeInfo;
+import com.flux.servicecenter.model.ServiceSnapshot;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 节点选择器基类
+ * 
+ * <p>负责筛选可用节点、读取权重，并按快照版本号缓存子类构建的选择表：快照版本号变化时重建，
+ * 否则直接在已有选择表上选择。</p>
+ * 
+ * <p>选择表只会被版本更新的表替换（CAS），并发重建时版本较新的表胜出；持有较旧快照的调用方
+ * 在临时构建的表上选择，不会把已发布的表回退到旧版本。</p>
+ * 
+ * @param <T> 选择表类型
+ * @author shangjian
+ */
+public abstract class AbstractNodeSelector<T extends AbstractNodeSelector.Table> implements NodeSelector {
+    
+    /** 未设置权重（0）时使用的默认权重 */
+    static final double DEFAULT_WEIGHT = 1.0;
+    
+    private final AtomicReference<T> table = new AtomicReference<>();
+    
+    /** 保证 {@link #onPublish} 按发布顺序执行，且只对仍是当前的表执行 */
+    private final Object publishLock = new Object();
+    
+    private final AtomicLong rebuildCount = new AtomicLong(0);
+    
+    @Override
+    public NodeInfo select(ServiceSnapshot snapshot) {
+        if (snapshot == null) {
+            return null;
+        }
+        T current = table.get();
+        if (current == null || current.version != snapshot.getVersion()) {
+            current = rebuild(snapshot);
+        }
+        if (current.nodes.length == 0) {
+            return null;
+        }
+        return select(current);
+    }
+    
+    private T rebuild(ServiceSnapshot snapshot) {
+        List<NodeInfo> all = snapshot.getNodes();
+        int count = 0;
+        for (NodeInfo node : all) {
+            if (isAvailable(node)) {
+                count++;
+            }
+        }
+        NodeInfo[] nodes = new NodeInfo[count];
+        double[] weights = new double[count];
+        int i = 0;
+        for (NodeInfo node : all) {
+            if (isAvailable(node)) {
+                nodes[i] = node;
+                weights[i] = weightOf(node);
+                i++;
+            }
+        }
+        T built = build(snapshot.getVersion(), nodes, weights);
+        while (true) {
+            T current = table.get();
+            if (current != null && current.version >= built.version) {
+                // 同版本已由其他线程发布时共用已发布的表；快照比已发布的旧时只在本地表上选择
+                return current.version == built.version ? current : built;
+            }
+            if (table.compareAndSet(current, built)) {
+                break;
+            }
+        }
+        rebuildCount.incrementAndGet();
+        synchronized (publishLock) {
+            if (table.get() == built) {
+                onPublish(built);
+            }
+        }
+        return built;
+    }
+    
+    /**
+     * 为一个快照版本构建选择表
+     * 
+     * @param version 快照版本号
+     * @param nodes 可用节点（可能为空数组）
+     * @param weights 与 nodes 对应的权重，均大于 0
+     */
+    protected abstract T build(long version, NodeInfo[] nodes, double[] weights);
+    
+    /**
+     * 选择表成为当前表后调用（较旧快照的本地表不会调用），子类可在此清理只属于旧表的状态
+     * 
+     * <p>调用按发布顺序串行执行；表在调用前已被更新的表替换时不再调用。</p>
+     * 
+     * @param table 刚发布的选择表
+     */
+    protected void onPublish(T table) {
+    }
+    
+    /**
+     * 在选择表上选择一个节点，选择表至少有一个节点
+     */
+    protected abstract NodeInfo select(T table);
+    
+    /**
+     * 节点是否可用：健康状态为 HEALTHY，实例状态为 UP 或未设置
+     */
+    public static boolean isAvailable(NodeInfo node) {
+        if (node == null || !"HEALTHY".equals(node.getHealthyStatus())) {
+            return false;
+        }
+        String instanceStatus = node.getInstanceStatus();
+        return instanceStatus == null || instanceStatus.isEmpty() || "UP".equals(instanceStatus);
+    }
+    
+    /**
+     * 节点权重，未设置（不大于 0）时为 {@link #DEFAULT_WEIGHT}
+     */
+    public static double weightOf(NodeInfo node) {
+        double weight = node.getWeight();
+        return weight > 0 && weight < Double.POSITIVE_INFINITY ? weight : DEFAULT_WEIGHT;
+    }
+    
+    /**
+     * 选择表重建次数（即观察到的快照版本变化次数，不含为较旧快照临时构建的表）
+     */
+    public long getRebuildCount() {
+        return rebuildCount.get();
+    }
+    
+    /**
+     * 某个快照版本的选择表
+     */
+    protected static class Table {
+        
+        /** 快照版本号 */
+        protected final long version;
+        
+        /** 可用节点 */
+        protected final NodeInfo[] nodes;
+        
+        protected Table(long version, NodeInfo[] nodes) {
+            this.version = version;
+            this.nodes = nodes;
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.flux.servicecenter.loadbalance;
+
+import com.flux.servicecenter.model.NodeInfo;
+import com.flux.servicecenter.model.ServiceSnapshot;
+
+/**
+ * 节点选择器（客户端负载均衡）
+ * 
+ * <p>从服务快照中选择一个可用节点：健康状态为 HEALTHY 且实例状态为 UP（未设置时视为 UP），按节点权重分配流量。</p>
+ * 
+ * <p>内置策略：</p>
+ * <ul>
+ *   <li>{@link SmoothWeightedRoundRobinSelector}：平滑加权轮询，分布确定、相邻请求不集中到同一节点</li>
+ *   <li>{@link WeightedRandomSelector}：加权随机（别名表，O(1) 选择），无锁</li>
+ *   <li>{@link PowerOfTwoChoicesSelector}：随机取两个节点，选择在途请求数（按权重折算）较少的一个，调用结束后需 {@link #release(NodeInfo)}</li>
+ * </ul>
+ * 
+ * <p>选择器按快照版本号缓存选择表，版本号不变时选择过程不分配对象；一个选择器实例对应一个服务，可被多个线程共享。</p>
+ * 
+ * <p>使用示例：</p>
+ * <pre>{@code
+ * NodeSelector selector = new PowerOfTwoChoicesSelector();
+ * client.subscribeService("order-service", listener);
+ * 
+ * NodeInfo node = client.selectNode(null, null, "order-service", selector);
+ * if (node != null) {
+ *     try {
+ *         // 调用 node.getIpAddress():node.getPortNumber()
+ *     } finally {
+ *         selector.release(node);
+ *     }
+ * }
+ * }</pre>
+ * 
+ * @author shangjian
+ */
+public interface NodeSelector {
+    
+    /**
+     * 选择一个节点
+     * 
+     * @param snapshot 服务快照，可以为 null
+     * @return 选中的节点；快照为 null 或没有可用节点时返回 null
+     */
+    NodeInfo select(ServiceSnapshot snapshot);
+    
+    /**
+     * 对选中节点的调用结束（无论成功与否）
+     * 
+     * <p>只有按在途请求数选择的策略需要，默认不做任何事。</p>
+     * 
+     * @param node {@link #select(ServiceSnapshot)} 返回的节点
+     */
+    default void release(NodeInfo node) {
+    }
+}
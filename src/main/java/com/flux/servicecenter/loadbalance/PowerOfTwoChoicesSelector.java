@@ -0,0 +1,114 @@
+package com.flux.servicecenter.loadbalance;
+
+import com.flux.servicecenter.model.NodeInfo;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 两次随机选择（power of two choices）选择器
+ * 
+ * <p>随机取两个不同的可用节点，选择 (在途请求数 + 1) / 权重 较小的一个，并把它的在途请求数加 1；
+ * 调用方必须在调用结束后调用 {@link #release(NodeInfo)}。相比最少连接，不需要全表扫描，也避免了所有客户端同时涌向同一个空闲节点。</p>
+ * 
+ * <p>在途计数按节点ID（没有节点ID时按 IP:端口）保存，快照版本变化时保留仍然存在的节点的计数；
+ * 选择表直接引用计数对象，选择过程不查表、不分配对象。已下线节点的计数只在更新的选择表发布时清理，
+ * 为较旧快照临时构建选择表不会清掉当前节点的计数。</p>
+ * 
+ * @author shangjian
+ */
+public class PowerOfTwoChoicesSelector extends AbstractNodeSelector<PowerOfTwoChoicesSelector.LoadTable> {
+    
+    private final Map<String, AtomicInteger> inFlight = new ConcurrentHashMap<>();
+    
+    @Override
+    protected LoadTable build(long version, NodeInfo[] nodes, double[] weights) {
+        AtomicInteger[] counters = new AtomicInteger[nodes.length];
+        String[] keys = new String[nodes.length];
+        for (int i = 0; i < nodes.length; i++) {
+            keys[i] = keyOf(nodes[i]);
+            counters[i] = inFlight.computeIfAbsent(keys[i], k -> new AtomicInteger());
+        }
+        return new LoadTable(version, nodes, weights, keys, counters);
+    }
+    
+    @Override
+    protected void onPublish(LoadTable table) {
+        // 已下线节点的计数不再保留，之后对它们的 release 被忽略
+        Set<String> keys = new HashSet<>(Arrays.asList(table.keys));
+        inFlight.keySet().retainAll(keys);
+        // 构建与发布之间被更早的清理移除的计数重新挂回，保证 release 作用在当前表引用的计数上
+        for (int i = 0; i < table.keys.length; i++) {
+            inFlight.put(table.keys[i], table.counters[i]);
+        }
+    }
+    
+    @Override
+    protected NodeInfo select(LoadTable table) {
+        NodeInfo[] nodes = table.nodes;
+        int chosen;
+        if (nodes.length == 1) {
+            chosen = 0;
+        } else {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            int a = random.nextInt(nodes.length);
+            int b = random.nextInt(nodes.length - 1);
+            if (b >= a) {
+                b++;
+            }
+            // (load[a] + 1) / weight[a] <= (load[b] + 1) / weight[b]，交叉相乘避免除法
+            double loadA = (table.counters[a].get() + 1) * table.weights[b];
+            double loadB = (table.counters[b].get() + 1) * table.weights[a];
+            chosen = loadA <= loadB ? a : b;
+        }
+        table.counters[chosen].incrementAndGet();
+        return nodes[chosen];
+    }
+    
+    @Override
+    public void release(NodeInfo node) {
+        if (node == null) {
+            return;
+        }
+        AtomicInteger counter = inFlight.get(keyOf(node));
+        if (counter != null) {
+            counter.updateAndGet(value -> value > 0 ? value - 1 : 0);
+        }
+    }
+    
+    /**
+     * 节点当前的在途请求数
+     */
+    public int getInFlight(NodeInfo node) {
+        AtomicInteger counter = node != null ? inFlight.get(keyOf(node)) : null;
+        return counter != null ? counter.get() : 0;
+    }
+    
+    private static String keyOf(NodeInfo node) {
+        String nodeId = node.getNodeId();
+        return nodeId != null && !nodeId.isEmpty() ? nodeId : node.getIpAddress() + ":" + node.getPortNumber();
+    }
+    
+    static final class LoadTable extends AbstractNodeSelector.Table {
+        
+        private final double[] weights;
+        
+        /** 与 nodes 对应的计数键 */
+        private final String[] keys;
+        
+        /** 与 nodes 对应的在途计数（与选择器共享） */
+        private final AtomicInteger[] counters;
+        
+        LoadTable(long version, NodeInfo[] nodes, double[] weights, String[] keys, AtomicInteger[] counters) {
+            super(version, nodes);
+            this.weights = weights;
+            this.keys = keys;
+            this.counters = counters;
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.flux.servicecenter.loadbalance;
+
+import com.flux.servicecenter.model.NodeInfo;
+
+/**
+ * 平滑加权轮询选择器
+ * 
+ * <p>每次选择时每个节点的当前值加上自身权重，选出当前值最大的节点并减去总权重（nginx 的 smooth weighted round-robin）。
+ * 一个周期内各节点被选中的次数与权重成正比，且高权重节点的选择均匀分散在周期内。</p>
+ * 
+ * <p>权重按 0.01 精度换算为整数参与计算，结果是确定的；选择为 O(n) 并在选择表上加锁，节点数很多或并发很高时可考虑
+ * {@link WeightedRandomSelector}。快照版本变化时轮询状态重置。</p>
+ * 
+ * @author shangjian
+ */
+public class SmoothWeightedRoundRobinSelector extends AbstractNodeSelector<SmoothWeightedRoundRobinSelector.RoundRobinTable> {
+    
+    /** 权重换算为整数的倍数（权重精度 0.01） */
+    private static final double WEIGHT_SCALE = 100.0;
+    
+    @Override
+    protected RoundRobinTable build(long version, NodeInfo[] nodes, double[] weights) {
+        long[] scaled = new long[nodes.length];
+        long total = 0;
+        for (int i = 0; i < nodes.length; i++) {
+            scaled[i] = Math.max(1L, Math.round(weights[i] * WEIGHT_SCALE));
+            total += scaled[i];
+        }
+        return new RoundRobinTable(version, nodes, scaled, total);
+    }
+    
+    @Override
+    protected NodeInfo select(RoundRobinTable table) {
+        NodeInfo[] nodes = table.nodes;
+        if (nodes.length == 1) {
+            return nodes[0];
+        }
+        long[] weights = table.weights;
+        long[] current = table.current;
+        synchronized (table) {
+            int best = 0;
+            for (int i = 0; i < nodes.length; i++) {
+                current[i] += weights[i];
+                if (current[i] > current[best]) {
+                    best = i;
+                }
+            }
+            current[best] -= table.totalWeight;
+            return nodes[best];
+        }
+    }
+    
+    static final class RoundRobinTable extends AbstractNodeSelector.Table {
+        
+        private final long[] weights;
+        private final long totalWeight;
+        
+        /** 各节点的当前值，由选择表锁保护 */
+        private final long[] current;
+        
+        RoundRobinTable(long version, NodeInfo[] nodes, long[] weights, long totalWeight) {
+            super(version, nodes);
+            this.weights = weights;
+            this.totalWeight = totalWeight;
+            this.current = new long[nodes.length];
+        }
+    }
+}
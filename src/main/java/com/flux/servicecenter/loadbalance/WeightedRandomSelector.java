@@ -0,0 +1,91 @@
+package com.flux.servicecenter.loadbalance;
+
+import com.flux.servicecenter.model.NodeInfo;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 加权随机选择器
+ * 
+ * <p>每个快照版本预先构建一张别名表（Vose 算法，O(n)），选择时随机取一列，再按该列概率在本列节点与别名节点之间取一个，
+ * 选择为 O(1)、无锁、不分配对象。</p>
+ * 
+ * @author shangjian
+ */
+public class WeightedRandomSelector extends AbstractNodeSelector<WeightedRandomSelector.AliasTable> {
+    
+    @Override
+    protected AliasTable build(long version, NodeInfo[] nodes, double[] weights) {
+        int n = nodes.length;
+        double[] probability = new double[n];
+        int[] alias = new int[n];
+        if (n == 0) {
+            return new AliasTable(version, nodes, probability, alias);
+        }
+        
+        double total = 0;
+        for (double weight : weights) {
+            total += weight;
+        }
+        // 按平均权重归一化，平均值为 1；小于 1 的列由大于 1 的列补齐
+        double[] scaled = new double[n];
+        int[] small = new int[n];
+        int[] large = new int[n];
+        int smallCount = 0;
+        int largeCount = 0;
+        for (int i = 0; i < n; i++) {
+            scaled[i] = weights[i] * n / total;
+            if (scaled[i] < 1.0) {
+                small[smallCount++] = i;
+            } else {
+                large[largeCount++] = i;
+            }
+        }
+        while (smallCount > 0 && largeCount > 0) {
+            int less = small[--smallCount];
+            int more = large[--largeCount];
+            probability[less] = scaled[less];
+            alias[less] = more;
+            scaled[more] = (scaled[more] + scaled[less]) - 1.0;
+            if (scaled[more] < 1.0) {
+                small[smallCount++] = more;
+            } else {
+                large[largeCount++] = more;
+            }
+        }
+        // 剩余的列（含浮点误差导致的）概率为 1
+        while (largeCount > 0) {
+            probability[large[--largeCount]] = 1.0;
+        }
+        while (smallCount > 0) {
+            probability[small[--smallCount]] = 1.0;
+        }
+        return new AliasTable(version, nodes, probability, alias);
+    }
+    
+    @Override
+    protected NodeInfo select(AliasTable table) {
+        NodeInfo[] nodes = table.nodes;
+        if (nodes.length == 1) {
+            return nodes[0];
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int column = random.nextInt(nodes.length);
+        return random.nextDouble() < table.probability[column] ? nodes[column] : nodes[table.alias[column]];
+    }
+    
+    static final class AliasTable extends AbstractNodeSelector.Table {
+        
+        /** 每列选中本列节点的概率 */
+        private final double[] probability;
+        
+        /** 每列的别名节点下标 */
+        private final int[] alias;
+        
+        AliasTable(long version, NodeInfo[] nodes, double[] probability, int[] alias) {
+            super(version, nodes);
+            this.probability = probability;
+            this.alias = alias;
+        }
+    }
+}
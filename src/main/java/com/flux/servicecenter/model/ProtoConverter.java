@@ -152,6 +152,24 @@ public class ProtoConverter {
             return null;
         }
         
+        return toServiceChangeEvent(proto, toServiceInfo(proto.getService()), 
+                toNodeInfoList(proto.getNodesList()),
+                proto.hasChangedNode() ? toNodeInfo(proto.getChangedNode()) : null);
+    }
+    
+    /**
+     * 用已转换的服务信息和节点构造 ServiceChangeEvent
+     * 
+     * <p>用于增量更新：节点列表来自本地缓存快照，不再逐个转换事件中的完整节点列表。</p>
+     * 
+     * @param proto Proto ServiceChangeEvent 对象，不能为 null
+     * @param service 已转换的服务信息
+     * @param allNodes 变更后的完整节点列表
+     * @param changedNode 已转换的变更节点，可以为 null
+     * @return ServiceChangeEvent 领域对象
+     */
+    public static ServiceChangeEvent toServiceChangeEvent(RegistryProto.ServiceChangeEvent proto, ServiceInfo service,
+                                                          List<NodeInfo> allNodes, NodeInfo changedNode) {
         ServiceChangeEvent event = new ServiceChangeEvent();
         
         // 转换时间戳和服务标识（先设置这些基础字段）
@@ -159,55 +177,30 @@ public class ProtoConverter {
         event.setNamespaceId(proto.getNamespaceId());
         event.setGroupName(proto.getGroupName());
         event.setServiceName(proto.getServiceName());
-        
-        // 转换事件类型
-        String eventTypeStr = proto.getEventType();
-        if (eventTypeStr != null && !eventTypeStr.isEmpty()) {
-            try {
-                event.setEventType(ServiceChangeEvent.EventType.valueOf(eventTypeStr));
-            } catch (IllegalArgumentException e) {
-                // 如果事件类型不匹配，尝试映射
-                switch (eventTypeStr) {
-                    case "SERVICE_ADDED":
-                        event.setEventType(ServiceChangeEvent.EventType.SERVICE_ADDED);
-                        break;
-                    case "SERVICE_UPDATED":
-                        event.setEventType(ServiceChangeEvent.EventType.SERVICE_UPDATED);
-                        break;
-                    case "SERVICE_DELETED":
-                        event.setEventType(ServiceChangeEvent.EventType.SERVICE_DELETED);
-                        break;
-                    case "NODE_ADDED":
-                        event.setEventType(ServiceChangeEvent.EventType.NODE_ADDED);
-                        break;
-                    case "NODE_UPDATED":
-                        event.setEventType(ServiceChangeEvent.EventType.NODE_UPDATED);
-                        break;
-                    case "NODE_REMOVED":
-                        event.setEventType(ServiceChangeEvent.EventType.NODE_REMOVED);
-                        break;
-                    default:
-                        // 未知类型，使用 SERVICE_UPDATED 作为默认值
-                        event.setEventType(ServiceChangeEvent.EventType.SERVICE_UPDATED);
-                }
-            }
-        } else {
+        event.setEventType(toServiceChangeEventType(proto.getEventType()));
+        event.setService(service);
+        event.setAllNodes(allNodes);
+        event.setChangedNode(changedNode);
+        return event;
+    }
+    
+    /**
+     * 转换服务变更事件类型
+     * 
+     * @param eventType Proto 中的事件类型字符串
+     * @return 事件类型，为空或未知时返回 {@link ServiceChangeEvent.EventType#SERVICE_UPDATED}
+     */
+    public static ServiceChangeEvent.EventType toServiceChangeEventType(String eventType) {
+        if (eventType == null || eventType.isEmpty()) {
             // 如果事件类型为空，使用默认值
-            event.setEventType(ServiceChangeEvent.EventType.SERVICE_UPDATED);
+            return ServiceChangeEvent.EventType.SERVICE_UPDATED;
         }
-        
-        // 转换服务信息
-        event.setService(toServiceInfo(proto.getService()));
-        
-        // 转换节点列表
-        event.setAllNodes(toNodeInfoList(proto.getNodesList()));
-        
-        // 转换变更的节点
-        if (proto.hasChangedNode()) {
-            event.setChangedNode(toNodeInfo(proto.getChangedNode()));
+        try {
+            return ServiceChangeEvent.EventType.valueOf(eventType);
+        } catch (IllegalArgumentException e) {
+            // 未知类型，使用 SERVICE_UPDATED 作为默认值
+            return ServiceChangeEvent.EventType.SERVICE_UPDATED;
         }
-        
-        return event;
     }
     
     // ========== 配置中心转换方法 ==========
@@ -52,6 +52,9 @@ public class ServiceChangeEvent {
     /** 变更的节点，标识此次变更涉及的具体节点（添加、更新或删除的节点） */
     private NodeInfo changedNode;
     
+    /** 变更后的服务快照（已订阅服务由本地缓存提供，所有监听器共享；未缓存时为 null） */
+    private ServiceSnapshot snapshot;
+    
     public ServiceChangeEvent() {
     }
     
@@ -93,6 +96,14 @@ public class ServiceChangeEvent {
         this.changedNode = changedNode;
     }
     
+    public ServiceSnapshot getSnapshot() {
+        return snapshot;
+    }
+    
+    public void setSnapshot(ServiceSnapshot snapshot) {
+        this.snapshot = snapshot;
+    }
+    
     public String getTimestamp() {
         return timestamp;
     }
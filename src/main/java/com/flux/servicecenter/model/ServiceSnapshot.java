@@ -0,0 +1,190 @@
+package com.flux.servicecenter.model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 服务实例快照
+ * 
+ * <p>某一时刻服务信息与完整节点列表的不可变视图，带单调递增的版本号。本地实例缓存每次变更都发布一个新快照
+ * （写时复制），读取方拿到引用后无需加锁或防御性复制；版本号不变即内容不变，可用来判断派生数据（如负载均衡表）是否需要重建。</p>
+ * 
+ * <p>快照中的 {@link NodeInfo} 与 {@link ServiceInfo} 由多个线程共享，调用方不应修改。</p>
+ * 
+ * @author shangjian
+ */
+public final class ServiceSnapshot {
+    
+    /** 健康节点的健康状态值 */
+    private static final String HEALTHY = "HEALTHY";
+    
+    /** 缓存命中时 {@link GetServiceResult} 的消息 */
+    private static final String CACHED_MESSAGE = "Served from local cache";
+    
+    private final String namespaceId;
+    private final String groupName;
+    private final String serviceName;
+    private final long version;
+    private final ServiceInfo service;
+    private final List<NodeInfo> nodes;
+    private final List<NodeInfo> healthyNodes;
+    private final long timestamp;
+    
+    private ServiceSnapshot(String namespaceId, String groupName, String serviceName, long version,
+                            ServiceInfo service, List<NodeInfo> ownedNodes, long timestamp) {
+        this.namespaceId = namespaceId;
+        this.groupName = groupName;
+        this.serviceName = serviceName;
+        this.version = version;
+        this.service = service;
+        this.nodes = Collections.unmodifiableList(ownedNodes);
+        List<NodeInfo> healthy = new ArrayList<>(ownedNodes.size());
+        for (NodeInfo node : ownedNodes) {
+            if (HEALTHY.equals(node.getHealthyStatus())) {
+                healthy.add(node);
+            }
+        }
+        this.healthyNodes = healthy.size() == ownedNodes.size() ? this.nodes : Collections.unmodifiableList(healthy);
+        this.timestamp = timestamp;
+    }
+    
+    /**
+     * 创建快照（复制节点列表）
+     * 
+     * @param version 版本号
+     * @param service 服务信息，可以为 null
+     * @param nodes 完整节点列表，为 null 时视为空列表
+     */
+    public static ServiceSnapshot of(String namespaceId, String groupName, String serviceName, long version,
+                                     ServiceInfo service, List<NodeInfo> nodes) {
+        return new ServiceSnapshot(namespaceId, groupName, serviceName, version, service,
+                nodes != null ? new ArrayList<>(nodes) : new ArrayList<>(), System.currentTimeMillis());
+    }
+    
+    /**
+     * 空快照（版本号 0），用于尚未同步的服务
+     */
+    public static ServiceSnapshot empty(String namespaceId, String groupName, String serviceName) {
+        return new ServiceSnapshot(namespaceId, groupName, serviceName, 0, null, new ArrayList<>(), 0);
+    }
+    
+    /**
+     * 以新版本号替换节点列表，服务信息为 null 时沿用当前服务信息
+     */
+    public ServiceSnapshot withNodes(long newVersion, ServiceInfo newService, List<NodeInfo> newNodes) {
+        return of(namespaceId, groupName, serviceName, newVersion, newService != null ? newService : service, newNodes);
+    }
+    
+    /**
+     * 以新版本号增加或替换一个节点（按 nodeId 匹配），不复制其余节点对象
+     */
+    public ServiceSnapshot withNode(long newVersion, ServiceInfo newService, NodeInfo node) {
+        List<NodeInfo> updated = new ArrayList<>(nodes.size() + 1);
+        updated.addAll(nodes);
+        int index = indexOf(node.getNodeId());
+        if (index >= 0) {
+            updated.set(index, node);
+        } else {
+            updated.add(node);
+        }
+        return new ServiceSnapshot(namespaceId, groupName, serviceName, newVersion,
+                newService != null ? newService : service, updated, System.currentTimeMillis());
+    }
+    
+    /**
+     * 以新版本号移除一个节点（按 nodeId 匹配），节点不存在时只更新版本号
+     */
+    public ServiceSnapshot withoutNode(long newVersion, ServiceInfo newService, String nodeId) {
+        List<NodeInfo> updated = new ArrayList<>(nodes);
+        int index = indexOf(nodeId);
+        if (index >= 0) {
+            updated.remove(index);
+        }
+        return new ServiceSnapshot(namespaceId, groupName, serviceName, newVersion,
+                newService != null ? newService : service, updated, System.currentTimeMillis());
+    }
+    
+    /**
+     * 以新版本号替换服务信息，节点列表不变
+     */
+    public ServiceSnapshot withService(long newVersion, ServiceInfo newService) {
+        return new ServiceSnapshot(namespaceId, groupName, serviceName, newVersion, newService,
+                new ArrayList<>(nodes), System.currentTimeMillis());
+    }
+    
+    private int indexOf(String nodeId) {
+        for (int i = 0; i < nodes.size(); i++) {
+            if (nodeId.equals(nodes.get(i).getNodeId())) {
+                return i;
+            }
+        }
+        return -1;
+    }
+    
+    public String getNamespaceId() {
+        return namespaceId;
+    }
+    
+    public String getGroupName() {
+        return groupName;
+    }
+    
+    public String getServiceName() {
+        return serviceName;
+    }
+    
+    /**
+     * 版本号，同一个缓存内单调递增；0 表示尚未同步的空快照
+     */
+    public long getVersion() {
+        return version;
+    }
+    
+    /**
+     * 服务信息，尚未获取到时为 null
+     */
+    public ServiceInfo getService() {
+        return service;
+    }
+    
+    /**
+     * 不可修改的完整节点列表
+     */
+    public List<NodeInfo> getNodes() {
+        return nodes;
+    }
+    
+    /**
+     * 不可修改的健康节点列表
+     */
+    public List<NodeInfo> getHealthyNodes() {
+        return healthyNodes;
+    }
+    
+    /**
+     * 构造查询结果，每次调用返回新的对象和新的节点列表（节点对象与快照共享）
+     * 
+     * @return 查询结果；没有服务信息时为 null
+     */
+    public GetServiceResult toServiceResult() {
+        return service != null ? new GetServiceResult(true, CACHED_MESSAGE, service, new ArrayList<>(nodes)) : null;
+    }
+    
+    /**
+     * 快照生成时间戳（毫秒），空快照为 0
+     */
+    public long getTimestamp() {
+        return timestamp;
+    }
+    
+    public int size() {
+        return nodes.size();
+    }
+    
+    @Override
+    public String toString() {
+        return "ServiceSnapshot{" + namespaceId + "/" + groupName + "/" + serviceName
+                + ", version=" + version + ", nodes=" + nodes.size() + "}";
+    }
+}
@@ -0,0 +1,131 @@
+package com.flux.servicecenter.client;
+
+import com.flux.servicecenter.client.internal.HeartbeatScheduler;
+import com.flux.servicecenter.client.internal.RestoreProgress;
+import com.flux.servicecenter.config.ServiceCenterConfig;
+import com.flux.servicecenter.model.NodeInfo;
+import com.flux.servicecenter.stream.StreamProto.ClientMessage;
+import com.flux.servicecenter.stream.StreamProto.ClientMessageType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.function.BooleanSupplier;
+
+/**
+ * 连接级租约下的节点心跳测试类
+ * 
+ * <p>使用本地 {@link FakeStreamServer}：服务端接受租约时临时节点不再发送业务心跳，持久节点照常发送；
+ * 重连到不接受租约的服务端后，临时节点重新注册并恢复业务心跳。</p>
+ * 
+ * @author shangjian
+ */
+public class ConnectionLeaseTest {
+    
+    private FakeStreamServer server;
+    private StreamBasedServiceCenterClient client;
+    
+    @BeforeEach
+    public void setUp() throws Exception {
+        server = new FakeStreamServer();
+        client = new StreamBasedServiceCenterClient(new ServiceCenterConfig()
+                .setServerHost("localhost")
+                .setServerPort(server.getPort())
+                .setNamespaceId("ns")
+                .setGroupName("group")
+                .setConnectionLease(true)
+                .setHeartbeatInterval(100)
+                .setReconnectInterval(100)
+                .setMaxReconnectAttempts(20));
+        client.connect();
+        RestoreProgress initial = waitForRestore(null);
+        assertEquals(0, initial.getTotalNodes());
+    }
+    
+    @AfterEach
+    public void tearDown() throws Exception {
+        if (client != null) {
+            client.close();
+        }
+        if (server != null) {
+            server.close();
+        }
+    }
+    
+    @Test
+    public void testLeasedEphemeralNodeSkipsBusinessHeartbeat() throws Exception {
+        assertTrue(client.isConnectionLeaseActive());
+        String ephemeral = client.registerNode(node("Y", 8080)).getNodeId();
+        String persistent = client.registerNode(node("N", 8081)).getNodeId();
+        
+        HeartbeatScheduler scheduler = client.getHeartbeatScheduler();
+        assertFalse(scheduler.contains(ephemeral), "leased ephemeral node must leave the heartbeat scheduler");
+        assertTrue(scheduler.contains(persistent), "persistent node must keep its heartbeat");
+        
+        // 持久节点按间隔发送心跳，临时节点一次也不发送
+        waitFor(() -> heartbeatNodeIds(0).contains(persistent));
+        Thread.sleep(300);
+        assertFalse(heartbeatNodeIds(0).contains(ephemeral));
+    }
+    
+    @Test
+    public void testHeartbeatsReevaluatedAfterReconnectWithoutLease() throws Exception {
+        String ephemeral = client.registerNode(node("Y", 8080)).getNodeId();
+        String persistent = client.registerNode(node("N", 8081)).getNodeId();
+        HeartbeatScheduler scheduler = client.getHeartbeatScheduler();
+        assertFalse(scheduler.contains(ephemeral));
+        
+        // 新的服务端（重连后）不接受租约
+        server.grantLease = false;
+        RestoreProgress before = client.getRestoreProgress(0);
+        int fromConnection = server.connections().size();
+        server.dropConnections();
+        RestoreProgress restored = waitForRestore(before);
+        
+        assertEquals(2, restored.getRestoredNodes());
+        assertFalse(client.isConnectionLeaseActive());
+        assertTrue(scheduler.contains(ephemeral), "ephemeral node must resume heartbeats without a lease");
+        assertTrue(scheduler.contains(persistent));
+        waitFor(() -> heartbeatNodeIds(fromConnection).contains(ephemeral)
+                && heartbeatNodeIds(fromConnection).contains(persistent));
+    }
+    
+    private static NodeInfo node(String ephemeral, int port) {
+        NodeInfo node = new NodeInfo("10.0.0.1", port);
+        node.setServiceName("svc");
+        node.setEphemeral(ephemeral);
+        return node;
+    }
+    
+    private Set<String> heartbeatNodeIds(int fromConnection) {
+        Set<String> nodeIds = new HashSet<>();
+        for (ClientMessage message : server.messages(ClientMessageType.CLIENT_HEARTBEAT, fromConnection)) {
+            nodeIds.add(message.getHeartbeat().getNodeId());
+        }
+        return nodeIds;
+    }
+    
+    /**
+     * 等待控制流上一次新的状态恢复完成
+     */
+    private RestoreProgress waitForRestore(RestoreProgress previous) throws InterruptedException {
+        waitFor(() -> {
+            RestoreProgress progress = client.getRestoreProgress(0);
+            return progress != null && progress != previous && progress.isDone();
+        });
+        return client.getRestoreProgress(0);
+    }
+    
+    private static void waitFor(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10000;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline) {
+                fail("Condition not met within 10000ms");
+            }
+            Thread.sleep(10);
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package com.flux.servicecenter.client;
+
+import com.flux.servicecenter.registry.RegistryProto;
+import com.flux.servicecenter.stream.ServiceCenterStreamGrpc;
+import com.flux.servicecenter.stream.StreamProto.*;
+import io.grpc.Grpc;
+import io.grpc.InsecureServerCredentials;
+import io.grpc.Server;
+import io.grpc.Status;
+import io.grpc.stub.StreamObserver;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 测试用双向流服务端
+ * 
+ * <p>监听本地随机端口，记录每条流收到的消息；应答握手、Ping、业务心跳、节点注册/注销和服务发现（空列表），
+ * 其余请求只记录不应答。</p>
+ * 
+ * @author shangjian
+ */
+final class FakeStreamServer implements AutoCloseable {
+    
+    /** 是否接受客户端请求的连接级租约（只影响之后的握手） */
+    volatile boolean grantLease = true;
+    
+    private final List<Connection> connections = new CopyOnWriteArrayList<>();
+    private final AtomicInteger handshakes = new AtomicInteger();
+    private final AtomicInteger nodeIds = new AtomicInteger();
+    private final Server server;
+    
+    FakeStreamServer() throws IOException {
+        server = Grpc.newServerBuilderForPort(0, InsecureServerCredentials.create())
+                .addService(new ServiceCenterStreamGrpc.ServiceCenterStreamImplBase() {
+                    @Override
+                    public StreamObserver<ClientMessage> connect(StreamObserver<ServerMessage> responseObserver) {
+                        Connection connection = new Connection(responseObserver);
+                        connections.add(connection);
+                        return connection;
+                    }
+                })
+                .build()
+                .start();
+    }
+    
+    int getPort() {
+        return server.getPort();
+    }
+    
+    /**
+     * 已建立的流（包括已断开的），按建立顺序
+     */
+    List<Connection> connections() {
+        return connections;
+    }
+    
+    /**
+     * 指定流之后（含）建立的流上收到的某类消息
+     */
+    List<ClientMessage> messages(ClientMessageType type, int fromConnection) {
+        List<ClientMessage> result = new ArrayList<>();
+        for (int i = fromConnection; i < connections.size(); i++) {
+            result.addAll(connections.get(i).messages(type));
+        }
+        return result;
+    }
+    
+    /**
+     * 以 UNAVAILABLE 断开当前所有流，客户端随后自动重连
+     */
+    void dropConnections() {
+        for (Connection connection : connections) {
+            connection.fail();
+        }
+    }
+    
+    @Override
+    public void close() throws InterruptedException {
+        server.shutdownNow();
+        server.awaitTermination(5, TimeUnit.SECONDS);
+    }
+    
+    /**
+     * 服务端的一条流
+     */
+    final class Connection implements StreamObserver<ClientMessage> {
+        private final StreamObserver<ServerMessage> responseObserver;
+        private final List<ClientMessage> messages = new CopyOnWriteArrayList<>();
+        private boolean ended;
+        
+        Connection(StreamObserver<ServerMessage> responseObserver) {
+            this.responseObserver = responseObserver;
+        }
+        
+        List<ClientMessage> messages(ClientMessageType type) {
+            List<ClientMessage> result = new ArrayList<>();
+            for (ClientMessage message : messages) {
+                if (message.getMessageType() == type) {
+                    result.add(message);
+                }
+            }
+            return result;
+        }
+        
+        boolean isHandshaked() {
+            return !messages(ClientMessageType.CLIENT_HANDSHAKE).isEmpty();
+        }
+        
+        @Override
+        public void onNext(ClientMessage message) {
+            messages.add(message);
+            ServerMessage.Builder reply = ServerMessage.newBuilder().setRequestId(message.getRequestId());
+            switch (message.getMessageType()) {
+                case CLIENT_HANDSHAKE:
+                    reply.setMessageType(ServerMessageType.SERVER_HANDSHAKE)
+                            .setHandshake(ServerHandshake.newBuilder()
+                                    .setSuccess(true)
+                                    .setConnectionId("conn-" + handshakes.incrementAndGet())
+                                    .setConnectionLease(grantLease && message.getHandshake().getConnectionLease()));
+                    break;
+                case CLIENT_PING:
+                    reply.clearRequestId()
+                            .setMessageType(ServerMessageType.SERVER_PONG)
+                            .setPong(ServerPong.newBuilder()
+                                    .setTimestamp(System.currentTimeMillis())
+                                    .setClientTimestamp(message.getPing().getTimestamp()));
+                    break;
+                case CLIENT_HEARTBEAT:
+                    reply.setMessageType(ServerMessageType.SERVER_HEARTBEAT)
+                            .setHeartbeat(RegistryProto.RegistryResponse.newBuilder().setSuccess(true));
+                    break;
+                case CLIENT_REGISTER_NODE:
+                    String nodeId = message.getRegisterNode().getNodeId();
+                    reply.setMessageType(ServerMessageType.SERVER_REGISTER_NODE)
+                            .setRegisterNode(RegistryProto.RegisterNodeResponse.newBuilder()
+                                    .setSuccess(true)
+                                    .setNodeId(nodeId.isEmpty() ? "node-" + nodeIds.incrementAndGet() : nodeId));
+                    break;
+                case CLIENT_UNREGISTER_NODE:
+                    reply.setMessageType(ServerMessageType.SERVER_UNREGISTER_NODE)
+                            .setUnregisterNode(RegistryProto.RegistryResponse.newBuilder().setSuccess(true));
+                    break;
+                case CLIENT_DISCOVER_NODES:
+                    reply.setMessageType(ServerMessageType.SERVER_DISCOVER_NODES)
+                            .setDiscoverNodes(RegistryProto.DiscoverNodesResponse.newBuilder().setSuccess(true));
+                    break;
+                default:
+                    return;
+            }
+            send(reply.build());
+        }
+        
+        @Override
+        public void onError(Throwable t) {
+            end();
+        }
+        
+        @Override
+        public void onCompleted() {
+            synchronized (this) {
+                if (ended) {
+                    return;
+                }
+                ended = true;
+                responseObserver.onCompleted();
+            }
+        }
+        
+        private synchronized void send(ServerMessage message) {
+            if (!ended) {
+                responseObserver.onNext(message);
+            }
+        }
+        
+        private synchronized void fail() {
+            if (!ended) {
+                ended = true;
+                responseObserver.onError(Status.UNAVAILABLE.withDescription("connection dropped").asRuntimeException());
+            }
+        }
+        
+        private synchronized void end() {
+            ended = true;
+        }
+    }
+}
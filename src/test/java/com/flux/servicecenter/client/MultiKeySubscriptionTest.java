@@ -0,0 +1,254 @@
+package com.flux.servicecenter.client;
+
+import com.flux.servicecenter.client.internal.RestoreProgress;
+import com.flux.servicecenter.config.ConfigProto;
+import com.flux.servicecenter.config.ServiceCenterConfig;
+import com.flux.servicecenter.listener.ConfigChangeListener;
+import com.flux.servicecenter.listener.ServiceChangeListener;
+import com.flux.servicecenter.registry.RegistryProto;
+import com.flux.servicecenter.stream.StreamProto.ClientMessage;
+import com.flux.servicecenter.stream.StreamProto.ClientMessageType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BooleanSupplier;
+
+/**
+ * 多键订阅/监听测试类（subscribeServices / watchConfigs）
+ * 
+ * <p>使用本地 {@link FakeStreamServer}，客户端开启三条流（控制流 + 两条数据流），
+ * 从服务端收到的消息验证去重、按流拆分、取消订阅和重连后的合并恢复。</p>
+ * 
+ * @author shangjian
+ */
+public class MultiKeySubscriptionTest {
+    
+    private static final int STREAM_POOL_SIZE = 3;
+    
+    private final ServiceChangeListener serviceListener = event -> { };
+    private final ConfigChangeListener configListener = event -> { };
+    
+    private FakeStreamServer server;
+    private StreamBasedServiceCenterClient client;
+    
+    @BeforeEach
+    public void setUp() throws Exception {
+        server = new FakeStreamServer();
+        client = new StreamBasedServiceCenterClient(new ServiceCenterConfig()
+                .setServerHost("localhost")
+                .setServerPort(server.getPort())
+                .setNamespaceId("ns")
+                .setGroupName("group")
+                .setStreamPoolSize(STREAM_POOL_SIZE)
+                .setReconnectInterval(100)
+                .setMaxReconnectAttempts(20));
+        client.connect();
+        // 首次握手后的状态恢复异步执行，等它结束，避免与测试中的订阅交错而重复发送
+        waitFor(() -> {
+            for (int i = 0; i < STREAM_POOL_SIZE; i++) {
+                RestoreProgress progress = client.getRestoreProgress(i);
+                if (progress == null || !progress.isDone()) {
+                    return false;
+                }
+            }
+            return true;
+        });
+    }
+    
+    @AfterEach
+    public void tearDown() throws Exception {
+        if (client != null) {
+            client.close();
+        }
+        if (server != null) {
+            server.close();
+        }
+    }
+    
+    @Test
+    public void testEmptyKeyListRejected() {
+        assertThrows(IllegalArgumentException.class,
+                () -> client.subscribeServices("ns", "group", Collections.emptyList(), serviceListener));
+        assertThrows(IllegalArgumentException.class,
+                () -> client.subscribeServices("ns", "group", null, serviceListener));
+        assertThrows(IllegalArgumentException.class,
+                () -> client.watchConfigs("ns", "group", Collections.emptyList(), configListener));
+        assertThrows(IllegalArgumentException.class,
+                () -> client.watchConfigs("ns", "group", null, configListener));
+        
+        assertTrue(client.getActiveSubscriptions().isEmpty());
+        assertTrue(client.getActiveWatches().isEmpty());
+    }
+    
+    @Test
+    public void testSubscribeServicesDeduplicatesAndSendsOneRequestPerLane() throws Exception {
+        List<String> names = Arrays.asList("svc-0", "svc-1", "svc-2", "svc-3", "svc-4", "svc-5");
+        List<String> withDuplicates = new ArrayList<>(names);
+        withDuplicates.add("svc-0");
+        withDuplicates.add("svc-3");
+        
+        client.subscribeServices("ns", "group", withDuplicates, serviceListener);
+        waitFor(() -> subscribedNames(0, "group").size() >= names.size());
+        
+        // 每个服务名只发送一次，分布在两条数据流上，每条流每个分组一条消息
+        List<String> sent = subscribedNames(0, "group");
+        assertEquals(names.size(), sent.size(), "duplicates sent: " + sent);
+        assertEquals(new HashSet<>(names), new HashSet<>(sent));
+        assertEquals(STREAM_POOL_SIZE - 1, assertOneRequestPerGroup(ClientMessageType.CLIENT_SUBSCRIBE_SERVICES, 0));
+        
+        // 重复的服务名只引用一次缓存项，取消订阅后全部释放
+        String subscriptionId = client.getActiveSubscriptions().get(0);
+        client.unsubscribe(subscriptionId);
+        for (String name : names) {
+            assertNull(client.getServiceInstanceCache().entry("ns", "group", name), name);
+        }
+    }
+    
+    @Test
+    public void testWatchConfigsDeduplicatesAndSendsOneRequestPerLane() throws Exception {
+        List<String> ids = Arrays.asList("cfg-0", "cfg-1", "cfg-2", "cfg-3", "cfg-4", "cfg-5");
+        List<String> withDuplicates = new ArrayList<>(ids);
+        withDuplicates.add("cfg-1");
+        withDuplicates.add("cfg-5");
+        
+        client.watchConfigs("ns", "group", withDuplicates, configListener);
+        waitFor(() -> watchedIds(0, "group").size() >= ids.size());
+        
+        List<String> sent = watchedIds(0, "group");
+        assertEquals(ids.size(), sent.size(), "duplicates sent: " + sent);
+        assertEquals(new HashSet<>(ids), new HashSet<>(sent));
+        assertEquals(STREAM_POOL_SIZE - 1, assertOneRequestPerGroup(ClientMessageType.CLIENT_WATCH_CONFIG, 0));
+        assertEquals(1, client.getActiveWatches().size());
+    }
+    
+    @Test
+    public void testUnsubscribeReleasesEveryKey() {
+        String first = client.subscribeServices("ns", "group", Arrays.asList("a", "b"), serviceListener);
+        String second = client.subscribeServices("ns", "group", Arrays.asList("b", "c"), serviceListener);
+        
+        // 取消第一个订阅：只被它引用的 a 被释放，b 仍被第二个订阅引用
+        client.unsubscribe(first);
+        assertNull(client.getServiceInstanceCache().entry("ns", "group", "a"));
+        assertNotNull(client.getServiceInstanceCache().entry("ns", "group", "b"));
+        assertNotNull(client.getServiceInstanceCache().entry("ns", "group", "c"));
+        assertEquals(Collections.singletonList(second), client.getActiveSubscriptions());
+        
+        client.unsubscribe(second);
+        assertNull(client.getServiceInstanceCache().entry("ns", "group", "b"));
+        assertNull(client.getServiceInstanceCache().entry("ns", "group", "c"));
+        assertTrue(client.getActiveSubscriptions().isEmpty());
+    }
+    
+    @Test
+    public void testRestoreSendsOneMergedRequestPerGroup() throws Exception {
+        client.subscribeServices("ns", "g1", Arrays.asList("a", "b"), serviceListener);
+        client.subscribeService("ns", "g1", "c", serviceListener);
+        client.subscribeServices("ns", "g2", Arrays.asList("d", "e"), serviceListener);
+        client.unsubscribe(client.subscribeServices("ns", "g1", Arrays.asList("x", "y"), serviceListener));
+        client.watchConfigs("ns", "g1", Arrays.asList("w1", "w2"), configListener);
+        client.watchConfig("ns", "g1", "w3", configListener);
+        client.watchConfigs("ns", "g2", Arrays.asList("w4", "w5"), configListener);
+        
+        Map<Integer, RestoreProgress> before = new HashMap<>();
+        for (int i = 0; i < STREAM_POOL_SIZE; i++) {
+            before.put(i, client.getRestoreProgress(i));
+        }
+        int fromConnection = server.connections().size();
+        server.dropConnections();
+        
+        // 等待所有流重连并完成状态恢复
+        waitFor(() -> {
+            for (int i = 0; i < STREAM_POOL_SIZE; i++) {
+                RestoreProgress progress = client.getRestoreProgress(i);
+                if (progress == null || progress == before.get(i) || !progress.isDone()) {
+                    return false;
+                }
+            }
+            return true;
+        });
+        waitFor(() -> subscribedNames(fromConnection, "g1").size() >= 3 && subscribedNames(fromConnection, "g2").size() >= 2
+                && watchedIds(fromConnection, "g1").size() >= 3 && watchedIds(fromConnection, "g2").size() >= 2);
+        
+        // 同一分组的多个订阅/监听合并，每条流每个分组只发一条消息；已取消的订阅不再恢复
+        assertEquals(new HashSet<>(Arrays.asList("a", "b", "c")), new HashSet<>(subscribedNames(fromConnection, "g1")));
+        assertEquals(new HashSet<>(Arrays.asList("d", "e")), new HashSet<>(subscribedNames(fromConnection, "g2")));
+        assertEquals(new HashSet<>(Arrays.asList("w1", "w2", "w3")), new HashSet<>(watchedIds(fromConnection, "g1")));
+        assertEquals(new HashSet<>(Arrays.asList("w4", "w5")), new HashSet<>(watchedIds(fromConnection, "g2")));
+        assertEquals(3, subscribedNames(fromConnection, "g1").size());
+        assertEquals(3, watchedIds(fromConnection, "g1").size());
+        int subscribeMessages = assertOneRequestPerGroup(ClientMessageType.CLIENT_SUBSCRIBE_SERVICES, fromConnection);
+        int watchMessages = assertOneRequestPerGroup(ClientMessageType.CLIENT_WATCH_CONFIG, fromConnection);
+        
+        int subscribeBatches = 0;
+        int watchBatches = 0;
+        for (int i = 0; i < STREAM_POOL_SIZE; i++) {
+            subscribeBatches += client.getRestoreProgress(i).getSubscribeBatches();
+            watchBatches += client.getRestoreProgress(i).getWatchBatches();
+        }
+        assertEquals(subscribeMessages, subscribeBatches);
+        assertEquals(watchMessages, watchBatches);
+    }
+    
+    /**
+     * 检查指定流之后（含）建立的每条流上，每个 (namespaceId, groupName) 至多收到一条该类消息
+     * 
+     * @return 该类消息的总数
+     */
+    private int assertOneRequestPerGroup(ClientMessageType type, int fromConnection) {
+        int total = 0;
+        List<FakeStreamServer.Connection> connections = server.connections();
+        for (int i = fromConnection; i < connections.size(); i++) {
+            Set<String> groups = new HashSet<>();
+            for (ClientMessage message : connections.get(i).messages(type)) {
+                String group = type == ClientMessageType.CLIENT_SUBSCRIBE_SERVICES
+                        ? message.getSubscribeServices().getNamespaceId() + "/" + message.getSubscribeServices().getGroupName()
+                        : message.getWatchConfig().getNamespaceId() + "/" + message.getWatchConfig().getGroupName();
+                assertTrue(groups.add(group), "more than one " + type + " for " + group + " on stream " + i);
+                total++;
+            }
+        }
+        return total;
+    }
+    
+    private List<String> subscribedNames(int fromConnection, String groupName) {
+        List<String> names = new ArrayList<>();
+        for (ClientMessage message : server.messages(ClientMessageType.CLIENT_SUBSCRIBE_SERVICES, fromConnection)) {
+            RegistryProto.SubscribeServicesRequest request = message.getSubscribeServices();
+            if (request.getGroupName().equals(groupName)) {
+                names.addAll(request.getServiceNamesList());
+            }
+        }
+        return names;
+    }
+    
+    private List<String> watchedIds(int fromConnection, String groupName) {
+        List<String> ids = new ArrayList<>();
+        for (ClientMessage message : server.messages(ClientMessageType.CLIENT_WATCH_CONFIG, fromConnection)) {
+            ConfigProto.WatchConfigRequest request = message.getWatchConfig();
+            if (request.getGroupName().equals(groupName)) {
+                ids.addAll(request.getConfigDataIdsList());
+            }
+        }
+        return ids;
+    }
+    
+    private static void waitFor(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10000;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline) {
+                fail("Condition not met within 10000ms");
+            }
+            Thread.sleep(10);
+        }
+    }
+}
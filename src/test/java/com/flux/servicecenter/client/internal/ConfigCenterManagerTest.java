@@ -0,0 +1,138 @@
+package com.flux.servicecenter.client.internal;
+
+import com.flux.servicecenter.config.ConfigCenterGrpc;
+import com.flux.servicecenter.config.ConfigProto;
+import com.flux.servicecenter.config.ServiceCenterConfig;
+import com.flux.servicecenter.listener.ConfigChangeListener;
+import com.flux.servicecenter.model.ConfigChangeEvent;
+import io.grpc.Grpc;
+import io.grpc.InsecureServerCredentials;
+import io.grpc.ManagedChannel;
+import io.grpc.Server;
+import io.grpc.stub.StreamObserver;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+/**
+ * ConfigCenterManager 测试类
+ * 
+ * @author shangjian
+ */
+public class ConfigCenterManagerTest {
+    
+    /** 远大于测试等待时间的重连间隔，只有 Channel 恢复 READY 的快速路径能让重连及时发生 */
+    private static final long RECONNECT_INTERVAL_MS = 20000;
+    
+    private final AtomicInteger watchCalls = new AtomicInteger();
+    
+    private ScheduledExecutorService executor;
+    private Server server;
+    private ConnectionManager connectionManager;
+    private ConfigCenterManager configManager;
+    private ManagedChannel initialChannel;
+    
+    @BeforeEach
+    public void setUp() {
+        executor = Executors.newScheduledThreadPool(2);
+    }
+    
+    @AfterEach
+    public void tearDown() {
+        if (configManager != null) {
+            configManager.close();
+        }
+        if (connectionManager != null) {
+            connectionManager.close();
+        }
+        if (initialChannel != null) {
+            initialChannel.shutdownNow();
+        }
+        if (server != null) {
+            server.shutdownNow();
+        }
+        executor.shutdownNow();
+    }
+    
+    @Test
+    public void testWatchReconnectsWhenChannelRecoversWhileMarkedDisconnected() throws Exception {
+        server = startServer(0);
+        int port = server.getPort();
+        
+        ServiceCenterConfig config = new ServiceCenterConfig()
+                .setServerAddress("localhost:" + port)
+                .setReconnectInterval(RECONNECT_INTERVAL_MS)
+                .setMaxReconnectAttempts(3);
+        connectionManager = new ConnectionManager(config, executor);
+        connectionManager.connect();
+        initialChannel = connectionManager.peekChannel();
+        configManager = new ConfigCenterManager(config, connectionManager, executor);
+        configManager.initializeStubs();
+        
+        CountDownLatch disconnected = new CountDownLatch(1);
+        CountDownLatch reconnected = new CountDownLatch(1);
+        configManager.watchConfig("ns", "group", Collections.singletonList("app.yaml"), new ConfigChangeListener() {
+            @Override
+            public void onConfigChange(ConfigChangeEvent event) {
+            }
+            
+            @Override
+            public void onDisconnected(Throwable cause) {
+                disconnected.countDown();
+            }
+            
+            @Override
+            public void onReconnected() {
+                reconnected.countDown();
+            }
+        });
+        waitFor(() -> watchCalls.get() == 1, 5000);
+        
+        // 模拟健康检查/心跳发现断线：连接标志已清除，但 Channel 仍在自行重连
+        connectionManager.markDisconnected();
+        server.shutdownNow();
+        server.awaitTermination(5, TimeUnit.SECONDS);
+        assertTrue(disconnected.await(5, TimeUnit.SECONDS));
+        assertSame(initialChannel, configManager.currentChannel(), "Channel must be watched while marked disconnected");
+        
+        server = startServer(port);
+        
+        assertTrue(reconnected.await(10, TimeUnit.SECONDS), "Watch should be restored without waiting the full backoff");
+        waitFor(() -> watchCalls.get() == 2, 5000);
+        assertTrue(connectionManager.isConnected());
+    }
+    
+    private Server startServer(int port) throws IOException {
+        return Grpc.newServerBuilderForPort(port, InsecureServerCredentials.create())
+                .addService(new ConfigCenterGrpc.ConfigCenterImplBase() {
+                    @Override
+                    public void watchConfig(ConfigProto.WatchConfigRequest request,
+                                            StreamObserver<ConfigProto.ConfigChangeEvent> responseObserver) {
+                        // 保持流打开，直到服务端关闭
+                        watchCalls.incrementAndGet();
+                    }
+                })
+                .build()
+                .start();
+    }
+    
+    private static void waitFor(BooleanSupplier condition, long timeoutMs) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMs;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline) {
+                fail("Condition not met within " + timeoutMs + "ms");
+            }
+            Thread.sleep(10);
+        }
+    }
+}
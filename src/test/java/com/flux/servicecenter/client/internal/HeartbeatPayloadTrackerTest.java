@@ -0,0 +1,103 @@
+package com.flux.servicecenter.client.internal;
+
+import com.flux.servicecenter.model.NodeInfo;
+import com.flux.servicecenter.registry.RegistryProto;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.HashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * HeartbeatPayloadTracker 测试类
+ * 
+ * @author shangjian
+ */
+public class HeartbeatPayloadTrackerTest {
+    
+    private final AtomicInteger builds = new AtomicInteger();
+    
+    private final Function<NodeInfo, RegistryProto.HeartbeatRequest> fullBuilder = nodeInfo -> {
+        builds.incrementAndGet();
+        return RegistryProto.HeartbeatRequest.newBuilder()
+                .setNodeId(nodeInfo.getNodeId())
+                .setService(RegistryProto.Service.newBuilder()
+                        .setServiceName(nodeInfo.getServiceName())
+                        .build())
+                .build();
+    };
+    
+    private static NodeInfo node() {
+        NodeInfo nodeInfo = new NodeInfo();
+        nodeInfo.setNodeId("node-1");
+        nodeInfo.setServiceName("user-service");
+        nodeInfo.setIpAddress("192.168.1.100");
+        nodeInfo.setPortNumber(8080);
+        nodeInfo.setMetadata(new HashMap<>());
+        return nodeInfo;
+    }
+    
+    @Test
+    public void testFullPayloadEveryNthBeat() {
+        HeartbeatPayloadTracker tracker = new HeartbeatPayloadTracker(3);
+        NodeInfo nodeInfo = node();
+        
+        assertTrue(tracker.next("node-1", nodeInfo, fullBuilder).hasService());
+        assertFalse(tracker.next("node-1", nodeInfo, fullBuilder).hasService());
+        assertFalse(tracker.next("node-1", nodeInfo, fullBuilder).hasService());
+        assertTrue(tracker.next("node-1", nodeInfo, fullBuilder).hasService());
+        assertFalse(tracker.next("node-1", nodeInfo, fullBuilder).hasService());
+        
+        assertEquals("node-1", tracker.next("node-1", nodeInfo, fullBuilder).getNodeId());
+        assertEquals(2, tracker.getFullCount());
+        assertEquals(4, tracker.getDeltaCount());
+        // 节点未变化时完整请求只构建一次
+        assertEquals(1, builds.get());
+    }
+    
+    @Test
+    public void testChangedNodeSendsFullPayload() {
+        HeartbeatPayloadTracker tracker = new HeartbeatPayloadTracker(100);
+        NodeInfo nodeInfo = node();
+        tracker.next("node-1", nodeInfo, fullBuilder);
+        assertFalse(tracker.next("node-1", nodeInfo, fullBuilder).hasService());
+        
+        nodeInfo.getMetadata().put("version", "2.0");
+        assertTrue(tracker.next("node-1", nodeInfo, fullBuilder).hasService());
+        assertEquals(2, builds.get());
+        
+        nodeInfo.setWeight(50);
+        assertTrue(tracker.next("node-1", nodeInfo, fullBuilder).hasService());
+        assertFalse(tracker.next("node-1", nodeInfo, fullBuilder).hasService());
+    }
+    
+    @Test
+    public void testInvalidateForcesFullPayload() {
+        HeartbeatPayloadTracker tracker = new HeartbeatPayloadTracker(100);
+        NodeInfo nodeInfo = node();
+        tracker.next("node-1", nodeInfo, fullBuilder);
+        
+        tracker.invalidate("node-1");
+        assertTrue(tracker.next("node-1", nodeInfo, fullBuilder).hasService());
+        assertFalse(tracker.next("node-1", nodeInfo, fullBuilder).hasService());
+        
+        tracker.invalidateAll();
+        assertTrue(tracker.next("node-1", nodeInfo, fullBuilder).hasService());
+        
+        tracker.remove("node-1");
+        assertTrue(tracker.next("node-1", nodeInfo, fullBuilder).hasService());
+        // 失效只需要重新发送缓存的完整请求，移除后才重新构建
+        assertEquals(2, builds.get());
+    }
+    
+    @Test
+    public void testIntervalOfOneAlwaysSendsFullPayload() {
+        HeartbeatPayloadTracker tracker = new HeartbeatPayloadTracker(1);
+        NodeInfo nodeInfo = node();
+        for (int i = 0; i < 5; i++) {
+            assertTrue(tracker.next("node-1", nodeInfo, fullBuilder).hasService());
+        }
+        assertFalse(tracker.next("node-2", null, fullBuilder).hasService());
+    }
+}
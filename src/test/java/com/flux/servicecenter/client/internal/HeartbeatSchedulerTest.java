@@ -0,0 +1,328 @@
+package com.flux.servicecenter.client.internal;
+
+import com.flux.servicecenter.model.OperationResult;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * HeartbeatScheduler 测试类
+ * 
+ * @author shangjian
+ */
+public class HeartbeatSchedulerTest {
+    
+    /** 不真正调度 tick，由测试手动推进 */
+    private final ScheduledThreadPoolExecutor manualTimer = new ScheduledThreadPoolExecutor(1) {
+        @Override
+        public ScheduledFuture<?> scheduleAtFixedRate(Runnable command, long initialDelay, long period, TimeUnit unit) {
+            return null;
+        }
+    };
+    
+    private final Map<String, AtomicInteger> beats = new ConcurrentHashMap<>();
+    
+    @AfterEach
+    public void tearDown() {
+        manualTimer.shutdownNow();
+    }
+    
+    private CompletableFuture<OperationResult> succeed(String nodeId) {
+        beats.computeIfAbsent(nodeId, k -> new AtomicInteger()).incrementAndGet();
+        OperationResult result = new OperationResult();
+        result.setSuccess(true);
+        return CompletableFuture.completedFuture(result);
+    }
+    
+    private int beats(String nodeId) {
+        AtomicInteger count = beats.get(nodeId);
+        return count == null ? 0 : count.get();
+    }
+    
+    private static void tick(HeartbeatScheduler scheduler, int times) {
+        for (int i = 0; i < times; i++) {
+            scheduler.tick();
+        }
+    }
+    
+    @Test
+    public void testBeatsOncePerInterval() {
+        // 100ms 间隔 -> 10 个槽
+        HeartbeatScheduler scheduler = new HeartbeatScheduler("test", manualTimer, 100, this::succeed);
+        scheduler.add("node-1");
+        
+        // 第一次心跳在一个间隔内，之后每个间隔一次
+        tick(scheduler, 10);
+        assertEquals(1, beats("node-1"));
+        tick(scheduler, 30);
+        assertEquals(4, beats("node-1"));
+        assertEquals(4, scheduler.getSentCount());
+    }
+    
+    @Test
+    public void testImmediateFirstBeat() {
+        HeartbeatScheduler scheduler = new HeartbeatScheduler("test", manualTimer, 100, this::succeed);
+        tick(scheduler, 3);
+        scheduler.add("node-1", 0);
+        
+        tick(scheduler, 1);
+        assertEquals(1, beats("node-1"));
+    }
+    
+    @Test
+    public void testManyNodesShareOneTimer() {
+        HeartbeatScheduler scheduler = new HeartbeatScheduler("test", manualTimer, 1000, this::succeed);
+        for (int i = 0; i < 2000; i++) {
+            scheduler.add("node-" + i);
+            scheduler.tick();
+        }
+        assertEquals(2000, scheduler.getNodeCount());
+        
+        long before = scheduler.getSentCount();
+        tick(scheduler, 100);
+        assertEquals(2000, scheduler.getSentCount() - before);
+    }
+    
+    @Test
+    public void testSkipsWhilePreviousBeatInFlight() {
+        CompletableFuture<OperationResult> pending = new CompletableFuture<>();
+        AtomicInteger sent = new AtomicInteger();
+        HeartbeatScheduler scheduler = new HeartbeatScheduler("test", manualTimer, 100, nodeId -> {
+            sent.incrementAndGet();
+            return pending;
+        });
+        scheduler.add("node-1", 0);
+        
+        tick(scheduler, 21);
+        assertEquals(1, sent.get());
+        assertEquals(2, scheduler.getSkippedCount());
+        
+        OperationResult result = new OperationResult();
+        result.setSuccess(false);
+        pending.complete(result);
+        assertEquals(1, scheduler.getFailedCount());
+        tick(scheduler, 10);
+        assertEquals(2, sent.get());
+    }
+    
+    @Test
+    public void testRemoveAndNotReady() {
+        AtomicBoolean ready = new AtomicBoolean(false);
+        HeartbeatScheduler scheduler = new HeartbeatScheduler("test", manualTimer, 100, this::succeed, ready::get, 0);
+        scheduler.add("node-1", 0);
+        scheduler.add("node-2", 0);
+        
+        tick(scheduler, 10);
+        assertEquals(0, beats("node-1"));
+        
+        ready.set(true);
+        scheduler.remove("node-2");
+        tick(scheduler, 10);
+        assertEquals(1, beats("node-1"));
+        assertEquals(0, beats("node-2"));
+        assertFalse(scheduler.contains("node-2"));
+        
+        scheduler.stop();
+        tick(scheduler, 10);
+        assertEquals(1, beats("node-1"));
+        assertEquals(0, scheduler.getNodeCount());
+    }
+    
+    @Test
+    public void testSenderExceptionDoesNotStopScheduler() {
+        AtomicInteger calls = new AtomicInteger();
+        HeartbeatScheduler scheduler = new HeartbeatScheduler("test", manualTimer, 100, nodeId -> {
+            calls.incrementAndGet();
+            throw new IllegalStateException("not connected");
+        });
+        scheduler.add("node-1", 0);
+        
+        tick(scheduler, 11);
+        assertEquals(2, calls.get());
+        assertEquals(2, scheduler.getFailedCount());
+    }
+    
+    @Test
+    public void testBatchesDueNodesIntoOneFrame() {
+        HeartbeatScheduler scheduler = new HeartbeatScheduler("test", manualTimer, 100, this::succeed);
+        List<List<String>> frames = new ArrayList<>();
+        scheduler.setBatchSender(nodeIds -> {
+            frames.add(nodeIds);
+            return CompletableFuture.completedFuture(Collections.singletonMap("node-2", "unknown node"));
+        });
+        for (int i = 0; i < 3; i++) {
+            scheduler.add("node-" + i, 0);
+        }
+        
+        tick(scheduler, 1);
+        assertEquals(1, frames.size());
+        assertEquals(3, frames.get(0).size());
+        assertTrue(beats.isEmpty(), "no per-node heartbeats are sent");
+        assertEquals(3, scheduler.getSentCount());
+        assertEquals(1, scheduler.getBatchCount());
+        assertEquals(1, scheduler.getFailedCount());
+        
+        // 批量心跳返回后节点可以再次发送
+        tick(scheduler, 10);
+        assertEquals(2, frames.size());
+    }
+    
+    @Test
+    public void testLargeBucketIsSplitIntoFrames() {
+        HeartbeatScheduler scheduler = new HeartbeatScheduler("test", manualTimer, 100, this::succeed);
+        List<Integer> frameSizes = new ArrayList<>();
+        scheduler.setBatchSender(nodeIds -> {
+            frameSizes.add(nodeIds.size());
+            return CompletableFuture.completedFuture(Collections.emptyMap());
+        });
+        for (int i = 0; i < HeartbeatScheduler.MAX_BATCH_SIZE + 1; i++) {
+            scheduler.add("node-" + i, 0);
+        }
+        
+        tick(scheduler, 1);
+        // 最后只剩一个节点时按单个心跳发送
+        assertEquals(List.of(HeartbeatScheduler.MAX_BATCH_SIZE), frameSizes);
+        assertEquals(1, beats.size());
+        assertEquals(HeartbeatScheduler.MAX_BATCH_SIZE + 1, scheduler.getSentCount());
+    }
+    
+    @Test
+    public void testFallsBackWhenBatchUnsupported() {
+        HeartbeatScheduler scheduler = new HeartbeatScheduler("test", manualTimer, 100, this::succeed);
+        scheduler.setBatchSender(nodeIds -> null);
+        scheduler.add("node-1", 0);
+        scheduler.add("node-2", 0);
+        
+        tick(scheduler, 1);
+        assertEquals(1, beats("node-1"));
+        assertEquals(1, beats("node-2"));
+        assertEquals(0, scheduler.getBatchCount());
+        assertEquals(2, scheduler.getSentCount());
+    }
+    
+    @Test
+    public void testFailedBatchCountsAllNodes() {
+        CompletableFuture<Map<String, String>> pending = new CompletableFuture<>();
+        HeartbeatScheduler scheduler = new HeartbeatScheduler("test", manualTimer, 100, this::succeed);
+        scheduler.setBatchSender(nodeIds -> pending);
+        scheduler.add("node-1", 0);
+        scheduler.add("node-2", 0);
+        
+        tick(scheduler, 11);
+        assertEquals(2, scheduler.getSkippedCount());
+        pending.completeExceptionally(new IllegalStateException("stream closed"));
+        assertEquals(2, scheduler.getFailedCount());
+    }
+    
+    @Test
+    public void testPhaseIsStableAcrossReAdd() {
+        HeartbeatScheduler scheduler = new HeartbeatScheduler("test", manualTimer, 100, this::succeed);
+        scheduler.add("node-1");
+        int first = tickUntilBeat(scheduler, "node-1", 0);
+        
+        // 移除后在另一个时刻重新添加（如重连），仍落在原来的槽
+        scheduler.remove("node-1");
+        tick(scheduler, 3);
+        scheduler.add("node-1");
+        int second = tickUntilBeat(scheduler, "node-1", first + 4);
+        assertEquals(first % 10, second % 10);
+    }
+    
+    /**
+     * 推进 tick 直到节点发出心跳，返回发出心跳的 tick 序号
+     */
+    private int tickUntilBeat(HeartbeatScheduler scheduler, String nodeId, int startTick) {
+        int before = beats(nodeId);
+        for (int i = 0; i < 10; i++) {
+            scheduler.tick();
+            if (beats(nodeId) > before) {
+                return startTick + i;
+            }
+        }
+        throw new AssertionError(nodeId + " did not beat within one interval");
+    }
+    
+    @Test
+    public void testJitterKeepsAverageInterval() {
+        HeartbeatScheduler scheduler = new HeartbeatScheduler("test", manualTimer, 1000, this::succeed, () -> true, 0.2);
+        scheduler.add("node-1");
+        
+        List<Integer> beatTicks = new ArrayList<>();
+        for (int i = 0; i < 100 * 50; i++) {
+            int before = beats("node-1");
+            scheduler.tick();
+            if (beats("node-1") > before) {
+                beatTicks.add(i);
+            }
+        }
+        // 100 个槽，抖动 ±20 个槽：相邻心跳间隔在 [60, 140] 之间，平均约 100
+        for (int i = 1; i < beatTicks.size(); i++) {
+            int gap = beatTicks.get(i) - beatTicks.get(i - 1);
+            assertTrue(gap >= 60 && gap <= 140, "gap: " + gap);
+        }
+        assertTrue(beatTicks.size() >= 48 && beatTicks.size() <= 52, "beats: " + beatTicks.size());
+    }
+    
+    /**
+     * 模拟 3 个客户端各 1000 个节点在同一时刻（如服务端重启后）重新添加，统计服务端每个 tick 收到的心跳数
+     */
+    @Test
+    public void testSimulatedArrivalDistribution() {
+        int clients = 3;
+        int nodesPerClient = 1000;
+        int buckets = 100;
+        int intervals = 5;
+        int[] arrivals = new int[buckets * intervals];
+        AtomicInteger now = new AtomicInteger();
+        
+        List<HeartbeatScheduler> schedulers = new ArrayList<>();
+        for (int c = 0; c < clients; c++) {
+            HeartbeatScheduler scheduler = new HeartbeatScheduler("client-" + c, manualTimer, buckets * 10L, nodeId -> {
+                arrivals[now.get()]++;
+                OperationResult result = new OperationResult();
+                result.setSuccess(true);
+                return CompletableFuture.completedFuture(result);
+            }, () -> true, 0.1);
+            for (int n = 0; n < nodesPerClient; n++) {
+                scheduler.add("client-" + c + "-node-" + n);
+            }
+            schedulers.add(scheduler);
+        }
+        
+        for (int t = 0; t < arrivals.length; t++) {
+            now.set(t);
+            for (HeartbeatScheduler scheduler : schedulers) {
+                scheduler.tick();
+            }
+        }
+        
+        // 稳定后（第 2 个间隔起）每个 tick 平均 30 个心跳，没有同步的波峰，也没有空档
+        int total = 0;
+        int peak = 0;
+        int trough = Integer.MAX_VALUE;
+        for (int t = buckets; t < arrivals.length; t++) {
+            total += arrivals[t];
+            peak = Math.max(peak, arrivals[t]);
+            trough = Math.min(trough, arrivals[t]);
+        }
+        double mean = (double) total / (arrivals.length - buckets);
+        String distribution = String.format("mean=%.1f, peak=%d, trough=%d", mean, peak, trough);
+        assertEquals(clients * nodesPerClient, mean * buckets, clients * nodesPerClient * 0.05, distribution);
+        assertTrue(peak <= mean * 2, distribution);
+        assertTrue(trough > 0, distribution);
+        // 未分散时所有节点的心跳会落在同一个 tick
+        assertTrue(peak < clients * nodesPerClient / 10, distribution);
+    }
+}
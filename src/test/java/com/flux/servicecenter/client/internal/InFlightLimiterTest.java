@@ -0,0 +1,232 @@
+package com.flux.servicecenter.client.internal;
+
+import com.flux.servicecenter.config.ServiceCenterConfig.AdmissionPolicy;
+import com.flux.servicecenter.stream.StreamProto.ClientMessageType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * InFlightLimiter 测试类
+ * 
+ * @author shangjian
+ */
+public class InFlightLimiterTest {
+    
+    private final RequestTimeoutWheel wheel = new RequestTimeoutWheel("test-admission-timeout", 5, 8);
+    
+    @AfterEach
+    public void tearDown() {
+        wheel.stop();
+    }
+    
+    private InFlightLimiter limiter(int max, Map<ClientMessageType, Integer> typeLimits, AdmissionPolicy policy, boolean adaptive) {
+        return new InFlightLimiter(max, typeLimits, policy, 100, adaptive, wheel);
+    }
+    
+    @Test
+    public void testRejectWhenGlobalLimitReached() {
+        InFlightLimiter limiter = limiter(2, Collections.emptyMap(), AdmissionPolicy.REJECT, false);
+        
+        CompletableFuture<InFlightLimiter.Permit> first = limiter.acquire(ClientMessageType.CLIENT_GET_CONFIG, 1000);
+        CompletableFuture<InFlightLimiter.Permit> second = limiter.acquire(ClientMessageType.CLIENT_DISCOVER_NODES, 1000);
+        CompletableFuture<InFlightLimiter.Permit> third = limiter.acquire(ClientMessageType.CLIENT_GET_CONFIG, 1000);
+        
+        assertTrue(first.isDone() && !first.isCompletedExceptionally());
+        assertTrue(second.isDone() && !second.isCompletedExceptionally());
+        ExecutionException e = assertThrows(ExecutionException.class, third::get);
+        assertTrue(e.getCause() instanceof RejectedExecutionException);
+        assertEquals(2, limiter.getInFlightCount());
+        assertEquals(1, limiter.getRejectedCount());
+        
+        first.join().success();
+        assertEquals(1, limiter.getInFlightCount());
+        assertTrue(limiter.acquire(ClientMessageType.CLIENT_GET_CONFIG, 1000).isDone());
+    }
+    
+    @Test
+    public void testLivenessTypesBypassGlobalLimit() {
+        InFlightLimiter limiter = limiter(2, Collections.emptyMap(), AdmissionPolicy.REJECT, false);
+        limiter.acquire(ClientMessageType.CLIENT_GET_CONFIG, 1000).join();
+        limiter.acquire(ClientMessageType.CLIENT_DISCOVER_NODES, 1000).join();
+        
+        // 读请求占满全局上限后，心跳和节点注册/注销仍然立即获得许可，且不占用全局额度
+        InFlightLimiter.Permit heartbeat = limiter.acquire(ClientMessageType.CLIENT_HEARTBEAT, 1000).join();
+        InFlightLimiter.Permit batch = limiter.acquire(ClientMessageType.CLIENT_BATCH_HEARTBEAT, 1000).join();
+        InFlightLimiter.Permit register = limiter.acquire(ClientMessageType.CLIENT_REGISTER_NODE, 1000).join();
+        InFlightLimiter.Permit unregister = limiter.acquire(ClientMessageType.CLIENT_UNREGISTER_NODE, 1000).join();
+        assertEquals(2, limiter.getInFlightCount());
+        assertEquals(0, limiter.getRejectedCount());
+        assertTrue(limiter.acquire(ClientMessageType.CLIENT_GET_CONFIG, 1000).isCompletedExceptionally());
+        
+        // 释放存活类许可不会腾出读请求的额度
+        heartbeat.success();
+        batch.success();
+        register.success();
+        unregister.success();
+        assertEquals(2, limiter.getInFlightCount());
+        assertTrue(limiter.acquire(ClientMessageType.CLIENT_GET_CONFIG, 1000).isCompletedExceptionally());
+    }
+    
+    @Test
+    public void testExemptTypeStillHonorsTypeLimit() throws Exception {
+        Map<ClientMessageType, Integer> typeLimits = new EnumMap<>(ClientMessageType.class);
+        typeLimits.put(ClientMessageType.CLIENT_HEARTBEAT, 1);
+        InFlightLimiter limiter = limiter(1, typeLimits, AdmissionPolicy.QUEUE, false);
+        
+        limiter.acquire(ClientMessageType.CLIENT_GET_CONFIG, 1000).join();
+        CompletableFuture<InFlightLimiter.Permit> queuedRead = limiter.acquire(ClientMessageType.CLIENT_GET_CONFIG, 1000);
+        InFlightLimiter.Permit heartbeat = limiter.acquire(ClientMessageType.CLIENT_HEARTBEAT, 1000).join();
+        CompletableFuture<InFlightLimiter.Permit> queuedHeartbeat = limiter.acquire(ClientMessageType.CLIENT_HEARTBEAT, 1000);
+        assertFalse(queuedHeartbeat.isDone());
+        assertEquals(2, limiter.getQueuedCount());
+        
+        // 心跳许可释放后排队的心跳立即获得许可，不被占满全局上限的读请求挡住
+        heartbeat.success();
+        assertNotNull(queuedHeartbeat.get(1, TimeUnit.SECONDS));
+        assertFalse(queuedRead.isDone());
+        assertEquals(1, limiter.getQueuedCount());
+    }
+    
+    @Test
+    public void testPermitReleasedOnlyOnce() {
+        InFlightLimiter limiter = limiter(1, Collections.emptyMap(), AdmissionPolicy.REJECT, false);
+        InFlightLimiter.Permit permit = limiter.acquire(ClientMessageType.CLIENT_GET_CONFIG, 1000).join();
+        
+        permit.success();
+        permit.ignore();
+        assertEquals(0, limiter.getInFlightCount());
+    }
+    
+    @Test
+    public void testTypeLimitDoesNotBlockOtherTypes() throws Exception {
+        Map<ClientMessageType, Integer> typeLimits = new EnumMap<>(ClientMessageType.class);
+        typeLimits.put(ClientMessageType.CLIENT_GET_CONFIG_HISTORY, 1);
+        InFlightLimiter limiter = limiter(10, typeLimits, AdmissionPolicy.QUEUE, false);
+        
+        InFlightLimiter.Permit history = limiter.acquire(ClientMessageType.CLIENT_GET_CONFIG_HISTORY, 1000).join();
+        CompletableFuture<InFlightLimiter.Permit> queuedHistory = limiter.acquire(ClientMessageType.CLIENT_GET_CONFIG_HISTORY, 1000);
+        CompletableFuture<InFlightLimiter.Permit> config = limiter.acquire(ClientMessageType.CLIENT_GET_CONFIG, 1000);
+        
+        assertFalse(queuedHistory.isDone());
+        assertTrue(config.isDone());
+        assertEquals(1, limiter.getQueuedCount());
+        
+        history.success();
+        assertNotNull(queuedHistory.get(1, TimeUnit.SECONDS));
+        assertEquals(0, limiter.getQueuedCount());
+        assertEquals(2, limiter.getInFlightCount());
+    }
+    
+    @Test
+    public void testGrantCompletesOnReleasingThreadWithoutRecursion() {
+        int queued = 5000;
+        InFlightLimiter limiter = new InFlightLimiter(1, Collections.emptyMap(), AdmissionPolicy.QUEUE, queued, false, wheel);
+        InFlightLimiter.Permit first = limiter.acquire(ClientMessageType.CLIENT_GET_CONFIG, 10000).join();
+        
+        // 每个排队请求拿到许可后立即失败并释放（模拟发送即失败），链式发放不能递归加深调用栈
+        Thread releasing = Thread.currentThread();
+        AtomicInteger grantedOnReleasingThread = new AtomicInteger();
+        for (int i = 0; i < queued; i++) {
+            limiter.acquire(ClientMessageType.CLIENT_GET_CONFIG, 10000).thenAccept(permit -> {
+                if (Thread.currentThread() == releasing) {
+                    grantedOnReleasingThread.incrementAndGet();
+                }
+                permit.ignore();
+            });
+        }
+        
+        first.ignore();
+        assertEquals(queued, grantedOnReleasingThread.get());
+        assertEquals(0, limiter.getQueuedCount());
+        assertEquals(0, limiter.getInFlightCount());
+    }
+    
+    @Test
+    public void testQueuedRequestTimesOut() {
+        InFlightLimiter limiter = limiter(1, Collections.emptyMap(), AdmissionPolicy.QUEUE, false);
+        limiter.acquire(ClientMessageType.CLIENT_GET_CONFIG, 1000).join();
+        
+        CompletableFuture<InFlightLimiter.Permit> queued = limiter.acquire(ClientMessageType.CLIENT_GET_CONFIG, 30);
+        ExecutionException e = assertThrows(ExecutionException.class, () -> queued.get(2, TimeUnit.SECONDS));
+        assertTrue(e.getCause() instanceof TimeoutException);
+        assertEquals(0, limiter.getQueuedCount());
+        assertEquals(1, limiter.getQueueTimeoutCount());
+        assertEquals(1, limiter.getInFlightCount());
+    }
+    
+    @Test
+    public void testQueueFullRejects() {
+        InFlightLimiter limiter = new InFlightLimiter(1, Collections.emptyMap(), AdmissionPolicy.QUEUE, 1, false, wheel);
+        limiter.acquire(ClientMessageType.CLIENT_GET_CONFIG, 1000).join();
+        
+        assertFalse(limiter.acquire(ClientMessageType.CLIENT_GET_CONFIG, 1000).isDone());
+        CompletableFuture<InFlightLimiter.Permit> rejected = limiter.acquire(ClientMessageType.CLIENT_GET_CONFIG, 1000);
+        assertTrue(rejected.isCompletedExceptionally());
+        assertEquals(1, limiter.getRejectedCount());
+    }
+    
+    @Test
+    public void testFailWaiters() {
+        InFlightLimiter limiter = limiter(1, Collections.emptyMap(), AdmissionPolicy.QUEUE, false);
+        limiter.acquire(ClientMessageType.CLIENT_GET_CONFIG, 1000).join();
+        CompletableFuture<InFlightLimiter.Permit> queued = limiter.acquire(ClientMessageType.CLIENT_GET_CONFIG, 1000);
+        
+        limiter.failWaiters(new IllegalStateException("closed"));
+        ExecutionException e = assertThrows(ExecutionException.class, queued::get);
+        assertTrue(e.getCause() instanceof IllegalStateException);
+        assertEquals(0, limiter.getQueuedCount());
+    }
+    
+    @Test
+    public void testAdaptiveLimitDecreasesOnLatencyAndGrowsWhenHealthy() {
+        InFlightLimiter limiter = limiter(1000, Collections.emptyMap(), AdmissionPolicy.REJECT, true);
+        int initial = limiter.getCurrentLimit();
+        assertEquals(128, initial);
+        
+        // 建立 1ms 的最小 RTT 基线，并在上限用满一半以上时持续增长
+        InFlightLimiter.Permit[] permits = new InFlightLimiter.Permit[100];
+        for (int round = 0; round < 20; round++) {
+            for (int i = 0; i < permits.length; i++) {
+                permits[i] = limiter.acquire(ClientMessageType.CLIENT_GET_CONFIG, 1000).join();
+            }
+            for (InFlightLimiter.Permit permit : permits) {
+                limiter.release(permit, TimeUnit.MILLISECONDS.toNanos(1), InFlightLimiter.Outcome.SUCCESS);
+            }
+        }
+        int grown = limiter.getCurrentLimit();
+        assertTrue(grown > initial, "limit should grow: " + grown);
+        
+        // 延迟远高于基线时乘性减小
+        InFlightLimiter.Permit slow = limiter.acquire(ClientMessageType.CLIENT_GET_CONFIG, 1000).join();
+        limiter.release(slow, TimeUnit.MILLISECONDS.toNanos(50), InFlightLimiter.Outcome.SUCCESS);
+        assertTrue(limiter.getCurrentLimit() < grown, "limit should shrink: " + limiter.getCurrentLimit());
+        
+        // 与负载无关的失败不影响上限
+        int current = limiter.getCurrentLimit();
+        InFlightLimiter.Permit ignored = limiter.acquire(ClientMessageType.CLIENT_GET_CONFIG, 1000).join();
+        limiter.release(ignored, TimeUnit.SECONDS.toNanos(10), InFlightLimiter.Outcome.IGNORED);
+        assertEquals(current, limiter.getCurrentLimit());
+        assertEquals(0, limiter.getInFlightCount());
+    }
+    
+    @Test
+    public void testAdaptiveLimitNeverBelowMinimum() {
+        InFlightLimiter limiter = limiter(16, Collections.emptyMap(), AdmissionPolicy.REJECT, true);
+        for (int i = 0; i < 200; i++) {
+            InFlightLimiter.Permit permit = limiter.acquire(ClientMessageType.CLIENT_GET_CONFIG, 1000).join();
+            limiter.release(permit, 0, InFlightLimiter.Outcome.DROPPED);
+        }
+        assertEquals(4, limiter.getCurrentLimit());
+    }
+}
@@ -0,0 +1,60 @@
+package com.flux.servicecenter.client.internal;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Jitter 测试类
+ * 
+ * @author shangjian
+ */
+public class JitterTest {
+    
+    @Test
+    public void testPhaseIsDeterministicAndSpread() {
+        assertEquals(Jitter.phase("node-1", 1000), Jitter.phase("node-1", 1000));
+        
+        // 相邻的键（如自增的 nodeId）也均匀分散
+        int[] counts = new int[10];
+        for (int i = 0; i < 10000; i++) {
+            long phase = Jitter.phase("node-" + i, 10);
+            assertTrue(phase >= 0 && phase < 10);
+            counts[(int) phase]++;
+        }
+        for (int count : counts) {
+            assertTrue(count > 800 && count < 1200, "count: " + count);
+        }
+    }
+    
+    @Test
+    public void testApplyStaysWithinRatio() {
+        assertEquals(1000, Jitter.apply(1000, 0));
+        long min = Long.MAX_VALUE;
+        long max = Long.MIN_VALUE;
+        for (int i = 0; i < 10000; i++) {
+            long delay = Jitter.apply(1000, 0.1);
+            min = Math.min(min, delay);
+            max = Math.max(max, delay);
+        }
+        assertTrue(min >= 900 && min < 920, "min: " + min);
+        assertTrue(max <= 1100 && max > 1080, "max: " + max);
+        // 超过上限的比例按上限处理
+        assertTrue(Jitter.apply(1000, 2.0) >= 500);
+    }
+    
+    @Test
+    public void testDecorrelatedStaysWithinBounds() {
+        long previous = 100;
+        long max = 0;
+        for (int i = 0; i < 1000; i++) {
+            long delay = Jitter.decorrelated(100, previous, 5000);
+            assertTrue(delay >= 100 && delay <= Math.min(5000, previous * 3), "delay: " + delay);
+            max = Math.max(max, delay);
+            previous = delay;
+        }
+        // 多次重试后能够增长到上限附近
+        assertTrue(max > 4000, "max: " + max);
+        assertEquals(100, Jitter.decorrelated(100, 0, 5000));
+        assertEquals(100, Jitter.decorrelated(100, 100, 100));
+    }
+}
@@ -0,0 +1,114 @@
+package com.flux.servicecenter.client.internal;
+
+import com.flux.servicecenter.config.ServiceCenterConfig;
+import com.flux.servicecenter.stream.StreamProto.ClientMessageType;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * LatencyHistogram / LatencyTracker 测试类
+ * 
+ * @author shangjian
+ */
+public class LatencyHistogramTest {
+    
+    private static long ms(long millis) {
+        return TimeUnit.MILLISECONDS.toNanos(millis);
+    }
+    
+    @Test
+    public void testBucketBoundsCoverValues() {
+        for (long micros = 0; micros < 1_000_000; micros += 7) {
+            int index = LatencyHistogram.bucketIndex(micros);
+            assertTrue(LatencyHistogram.bucketUpperBound(index) >= micros, "micros=" + micros);
+            if (index > 0) {
+                assertTrue(LatencyHistogram.bucketUpperBound(index - 1) < micros, "micros=" + micros);
+            }
+        }
+        assertEquals(LatencyHistogram.BUCKET_COUNT - 1, LatencyHistogram.bucketIndex(Long.MAX_VALUE));
+    }
+    
+    @Test
+    public void testPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram(60_000, 6);
+        for (int i = 1; i <= 100; i++) {
+            histogram.record(ms(i));
+        }
+        
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+        assertEquals(100, snapshot.getCount());
+        assertEquals(50, snapshot.getPercentileMs(50), 50 * 0.125);
+        assertEquals(99, snapshot.getPercentileMs(99), 99 * 0.125);
+        assertEquals(100, snapshot.getMaxMs(), 0.001);
+        assertEquals(50.5, snapshot.getMeanMs(), 0.001);
+    }
+    
+    @Test
+    public void testOldSlotsExpire() {
+        LatencyHistogram histogram = new LatencyHistogram(1000, 4);
+        long start = TimeUnit.SECONDS.toNanos(100);
+        histogram.record(ms(500), start);
+        histogram.record(ms(5), start + ms(600));
+        
+        assertEquals(2, histogram.snapshot(start + ms(700)).getCount());
+        // 第一个样本所在片段已移出窗口
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot(start + ms(1100));
+        assertEquals(1, snapshot.getCount());
+        assertEquals(5, snapshot.getMaxMs(), 0.001);
+        assertEquals(0, histogram.snapshot(start + ms(5000)).getCount());
+    }
+    
+    @Test
+    public void testMerge() {
+        LatencyHistogram a = new LatencyHistogram(60_000, 6);
+        LatencyHistogram b = new LatencyHistogram(60_000, 6);
+        a.record(ms(1));
+        b.record(ms(100));
+        
+        LatencyHistogram.Snapshot merged = a.snapshot().merge(b.snapshot()).merge(LatencyHistogram.Snapshot.empty());
+        assertEquals(2, merged.getCount());
+        assertEquals(100, merged.getMaxMs(), 0.001);
+        assertEquals(0, LatencyHistogram.Snapshot.empty().getPercentileMs(99));
+    }
+    
+    @Test
+    public void testAdaptiveTimeout() {
+        ServiceCenterConfig config = new ServiceCenterConfig()
+                .setRequestTimeout(30000)
+                .setAdaptiveRequestTimeout(true)
+                .setAdaptiveTimeoutFactor(3.0)
+                .setMinRequestTimeout(100);
+        LatencyTracker tracker = new LatencyTracker(config);
+        
+        // 样本不足时使用 requestTimeout
+        assertEquals(30000, tracker.timeoutFor(ClientMessageType.CLIENT_GET_CONFIG));
+        
+        for (int i = 0; i < LatencyTracker.MIN_SAMPLES; i++) {
+            tracker.recordRequest(ClientMessageType.CLIENT_GET_CONFIG, ms(100));
+            tracker.recordRequest(ClientMessageType.CLIENT_DISCOVER_NODES, ms(10));
+        }
+        long configTimeout = tracker.computeTimeout(tracker.getRequestLatency(ClientMessageType.CLIENT_GET_CONFIG));
+        assertTrue(configTimeout >= 300 && configTimeout <= 340, "timeout: " + configTimeout);
+        // 低延迟类型受下限约束
+        assertEquals(100, tracker.computeTimeout(tracker.getRequestLatency(ClientMessageType.CLIENT_DISCOVER_NODES)));
+        // 其他类型互不影响
+        assertEquals(30000, tracker.timeoutFor(ClientMessageType.CLIENT_LIST_CONFIGS));
+        
+        for (int i = 0; i < 100; i++) {
+            tracker.recordRequest(ClientMessageType.CLIENT_GET_CONFIG, ms(60_000));
+        }
+        assertEquals(30000, tracker.computeTimeout(tracker.getRequestLatency(ClientMessageType.CLIENT_GET_CONFIG)));
+    }
+    
+    @Test
+    public void testAdaptiveTimeoutDisabled() {
+        LatencyTracker tracker = new LatencyTracker(new ServiceCenterConfig().setRequestTimeout(5000));
+        for (int i = 0; i < 100; i++) {
+            tracker.recordRequest(ClientMessageType.CLIENT_GET_CONFIG, ms(1));
+        }
+        assertEquals(5000, tracker.timeoutFor(ClientMessageType.CLIENT_GET_CONFIG));
+        assertEquals(100, tracker.getRequestLatency(ClientMessageType.CLIENT_GET_CONFIG).getCount());
+    }
+}
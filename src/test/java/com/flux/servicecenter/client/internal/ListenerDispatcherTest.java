@@ -0,0 +1,149 @@
+package com.flux.servicecenter.client.internal;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ListenerDispatcher 测试类
+ * 
+ * @author shangjian
+ */
+public class ListenerDispatcherTest {
+    
+    private final ExecutorService executor = Executors.newFixedThreadPool(4);
+    
+    @AfterEach
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+    
+    @Test
+    public void testEventsOfSameKeyAreOrdered() throws Exception {
+        ListenerDispatcher dispatcher = new ListenerDispatcher(executor, 10000, 4);
+        Object listener = new Object();
+        List<Integer> received = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch done = new CountDownLatch(1000);
+        
+        for (int i = 0; i < 1000; i++) {
+            int seq = i;
+            dispatcher.dispatch(listener, "ns/group/service", () -> {
+                received.add(seq);
+                done.countDown();
+            });
+        }
+        
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(i, received.get(i));
+        }
+        // 回调返回后才计数
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+        while (dispatcher.getDispatchedEventCount() < 1000 && System.nanoTime() < deadline) {
+            Thread.onSpinWait();
+        }
+        assertEquals(1000, dispatcher.getDispatchedEventCount());
+        assertEquals(0, dispatcher.getQueueDepth());
+    }
+    
+    @Test
+    public void testSlowListenerDoesNotBlockOthers() throws Exception {
+        ListenerDispatcher dispatcher = new ListenerDispatcher(executor, 100, 1);
+        Object slow = new Object();
+        Object fast = new Object();
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch fastDone = new CountDownLatch(10);
+        
+        // 慢监听器的多个键也只占用 1 个线程
+        for (int i = 0; i < 10; i++) {
+            dispatcher.dispatch(slow, "key-" + i, () -> {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+        }
+        for (int i = 0; i < 10; i++) {
+            dispatcher.dispatch(fast, "key-" + i, fastDone::countDown);
+        }
+        
+        assertTrue(fastDone.await(5, TimeUnit.SECONDS));
+        assertEquals(9, dispatcher.getQueueDepth(slow));
+        assertEquals(0, dispatcher.getQueueDepth(fast));
+        release.countDown();
+    }
+    
+    @Test
+    public void testFullQueueDropsEvents() throws Exception {
+        ListenerDispatcher dispatcher = new ListenerDispatcher(executor, 2, 1);
+        Object listener = new Object();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        
+        assertTrue(dispatcher.dispatch(listener, "key", () -> {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        assertTrue(dispatcher.dispatch(listener, "key", () -> { }));
+        assertTrue(dispatcher.dispatch(listener, "key", () -> { }));
+        assertFalse(dispatcher.dispatch(listener, "key", () -> { }));
+        
+        assertEquals(1, dispatcher.getDroppedEventCount());
+        assertEquals(2, dispatcher.getQueueDepth(listener));
+        release.countDown();
+    }
+    
+    @Test
+    public void testCallbackFailureDoesNotStopQueue() throws Exception {
+        ListenerDispatcher dispatcher = new ListenerDispatcher(executor, 100, 1);
+        Object listener = new Object();
+        CountDownLatch done = new CountDownLatch(1);
+        
+        dispatcher.dispatch(listener, "key", () -> {
+            throw new IllegalStateException("boom");
+        });
+        dispatcher.dispatch(listener, "key", done::countDown);
+        
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+    }
+    
+    @Test
+    public void testDispatchLagMetrics() throws Exception {
+        ListenerDispatcher dispatcher = new ListenerDispatcher(executor, 100, 1);
+        Object listener = new Object();
+        CountDownLatch done = new CountDownLatch(2);
+        
+        dispatcher.dispatch(listener, "key", () -> {
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            done.countDown();
+        });
+        dispatcher.dispatch(listener, "key", done::countDown);
+        
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertTrue(dispatcher.getMaxDispatchLagMs() >= 40, "lag: " + dispatcher.getMaxDispatchLagMs());
+    }
+    
+    @Test
+    public void testInvalidArguments() {
+        assertThrows(IllegalArgumentException.class, () -> new ListenerDispatcher(executor, 0, 1));
+        assertThrows(IllegalArgumentException.class, () -> new ListenerDispatcher(executor, 1, 0));
+    }
+}
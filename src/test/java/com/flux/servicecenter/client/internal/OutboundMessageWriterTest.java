@@ -0,0 +1,217 @@
+package com.flux.servicecenter.client.internal;
+
+import com.flux.servicecenter.config.ServiceCenterConfig.OverflowPolicy;
+import com.flux.servicecenter.stream.StreamProto.ClientMessage;
+import com.flux.servicecenter.stream.StreamProto.ClientMessageType;
+import io.grpc.stub.ClientCallStreamObserver;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * OutboundMessageWriter 测试类
+ * 
+ * @author shangjian
+ */
+public class OutboundMessageWriterTest {
+
+    @Test
+    public void testWritesOnlyWhenReady() {
+        FakeRequestStream stream = new FakeRequestStream(false);
+        OutboundMessageWriter writer = new OutboundMessageWriter(stream, 10, OverflowPolicy.FAIL_FAST, 100);
+        
+        assertTrue(writer.send(message("1", ClientMessageType.CLIENT_GET_CONFIG)));
+        assertTrue(writer.send(message("2", ClientMessageType.CLIENT_GET_CONFIG)));
+        assertTrue(stream.written.isEmpty());
+        assertEquals(2, writer.queuedCount());
+        
+        stream.becomeReady();
+        assertEquals(List.of("1", "2"), stream.writtenIds());
+        assertEquals(0, writer.queuedCount());
+    }
+
+    @Test
+    public void testFailFastWhenFull() {
+        FakeRequestStream stream = new FakeRequestStream(false);
+        OutboundMessageWriter writer = new OutboundMessageWriter(stream, 2, OverflowPolicy.FAIL_FAST, 100);
+        
+        writer.send(message("1", ClientMessageType.CLIENT_GET_CONFIG));
+        writer.send(message("2", ClientMessageType.CLIENT_GET_CONFIG));
+        assertThrows(IllegalStateException.class, () -> writer.send(message("3", ClientMessageType.CLIENT_GET_CONFIG)));
+    }
+
+    @Test
+    public void testDropPingsWhenFull() {
+        FakeRequestStream stream = new FakeRequestStream(false);
+        OutboundMessageWriter writer = new OutboundMessageWriter(stream, 1, OverflowPolicy.DROP_PINGS, 50);
+        
+        writer.send(message("1", ClientMessageType.CLIENT_GET_CONFIG));
+        assertFalse(writer.send(message("2", ClientMessageType.CLIENT_PING)));
+        assertEquals(1, writer.droppedPingCount());
+        
+        // 非 Ping 消息按阻塞策略等待，超时后失败
+        assertThrows(IllegalStateException.class, () -> writer.send(message("3", ClientMessageType.CLIENT_GET_CONFIG)));
+    }
+
+    @Test
+    public void testTrySendNeverBlocks() {
+        FakeRequestStream stream = new FakeRequestStream(false);
+        OutboundMessageWriter writer = new OutboundMessageWriter(stream, 1, OverflowPolicy.BLOCK, 5000);
+        assertTrue(writer.trySend(message("1", ClientMessageType.CLIENT_GET_CONFIG)));
+        
+        long start = System.nanoTime();
+        assertThrows(IllegalStateException.class, () -> writer.trySend(message("2", ClientMessageType.CLIENT_GET_CONFIG)));
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 1000);
+        
+        OutboundMessageWriter dropPings = new OutboundMessageWriter(new FakeRequestStream(false), 1, OverflowPolicy.DROP_PINGS, 5000);
+        dropPings.trySend(message("1", ClientMessageType.CLIENT_GET_CONFIG));
+        assertFalse(dropPings.trySend(message("2", ClientMessageType.CLIENT_PING)));
+        assertThrows(IllegalStateException.class, () -> dropPings.trySend(message("3", ClientMessageType.CLIENT_GET_CONFIG)));
+    }
+
+    @Test
+    public void testBlockUntilDrained() throws InterruptedException {
+        FakeRequestStream stream = new FakeRequestStream(false);
+        OutboundMessageWriter writer = new OutboundMessageWriter(stream, 1, OverflowPolicy.BLOCK, 5000);
+        writer.send(message("1", ClientMessageType.CLIENT_GET_CONFIG));
+        
+        CountDownLatch sent = new CountDownLatch(1);
+        Thread sender = new Thread(() -> {
+            writer.send(message("2", ClientMessageType.CLIENT_GET_CONFIG));
+            sent.countDown();
+        });
+        sender.start();
+        
+        assertFalse(sent.await(100, TimeUnit.MILLISECONDS));
+        stream.becomeReady();
+        assertTrue(sent.await(2, TimeUnit.SECONDS));
+        assertEquals(List.of("1", "2"), stream.writtenIds());
+    }
+
+    @Test
+    public void testCompleteDiscardsQueuedAndRejectsNewMessages() {
+        FakeRequestStream stream = new FakeRequestStream(false);
+        OutboundMessageWriter writer = new OutboundMessageWriter(stream, 10, OverflowPolicy.BLOCK, 100);
+        writer.send(message("1", ClientMessageType.CLIENT_GET_CONFIG));
+        
+        writer.complete();
+        
+        assertTrue(stream.completed.get());
+        assertTrue(writer.isClosed());
+        assertTrue(stream.written.isEmpty());
+        assertThrows(IllegalStateException.class, () -> writer.send(message("2", ClientMessageType.CLIENT_GET_CONFIG)));
+    }
+
+    @Test
+    public void testConcurrentSendersKeepPerThreadOrder() throws InterruptedException {
+        FakeRequestStream stream = new FakeRequestStream(true);
+        OutboundMessageWriter writer = new OutboundMessageWriter(stream, 1000, OverflowPolicy.BLOCK, 5000);
+        int threads = 4;
+        int perThread = 2000;
+        CountDownLatch done = new CountDownLatch(threads);
+        
+        for (int t = 0; t < threads; t++) {
+            final int thread = t;
+            new Thread(() -> {
+                for (int i = 0; i < perThread; i++) {
+                    writer.send(message(thread + "-" + i, ClientMessageType.CLIENT_HEARTBEAT));
+                }
+                done.countDown();
+            }).start();
+        }
+        
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        assertEquals(threads * perThread, stream.written.size());
+        assertFalse(stream.concurrentWrite.get());
+        for (int t = 0; t < threads; t++) {
+            int expected = 0;
+            for (String id : stream.writtenIds()) {
+                if (id.startsWith(t + "-")) {
+                    assertEquals(t + "-" + expected, id);
+                    expected++;
+                }
+            }
+        }
+    }
+
+    private static ClientMessage message(String requestId, ClientMessageType type) {
+        return ClientMessage.newBuilder()
+                .setRequestId(requestId)
+                .setMessageType(type)
+                .build();
+    }
+
+    /**
+     * 可控制就绪状态的请求流
+     */
+    private static class FakeRequestStream extends ClientCallStreamObserver<ClientMessage> {
+        final List<ClientMessage> written = new CopyOnWriteArrayList<>();
+        final AtomicBoolean completed = new AtomicBoolean();
+        final AtomicBoolean writing = new AtomicBoolean();
+        final AtomicBoolean concurrentWrite = new AtomicBoolean();
+        volatile boolean ready;
+        Runnable onReadyHandler;
+
+        FakeRequestStream(boolean ready) {
+            this.ready = ready;
+        }
+
+        void becomeReady() {
+            ready = true;
+            onReadyHandler.run();
+        }
+
+        List<String> writtenIds() {
+            return written.stream().map(ClientMessage::getRequestId).collect(java.util.stream.Collectors.toList());
+        }
+
+        @Override
+        public boolean isReady() {
+            return ready;
+        }
+
+        @Override
+        public void setOnReadyHandler(Runnable onReadyHandler) {
+            this.onReadyHandler = onReadyHandler;
+        }
+
+        @Override
+        public void onNext(ClientMessage value) {
+            if (!writing.compareAndSet(false, true)) {
+                concurrentWrite.set(true);
+            }
+            written.add(value);
+            writing.set(false);
+        }
+
+        @Override
+        public void onError(Throwable t) {
+        }
+
+        @Override
+        public void onCompleted() {
+            completed.set(true);
+        }
+
+        @Override
+        public void cancel(String message, Throwable cause) {
+        }
+
+        @Override
+        public void disableAutoInboundFlowControl() {
+        }
+
+        @Override
+        public void request(int count) {
+        }
+
+        @Override
+        public void setMessageCompression(boolean enable) {
+        }
+    }
+}
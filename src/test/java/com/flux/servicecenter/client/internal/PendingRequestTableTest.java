@@ -0,0 +1,125 @@
+package com.flux.servicecenter.client.internal;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * PendingRequestTable 测试类
+ * 
+ * @author shangjian
+ */
+public class PendingRequestTableTest {
+
+    @Test
+    public void testPutGetRemove() {
+        PendingRequestTable<String> table = new PendingRequestTable<>(4);
+        
+        assertNull(table.put(1L, "a"));
+        assertNull(table.put(2L, "b"));
+        assertEquals("a", table.put(1L, "c"));
+        assertEquals(2, table.size());
+        
+        assertEquals("c", table.get(1L));
+        assertEquals("c", table.remove(1L));
+        assertNull(table.get(1L));
+        assertNull(table.remove(1L));
+        assertEquals(1, table.size());
+    }
+
+    @Test
+    public void testRemoveWithExpectedValue() {
+        PendingRequestTable<String> table = new PendingRequestTable<>(1);
+        String value = new String("v");
+        table.put(7L, value);
+        
+        assertFalse(table.remove(7L, new String("v")));
+        assertTrue(table.remove(7L, value));
+        assertTrue(table.isEmpty());
+    }
+
+    @Test
+    public void testInvalidKey() {
+        PendingRequestTable<String> table = new PendingRequestTable<>(1);
+        assertThrows(IllegalArgumentException.class, () -> table.put(0L, "x"));
+        assertThrows(IllegalArgumentException.class, () -> table.put(-1L, "x"));
+        assertNull(table.get(-1L));
+        assertNull(table.remove(0L));
+    }
+
+    @Test
+    public void testRandomOperationsMatchHashMap() {
+        // 单分段 + 大量随机增删，覆盖扩容和回移删除
+        PendingRequestTable<Long> table = new PendingRequestTable<>(1);
+        Map<Long, Long> expected = new HashMap<>();
+        Random random = new Random(42);
+        
+        for (int i = 0; i < 200_000; i++) {
+            long key = 1 + random.nextInt(5_000);
+            if (random.nextBoolean()) {
+                assertEquals(expected.put(key, key), table.put(key, key));
+            } else {
+                assertEquals(expected.remove(key), table.remove(key));
+            }
+        }
+        
+        assertEquals(expected.size(), table.size());
+        for (long key = 1; key <= 5_000; key++) {
+            assertEquals(expected.get(key), table.get(key));
+        }
+    }
+
+    @Test
+    public void testDrain() {
+        PendingRequestTable<Long> table = new PendingRequestTable<>(8);
+        for (long i = 1; i <= 1000; i++) {
+            table.put(i, i);
+        }
+        
+        List<Long> drained = new ArrayList<>();
+        table.drain(drained::add);
+        
+        assertEquals(1000, drained.size());
+        assertTrue(table.isEmpty());
+        assertNull(table.get(500L));
+    }
+
+    @Test
+    public void testConcurrentPutRemove() throws InterruptedException {
+        PendingRequestTable<Long> table = new PendingRequestTable<>(16);
+        AtomicLong sequence = new AtomicLong();
+        int threads = 8;
+        int perThread = 20_000;
+        CountDownLatch done = new CountDownLatch(threads);
+        List<Throwable> errors = new ArrayList<>();
+        
+        for (int t = 0; t < threads; t++) {
+            new Thread(() -> {
+                try {
+                    for (int i = 0; i < perThread; i++) {
+                        long key = sequence.incrementAndGet();
+                        table.put(key, key);
+                        assertEquals(Long.valueOf(key), table.remove(key));
+                    }
+                } catch (Throwable e) {
+                    synchronized (errors) {
+                        errors.add(e);
+                    }
+                } finally {
+                    done.countDown();
+                }
+            }).start();
+        }
+        
+        done.await();
+        assertTrue(errors.isEmpty(), errors.toString());
+        assertTrue(table.isEmpty());
+    }
+}
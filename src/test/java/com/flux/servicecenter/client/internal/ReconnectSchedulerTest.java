@@ -0,0 +1,105 @@
+package com.flux.servicecenter.client.internal;
+
+import io.grpc.ManagedChannel;
+import io.grpc.Server;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * ReconnectScheduler 测试类
+ * 
+ * @author shangjian
+ */
+public class ReconnectSchedulerTest {
+    
+    private ScheduledExecutorService executor;
+    private ManagedChannel channel;
+    private Server server;
+    
+    @BeforeEach
+    public void setUp() {
+        executor = Executors.newSingleThreadScheduledExecutor();
+    }
+    
+    @AfterEach
+    public void tearDown() {
+        executor.shutdownNow();
+        if (channel != null) {
+            channel.shutdownNow();
+        }
+        if (server != null) {
+            server.shutdownNow();
+        }
+    }
+    
+    @Test
+    public void testRetriesUntilSuccess() throws Exception {
+        ReconnectScheduler scheduler = new ReconnectScheduler("test", executor, null, 10, 50, -1);
+        AtomicInteger calls = new AtomicInteger();
+        
+        CompletableFuture<Void> result = scheduler.start("target", () -> calls.incrementAndGet() < 3
+                ? CompletableFuture.failedFuture(new IllegalStateException("down"))
+                : CompletableFuture.completedFuture(null), () -> false);
+        
+        result.get(2, TimeUnit.SECONDS);
+        assertEquals(3, calls.get());
+        assertEquals(3, scheduler.getAttemptCount());
+    }
+    
+    @Test
+    public void testGivesUpAfterMaxAttempts() {
+        ReconnectScheduler scheduler = new ReconnectScheduler("test", executor, null, 10, 50, 2);
+        AtomicInteger calls = new AtomicInteger();
+        
+        CompletableFuture<Void> result = scheduler.start("target", () -> {
+            calls.incrementAndGet();
+            throw new IllegalStateException("down");
+        }, () -> false);
+        
+        ExecutionException e = assertThrows(ExecutionException.class, () -> result.get(2, TimeUnit.SECONDS));
+        assertTrue(e.getCause() instanceof IllegalStateException);
+        assertEquals(2, calls.get());
+    }
+    
+    @Test
+    public void testCancelledAndDisabled() {
+        AtomicBoolean closed = new AtomicBoolean(true);
+        ReconnectScheduler scheduler = new ReconnectScheduler("test", executor, null, 10, 50, -1);
+        CompletableFuture<Void> cancelled = scheduler.start("target",
+                () -> CompletableFuture.completedFuture(null), closed::get);
+        assertThrows(CancellationException.class, () -> cancelled.get(2, TimeUnit.SECONDS));
+        
+        ReconnectScheduler disabled = new ReconnectScheduler("test", executor, null, 10, 50, 0);
+        assertTrue(disabled.start("target", () -> CompletableFuture.completedFuture(null), () -> false)
+                .isCompletedExceptionally());
+    }
+    
+    @Test
+    public void testChannelReadyTriggersImmediateRetry() throws Exception {
+        String name = InProcessServerBuilder.generateName();
+        channel = InProcessChannelBuilder.forName(name).directExecutor().build();
+        // 退避延迟远大于测试时长，只有 Channel 恢复 READY 才会触发重试
+        ReconnectScheduler scheduler = new ReconnectScheduler("test", executor, () -> channel, 60000, 60000, -1);
+        
+        CompletableFuture<Void> result = scheduler.start("target", () -> CompletableFuture.completedFuture(null), () -> false);
+        Thread.sleep(100);
+        assertFalse(result.isDone());
+        
+        server = InProcessServerBuilder.forName(name).directExecutor().build().start();
+        result.get(10, TimeUnit.SECONDS);
+        assertEquals(1, scheduler.getFastPathAttemptCount());
+    }
+}
@@ -0,0 +1,133 @@
+package com.flux.servicecenter.client.internal;
+
+import com.flux.servicecenter.model.NodeInfo;
+import com.flux.servicecenter.model.ServiceInfo;
+import com.flux.servicecenter.model.ServiceSnapshot;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * RegistrySnapshotStore 测试类
+ * 
+ * @author shangjian
+ */
+public class RegistrySnapshotStoreTest {
+    
+    @TempDir
+    Path tempDir;
+    
+    private static NodeInfo node(String nodeId, String ipAddress, int port) {
+        NodeInfo node = new NodeInfo(ipAddress, port);
+        node.setNamespaceId("ns");
+        node.setGroupName("DEFAULT_GROUP");
+        node.setServiceName("svc");
+        node.setNodeId(nodeId);
+        node.setWeight(2.5);
+        node.setHealthyStatus("HEALTHY");
+        node.setInstanceStatus("UP");
+        node.setMetadata(Collections.singletonMap("zone", "a"));
+        return node;
+    }
+    
+    private static ServiceInfo service() {
+        ServiceInfo service = new ServiceInfo("ns", "DEFAULT_GROUP", "svc");
+        service.setProtectThreshold(0.3);
+        return service;
+    }
+    
+    private static List<ServiceSnapshot> snapshots() {
+        return Arrays.asList(
+                ServiceSnapshot.of("ns", "DEFAULT_GROUP", "svc", 7, service(),
+                        Arrays.asList(node("n1", "10.0.0.1", 8080), node("n2", "10.0.0.2", 8080))),
+                ServiceSnapshot.of("ns", "DEFAULT_GROUP", "empty", 8, null, Collections.emptyList()));
+    }
+    
+    @Test
+    public void testRoundTrip() throws IOException {
+        RegistrySnapshotStore store = new RegistrySnapshotStore(tempDir.resolve("sub/registry.snapshot"), 1 << 20);
+        long bytes = store.save(snapshots());
+        assertEquals(bytes, Files.size(store.getFile()));
+        assertFalse(Files.exists(tempDir.resolve("sub/registry.snapshot.tmp")));
+        
+        List<ServiceSnapshot> loaded = store.load();
+        assertEquals(2, loaded.size());
+        ServiceSnapshot svc = loaded.get(0);
+        assertEquals("svc", svc.getServiceName());
+        assertEquals(0, svc.getVersion());
+        assertEquals(0.3, svc.getService().getProtectThreshold());
+        assertEquals(2, svc.size());
+        NodeInfo n1 = svc.getNodes().get(0);
+        assertEquals("n1", n1.getNodeId());
+        assertEquals("10.0.0.1", n1.getIpAddress());
+        assertEquals(8080, n1.getPortNumber());
+        assertEquals(2.5, n1.getWeight());
+        assertEquals("a", n1.getMetadata().get("zone"));
+        
+        assertNull(loaded.get(1).getService());
+        assertEquals(0, loaded.get(1).size());
+    }
+    
+    @Test
+    public void testMissingFileLoadsEmpty() throws IOException {
+        RegistrySnapshotStore store = new RegistrySnapshotStore(tempDir.resolve("none.snapshot"), 1 << 20);
+        assertTrue(store.load().isEmpty());
+        store.delete();
+    }
+    
+    @Test
+    public void testCorruptedPayloadIsRejected() throws IOException {
+        RegistrySnapshotStore store = new RegistrySnapshotStore(tempDir.resolve("registry.snapshot"), 1 << 20);
+        store.save(snapshots());
+        byte[] content = Files.readAllBytes(store.getFile());
+        content[content.length - 3] ^= 0x5A;
+        Files.write(store.getFile(), content);
+        
+        IOException e = assertThrows(IOException.class, store::load);
+        assertTrue(e.getMessage().contains("checksum"));
+    }
+    
+    @Test
+    public void testTruncatedAndForeignFilesAreRejected() throws IOException {
+        RegistrySnapshotStore store = new RegistrySnapshotStore(tempDir.resolve("registry.snapshot"), 1 << 20);
+        store.save(snapshots());
+        byte[] content = Files.readAllBytes(store.getFile());
+        
+        Files.write(store.getFile(), Arrays.copyOf(content, content.length - 10));
+        assertThrows(IOException.class, store::load);
+        
+        Files.write(store.getFile(), Arrays.copyOf(content, 10));
+        assertThrows(IOException.class, store::load);
+        
+        Files.write(store.getFile(), new byte[64]);
+        assertThrows(IOException.class, store::load);
+    }
+    
+    @Test
+    public void testSizeLimit() throws IOException {
+        List<NodeInfo> nodes = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            nodes.add(node("n" + i, "10.0.0." + i, 8080));
+        }
+        List<ServiceSnapshot> large = Collections.singletonList(
+                ServiceSnapshot.of("ns", "DEFAULT_GROUP", "svc", 1, service(), nodes));
+        
+        RegistrySnapshotStore small = new RegistrySnapshotStore(tempDir.resolve("registry.snapshot"), 1024);
+        assertThrows(IOException.class, () -> small.save(large));
+        assertFalse(Files.exists(small.getFile()));
+        
+        // 已有文件超过上限时拒绝加载
+        new RegistrySnapshotStore(small.getFile(), 1 << 20).save(large);
+        assertThrows(IOException.class, small::load);
+        
+        assertThrows(IllegalArgumentException.class, () -> new RegistrySnapshotStore(small.getFile(), 0));
+    }
+}
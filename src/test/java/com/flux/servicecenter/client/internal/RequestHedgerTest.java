@@ -0,0 +1,157 @@
+package com.flux.servicecenter.client.internal;
+
+import com.flux.servicecenter.config.ServiceCenterConfig;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+/**
+ * RequestHedger 测试类
+ * 
+ * @author shangjian
+ */
+public class RequestHedgerTest {
+    
+    private RequestHedger hedger;
+    
+    @AfterEach
+    public void tearDown() {
+        if (hedger != null) {
+            hedger.close();
+        }
+    }
+    
+    /**
+     * 在期限内等待条件成立
+     */
+    private static void awaitCondition(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean() && System.nanoTime() < deadline) {
+            Thread.onSpinWait();
+        }
+        assertTrue(condition.getAsBoolean(), "condition not met within 5s");
+    }
+    
+    private RequestHedger enabledHedger() {
+        hedger = new RequestHedger(new ServiceCenterConfig().setHedgedReads(true).setHedgeDelay(20));
+        return hedger;
+    }
+    
+    @Test
+    public void testDisabledSendsPrimaryOnly() throws Exception {
+        hedger = new RequestHedger(new ServiceCenterConfig());
+        AtomicInteger hedges = new AtomicInteger();
+        CompletableFuture<String> primary = new CompletableFuture<>();
+        
+        CompletableFuture<String> result = hedger.execute("op", () -> primary, () -> {
+            hedges.incrementAndGet();
+            return CompletableFuture.completedFuture("hedge");
+        });
+        // 未开启时直接返回主请求，不注册对冲定时器
+        assertSame(primary, result);
+        assertEquals(0, hedges.get());
+        assertEquals(0, hedger.getHedgedRequestCount());
+    }
+    
+    @Test
+    public void testSlowPrimaryIsHedged() throws Exception {
+        RequestHedger hedger = enabledHedger();
+        CompletableFuture<String> primary = new CompletableFuture<>();
+        
+        CompletableFuture<String> result = hedger.execute("op", () -> primary,
+                () -> CompletableFuture.completedFuture("hedge"));
+        
+        assertEquals("hedge", result.get(2, TimeUnit.SECONDS));
+        assertEquals(1, hedger.getHedgedRequestCount());
+        // 胜出次数在结果完成之后才累加
+        awaitCondition(() -> hedger.getHedgeWinCount() == 1);
+        // 较慢的响应被丢弃
+        primary.complete("primary");
+        assertEquals("hedge", result.join());
+    }
+    
+    @Test
+    public void testFastPrimaryIsNotHedged() throws Exception {
+        RequestHedger hedger = enabledHedger();
+        AtomicInteger hedges = new AtomicInteger();
+        
+        CompletableFuture<String> result = hedger.execute("op", () -> CompletableFuture.completedFuture("primary"), () -> {
+            hedges.incrementAndGet();
+            return CompletableFuture.completedFuture("hedge");
+        });
+        
+        // 主请求同步完成时直接返回，不注册对冲定时器
+        assertEquals("primary", result.get(2, TimeUnit.SECONDS));
+        assertEquals(0, hedges.get());
+        assertEquals(0, hedger.getHedgedRequestCount());
+    }
+    
+    @Test
+    public void testFailsOnlyWhenBothFail() {
+        RequestHedger hedger = enabledHedger();
+        CompletableFuture<String> primary = new CompletableFuture<>();
+        CompletableFuture<String> hedge = new CompletableFuture<>();
+        
+        CompletableFuture<String> result = hedger.execute("op", () -> primary, () -> hedge);
+        awaitCondition(() -> hedger.getHedgedRequestCount() == 1);
+        primary.completeExceptionally(new IllegalStateException("primary failed"));
+        assertFalse(result.isDone());
+        
+        hedge.completeExceptionally(new IllegalStateException("hedge failed"));
+        ExecutionException e = assertThrows(ExecutionException.class, () -> result.get(2, TimeUnit.SECONDS));
+        assertEquals("hedge failed", e.getCause().getMessage());
+    }
+    
+    @Test
+    public void testNoAlternateFallsBackToPrimary() throws Exception {
+        RequestHedger hedger = enabledHedger();
+        CompletableFuture<String> primary = new CompletableFuture<>();
+        
+        AtomicInteger attempts = new AtomicInteger();
+        CompletableFuture<String> result = hedger.execute("op", () -> primary, () -> {
+            attempts.incrementAndGet();
+            return null;
+        });
+        awaitCondition(() -> attempts.get() == 1);
+        assertFalse(result.isDone());
+        primary.complete("primary");
+        assertEquals("primary", result.get(2, TimeUnit.SECONDS));
+        assertEquals(0, hedger.getHedgedRequestCount());
+    }
+    
+    @Test
+    public void testHedgesLimitedByBudget() throws Exception {
+        RequestHedger hedger = enabledHedger();
+        List<CompletableFuture<String>> results = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            results.add(hedger.execute("op", CompletableFuture::new, CompletableFuture::new));
+        }
+        // 等待 50 个对冲定时器全部触发（发出或因预算不足放弃）
+        awaitCondition(() -> hedger.getHedgedRequestCount() + hedger.getHedgeBudgetExhaustedCount() == 50);
+        
+        // 初始预算 10 次，加上 50 个请求积累的 5 次
+        long hedged = hedger.getHedgedRequestCount();
+        assertTrue(hedged >= RequestHedger.BUDGET_BURST && hedged <= RequestHedger.BUDGET_BURST + 5, "hedged: " + hedged);
+        assertEquals(50, results.size());
+    }
+    
+    @Test
+    public void testHedgeDelayFollowsPercentile() {
+        RequestHedger hedger = enabledHedger();
+        assertEquals(20, hedger.getHedgeDelayMs("op"));
+        
+        for (int i = 0; i < RequestHedger.MIN_SAMPLES; i++) {
+            hedger.execute("op", () -> CompletableFuture.completedFuture("ok"), () -> null);
+        }
+        // 主请求都立即返回，分位延迟接近 0，至少为 1 毫秒
+        assertEquals(1, hedger.getHedgeDelayMs("op"));
+    }
+}
@@ -0,0 +1,57 @@
+package com.flux.servicecenter.client.internal;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.UUID;
+
+/**
+ * RequestIdCodec 测试类
+ * 
+ * @author shangjian
+ */
+public class RequestIdCodecTest {
+
+    @Test
+    public void testCompactRoundTrip() {
+        assertEquals("1", RequestIdCodec.encode(1, null));
+        assertEquals("a", RequestIdCodec.encode(10, null));
+        assertEquals(123456789L, RequestIdCodec.decode(RequestIdCodec.encode(123456789L, null)));
+        assertEquals(Long.MAX_VALUE, RequestIdCodec.decode(RequestIdCodec.encode(Long.MAX_VALUE, null)));
+    }
+
+    @Test
+    public void testPrefixedRoundTrip() {
+        String clientId = UUID.randomUUID().toString();
+        String requestId = RequestIdCodec.encode(36, clientId);
+        
+        assertEquals(clientId + ":10", requestId);
+        assertEquals(36L, RequestIdCodec.decode(requestId));
+    }
+
+    @Test
+    public void testDecodeForeignIds() {
+        assertEquals(-1, RequestIdCodec.decode(null));
+        assertEquals(-1, RequestIdCodec.decode(""));
+        assertEquals(-1, RequestIdCodec.decode("client:"));
+        assertEquals(-1, RequestIdCodec.decode("0"));
+        assertEquals(-1, RequestIdCodec.decode("-1"));
+        assertEquals(-1, RequestIdCodec.decode(UUID.randomUUID().toString()));
+        // 超出 long 范围
+        assertEquals(-1, RequestIdCodec.decode("zzzzzzzzzzzzz"));
+    }
+    
+    @Test
+    public void testStrictDecode() {
+        assertEquals(36L, RequestIdCodec.decode("client-1:10", "client-1"));
+        assertEquals(36L, RequestIdCodec.decode("10", null));
+        
+        // 其他客户端或服务端推送的ID不匹配
+        assertEquals(-1, RequestIdCodec.decode("client-2:10", "client-1"));
+        assertEquals(-1, RequestIdCodec.decode("10", "client-1"));
+        assertEquals(-1, RequestIdCodec.decode("event:10", "client-1"));
+        assertEquals(-1, RequestIdCodec.decode("client-1:", "client-1"));
+        assertEquals(-1, RequestIdCodec.decode("client-1:10", null));
+        assertEquals(-1, RequestIdCodec.decode(null, "client-1"));
+    }
+}
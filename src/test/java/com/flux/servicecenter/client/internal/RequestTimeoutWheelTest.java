@@ -0,0 +1,101 @@
+package com.flux.servicecenter.client.internal;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * RequestTimeoutWheel 测试类
+ * 
+ * @author shangjian
+ */
+public class RequestTimeoutWheelTest {
+
+    private final RequestTimeoutWheel wheel = new RequestTimeoutWheel("test-timeout-wheel", 5, 8);
+
+    @AfterEach
+    public void tearDown() {
+        wheel.stop();
+    }
+
+    @Test
+    public void testTimeoutExpires() throws InterruptedException {
+        CountDownLatch latch = new CountDownLatch(1);
+        long start = System.nanoTime();
+        RequestTimeoutWheel.Timeout timeout = wheel.newTimeout(latch::countDown, 50);
+        
+        assertTrue(latch.await(2, TimeUnit.SECONDS));
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        assertTrue(elapsedMs >= 50, "expired too early: " + elapsedMs + "ms");
+        assertTrue(timeout.isExpired());
+        assertEquals(0, wheel.pendingTimeouts());
+    }
+
+    @Test
+    public void testCancelPreventsExpiration() throws InterruptedException {
+        AtomicInteger fired = new AtomicInteger();
+        RequestTimeoutWheel.Timeout timeout = wheel.newTimeout(fired::incrementAndGet, 30);
+        
+        assertTrue(timeout.cancel());
+        assertFalse(timeout.cancel());
+        assertTrue(timeout.isCancelled());
+        
+        Thread.sleep(100);
+        assertEquals(0, fired.get());
+        assertEquals(0, wheel.pendingTimeouts());
+    }
+
+    @Test
+    public void testDeadlinesLongerThanOneRound() throws InterruptedException {
+        // 8 个桶 * 5ms = 40ms 一圈，120ms 需要跨越多圈
+        List<Long> order = new CopyOnWriteArrayList<>();
+        CountDownLatch latch = new CountDownLatch(3);
+        wheel.newTimeout(() -> { order.add(120L); latch.countDown(); }, 120);
+        wheel.newTimeout(() -> { order.add(10L); latch.countDown(); }, 10);
+        wheel.newTimeout(() -> { order.add(60L); latch.countDown(); }, 60);
+        
+        assertTrue(latch.await(2, TimeUnit.SECONDS));
+        assertEquals(List.of(10L, 60L, 120L), order);
+    }
+
+    @Test
+    public void testNoRestartAfterStop() {
+        wheel.newTimeout(() -> { }, 1000);
+        wheel.stop();
+        assertEquals(0, wheel.pendingTimeouts());
+        
+        // 停止后不再启动工作线程，新增的超时立即在调用线程上执行
+        Thread caller = Thread.currentThread();
+        AtomicReference<Thread> ranOn = new AtomicReference<>();
+        RequestTimeoutWheel.Timeout timeout = wheel.newTimeout(() -> ranOn.set(Thread.currentThread()), 10_000);
+        assertSame(caller, ranOn.get());
+        assertTrue(timeout.isExpired());
+        assertFalse(timeout.cancel());
+        assertEquals(0, wheel.pendingTimeouts());
+        assertFalse(Thread.getAllStackTraces().keySet().stream()
+                .anyMatch(t -> t.getName().equals("test-timeout-wheel") && t.isAlive()));
+    }
+
+    @Test
+    public void testManyTimeouts() throws InterruptedException {
+        int count = 10_000;
+        CountDownLatch latch = new CountDownLatch(count / 2);
+        for (int i = 0; i < count; i++) {
+            RequestTimeoutWheel.Timeout timeout = wheel.newTimeout(latch::countDown, 20 + (i % 50));
+            if (i % 2 == 1) {
+                timeout.cancel();
+            }
+        }
+        
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        Thread.sleep(50);
+        assertEquals(0, wheel.pendingTimeouts());
+    }
+}
@@ -0,0 +1,50 @@
+package com.flux.servicecenter.client.internal;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * RestoreProgress 测试类
+ * 
+ * @author shangjian
+ */
+public class RestoreProgressTest {
+    
+    @Test
+    public void testProgressCounters() {
+        RestoreProgress progress = new RestoreProgress(0, 3);
+        progress.nodeRestored(true);
+        progress.nodeRestored(true);
+        progress.nodeRestored(false);
+        progress.subscribeBatchSent();
+        progress.watchBatchSent();
+        progress.watchBatchSent();
+        
+        assertEquals(0, progress.getLaneIndex());
+        assertEquals(3, progress.getTotalNodes());
+        assertEquals(2, progress.getRestoredNodes());
+        assertEquals(1, progress.getFailedNodes());
+        assertEquals(1, progress.getSubscribeBatches());
+        assertEquals(2, progress.getWatchBatches());
+        assertFalse(progress.isDone());
+    }
+    
+    @Test
+    public void testCompletionRecordsDuration() throws Exception {
+        RestoreProgress progress = new RestoreProgress(1, 0);
+        Thread.sleep(20);
+        progress.complete();
+        
+        assertSame(progress, progress.completion().get(1, TimeUnit.SECONDS));
+        assertTrue(progress.isDone());
+        long duration = progress.getDurationMillis();
+        assertTrue(duration >= 20, "duration: " + duration);
+        
+        // 完成后耗时不再增长，重复完成不改变耗时
+        Thread.sleep(20);
+        progress.complete();
+        assertEquals(duration, progress.getDurationMillis());
+    }
+}
@@ -0,0 +1,337 @@
+package com.flux.servicecenter.client.internal;
+
+import com.flux.servicecenter.model.GetServiceResult;
+import com.flux.servicecenter.model.NodeInfo;
+import com.flux.servicecenter.model.ServiceChangeEvent;
+import com.flux.servicecenter.model.ServiceInfo;
+import com.flux.servicecenter.model.ServiceSnapshot;
+import com.flux.servicecenter.registry.RegistryProto;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * ServiceInstanceCache 测试类
+ * 
+ * @author shangjian
+ */
+public class ServiceInstanceCacheTest {
+    
+    private static final String NS = "ns";
+    private static final String GROUP = "DEFAULT_GROUP";
+    
+    private static NodeInfo node(String nodeId, String healthyStatus) {
+        NodeInfo node = new NodeInfo();
+        node.setNodeId(nodeId);
+        node.setHealthyStatus(healthyStatus);
+        return node;
+    }
+    
+    private static ServiceInfo service(String serviceName) {
+        ServiceInfo service = new ServiceInfo();
+        service.setServiceName(serviceName);
+        return service;
+    }
+    
+    private static RegistryProto.Node protoNode(String nodeId) {
+        return RegistryProto.Node.newBuilder().setNodeId(nodeId).setHealthyStatus("HEALTHY").build();
+    }
+    
+    /**
+     * 构造节点级事件，完整列表为 allNodeIds
+     */
+    private static RegistryProto.ServiceChangeEvent event(String eventType, String changedNodeId, String... allNodeIds) {
+        RegistryProto.ServiceChangeEvent.Builder builder = RegistryProto.ServiceChangeEvent.newBuilder()
+                .setEventType(eventType)
+                .setNamespaceId(NS)
+                .setGroupName(GROUP)
+                .setServiceName("svc")
+                .setChangedNode(protoNode(changedNodeId));
+        for (String nodeId : allNodeIds) {
+            builder.addNodes(protoNode(nodeId));
+        }
+        return builder.build();
+    }
+    
+    @Test
+    public void testUntrackedServiceIsNotCached() {
+        ServiceInstanceCache cache = new ServiceInstanceCache();
+        
+        assertFalse(cache.seed(NS, GROUP, "svc", Collections.singletonList(node("n1", "HEALTHY"))));
+        assertNull(cache.apply(NS, GROUP, "svc", null, Collections.singletonList(node("n1", "HEALTHY"))));
+        assertNull(cache.getNodes(NS, GROUP, "svc", false, true));
+        assertEquals(0, cache.size());
+        assertEquals(1, cache.getMissCount());
+    }
+    
+    @Test
+    public void testWarmingUntilSeeded() {
+        ServiceInstanceCache cache = new ServiceInstanceCache();
+        ServiceInstanceCache.Entry entry = cache.track(NS, GROUP, "svc");
+        
+        assertEquals(ServiceInstanceCache.State.WARMING, entry.getState());
+        assertNull(cache.getNodes(NS, GROUP, "svc", false, true));
+        
+        assertTrue(cache.seed(NS, GROUP, "svc", Arrays.asList(node("n1", "HEALTHY"), node("n2", "UNHEALTHY"))));
+        assertEquals(ServiceInstanceCache.State.SYNCED, entry.getState());
+        assertEquals(2, cache.getNodes(NS, GROUP, "svc", false, false).size());
+        
+        List<NodeInfo> healthy = cache.getNodes(NS, GROUP, "svc", true, false);
+        assertEquals(1, healthy.size());
+        assertEquals("n1", healthy.get(0).getNodeId());
+        // 返回的列表可以修改，不影响缓存
+        healthy.add(node("n3", "HEALTHY"));
+        assertEquals(1, cache.getSnapshot(NS, GROUP, "svc", false).getHealthyNodes().size());
+        assertEquals(3, cache.getHitCount());
+    }
+    
+    @Test
+    public void testSeedDoesNotOverwriteEvent() {
+        ServiceInstanceCache cache = new ServiceInstanceCache();
+        cache.track(NS, GROUP, "svc");
+        
+        cache.apply(NS, GROUP, "svc", null, Arrays.asList(node("n1", "HEALTHY"), node("n2", "HEALTHY")));
+        // 更早发出的发现请求晚于事件返回，不应覆盖推送
+        assertFalse(cache.seed(NS, GROUP, "svc", Collections.singletonList(node("n1", "HEALTHY"))));
+        assertEquals(2, cache.getNodes(NS, GROUP, "svc", false, false).size());
+    }
+    
+    @Test
+    public void testStaleOnlyServedWhenAllowed() {
+        ServiceInstanceCache cache = new ServiceInstanceCache();
+        cache.track(NS, GROUP, "a");
+        cache.track(NS, GROUP, "b");
+        cache.seed(NS, GROUP, "a", Collections.singletonList(node("n1", "HEALTHY")));
+        
+        // 仍在预热的缓存项不会被标记为过期
+        assertEquals(1, cache.markStale(entry -> true));
+        assertEquals(ServiceInstanceCache.State.STALE, cache.entry(NS, GROUP, "a").getState());
+        assertEquals(ServiceInstanceCache.State.WARMING, cache.entry(NS, GROUP, "b").getState());
+        
+        assertNull(cache.getNodes(NS, GROUP, "a", false, false));
+        assertEquals(1, cache.getNodes(NS, GROUP, "a", false, true).size());
+        
+        // 重新订阅后的发现结果恢复为已同步
+        assertTrue(cache.seed(NS, GROUP, "a", Arrays.asList(node("n1", "HEALTHY"), node("n2", "HEALTHY"))));
+        assertEquals(2, cache.getNodes(NS, GROUP, "a", false, false).size());
+    }
+    
+    @Test
+    public void testMarkStaleByServiceNames() {
+        ServiceInstanceCache cache = new ServiceInstanceCache();
+        cache.track(NS, GROUP, "a");
+        cache.track(NS, GROUP, "b");
+        cache.seed(NS, GROUP, "a", Collections.emptyList());
+        cache.seed(NS, GROUP, "b", Collections.emptyList());
+        
+        assertEquals(1, cache.markStale(NS, GROUP, Collections.singletonList("a")));
+        assertEquals(ServiceInstanceCache.State.STALE, cache.entry(NS, GROUP, "a").getState());
+        assertEquals(ServiceInstanceCache.State.SYNCED, cache.entry(NS, GROUP, "b").getState());
+        assertEquals(0, cache.markStale("other", GROUP, Collections.singletonList("a")));
+    }
+    
+    @Test
+    public void testServiceResult() {
+        ServiceInstanceCache cache = new ServiceInstanceCache();
+        cache.track(NS, GROUP, "svc");
+        cache.seed(NS, GROUP, "svc", Collections.singletonList(node("n1", "HEALTHY")));
+        
+        // 节点已同步但还没有服务信息
+        assertNull(cache.getService(NS, GROUP, "svc", false));
+        
+        cache.updateService(NS, GROUP, "svc", service("svc"));
+        GetServiceResult result = cache.getService(NS, GROUP, "svc", false);
+        assertNotNull(result);
+        assertTrue(result.isSuccess());
+        assertEquals("svc", result.getService().getServiceName());
+        assertEquals(1, result.getNodes().size());
+        
+        // 事件不带服务信息时保留原有服务信息，节点列表随事件更新
+        cache.apply(NS, GROUP, "svc", null, Arrays.asList(node("n1", "HEALTHY"), node("n2", "HEALTHY")));
+        result = cache.getService(NS, GROUP, "svc", false);
+        assertEquals("svc", result.getService().getServiceName());
+        assertEquals(2, result.getNodes().size());
+        
+        // 每次返回新的结果和列表，调用方修改不影响缓存
+        result.setService(null);
+        result.getNodes().clear();
+        cache.getNodes(NS, GROUP, "svc", false, false).clear();
+        GetServiceResult again = cache.getService(NS, GROUP, "svc", false);
+        assertNotSame(result, again);
+        assertEquals("svc", again.getService().getServiceName());
+        assertEquals(2, again.getNodes().size());
+    }
+    
+    @Test
+    public void testReferenceCounting() {
+        ServiceInstanceCache cache = new ServiceInstanceCache();
+        ServiceInstanceCache.Entry first = cache.track(NS, GROUP, "svc");
+        ServiceInstanceCache.Entry second = cache.track(NS, GROUP, "svc");
+        assertSame(first, second);
+        
+        cache.untrack(NS, GROUP, "svc");
+        assertSame(first, cache.entry(NS, GROUP, "svc"));
+        
+        cache.untrack(NS, GROUP, "svc");
+        assertNull(cache.entry(NS, GROUP, "svc"));
+        assertEquals(0, cache.size());
+        
+        // 未引用的服务释放不报错
+        cache.untrack(NS, GROUP, "svc");
+        cache.untrack("other", GROUP, "svc");
+    }
+    
+    @Test
+    public void testDeltaApplyOnSyncedEntry() {
+        ServiceInstanceCache cache = new ServiceInstanceCache();
+        cache.track(NS, GROUP, "svc");
+        cache.seed(NS, GROUP, "svc", Arrays.asList(node("n1", "HEALTHY"), node("n2", "HEALTHY")));
+        
+        ServiceChangeEvent added = cache.applyEvent(event("NODE_ADDED", "n3", "n1", "n2", "n3"));
+        assertEquals(ServiceChangeEvent.EventType.NODE_ADDED, added.getEventType());
+        assertEquals("n3", added.getChangedNode().getNodeId());
+        assertEquals(3, added.getAllNodes().size());
+        // 监听器拿到的就是缓存快照
+        assertSame(added.getAllNodes(), cache.getSnapshot(NS, GROUP, "svc", false).getNodes());
+        
+        NodeInfo original = cache.getNodes(NS, GROUP, "svc", false, false).get(0);
+        ServiceChangeEvent updated = cache.applyEvent(event("NODE_UPDATED", "n1", "n1", "n2", "n3"));
+        assertEquals(3, updated.getAllNodes().size());
+        assertNotSame(original, updated.getAllNodes().get(0));
+        assertEquals("n1", updated.getAllNodes().get(0).getNodeId());
+        
+        ServiceChangeEvent removed = cache.applyEvent(event("NODE_REMOVED", "n2", "n1", "n3"));
+        assertEquals(2, removed.getAllNodes().size());
+        assertEquals("n3", removed.getAllNodes().get(1).getNodeId());
+        
+        assertEquals(3, cache.getDeltaApplyCount());
+        assertEquals(0, cache.getFullApplyCount());
+    }
+    
+    @Test
+    public void testDeltaMismatchFallsBackToFullList() {
+        ServiceInstanceCache cache = new ServiceInstanceCache();
+        cache.track(NS, GROUP, "svc");
+        cache.seed(NS, GROUP, "svc", Collections.singletonList(node("n1", "HEALTHY")));
+        
+        // 缓存漏掉了 n2 的添加事件，增量结果与完整列表不一致
+        ServiceChangeEvent event = cache.applyEvent(event("NODE_ADDED", "n3", "n1", "n2", "n3"));
+        assertEquals(3, event.getAllNodes().size());
+        assertEquals("n2", cache.getNodes(NS, GROUP, "svc", false, false).get(1).getNodeId());
+        assertEquals(0, cache.getDeltaApplyCount());
+        assertEquals(1, cache.getDeltaMismatchCount());
+        assertEquals(1, cache.getFullApplyCount());
+    }
+    
+    @Test
+    public void testDeltaMembershipMismatchFallsBackToFullList() {
+        ServiceInstanceCache cache = new ServiceInstanceCache();
+        cache.track(NS, GROUP, "svc");
+        cache.seed(NS, GROUP, "svc", Arrays.asList(node("n1", "HEALTHY"), node("n2", "HEALTHY")));
+        
+        // 缓存漏掉了 n2 的删除和 n4 的添加，节点数一致但成员不同
+        ServiceChangeEvent event = cache.applyEvent(event("NODE_ADDED", "n3", "n1", "n3", "n4"));
+        assertEquals(3, event.getAllNodes().size());
+        assertEquals("n4", cache.getNodes(NS, GROUP, "svc", false, false).get(2).getNodeId());
+        assertEquals(0, cache.getDeltaApplyCount());
+        assertEquals(1, cache.getDeltaMismatchCount());
+        assertEquals(1, cache.getFullApplyCount());
+    }
+    
+    @Test
+    public void testEventWithoutServiceKeepsCachedService() {
+        ServiceInstanceCache cache = new ServiceInstanceCache();
+        cache.track(NS, GROUP, "svc");
+        cache.seed(NS, GROUP, "svc", Collections.singletonList(node("n1", "HEALTHY")));
+        cache.updateService(NS, GROUP, "svc", service("svc"));
+        
+        ServiceChangeEvent event = cache.applyEvent(event("NODE_ADDED", "n2", "n1", "n2"));
+        assertEquals(1, cache.getDeltaApplyCount());
+        assertEquals("svc", event.getService().getServiceName());
+        assertEquals("svc", cache.getSnapshot(NS, GROUP, "svc", false).getService().getServiceName());
+    }
+    
+    @Test
+    public void testFullListUsedWhenNotSynced() {
+        ServiceInstanceCache cache = new ServiceInstanceCache();
+        
+        // 未订阅：直接转换完整列表，不写入缓存
+        ServiceChangeEvent untracked = cache.applyEvent(event("NODE_ADDED", "n1", "n1"));
+        assertEquals(1, untracked.getAllNodes().size());
+        assertEquals(0, cache.getFullApplyCount());
+        
+        // 预热中：没有可信的基线，用完整列表同步
+        cache.track(NS, GROUP, "svc");
+        cache.applyEvent(event("NODE_ADDED", "n2", "n1", "n2"));
+        assertEquals(ServiceInstanceCache.State.SYNCED, cache.entry(NS, GROUP, "svc").getState());
+        assertEquals(2, cache.getNodes(NS, GROUP, "svc", false, false).size());
+        assertEquals(1, cache.getFullApplyCount());
+        
+        // 过期：同样用完整列表恢复
+        cache.markStale(entry -> true);
+        cache.applyEvent(event("NODE_REMOVED", "n1", "n2"));
+        assertEquals(1, cache.getNodes(NS, GROUP, "svc", false, false).size());
+        assertEquals(2, cache.getFullApplyCount());
+        assertEquals(0, cache.getDeltaApplyCount());
+    }
+    
+    @Test
+    public void testSnapshotVersionsAndSharing() {
+        ServiceInstanceCache cache = new ServiceInstanceCache();
+        ServiceInstanceCache.Entry entry = cache.track(NS, GROUP, "svc");
+        assertEquals(0, entry.getSnapshot().getVersion());
+        
+        cache.seed(NS, GROUP, "svc", Collections.singletonList(node("n1", "HEALTHY")));
+        ServiceSnapshot seeded = cache.getSnapshot(NS, GROUP, "svc", false);
+        
+        ServiceChangeEvent event = cache.applyEvent(event("NODE_ADDED", "n2", "n1", "n2"));
+        ServiceSnapshot current = cache.getSnapshot(NS, GROUP, "svc", false);
+        assertSame(current, event.getSnapshot());
+        assertSame(current.getNodes(), event.getAllNodes());
+        assertTrue(current.getVersion() > seeded.getVersion());
+        
+        // 旧快照不受后续变更影响
+        assertEquals(1, seeded.size());
+        assertEquals(2, current.size());
+        
+        // 校验失败的增量不发布新快照
+        cache.applyDelta(NS, GROUP, "svc", null, ServiceChangeEvent.EventType.NODE_ADDED, node("n3", "HEALTHY"), 5, 0);
+        assertSame(current, cache.getSnapshot(NS, GROUP, "svc", false));
+        
+        // 缓存项重建后版本号不回退
+        cache.untrack(NS, GROUP, "svc");
+        cache.track(NS, GROUP, "svc");
+        cache.seed(NS, GROUP, "svc", Collections.emptyList());
+        assertTrue(cache.getSnapshot(NS, GROUP, "svc", false).getVersion() > current.getVersion());
+    }
+    
+    @Test
+    public void testPreloadedSnapshotsAreStaleUntilSynced() {
+        ServiceInstanceCache cache = new ServiceInstanceCache();
+        cache.preload(Arrays.asList(
+                ServiceSnapshot.of(NS, GROUP, "svc", 0, service("svc"), Collections.singletonList(node("n1", "HEALTHY"))),
+                ServiceSnapshot.of(NS, GROUP, "other", 0, null, Collections.singletonList(node("o1", "HEALTHY")))));
+        assertEquals(2, cache.size());
+        assertEquals(2, cache.snapshots().size());
+        
+        // 过期数据只在允许时返回
+        assertNull(cache.getNodes(NS, GROUP, "svc", false, false));
+        assertEquals(1, cache.getNodes(NS, GROUP, "svc", false, true).size());
+        assertTrue(cache.getSnapshot(NS, GROUP, "svc", true).getVersion() > 0);
+        
+        // 已加载的缓存项不被再次加载覆盖
+        assertEquals(0, cache.preload(Collections.singletonList(
+                ServiceSnapshot.of(NS, GROUP, "svc", 0, null, Collections.emptyList()))));
+        
+        // 订阅后同步，未订阅的被清除
+        cache.track(NS, GROUP, "svc");
+        cache.seed(NS, GROUP, "svc", Arrays.asList(node("n1", "HEALTHY"), node("n2", "HEALTHY")));
+        assertEquals(1, cache.evictUntracked());
+        assertEquals(1, cache.size());
+        assertEquals(2, cache.getNodes(NS, GROUP, "svc", false, false).size());
+        assertNull(cache.getNodes(NS, GROUP, "other", false, true));
+    }
+}
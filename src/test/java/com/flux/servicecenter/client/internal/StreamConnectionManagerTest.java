@@ -0,0 +1,469 @@
+package com.flux.servicecenter.client.internal;
+
+import com.flux.servicecenter.config.ServiceCenterConfig;
+import com.flux.servicecenter.registry.RegistryProto;
+import com.flux.servicecenter.stream.ServiceCenterStreamGrpc;
+import com.flux.servicecenter.stream.StreamProto.*;
+import io.grpc.ManagedChannel;
+import io.grpc.Server;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.grpc.stub.StreamObserver;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * StreamConnectionManager 测试类（基于 in-process gRPC 服务端）
+ * 
+ * @author shangjian
+ */
+public class StreamConnectionManagerTest {
+    
+    private Server server;
+    private ManagedChannel channel;
+    private StreamConnectionManager manager;
+    
+    /** 模拟服务端在握手中建议的心跳间隔（秒） */
+    private int serverHeartbeatInterval;
+    
+    /** 模拟服务端收到的 Ping 数 */
+    private final AtomicInteger pings = new AtomicInteger();
+    
+    /** 模拟服务端是否暂不响应握手，暂存的响应由测试通过 {@link #deferredHandshake} 发出 */
+    private volatile boolean deferHandshake;
+    
+    /** 暂存的握手响应 */
+    private volatile Runnable deferredHandshake;
+    
+    /** 模拟服务端是否在心跳响应之前推送一条服务变更事件 */
+    private volatile boolean pushBeforeResponse;
+    
+    /** 模拟服务端是否丢弃心跳请求（不响应） */
+    private volatile boolean dropHeartbeats;
+    
+    /** 模拟服务端各条流的响应流，按建立顺序 */
+    private final List<StreamObserver<ServerMessage>> serverStreams = new CopyOnWriteArrayList<>();
+    
+    /** 模拟服务端是否响应 Ping */
+    private volatile boolean respondPings = true;
+    
+    /** 模拟服务端在第一次握手后发送关闭通知（宽限期，秒），为 0 时不发送 */
+    private int closeAfterFirstHandshake;
+    
+    /** 模拟服务端关闭的流数 */
+    private final AtomicInteger completedStreams = new AtomicInteger();
+    
+    @AfterEach
+    public void tearDown() {
+        if (manager != null) {
+            manager.close();
+        }
+        if (channel != null) {
+            channel.shutdownNow();
+        }
+        if (server != null) {
+            server.shutdownNow();
+        }
+    }
+    
+    /**
+     * 启动模拟服务端
+     * 
+     * @param respondHandshake 是否响应握手
+     */
+    private ServiceCenterConfig start(boolean respondHandshake, AtomicInteger handshakes) throws Exception {
+        String name = InProcessServerBuilder.generateName();
+        server = InProcessServerBuilder.forName(name).directExecutor()
+                .addService(new ServiceCenterStreamGrpc.ServiceCenterStreamImplBase() {
+                    @Override
+                    public StreamObserver<ClientMessage> connect(StreamObserver<ServerMessage> responseObserver) {
+                        serverStreams.add(responseObserver);
+                        return new StreamObserver<ClientMessage>() {
+                            @Override
+                            public void onNext(ClientMessage message) {
+                                if (message.getMessageType() == ClientMessageType.CLIENT_HANDSHAKE) {
+                                    int n = handshakes.incrementAndGet();
+                                    ServerMessage reply = ServerMessage.newBuilder()
+                                            .setRequestId(message.getRequestId())
+                                            .setMessageType(ServerMessageType.SERVER_HANDSHAKE)
+                                            .setHandshake(ServerHandshake.newBuilder()
+                                                    .setSuccess(true)
+                                                    .setConnectionId("conn-" + n)
+                                                    .setConnectionLease(message.getHandshake().getConnectionLease())
+                                                    .setHeartbeatInterval(serverHeartbeatInterval))
+                                            .build();
+                                    if (deferHandshake) {
+                                        deferredHandshake = () -> responseObserver.onNext(reply);
+                                    } else if (respondHandshake) {
+                                        responseObserver.onNext(reply);
+                                        if (n == 1 && closeAfterFirstHandshake > 0) {
+                                            responseObserver.onNext(ServerMessage.newBuilder()
+                                                    .setMessageType(ServerMessageType.SERVER_CLOSE)
+                                                    .setClose(ServerCloseNotification.newBuilder()
+                                                            .setReason("server_shutdown")
+                                                            .setGracePeriod(closeAfterFirstHandshake))
+                                                    .build());
+                                        }
+                                    }
+                                } else if (message.getMessageType() == ClientMessageType.CLIENT_PING) {
+                                    pings.incrementAndGet();
+                                    if (!respondPings) {
+                                        return;
+                                    }
+                                    responseObserver.onNext(ServerMessage.newBuilder()
+                                            .setMessageType(ServerMessageType.SERVER_PONG)
+                                            .setPong(ServerPong.newBuilder()
+                                                    .setTimestamp(System.currentTimeMillis())
+                                                    .setClientTimestamp(message.getPing().getTimestamp()))
+                                            .build());
+                                } else if (message.getMessageType() == ClientMessageType.CLIENT_HEARTBEAT) {
+                                    if (dropHeartbeats) {
+                                        return;
+                                    }
+                                    if (pushBeforeResponse) {
+                                        // 推送的事件ID恰好与请求序号的编码相同
+                                        String requestId = message.getRequestId();
+                                        responseObserver.onNext(ServerMessage.newBuilder()
+                                                .setRequestId(requestId.substring(requestId.lastIndexOf(':') + 1))
+                                                .setMessageType(ServerMessageType.SERVER_SERVICE_CHANGE)
+                                                .setServiceChange(RegistryProto.ServiceChangeEvent.newBuilder()
+                                                        .setServiceName("pushed"))
+                                                .build());
+                                    }
+                                    responseObserver.onNext(ServerMessage.newBuilder()
+                                            .setRequestId(message.getRequestId())
+                                            .setMessageType(ServerMessageType.SERVER_HEARTBEAT)
+                                            .build());
+                                }
+                            }
+                            
+                            @Override
+                            public void onError(Throwable t) {
+                            }
+                            
+                            @Override
+                            public void onCompleted() {
+                                completedStreams.incrementAndGet();
+                                if (!deferHandshake) {
+                                    // 暂存握手时保持响应流打开，模拟半关闭后仍在途的握手响应
+                                    responseObserver.onCompleted();
+                                }
+                            }
+                        };
+                    }
+                })
+                .build()
+                .start();
+        channel = InProcessChannelBuilder.forName(name).directExecutor().build();
+        return new ServiceCenterConfig()
+                .setHandshakeTimeout(300)
+                .setMaxReconnectAttempts(0);
+    }
+    
+    @Test
+    public void testConnectAsyncCompletesWithConnectionId() throws Exception {
+        AtomicInteger handshakes = new AtomicInteger();
+        manager = new StreamConnectionManager(start(true, handshakes), channel);
+        
+        String connectionId = manager.connectAsync().get(2, TimeUnit.SECONDS);
+        
+        assertEquals("conn-1", connectionId);
+        assertTrue(manager.isConnected());
+        assertEquals("conn-1", manager.getConnectionId());
+        
+        // 已连接时直接返回当前 connectionId，不会重复握手
+        assertEquals("conn-1", manager.connectAsync().get(2, TimeUnit.SECONDS));
+        assertEquals(1, handshakes.get());
+    }
+    
+    @Test
+    public void testConnectBlocksUntilHandshake() throws Exception {
+        manager = new StreamConnectionManager(start(true, new AtomicInteger()), channel);
+        
+        manager.connect();
+        assertTrue(manager.isConnected());
+    }
+    
+    @Test
+    public void testHandshakeTimeout() throws Exception {
+        manager = new StreamConnectionManager(start(false, new AtomicInteger()), channel);
+        
+        CompletableFuture<String> future = manager.connectAsync();
+        ExecutionException e = assertThrows(ExecutionException.class, () -> future.get(2, TimeUnit.SECONDS));
+        assertTrue(e.getCause() instanceof TimeoutException, "unexpected cause: " + e.getCause());
+        assertFalse(manager.isConnected());
+        
+        RuntimeException blocking = assertThrows(RuntimeException.class, () -> manager.connect());
+        assertTrue(blocking.getCause() instanceof TimeoutException);
+    }
+    
+    @Test
+    public void testCloseDuringHandshakeDiscardsConnection() throws Exception {
+        deferHandshake = true;
+        manager = new StreamConnectionManager(start(true, new AtomicInteger()).setHandshakeTimeout(5000), channel);
+        
+        CompletableFuture<String> future = manager.connectAsync();
+        assertNotNull(deferredHandshake);
+        manager.close();
+        
+        // 未连接时关闭也要结束握手并关闭流
+        ExecutionException e = assertThrows(ExecutionException.class, () -> future.get(2, TimeUnit.SECONDS));
+        assertTrue(e.getCause() instanceof IllegalStateException, "unexpected cause: " + e.getCause());
+        assertEquals(1, completedStreams.get());
+        
+        // 关闭后才到达的握手响应不建立连接，也不能再次连接
+        deferredHandshake.run();
+        assertFalse(manager.isConnected());
+        assertNull(manager.getConnectionId());
+        assertTrue(manager.connectAsync().isCompletedExceptionally());
+        assertEquals(0, pings.get());
+    }
+    
+    @Test
+    public void testCloseWhileDisconnectedStopsTimeoutWheel() throws Exception {
+        manager = new StreamConnectionManager(start(false, new AtomicInteger()), channel, "wheel-leak");
+        CompletableFuture<String> future = manager.connectAsync();
+        assertThrows(ExecutionException.class, () -> future.get(2, TimeUnit.SECONDS));
+        assertTrue(isThreadAlive("wheel-leak-request-timeout"));
+        
+        manager.close();
+        assertFalse(isThreadAlive("wheel-leak-request-timeout"));
+        
+        // 关闭后再次连接不会重新启动时间轮
+        assertTrue(manager.connectAsync().isCompletedExceptionally());
+        assertFalse(isThreadAlive("wheel-leak-request-timeout"));
+    }
+    
+    private static boolean isThreadAlive(String name) {
+        return Thread.getAllStackTraces().keySet().stream().anyMatch(t -> t.getName().equals(name) && t.isAlive());
+    }
+    
+    @Test
+    public void testPushWithNumericIdDoesNotCompleteRequest() throws Exception {
+        pushBeforeResponse = true;
+        manager = new StreamConnectionManager(start(true, new AtomicInteger()), channel);
+        List<String> pushed = new CopyOnWriteArrayList<>();
+        manager.setServiceChangeListener(event -> pushed.add(event.getServiceName()));
+        manager.connect();
+        
+        ServerMessage response = manager.sendRequestAsync(ClientMessage.newBuilder()
+                .setRequestId(manager.nextRequestId())
+                .setMessageType(ClientMessageType.CLIENT_HEARTBEAT)
+                .build()).get(2, TimeUnit.SECONDS);
+        
+        // 推送按推送处理，请求拿到的是自己的响应
+        assertEquals(ServerMessageType.SERVER_HEARTBEAT, response.getMessageType());
+        assertEquals(Collections.singletonList("pushed"), pushed);
+        assertEquals(0, manager.getOrphanedResponseCount());
+    }
+    
+    @Test
+    public void testHeartbeatsBypassSaturatedInFlightLimit() throws Exception {
+        manager = new StreamConnectionManager(start(true, new AtomicInteger())
+                .setMaxInFlightRequests(2)
+                .setAdmissionPolicy(ServiceCenterConfig.AdmissionPolicy.REJECT), channel);
+        manager.connect();
+        
+        // 服务端不响应读请求，读请求占满全局上限
+        for (int i = 0; i < 2; i++) {
+            assertFalse(manager.sendRequestAsync(ClientMessage.newBuilder()
+                    .setRequestId(manager.nextRequestId())
+                    .setMessageType(ClientMessageType.CLIENT_GET_CONFIG)
+                    .build()).isDone());
+        }
+        CompletableFuture<ServerMessage> rejected = manager.sendRequestAsync(ClientMessage.newBuilder()
+                .setRequestId(manager.nextRequestId())
+                .setMessageType(ClientMessageType.CLIENT_GET_CONFIG)
+                .build());
+        ExecutionException e = assertThrows(ExecutionException.class, () -> rejected.get(2, TimeUnit.SECONDS));
+        assertTrue(e.getCause() instanceof RejectedExecutionException, "unexpected cause: " + e.getCause());
+        
+        // 心跳不受全局上限约束，照常发出并收到响应
+        ServerMessage response = manager.sendRequestAsync(ClientMessage.newBuilder()
+                .setRequestId(manager.nextRequestId())
+                .setMessageType(ClientMessageType.CLIENT_HEARTBEAT)
+                .build()).get(2, TimeUnit.SECONDS);
+        assertEquals(ServerMessageType.SERVER_HEARTBEAT, response.getMessageType());
+    }
+    
+    @Test
+    public void testConnectionLeaseNegotiatedInHandshake() throws Exception {
+        manager = new StreamConnectionManager(start(true, new AtomicInteger()).setConnectionLease(true), channel);
+        manager.connect();
+        assertTrue(manager.isConnectionLease());
+    }
+    
+    @Test
+    public void testConnectionLeaseOffByDefault() throws Exception {
+        manager = new StreamConnectionManager(start(true, new AtomicInteger()), channel);
+        manager.connect();
+        assertFalse(manager.isConnectionLease());
+    }
+    
+    @Test
+    public void testPingIntervalFromServerHandshake() throws Exception {
+        serverHeartbeatInterval = 3;
+        manager = new StreamConnectionManager(start(true, new AtomicInteger()).setHeartbeatInterval(10000), channel);
+        manager.connect();
+        assertEquals(3000, manager.getPingInterval());
+    }
+    
+    @Test
+    public void testPingIntervalFallsBackToConfig() throws Exception {
+        manager = new StreamConnectionManager(start(true, new AtomicInteger()).setHeartbeatInterval(2000), channel);
+        manager.connect();
+        assertEquals(2000, manager.getPingInterval());
+    }
+    
+    @Test
+    public void testIdleStreamSendsPings() throws Exception {
+        serverHeartbeatInterval = 1;
+        manager = new StreamConnectionManager(start(true, new AtomicInteger()).setJitterRatio(0), channel);
+        manager.connect();
+        
+        long deadline = System.currentTimeMillis() + 5000;
+        while (pings.get() < 2 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+        assertTrue(pings.get() >= 2, "pings: " + pings.get());
+        assertTrue(manager.getMillisSinceLastInbound() < 2000);
+    }
+    
+    @Test
+    public void testBusyStreamSkipsPings() throws Exception {
+        serverHeartbeatInterval = 1;
+        manager = new StreamConnectionManager(start(true, new AtomicInteger()).setJitterRatio(0), channel);
+        manager.connect();
+        
+        // 每 100ms 一次请求-响应，流上始终有流量
+        long end = System.currentTimeMillis() + 3000;
+        while (System.currentTimeMillis() < end) {
+            manager.sendRequestAsync(ClientMessage.newBuilder()
+                    .setRequestId(manager.nextRequestId())
+                    .setMessageType(ClientMessageType.CLIENT_HEARTBEAT)
+                    .build()).get(2, TimeUnit.SECONDS);
+            Thread.sleep(100);
+        }
+        
+        assertEquals(0, pings.get());
+        assertTrue(manager.getSkippedPingCount() >= 2, "skipped: " + manager.getSkippedPingCount());
+    }
+    
+    @Test
+    public void testLeasedStreamPingsEvenWhenBusy() throws Exception {
+        serverHeartbeatInterval = 1;
+        manager = new StreamConnectionManager(start(true, new AtomicInteger())
+                .setJitterRatio(0).setConnectionLease(true), channel);
+        manager.connect();
+        assertTrue(manager.isConnectionLease());
+        
+        // 流上始终有流量，但租约按 Ping 续期，Ping 不能被跳过
+        long end = System.currentTimeMillis() + 3000;
+        while (System.currentTimeMillis() < end) {
+            manager.sendRequestAsync(ClientMessage.newBuilder()
+                    .setRequestId(manager.nextRequestId())
+                    .setMessageType(ClientMessageType.CLIENT_HEARTBEAT)
+                    .build()).get(2, TimeUnit.SECONDS);
+            Thread.sleep(100);
+        }
+        
+        assertTrue(pings.get() >= 2, "pings: " + pings.get());
+        assertEquals(0, manager.getSkippedPingCount());
+    }
+    
+    @Test
+    public void testMissingPongsReconnect() throws Exception {
+        serverHeartbeatInterval = 1;
+        respondPings = false;
+        AtomicInteger handshakes = new AtomicInteger();
+        manager = new StreamConnectionManager(start(true, handshakes)
+                .setJitterRatio(0).setMaxReconnectAttempts(1).setReconnectInterval(100), channel);
+        manager.connect();
+        
+        // 发出 Ping 后入站静默 3 个间隔，取消当前流并重连
+        long deadline = System.currentTimeMillis() + 10000;
+        while (handshakes.get() < 2 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+        assertEquals(2, handshakes.get());
+        assertEquals(1, manager.getPingTimeoutCount());
+        assertTrue(pings.get() >= 1);
+    }
+    
+    @Test
+    public void testCloseNotificationFailsOverBeforeClosing() throws Exception {
+        closeAfterFirstHandshake = 5;
+        AtomicInteger handshakes = new AtomicInteger();
+        manager = new StreamConnectionManager(start(true, handshakes), channel);
+        manager.connect();
+        
+        long deadline = System.currentTimeMillis() + 3000;
+        while (manager.getFailoverCount() == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(1, manager.getFailoverCount());
+        assertEquals("conn-2", manager.getConnectionId());
+        
+        // 旧流没有在途请求，切换后立即关闭，且不会触发断线
+        deadline = System.currentTimeMillis() + 3000;
+        while (completedStreams.get() == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(1, completedStreams.get());
+        assertTrue(manager.isConnected());
+        assertEquals(2, handshakes.get());
+        
+        // 新流正常处理请求
+        ServerMessage response = manager.sendRequestAsync(ClientMessage.newBuilder()
+                .setRequestId(manager.nextRequestId())
+                .setMessageType(ClientMessageType.CLIENT_HEARTBEAT)
+                .build()).get(2, TimeUnit.SECONDS);
+        assertEquals(ServerMessageType.SERVER_HEARTBEAT, response.getMessageType());
+    }
+    
+    @Test
+    public void testDrainedStreamFailsItsRequestsWhenItEnds() throws Exception {
+        dropHeartbeats = true;
+        AtomicInteger handshakes = new AtomicInteger();
+        manager = new StreamConnectionManager(start(true, handshakes).setRequestTimeout(30000), channel);
+        manager.connect();
+        
+        // 旧流上的请求没有响应
+        CompletableFuture<ServerMessage> pending = manager.sendRequestAsync(ClientMessage.newBuilder()
+                .setRequestId(manager.nextRequestId())
+                .setMessageType(ClientMessageType.CLIENT_HEARTBEAT)
+                .build());
+        serverStreams.get(0).onNext(ServerMessage.newBuilder()
+                .setMessageType(ServerMessageType.SERVER_CLOSE)
+                .setClose(ServerCloseNotification.newBuilder()
+                        .setReason("server_shutdown")
+                        .setGracePeriod(1))
+                .build());
+        
+        // 宽限期结束旧流关闭后，其在途请求立即失败，而不是等到请求超时
+        long start = System.nanoTime();
+        ExecutionException e = assertThrows(ExecutionException.class, () -> pending.get(5, TimeUnit.SECONDS));
+        assertFalse(e.getCause() instanceof TimeoutException, "unexpected cause: " + e.getCause());
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 5000);
+        assertEquals(1, manager.getFailoverCount());
+        assertTrue(manager.isConnected());
+        
+        // 待处理请求表中的记录在 Future 完成后的回调中移除
+        long deadline = System.currentTimeMillis() + 2000;
+        while (manager.getPendingRequestCount() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(0, manager.getPendingRequestCount());
+    }
+}
@@ -0,0 +1,80 @@
+package com.flux.servicecenter.client.internal;
+
+import com.flux.servicecenter.config.ServiceCenterConfig;
+import io.grpc.ManagedChannel;
+import io.grpc.ManagedChannelBuilder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * StreamConnectionPool 测试类
+ * 
+ * @author shangjian
+ */
+public class StreamConnectionPoolTest {
+    
+    /** 不会真正建立连接，仅用于构造流管理器 */
+    private final ManagedChannel channel = ManagedChannelBuilder.forAddress("localhost", 1).usePlaintext().build();
+    
+    @AfterEach
+    public void tearDown() {
+        channel.shutdownNow();
+    }
+    
+    @Test
+    public void testSingleStreamUsesControlLane() {
+        StreamConnectionPool pool = new StreamConnectionPool(new ServiceCenterConfig(), channel);
+        
+        assertEquals(1, pool.size());
+        assertEquals(StreamConnectionPool.CONTROL_LANE, pool.laneIndex("ns", "group", "user-service"));
+        assertSame(pool.controlLane(), pool.laneFor("ns", "group", "user-service"));
+        assertEquals("stream", pool.controlLane().getName());
+    }
+    
+    @Test
+    public void testKeysShardedAcrossDataLanes() {
+        StreamConnectionPool pool = new StreamConnectionPool(new ServiceCenterConfig().setStreamPoolSize(4), channel);
+        
+        Set<Integer> used = new HashSet<>();
+        for (int i = 0; i < 100; i++) {
+            int index = pool.laneIndex("ns", "group", "service-" + i);
+            assertTrue(index >= 1 && index < 4, "key must map to a data lane: " + index);
+            // 同一个键始终映射到同一条流
+            assertEquals(index, pool.laneIndex("ns", "group", "service-" + i));
+            used.add(index);
+        }
+        assertEquals(3, used.size());
+        assertEquals("stream-2", pool.lane(2).getName());
+    }
+    
+    @Test
+    public void testNullNameShardsByGroup() {
+        StreamConnectionPool pool = new StreamConnectionPool(new ServiceCenterConfig().setStreamPoolSize(3), channel);
+        
+        int index = pool.laneIndex("ns", "group", null);
+        assertTrue(index >= 1 && index < 3);
+        assertEquals(index, pool.laneIndex("ns", "group", null));
+    }
+    
+    @Test
+    public void testDisconnectedPoolKeepsShardedLane() {
+        StreamConnectionPool pool = new StreamConnectionPool(new ServiceCenterConfig().setStreamPoolSize(3), channel);
+        
+        // 控制流也未连接时不退回控制流，由请求自身以未连接失败
+        int index = pool.laneIndex("ns", "group", "user-service");
+        assertSame(pool.lane(index), pool.laneFor("ns", "group", "user-service"));
+        assertFalse(pool.isConnected());
+    }
+    
+    @Test
+    public void testNoAlternateLaneWhenDisconnected() {
+        StreamConnectionPool pool = new StreamConnectionPool(new ServiceCenterConfig().setStreamPoolSize(3), channel);
+        
+        assertNull(pool.alternateLane(pool.lane(1)));
+        assertNull(pool.alternateLane(pool.controlLane()));
+    }
+}
@@ -1,5 +1,6 @@
 package com.flux.servicecenter.config;
 
+import com.flux.servicecenter.stream.StreamProto.ClientMessageType;
 import org.junit.jupiter.api.Test;
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -443,5 +444,183 @@ public class ServiceCenterConfigTest {
         assertEquals(1, addresses.size());
         assertEquals("localhost:12004", addresses.get(0));
     }
-}
+    
+    @Test
+    public void testOutboundQueueSettings() {
+        ServiceCenterConfig config = new ServiceCenterConfig();
+        assertEquals(10000, config.getOutboundQueueCapacity());
+        assertEquals(ServiceCenterConfig.OverflowPolicy.DROP_PINGS, config.getOutboundOverflowPolicy());
+        
+        config.setOutboundQueueCapacity(100)
+              .setOutboundOverflowPolicy(ServiceCenterConfig.OverflowPolicy.FAIL_FAST);
+        assertEquals(100, config.getOutboundQueueCapacity());
+        assertEquals(ServiceCenterConfig.OverflowPolicy.FAIL_FAST, config.getOutboundOverflowPolicy());
+        
+        assertThrows(IllegalArgumentException.class, () -> config.setOutboundQueueCapacity(0));
+        assertThrows(IllegalArgumentException.class, () -> config.setOutboundOverflowPolicy(null));
+    }
+
+    @Test
+    public void testInFlightLimitSettings() {
+        ServiceCenterConfig config = new ServiceCenterConfig();
+        assertEquals(10000, config.getMaxInFlightRequests());
+        assertEquals(ServiceCenterConfig.AdmissionPolicy.QUEUE, config.getAdmissionPolicy());
+        assertEquals(10000, config.getMaxAdmissionQueueSize());
+        assertFalse(config.isAdaptiveInFlightLimit());
+        assertTrue(config.getTypeInFlightLimits().isEmpty());
+        
+        config.setMaxInFlightRequests(200)
+              .setTypeInFlightLimit(ClientMessageType.CLIENT_GET_CONFIG_HISTORY, 5)
+              .setAdmissionPolicy(ServiceCenterConfig.AdmissionPolicy.REJECT)
+              .setMaxAdmissionQueueSize(0)
+              .setAdaptiveInFlightLimit(true);
+        assertEquals(200, config.getMaxInFlightRequests());
+        assertEquals(5, config.getTypeInFlightLimits().get(ClientMessageType.CLIENT_GET_CONFIG_HISTORY));
+        assertEquals(ServiceCenterConfig.AdmissionPolicy.REJECT, config.getAdmissionPolicy());
+        assertEquals(0, config.getMaxAdmissionQueueSize());
+        assertTrue(config.isAdaptiveInFlightLimit());
+        
+        assertThrows(IllegalArgumentException.class, () -> config.setMaxInFlightRequests(0));
+        assertThrows(IllegalArgumentException.class, () -> config.setTypeInFlightLimit(null, 1));
+        assertThrows(IllegalArgumentException.class, () -> config.setTypeInFlightLimit(ClientMessageType.CLIENT_GET_CONFIG, 0));
+        assertThrows(IllegalArgumentException.class, () -> config.setAdmissionPolicy(null));
+        assertThrows(IllegalArgumentException.class, () -> config.setMaxAdmissionQueueSize(-1));
+        assertThrows(UnsupportedOperationException.class, () -> config.getTypeInFlightLimits().clear());
+    }
+
+    @Test
+    public void testStreamPoolSize() {
+        ServiceCenterConfig config = new ServiceCenterConfig();
+        assertEquals(1, config.getStreamPoolSize());
+        
+        config.setStreamPoolSize(4);
+        assertEquals(4, config.getStreamPoolSize());
+        
+        assertThrows(IllegalArgumentException.class, () -> config.setStreamPoolSize(0));
+        assertThrows(IllegalArgumentException.class, () -> config.setStreamPoolSize(65));
+    }
+
+    @Test
+    public void testHandshakeTimeout() {
+        ServiceCenterConfig config = new ServiceCenterConfig();
+        assertEquals(5000, config.getHandshakeTimeout());
+        
+        config.setHandshakeTimeout(1500);
+        assertEquals(1500, config.getHandshakeTimeout());
+        
+        assertThrows(IllegalArgumentException.class, () -> config.setHandshakeTimeout(0));
+    }
+
+    @Test
+    public void testListenerDispatchSettings() {
+        ServiceCenterConfig config = new ServiceCenterConfig();
+        assertEquals(10000, config.getListenerQueueCapacity());
+        assertEquals(1, config.getListenerMaxConcurrency());
+        
+        config.setListenerQueueCapacity(100).setListenerMaxConcurrency(2);
+        assertEquals(100, config.getListenerQueueCapacity());
+        assertEquals(2, config.getListenerMaxConcurrency());
+        
+        assertThrows(IllegalArgumentException.class, () -> config.setListenerQueueCapacity(0));
+        assertThrows(IllegalArgumentException.class, () -> config.setListenerMaxConcurrency(0));
+    }
+
+    @Test
+    public void testAdaptiveRequestTimeoutSettings() {
+        ServiceCenterConfig config = new ServiceCenterConfig();
+        assertFalse(config.isAdaptiveRequestTimeout());
+        assertEquals(3.0, config.getAdaptiveTimeoutFactor());
+        assertEquals(100, config.getMinRequestTimeout());
+        
+        config.setAdaptiveRequestTimeout(true).setAdaptiveTimeoutFactor(2.5).setMinRequestTimeout(50);
+        assertTrue(config.isAdaptiveRequestTimeout());
+        assertEquals(2.5, config.getAdaptiveTimeoutFactor());
+        assertEquals(50, config.getMinRequestTimeout());
+        
+        assertThrows(IllegalArgumentException.class, () -> config.setAdaptiveTimeoutFactor(0.5));
+        assertThrows(IllegalArgumentException.class, () -> config.setAdaptiveTimeoutFactor(Double.NaN));
+        assertThrows(IllegalArgumentException.class, () -> config.setMinRequestTimeout(0));
+    }
 
+    @Test
+    public void testHedgedReadSettings() {
+        ServiceCenterConfig config = new ServiceCenterConfig();
+        assertFalse(config.isHedgedReads());
+        assertEquals(95, config.getHedgeDelayPercentile());
+        assertEquals(50, config.getHedgeDelay());
+        
+        config.setHedgedReads(true).setHedgeDelayPercentile(99).setHedgeDelay(20);
+        assertTrue(config.isHedgedReads());
+        assertEquals(99, config.getHedgeDelayPercentile());
+        assertEquals(20, config.getHedgeDelay());
+        
+        assertThrows(IllegalArgumentException.class, () -> config.setHedgeDelayPercentile(0));
+        assertThrows(IllegalArgumentException.class, () -> config.setHedgeDelayPercentile(101));
+        assertThrows(IllegalArgumentException.class, () -> config.setHedgeDelay(0));
+    }
+
+    @Test
+    public void testHeartbeatFullPayloadInterval() {
+        ServiceCenterConfig config = new ServiceCenterConfig();
+        assertEquals(10, config.getHeartbeatFullPayloadInterval());
+        
+        config.setHeartbeatFullPayloadInterval(1);
+        assertEquals(1, config.getHeartbeatFullPayloadInterval());
+        
+        assertThrows(IllegalArgumentException.class, () -> config.setHeartbeatFullPayloadInterval(0));
+    }
+
+    @Test
+    public void testJitterRatio() {
+        ServiceCenterConfig config = new ServiceCenterConfig();
+        assertEquals(0.1, config.getJitterRatio());
+        
+        config.setJitterRatio(0).setJitterRatio(0.5);
+        assertEquals(0.5, config.getJitterRatio());
+        
+        assertThrows(IllegalArgumentException.class, () -> config.setJitterRatio(-0.1));
+        assertThrows(IllegalArgumentException.class, () -> config.setJitterRatio(0.6));
+    }
+
+    @Test
+    public void testConnectionLease() {
+        ServiceCenterConfig config = new ServiceCenterConfig();
+        assertFalse(config.isConnectionLease());
+        
+        config.setConnectionLease(true);
+        assertTrue(config.isConnectionLease());
+    }
+
+    @Test
+    public void testRestoreConcurrency() {
+        ServiceCenterConfig config = new ServiceCenterConfig();
+        assertEquals(64, config.getRestoreConcurrency());
+        
+        config.setRestoreConcurrency(1);
+        assertEquals(1, config.getRestoreConcurrency());
+        
+        assertThrows(IllegalArgumentException.class, () -> config.setRestoreConcurrency(0));
+    }
+
+    @Test
+    public void testSnapshotSettings() {
+        ServiceCenterConfig config = new ServiceCenterConfig();
+        assertNull(config.getSnapshotDir());
+        assertEquals(30000, config.getSnapshotPersistInterval());
+        assertEquals(64L * 1024 * 1024, config.getSnapshotMaxFileSize());
+        
+        config.setSnapshotDir("/tmp/sc");
+        assertEquals("/tmp/sc", config.getSnapshotDir());
+        config.setSnapshotDir("  ");
+        assertNull(config.getSnapshotDir());
+        
+        config.setSnapshotPersistInterval(1000);
+        assertEquals(1000, config.getSnapshotPersistInterval());
+        assertThrows(IllegalArgumentException.class, () -> config.setSnapshotPersistInterval(0));
+        
+        config.setSnapshotMaxFileSize(1024);
+        assertEquals(1024, config.getSnapshotMaxFileSize());
+        assertThrows(IllegalArgumentException.class, () -> config.setSnapshotMaxFileSize(0));
+        assertThrows(IllegalArgumentException.class, () -> config.setSnapshotMaxFileSize(Integer.MAX_VALUE + 1L));
+    }
+}
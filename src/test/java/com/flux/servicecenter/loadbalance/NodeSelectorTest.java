@@ -0,0 +1,224 @@
+package com.flux.servicecenter.loadbalance;
+
+import com.flux.servicecenter.model.NodeInfo;
+import com.flux.servicecenter.model.ServiceSnapshot;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * NodeSelector 各策略测试类
+ * 
+ * @author shangjian
+ */
+public class NodeSelectorTest {
+    
+    private static NodeInfo node(String nodeId, double weight) {
+        NodeInfo node = new NodeInfo("10.0.0.1", 8080);
+        node.setNodeId(nodeId);
+        node.setWeight(weight);
+        node.setHealthyStatus("HEALTHY");
+        node.setInstanceStatus("UP");
+        return node;
+    }
+    
+    private static ServiceSnapshot snapshot(long version, NodeInfo... nodes) {
+        return ServiceSnapshot.of("ns", "DEFAULT_GROUP", "svc", version, null, Arrays.asList(nodes));
+    }
+    
+    private static Map<String, Integer> count(NodeSelector selector, ServiceSnapshot snapshot, int times) {
+        Map<String, Integer> counts = new HashMap<>();
+        for (int i = 0; i < times; i++) {
+            counts.merge(selector.select(snapshot).getNodeId(), 1, Integer::sum);
+        }
+        return counts;
+    }
+    
+    @Test
+    public void testAvailabilityAndWeight() {
+        NodeInfo node = node("a", 0);
+        assertTrue(AbstractNodeSelector.isAvailable(node));
+        assertEquals(AbstractNodeSelector.DEFAULT_WEIGHT, AbstractNodeSelector.weightOf(node));
+        
+        node.setInstanceStatus(null);
+        assertTrue(AbstractNodeSelector.isAvailable(node));
+        node.setInstanceStatus("OUT_OF_SERVICE");
+        assertFalse(AbstractNodeSelector.isAvailable(node));
+        node.setInstanceStatus("UP");
+        node.setHealthyStatus("UNKNOWN");
+        assertFalse(AbstractNodeSelector.isAvailable(node));
+    }
+    
+    @Test
+    public void testNoAvailableNodes() {
+        NodeInfo down = node("a", 1);
+        down.setHealthyStatus("UNHEALTHY");
+        for (NodeSelector selector : Arrays.asList(new SmoothWeightedRoundRobinSelector(),
+                new WeightedRandomSelector(), new PowerOfTwoChoicesSelector())) {
+            assertNull(selector.select(null));
+            assertNull(selector.select(snapshot(1)));
+            assertNull(selector.select(snapshot(2, down)));
+            assertEquals("b", selector.select(snapshot(3, down, node("b", 1))).getNodeId());
+        }
+    }
+    
+    @Test
+    public void testSmoothWeightedRoundRobin() {
+        SmoothWeightedRoundRobinSelector selector = new SmoothWeightedRoundRobinSelector();
+        ServiceSnapshot snapshot = snapshot(1, node("a", 5), node("b", 1), node("c", 1));
+        
+        // nginx 示例：权重 5/1/1 的一个周期为 a a b a c a a
+        StringBuilder sequence = new StringBuilder();
+        for (int i = 0; i < 7; i++) {
+            sequence.append(selector.select(snapshot).getNodeId());
+        }
+        assertEquals("aabacaa", sequence.toString());
+        
+        Map<String, Integer> counts = count(selector, snapshot, 700);
+        assertEquals(500, counts.get("a"));
+        assertEquals(100, counts.get("b"));
+        assertEquals(100, counts.get("c"));
+        assertEquals(1, selector.getRebuildCount());
+    }
+    
+    @Test
+    public void testWeightedRandomDistribution() {
+        WeightedRandomSelector selector = new WeightedRandomSelector();
+        ServiceSnapshot snapshot = snapshot(1, node("a", 0.5), node("b", 1.5), node("c", 8));
+        
+        Map<String, Integer> counts = count(selector, snapshot, 100000);
+        assertEquals(5000, counts.get("a"), 1000);
+        assertEquals(15000, counts.get("b"), 1500);
+        assertEquals(80000, counts.get("c"), 2000);
+        assertEquals(1, selector.getRebuildCount());
+    }
+    
+    @Test
+    public void testWeightedRandomEqualWeights() {
+        WeightedRandomSelector selector = new WeightedRandomSelector();
+        List<NodeInfo> nodes = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            nodes.add(node("n" + i, 3));
+        }
+        Map<String, Integer> counts = count(selector, snapshot(1, nodes.toArray(new NodeInfo[0])), 50000);
+        assertEquals(10, counts.size());
+        for (int value : counts.values()) {
+            assertEquals(5000, value, 600);
+        }
+    }
+    
+    @Test
+    public void testPowerOfTwoChoicesPrefersIdleNode() {
+        PowerOfTwoChoicesSelector selector = new PowerOfTwoChoicesSelector();
+        NodeInfo a = node("a", 1);
+        NodeInfo b = node("b", 1);
+        ServiceSnapshot snapshot = snapshot(1, a, b);
+        
+        // 两个节点时每次都比较两者，在途请求数交替增长
+        for (int i = 0; i < 10; i++) {
+            selector.select(snapshot);
+        }
+        assertEquals(5, selector.getInFlight(a));
+        assertEquals(5, selector.getInFlight(b));
+        
+        for (int i = 0; i < 5; i++) {
+            selector.release(a);
+        }
+        assertEquals(0, selector.getInFlight(a));
+        assertSame(a, selector.select(snapshot));
+        
+        // 计数不低于 0
+        selector.release(a);
+        selector.release(a);
+        assertEquals(0, selector.getInFlight(a));
+    }
+    
+    @Test
+    public void testPowerOfTwoChoicesHonoursWeight() {
+        PowerOfTwoChoicesSelector selector = new PowerOfTwoChoicesSelector();
+        ServiceSnapshot snapshot = snapshot(1, node("a", 3), node("b", 1));
+        Map<String, Integer> counts = count(selector, snapshot, 400);
+        assertEquals(300, counts.get("a"), 2);
+        assertEquals(100, counts.get("b"), 2);
+    }
+    
+    @Test
+    public void testPowerOfTwoChoicesKeepsCountsAcrossVersions() {
+        PowerOfTwoChoicesSelector selector = new PowerOfTwoChoicesSelector();
+        NodeInfo a = node("a", 1);
+        NodeInfo b = node("b", 1);
+        selector.select(snapshot(1, a));
+        assertEquals(1, selector.getInFlight(a));
+        
+        selector.select(snapshot(2, a, b));
+        assertEquals(1, selector.getInFlight(a));
+        assertEquals(1, selector.getInFlight(b));
+        
+        // 下线节点的计数被丢弃
+        selector.select(snapshot(3, b));
+        assertEquals(0, selector.getInFlight(a));
+        selector.release(a);
+        assertEquals(2, selector.getInFlight(b));
+    }
+    
+    @Test
+    public void testPowerOfTwoChoicesOlderSnapshotKeepsCounts() {
+        PowerOfTwoChoicesSelector selector = new PowerOfTwoChoicesSelector();
+        NodeInfo a = node("a", 1);
+        NodeInfo b = node("b", 1);
+        selector.select(snapshot(2, a));
+        selector.select(snapshot(2, a));
+        assertEquals(2, selector.getInFlight(a));
+        
+        // 较旧的快照在本地表上选择，不清理当前表中节点的计数
+        assertEquals("b", selector.select(snapshot(1, b)).getNodeId());
+        assertEquals(2, selector.getInFlight(a));
+        selector.release(a);
+        assertEquals(1, selector.getInFlight(a));
+        
+        // 更新的表发布时才清理已下线节点
+        selector.select(snapshot(3, b));
+        assertEquals(0, selector.getInFlight(a));
+    }
+    
+    @Test
+    public void testOlderSnapshotDoesNotReplaceTable() {
+        SmoothWeightedRoundRobinSelector selector = new SmoothWeightedRoundRobinSelector();
+        ServiceSnapshot newer = snapshot(2, node("a", 1), node("b", 1));
+        ServiceSnapshot older = snapshot(1, node("c", 1));
+        assertEquals("a", selector.select(newer).getNodeId());
+        assertEquals(1, selector.getRebuildCount());
+        
+        assertEquals("c", selector.select(older).getNodeId());
+        assertEquals("c", selector.select(older).getNodeId());
+        assertEquals(1, selector.getRebuildCount());
+        
+        // 已发布的表（包括轮询进度）不受旧快照影响
+        assertEquals("b", selector.select(newer).getNodeId());
+        assertEquals(1, selector.getRebuildCount());
+    }
+    
+    @Test
+    public void testRebuildOnlyOnVersionChange() {
+        SmoothWeightedRoundRobinSelector selector = new SmoothWeightedRoundRobinSelector();
+        ServiceSnapshot first = snapshot(1, node("a", 1));
+        for (int i = 0; i < 100; i++) {
+            selector.select(first);
+        }
+        assertEquals(1, selector.getRebuildCount());
+        
+        ServiceSnapshot second = first.withNode(2, null, node("b", 1));
+        assertEquals("a", selector.select(second).getNodeId());
+        assertEquals("b", selector.select(second).getNodeId());
+        assertEquals(2, selector.getRebuildCount());
+        
+        assertNull(selector.select(first.withNodes(3, null, Collections.emptyList())));
+        assertEquals(3, selector.getRebuildCount());
+    }
+}
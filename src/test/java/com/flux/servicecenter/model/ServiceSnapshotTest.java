@@ -0,0 +1,94 @@
+package com.flux.servicecenter.model;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * ServiceSnapshot 测试类
+ * 
+ * @author shangjian
+ */
+public class ServiceSnapshotTest {
+    
+    private static NodeInfo node(String nodeId, String healthyStatus) {
+        NodeInfo node = new NodeInfo("192.168.1.1", 8080);
+        node.setNodeId(nodeId);
+        node.setHealthyStatus(healthyStatus);
+        return node;
+    }
+    
+    @Test
+    public void testEmpty() {
+        ServiceSnapshot snapshot = ServiceSnapshot.empty("ns1", "g1", "service1");
+        assertEquals(0, snapshot.getVersion());
+        assertEquals(0, snapshot.size());
+        assertNull(snapshot.getService());
+        assertNull(snapshot.toServiceResult());
+        assertEquals(0, snapshot.getTimestamp());
+    }
+    
+    @Test
+    public void testOfCopiesNodes() {
+        List<NodeInfo> nodes = new ArrayList<>();
+        nodes.add(node("n1", "HEALTHY"));
+        nodes.add(node("n2", "UNHEALTHY"));
+        ServiceSnapshot snapshot = ServiceSnapshot.of("ns1", "g1", "service1", 1, null, nodes);
+        
+        // 修改原列表不影响快照，快照列表不可修改
+        nodes.clear();
+        assertEquals(2, snapshot.size());
+        assertThrows(UnsupportedOperationException.class, () -> snapshot.getNodes().clear());
+        assertEquals(1, snapshot.getHealthyNodes().size());
+        assertEquals("n1", snapshot.getHealthyNodes().get(0).getNodeId());
+    }
+    
+    @Test
+    public void testCopyOnWrite() {
+        ServiceInfo service = new ServiceInfo("ns1", "g1", "service1");
+        List<NodeInfo> nodes = new ArrayList<>();
+        nodes.add(node("n1", "HEALTHY"));
+        ServiceSnapshot v1 = ServiceSnapshot.of("ns1", "g1", "service1", 1, service, nodes);
+        
+        ServiceSnapshot v2 = v1.withNode(2, null, node("n2", "HEALTHY"));
+        ServiceSnapshot v3 = v2.withNode(3, null, node("n1", "UNHEALTHY"));
+        ServiceSnapshot v4 = v3.withoutNode(4, null, "n2");
+        
+        // 旧快照保持不变
+        assertEquals(1, v1.size());
+        assertEquals(2, v2.size());
+        assertEquals("HEALTHY", v2.getNodes().get(0).getHealthyStatus());
+        assertEquals("UNHEALTHY", v3.getNodes().get(0).getHealthyStatus());
+        assertSame(v2.getNodes().get(1), v3.getNodes().get(1));
+        assertEquals(1, v4.size());
+        assertEquals(4, v4.getVersion());
+        
+        // 未带服务信息时沿用原服务信息
+        assertSame(service, v4.getService());
+        GetServiceResult result = v4.toServiceResult();
+        assertTrue(result.isSuccess());
+        assertEquals(v4.getNodes(), result.getNodes());
+        
+        // 每次返回新的结果对象，调用方修改互不影响
+        result.setService(null);
+        result.getNodes().clear();
+        assertNotSame(result, v4.toServiceResult());
+        assertNotNull(v4.toServiceResult().getService());
+        assertEquals(v4.size(), v4.toServiceResult().getNodes().size());
+        
+        ServiceInfo updated = new ServiceInfo("ns1", "g1", "service1");
+        ServiceSnapshot v5 = v4.withService(5, updated);
+        assertSame(updated, v5.getService());
+        assertEquals(v4.getNodes(), v5.getNodes());
+    }
+    
+    @Test
+    public void testAllHealthySharesList() {
+        List<NodeInfo> nodes = new ArrayList<>();
+        nodes.add(node("n1", "HEALTHY"));
+        ServiceSnapshot snapshot = ServiceSnapshot.of("ns1", "g1", "service1", 1, null, nodes);
+        assertSame(snapshot.getNodes(), snapshot.getHealthyNodes());
+    }
+}